@@ -58,6 +58,13 @@ protected ExecutorService createExecutor(String displayName, int fixedSize) {
         return Executors.newFixedThreadPool(fixedSize, new ThreadFactoryImpl(displayName));
     }
 
+    @Override
+    public ManagedExecutor createVirtual(String displayName) {
+        TrackedManagedExecutor executor = new TrackedManagedExecutor(VirtualThreads.newThreadPerTaskExecutor(displayName), new ExecutorPolicy.CatchAndRecordFailures());
+        executors.add(executor);
+        return executor;
+    }
+
     @Override
     public ManagedScheduledExecutor createScheduled(String displayName, int fixedSize) {
         ManagedScheduledExecutor executor = new TrackedScheduledManagedExecutor(createScheduledExecutor(displayName, fixedSize), new ExecutorPolicy.CatchAndRecordFailures());
@@ -38,6 +38,18 @@ public interface ExecutorFactory {
      */
     ManagedExecutor create(String displayName, int fixedSize);
 
+    /**
+     * Creates an executor which runs each action on its own virtual thread, so that actions which block are cheap to park. When the current JVM does not
+     * support virtual threads, this behaves the same as {@link #create(String)}. It is the caller's responsibility to stop the executor.
+     *
+     * The executor will collect failures thrown by actions and rethrow when the executor is stopped.
+     *
+     * @param displayName The display name for the this executor. Used for thread names, logging and error message.
+     * @return The executor.
+     * @see VirtualThreads
+     */
+    ManagedExecutor createVirtual(String displayName);
+
     /**
      * Creates a scheduled executor which can run tasks periodically. It is the caller's responsibility to stop the executor.
      *
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.concurrent;
+
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, when the current JVM provides them.
+ *
+ * <p>Gradle still targets JVMs without virtual threads, so the API is looked up reflectively.</p>
+ */
+public class VirtualThreads {
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = lookupExecutorMethod();
+    private static final Object VIRTUAL_THREAD_BUILDER_PROBE = NEW_THREAD_PER_TASK_EXECUTOR == null ? null : newBuilderOrNull();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns true when the current JVM can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREAD_BUILDER_PROBE != null;
+    }
+
+    /**
+     * Creates an executor that runs each action on a new virtual thread. Falls back to a cached pool of platform threads when virtual threads are not supported.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String displayName) {
+        if (!isSupported()) {
+            return Executors.newCachedThreadPool(new ThreadFactoryImpl(displayName));
+        }
+        try {
+            Object builder = newBuilderOrNull();
+            builder = builder.getClass().getMethod("name", String.class, long.class).invoke(builder, displayName + " Virtual Thread ", 1L);
+            ThreadFactory virtualThreadFactory = (ThreadFactory) builder.getClass().getMethod("factory").invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, new ManagedThreadFactory(virtualThreadFactory));
+        } catch (InvocationTargetException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Nullable
+    private static Method lookupExecutorMethod() {
+        try {
+            return Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object newBuilderOrNull() {
+        try {
+            // Throws UnsupportedOperationException on JVMs where virtual threads are a disabled preview feature
+            return Thread.class.getMethod("ofVirtual").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static class ManagedThreadFactory implements ThreadFactory {
+        private final ThreadFactory delegate;
+
+        ManagedThreadFactory(ThreadFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            return delegate.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    GradleThread.setManaged();
+                    r.run();
+                }
+            });
+        }
+    }
+}
@@ -258,6 +258,33 @@ public <T> T withoutLocks(Iterable<? extends ResourceLock> locks, Factory<T> fac
         }
     }
 
+    @Override
+    public <T> T blocking(Factory<T> factory) {
+        final List<ResourceLock> workerLeases = Lists.newArrayList();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                for (ResourceLock lock : workerLeaseLockRegistry.getResourceLocksByCurrentThread()) {
+                    // A lease cannot be released while its children are running, they hold part of it
+                    if (lock.isLockedByCurrentThread() && ((DefaultWorkerLease) lock).children == 0) {
+                        workerLeases.add(lock);
+                    }
+                }
+                return FINISHED;
+            }
+        });
+        if (workerLeases.isEmpty()) {
+            return factory.create();
+        }
+
+        releaseLocks(workerLeases);
+        try {
+            return factory.create();
+        } finally {
+            acquireLocks(workerLeases);
+        }
+    }
+
     private void releaseWorkerLeaseAndWaitFor(Iterable<? extends ResourceLock> locks) {
         WorkerLease workerLease = getCurrentWorkerLease();
         List<ResourceLock> allLocks = Lists.newArrayList();
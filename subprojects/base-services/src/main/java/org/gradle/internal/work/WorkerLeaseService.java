@@ -54,4 +54,14 @@ public interface WorkerLeaseService extends WorkerLeaseRegistry, ProjectLeaseReg
      * and the method will block until the locks are reacquired.
      */
     void withoutLocks(Iterable<? extends ResourceLock> locks, Runnable runnable);
+
+    /**
+     * Runs a given {@link Factory} that is expected to spend most of its time waiting on some external resource, such as the network or another process,
+     * with the worker lease of the current thread released. This allows other work to use the lease while this thread waits. The worker lease is reacquired
+     * upon completion, blocking until a lease is available. Other locks held by the current thread are retained.
+     *
+     * <p>A worker lease that has child leases in progress is kept, as the children run on its behalf. When the current thread holds no worker lease
+     * that can be released, the factory is simply run.</p>
+     */
+    <T> T blocking(Factory<T> factory);
 }
@@ -358,6 +358,112 @@ class DefaultWorkerLeaseServiceWorkerLeaseTest extends ConcurrentSpec {
         noExceptionThrown()
     }
 
+    def "blocking action releases worker lease while it runs"() {
+        def registry = workerLeaseService(1)
+
+        when:
+        async {
+            start {
+                def cl = registry.getWorkerLease().start()
+                registry.blocking {
+                    instant.blocked
+                    thread.blockUntil.worker2
+                }
+                instant.worker1Finished
+                cl.leaseFinish()
+            }
+            start {
+                thread.blockUntil.blocked
+                def cl = registry.getWorkerLease().start()
+                instant.worker2
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        instant.worker2 < instant.worker1Finished
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "blocking action waits for a worker lease to become available before returning"() {
+        def registry = workerLeaseService(1)
+
+        when:
+        async {
+            start {
+                def cl = registry.getWorkerLease().start()
+                registry.blocking {
+                    instant.blocked
+                    thread.blockUntil.worker2Started
+                }
+                instant.worker1Finished
+                cl.leaseFinish()
+            }
+            start {
+                thread.blockUntil.blocked
+                def cl = registry.getWorkerLease().start()
+                instant.worker2Started
+                thread.block()
+                instant.worker2Finished
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        instant.worker1Finished > instant.worker2Finished
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "blocking action keeps a worker lease whose children are still running"() {
+        def registry = workerLeaseService(1)
+        def leaseHeld = null
+
+        when:
+        async {
+            start {
+                def cl = registry.getWorkerLease().start()
+                def op = registry.currentWorkerLease
+                start {
+                    def child = op.startChild()
+                    instant.childStarted
+                    thread.blockUntil.blockingFinished
+                    child.leaseFinish()
+                    instant.childFinished
+                }
+                thread.blockUntil.childStarted
+                registry.blocking {
+                    leaseHeld = op.isLockedByCurrentThread()
+                }
+                instant.blockingFinished
+                thread.blockUntil.childFinished
+                cl.leaseFinish()
+            }
+        }
+
+        then:
+        leaseHeld
+
+        cleanup:
+        registry?.stop()
+    }
+
+    def "blocking action runs when current thread has no worker lease"() {
+        def registry = workerLeaseService(1)
+
+        when:
+        def result = registry.blocking { "result" }
+
+        then:
+        result == "result"
+
+        cleanup:
+        registry?.stop()
+    }
+
     WorkerLeaseService workerLeaseService(int maxWorkers) {
         return new DefaultWorkerLeaseService(coordinationService, new DefaultParallelismConfiguration(true, maxWorkers))
     }
@@ -23,8 +23,11 @@ import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
 import org.gradle.caching.local.internal.LocalBuildCacheService
+import org.gradle.internal.Factory
 import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.work.TestWorkerLeaseService
 import spock.lang.Specification
 import org.junit.Rule
 
@@ -77,6 +80,7 @@ class DefaultBuildCacheControllerTest extends Specification {
     }
 
     def operations = new TestBuildOperationExecutor()
+    def workerLeaseService = new TestWorkerLeaseService()
 
     @Rule
     final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
@@ -92,6 +96,7 @@ class DefaultBuildCacheControllerTest extends Specification {
                 remotePush
             ),
             operations,
+            workerLeaseService,
             tmpDir.file("dir"),
             false,
             false,
@@ -177,6 +182,38 @@ class DefaultBuildCacheControllerTest extends Specification {
         1 * local.storeLocally(key, _)
     }
 
+    def "remote load and store run without the worker lease"() {
+        given:
+        def blocking = false
+        def loadedWhileBlocking = false
+        def storedWhileBlocking = false
+        workerLeaseService = Mock(WorkerLeaseService)
+        _ * workerLeaseService.blocking(_) >> { Factory factory ->
+            blocking = true
+            try {
+                factory.create()
+            } finally {
+                blocking = false
+            }
+        }
+
+        when:
+        controller.load(loadCommand)
+        controller.store(storeCommand)
+
+        then:
+        1 * local.loadLocally(key, _) // miss
+        1 * remote.load(key, _) >> {
+            loadedWhileBlocking = blocking
+            false
+        }
+        1 * remote.store(key, _) >> {
+            storedWhileBlocking = blocking
+        }
+        loadedWhileBlocking
+        storedWhileBlocking
+    }
+
     def "remote load does not store to local if local is disabled"() {
         given:
         local = null
@@ -75,6 +75,36 @@ public interface Result {
          * @since 5.6
          */
         AttributeContainer getRequestedAttributes();
+
+        /**
+         * How many cached external resources, such as module metadata files, were used without contacting a repository during the resolution.
+         * @since 6.8
+         */
+        long getCachedResourceHitCount();
+
+        /**
+         * How many expired cached external resources a repository confirmed as unchanged during the resolution.
+         * @since 6.8
+         */
+        long getCachedResourceRevalidatedCount();
+
+        /**
+         * How many expired cached external resources were downloaded again during the resolution.
+         * @since 6.8
+         */
+        long getCachedResourceRefreshedCount();
+
+        /**
+         * How many times dependency graph nodes were visited while traversing the graph of the resolution.
+         * @since 6.8
+         */
+        long getNodesVisitedCount();
+
+        /**
+         * How many of the visits were for nodes visited before, typically because the selected version of a module changed after a conflict.
+         * @since 6.8
+         */
+        long getNodesRevisitedCount();
     }
 
     /**
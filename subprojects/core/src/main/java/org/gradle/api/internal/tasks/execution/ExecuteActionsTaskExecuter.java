@@ -66,6 +66,7 @@
 import org.gradle.internal.execution.history.AfterPreviousExecutionState;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 import org.gradle.internal.execution.history.changes.InputChangesInternal;
+import org.gradle.internal.execution.impl.InputFingerprintUtil;
 import org.gradle.internal.file.ReservedFileSystemLocationRegistry;
 import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
 import org.gradle.internal.fingerprint.FileCollectionFingerprint;
@@ -315,9 +316,9 @@ public void visitInputs(InputVisitor visitor) {
                         ? InputPropertyType.INCREMENTAL
                         : InputPropertyType.NON_INCREMENTAL;
                 String propertyName = inputFileProperty.getPropertyName();
-                visitor.visitInputFileProperty(propertyName, type, NON_IDENTITY, value, () -> {
+                visitor.visitInputFileProperty(propertyName, type, NON_IDENTITY, value, (InputFingerprintUtil.ResolvingFingerprinter) () -> {
                     FileCollectionFingerprinter fingerprinter = fingerprinterRegistry.getFingerprinter(inputFileProperty.getNormalizer());
-                    return fingerprinter.fingerprint(inputFileProperty.getPropertyFiles());
+                    return fingerprinter.prepareFingerprint(inputFileProperty.getPropertyFiles());
                 });
             }
         }
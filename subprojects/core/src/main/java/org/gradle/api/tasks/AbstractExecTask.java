@@ -20,6 +20,7 @@
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.process.CommandLineArgumentProvider;
 import org.gradle.process.ExecResult;
 import org.gradle.process.ExecSpec;
@@ -67,7 +68,8 @@ protected ExecActionFactory getExecActionFactory() {
     protected void exec() {
         ExecAction execAction = getExecActionFactory().newExecAction();
         execSpec.copyTo(execAction);
-        execResult.set(execAction.execute());
+        // Waiting on the process leaves the worker lease free for other work
+        execResult.set(getServices().get(WorkerLeaseService.class).blocking(execAction::execute));
     }
 
     /**
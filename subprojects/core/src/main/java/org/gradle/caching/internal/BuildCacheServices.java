@@ -57,6 +57,7 @@
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.internal.vfs.FileSystemAccess;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.GradleVersion;
 import org.gradle.util.Path;
 
@@ -189,6 +190,7 @@ private BuildCacheController doCreateBuildCacheController(ServiceRegistry servic
 
                 return BuildCacheControllerFactory.create(
                     buildOperationExecutor,
+                    serviceRegistry.get(WorkerLeaseService.class),
                     buildIdentityPath,
                     gradleUserHomeDir,
                     buildCacheConfiguration,
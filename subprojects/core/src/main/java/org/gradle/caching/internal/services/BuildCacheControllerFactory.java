@@ -37,6 +37,7 @@
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,7 @@ public enum RemoteAccessMode {
 
     public static BuildCacheController create(
         final BuildOperationExecutor buildOperationExecutor,
+        final WorkerLeaseService workerLeaseService,
         final Path buildIdentityPath,
         final File gradleUserHomeDir,
         final BuildCacheConfigurationInternal buildCacheConfiguration,
@@ -120,6 +122,7 @@ public BuildCacheController call(BuildOperationContext context) {
                     return new DefaultBuildCacheController(
                         config,
                         buildOperationExecutor,
+                        workerLeaseService,
                         gradleUserHomeDir,
                         logStackTraces,
                         emitDebugLogging,
@@ -34,6 +34,9 @@
 import org.gradle.internal.Pair;
 import org.gradle.internal.graph.CachingDirectedGraphWalker;
 import org.gradle.internal.graph.DirectedGraphRenderer;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.resources.ResourceLock;
 import org.gradle.internal.resources.ResourceLockState;
@@ -76,6 +79,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
     private final FailureCollector failureCollector = new FailureCollector();
     private final TaskNodeFactory taskNodeFactory;
     private final TaskDependencyResolver dependencyResolver;
+    private final ExecutionPlanOrderCache orderCache;
     private Spec<? super Task> filter = Specs.satisfyAll();
 
     private boolean continueOnFailure;
@@ -85,15 +89,17 @@ public class DefaultExecutionPlan implements ExecutionPlan {
     private final Set<Node> producedButNotYetConsumed = newIdentityHashSet();
     private final Map<Pair<Node, Node>, Boolean> reachableCache = new HashMap<>();
     private final List<Node> dependenciesWhichRequireMonitoring = new ArrayList<>();
+    private final List<GraphEdge> removedShouldRunAfterEdges = new ArrayList<>();
     private boolean maybeNodesReady;
     private final GradleInternal gradle;
 
     private boolean buildCancelled;
 
-    public DefaultExecutionPlan(GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver) {
+    public DefaultExecutionPlan(GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver, ExecutionPlanOrderCache orderCache) {
         this.gradle = gradle;
         this.taskNodeFactory = taskNodeFactory;
         this.dependencyResolver = dependencyResolver;
+        this.orderCache = orderCache;
     }
 
     @Override
@@ -241,6 +247,17 @@ private void requireWithDependencies(Node node) {
     }
 
     public void determineExecutionPlan() {
+        Map<String, Node> nodesByIdentity = new HashMap<>();
+        HashCode graphSignature = calculateGraphSignature(nodesByIdentity);
+        if (graphSignature != null) {
+            ExecutionPlanOrderCache.OrderedPlan retainedPlan = orderCache.get(gradle.getIdentityPath(), graphSignature);
+            if (retainedPlan != null) {
+                LOGGER.debug("Reusing execution plan ordering of previous build for {}.", getDisplayName());
+                applyRetainedOrder(retainedPlan, nodesByIdentity);
+                return;
+            }
+        }
+
         LinkedList<NodeInVisitingSegment> nodeQueue = newLinkedList(
             Iterables.transform(entryNodes, new Function<Node, NodeInVisitingSegment>() {
                 private int index;
@@ -294,6 +311,7 @@ public NodeInVisitingSegment apply(Node node) {
                             TaskNode sourceTask = (TaskNode) toBeRemoved.from;
                             TaskNode targetTask = (TaskNode) toBeRemoved.to;
                             sourceTask.removeShouldSuccessor(targetTask);
+                            removedShouldRunAfterEdges.add(toBeRemoved);
                             restorePath(path, toBeRemoved);
                             restoreQueue(nodeQueue, visitingNodes, toBeRemoved);
                             restoreExecutionPlan(planBeforeVisiting, toBeRemoved);
@@ -311,20 +329,11 @@ public NodeInVisitingSegment apply(Node node) {
                 maybeRemoveProcessedShouldRunAfterEdge(walkedShouldRunAfterEdges, node);
                 visitingNodes.remove(node, currentSegment);
                 path.pop();
-                nodeMapping.add(node);
+                addToPlan(node);
                 if (node.requiresMonitoring()) {
                     dependenciesWhichRequireMonitoring.add(node);
                 }
 
-                for (Node dependency : node.getDependencySuccessors()) {
-                    dependency.getMutationInfo().consumingNodes.add(node);
-                }
-
-                ResourceLock projectLock = node.getProjectToLock();
-                if (projectLock != null) {
-                    projectLocks.add(projectLock);
-                }
-
                 // Add any finalizers to the queue
                 for (Node finalizer : node.getFinalizers()) {
                     if (!visitingNodes.containsKey(finalizer)) {
@@ -334,6 +343,26 @@ public NodeInVisitingSegment apply(Node node) {
                 }
             }
         }
+        if (graphSignature != null) {
+            retainOrder(graphSignature);
+        }
+        finishExecutionPlan(dependenciesWhichRequireMonitoring);
+    }
+
+    private void addToPlan(Node node) {
+        nodeMapping.add(node);
+
+        for (Node dependency : node.getDependencySuccessors()) {
+            dependency.getMutationInfo().consumingNodes.add(node);
+        }
+
+        ResourceLock projectLock = node.getProjectToLock();
+        if (projectLock != null) {
+            projectLocks.add(projectLock);
+        }
+    }
+
+    private void finishExecutionPlan(Set<Node> dependenciesWhichRequireMonitoring) {
         executionQueue.clear();
         dependencyResolver.clear();
         nodeMapping.removeIf(Node::requiresMonitoring);
@@ -344,6 +373,94 @@ public NodeInVisitingSegment apply(Node node) {
         this.dependenciesWhichRequireMonitoring.addAll(dependenciesWhichRequireMonitoring);
     }
 
+    /**
+     * Calculates a signature of the shape of the graph reachable from the entry nodes, which identifies the graph across builds.
+     *
+     * @return the signature, or null when the ordering of this graph cannot be retained.
+     */
+    @Nullable
+    private HashCode calculateGraphSignature(Map<String, Node> nodesByIdentity) {
+        if (!nodeMapping.isEmpty()) {
+            return null;
+        }
+        Hasher hasher = Hashing.newHasher();
+        Deque<Node> queue = new ArrayDeque<>(entryNodes);
+        Set<Node> seen = new HashSet<>(entryNodes);
+        hasher.putInt(entryNodes.size());
+        while (!queue.isEmpty()) {
+            Node node = queue.removeFirst();
+            String identity = identityOf(node);
+            if (identity == null) {
+                // Only task nodes have an identity that is stable across builds
+                return null;
+            }
+            nodesByIdentity.put(identity, node);
+            hasher.putString(identity);
+            hasher.putBoolean(node.isIncludeInGraph());
+            if (!node.isIncludeInGraph()) {
+                continue;
+            }
+            TaskNode taskNode = (TaskNode) node;
+            if (!putSuccessors(hasher, taskNode.getDependencySuccessors(), queue, seen)
+                || !putSuccessors(hasher, taskNode.getMustSuccessors(), queue, seen)
+                || !putSuccessors(hasher, taskNode.getShouldSuccessors(), queue, seen)
+                || !putSuccessors(hasher, taskNode.getFinalizingSuccessors(), queue, seen)
+                || !putSuccessors(hasher, taskNode.getFinalizers(), queue, seen)) {
+                return null;
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static boolean putSuccessors(Hasher hasher, Set<Node> successors, Deque<Node> queue, Set<Node> seen) {
+        hasher.putInt(successors.size());
+        for (Node successor : successors) {
+            String identity = identityOf(successor);
+            if (identity == null) {
+                return false;
+            }
+            hasher.putString(identity);
+            if (seen.add(successor)) {
+                queue.addLast(successor);
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static String identityOf(Node node) {
+        if (node instanceof LocalTaskNode) {
+            return ((LocalTaskNode) node).getTask().getIdentityPath().getPath();
+        }
+        return null;
+    }
+
+    private void retainOrder(HashCode graphSignature) {
+        List<String> nodeOrder = new ArrayList<>(nodeMapping.size());
+        for (Node node : nodeMapping) {
+            nodeOrder.add(identityOf(node));
+        }
+        List<String> removedEdges = new ArrayList<>(removedShouldRunAfterEdges.size() * 2);
+        for (GraphEdge edge : removedShouldRunAfterEdges) {
+            removedEdges.add(identityOf(edge.from));
+            removedEdges.add(identityOf(edge.to));
+        }
+        orderCache.put(gradle.getIdentityPath(), new ExecutionPlanOrderCache.OrderedPlan(graphSignature, nodeOrder, removedEdges));
+    }
+
+    private void applyRetainedOrder(ExecutionPlanOrderCache.OrderedPlan retainedPlan, Map<String, Node> nodesByIdentity) {
+        List<String> removedEdges = retainedPlan.getRemovedShouldRunAfterEdges();
+        for (int i = 0; i < removedEdges.size(); i += 2) {
+            TaskNode sourceTask = (TaskNode) nodesByIdentity.get(removedEdges.get(i));
+            TaskNode targetTask = (TaskNode) nodesByIdentity.get(removedEdges.get(i + 1));
+            sourceTask.removeShouldSuccessor(targetTask);
+        }
+        for (String identity : retainedPlan.getNodeOrder()) {
+            addToPlan(nodesByIdentity.get(identity));
+        }
+        finishExecutionPlan(Collections.emptySet());
+    }
+
     private void maybeRemoveProcessedShouldRunAfterEdge(Deque<GraphEdge> walkedShouldRunAfterEdges, Node node) {
         GraphEdge edge = walkedShouldRunAfterEdges.peek();
         if (edge != null && edge.to.equals(node)) {
@@ -379,10 +496,14 @@ private void removeShouldRunAfterSuccessorsIfTheyImposeACycle(final HashMultimap
         if (!(node instanceof TaskNode)) {
             return;
         }
-        Iterables.removeIf(
-            ((TaskNode) node).getShouldSuccessors(),
-            input -> visitingNodes.containsEntry(input, nodeWithVisitingSegment.visitingSegment)
-        );
+        Iterator<Node> shouldSuccessors = ((TaskNode) node).getShouldSuccessors().iterator();
+        while (shouldSuccessors.hasNext()) {
+            Node shouldSuccessor = shouldSuccessors.next();
+            if (visitingNodes.containsEntry(shouldSuccessor, nodeWithVisitingSegment.visitingSegment)) {
+                shouldSuccessors.remove();
+                removedShouldRunAfterEdges.add(new GraphEdge(node, shouldSuccessor));
+            }
+        }
     }
 
     private void takePlanSnapshotIfCanBeRestoredToCurrentTask(Map<Node, Integer> planBeforeVisiting, Node node) {
@@ -478,6 +599,7 @@ public void clear() {
         dependencyResolver.clear();
         entryNodes.clear();
         nodeMapping.clear();
+        removedShouldRunAfterEdges.clear();
         executionQueue.clear();
         projectLocks.clear();
         failureCollector.clearFailures();
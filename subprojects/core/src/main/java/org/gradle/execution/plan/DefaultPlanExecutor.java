@@ -43,14 +43,25 @@
 
 @NonNullApi
 public class DefaultPlanExecutor implements PlanExecutor {
+    /**
+     * Opt-in switch to run the execution workers on virtual threads, when the JVM supports them.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "org.gradle.internal.plan.executor.virtual-threads";
+    /**
+     * The number of virtual thread workers started for each worker lease. A worker can only execute a node while it holds a worker lease, so the additional
+     * workers only pick up work when a node releases its lease while blocked, see {@link WorkerLeaseService#blocking(org.gradle.internal.Factory)}.
+     */
+    private static final int VIRTUAL_WORKERS_PER_LEASE = 2;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultPlanExecutor.class);
     private final int executorCount;
+    private final boolean useVirtualThreads;
     private final ExecutorFactory executorFactory;
     private final WorkerLeaseService workerLeaseService;
     private final BuildCancellationToken cancellationToken;
     private final ResourceLockCoordinationService coordinationService;
 
-    public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, BuildCancellationToken cancellationToken, ResourceLockCoordinationService coordinationService) {
+    public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, BuildCancellationToken cancellationToken, ResourceLockCoordinationService coordinationService, boolean useVirtualThreads) {
         this.executorFactory = executorFactory;
         this.cancellationToken = cancellationToken;
         this.coordinationService = coordinationService;
@@ -61,11 +72,13 @@ public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, Ex
 
         this.executorCount = numberOfParallelExecutors;
         this.workerLeaseService = workerLeaseService;
+        this.useVirtualThreads = useVirtualThreads;
     }
 
     @Override
     public void process(ExecutionPlan executionPlan, Collection<? super Throwable> failures, Action<Node> nodeExecutor) {
-        ManagedExecutor executor = executorFactory.create("Execution worker for '" + executionPlan.getDisplayName() + "'");
+        String displayName = "Execution worker for '" + executionPlan.getDisplayName() + "'";
+        ManagedExecutor executor = useVirtualThreads ? executorFactory.createVirtual(displayName) : executorFactory.create(displayName);
         try {
             WorkerLease parentWorkerLease = workerLeaseService.getCurrentWorkerLease();
             startAdditionalWorkers(executionPlan, nodeExecutor, executor, parentWorkerLease);
@@ -91,9 +104,10 @@ private void awaitCompletion(final ExecutionPlan executionPlan, final Collection
     }
 
     private void startAdditionalWorkers(ExecutionPlan executionPlan, Action<? super Node> nodeExecutor, Executor executor, WorkerLease parentWorkerLease) {
-        LOGGER.debug("Using {} parallel executor threads", executorCount);
+        int workerCount = useVirtualThreads ? executorCount * VIRTUAL_WORKERS_PER_LEASE : executorCount;
+        LOGGER.debug("Using {} parallel executor {}threads", workerCount, useVirtualThreads ? "virtual " : "");
 
-        for (int i = 1; i < executorCount; i++) {
+        for (int i = 1; i < workerCount; i++) {
             executor.execute(new ExecutorWorker(executionPlan, nodeExecutor, parentWorkerLease, cancellationToken, coordinationService));
         }
     }
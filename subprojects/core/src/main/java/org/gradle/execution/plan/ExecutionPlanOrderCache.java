@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.service.scopes.Scopes;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.util.Path;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retains the node ordering calculated by {@link DefaultExecutionPlan#determineExecutionPlan()} for the builds of a build session.
+ *
+ * <p>In continuous mode every build in the session usually schedules exactly the same task graph. When the graph of the next build has the same shape,
+ * identified by its {@link #get(Path, HashCode) signature}, the plan reuses the retained ordering instead of recalculating it.</p>
+ */
+@ServiceScope(Scopes.BuildSession.class)
+public class ExecutionPlanOrderCache {
+    private final Map<Path, OrderedPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the ordering retained for the given build, if the graph it was calculated for has the given signature.
+     */
+    @Nullable
+    public OrderedPlan get(Path buildIdentityPath, HashCode graphSignature) {
+        OrderedPlan plan = plans.get(buildIdentityPath);
+        if (plan == null || !plan.getGraphSignature().equals(graphSignature)) {
+            return null;
+        }
+        return plan;
+    }
+
+    public void put(Path buildIdentityPath, OrderedPlan plan) {
+        plans.put(buildIdentityPath, plan);
+    }
+
+    /**
+     * An execution plan ordering, where nodes are identified by the identity path of their task.
+     */
+    public static class OrderedPlan {
+        private final HashCode graphSignature;
+        private final List<String> nodeOrder;
+        private final List<String> removedShouldRunAfterEdges;
+
+        /**
+         * @param removedShouldRunAfterEdges pairs of source and target nodes of the should run after edges which were removed to break ordering cycles, flattened.
+         */
+        public OrderedPlan(HashCode graphSignature, List<String> nodeOrder, List<String> removedShouldRunAfterEdges) {
+            this.graphSignature = graphSignature;
+            this.nodeOrder = ImmutableList.copyOf(nodeOrder);
+            this.removedShouldRunAfterEdges = ImmutableList.copyOf(removedShouldRunAfterEdges);
+        }
+
+        public HashCode getGraphSignature() {
+            return graphSignature;
+        }
+
+        public List<String> getNodeOrder() {
+            return nodeOrder;
+        }
+
+        public List<String> getRemovedShouldRunAfterEdges() {
+            return removedShouldRunAfterEdges;
+        }
+    }
+}
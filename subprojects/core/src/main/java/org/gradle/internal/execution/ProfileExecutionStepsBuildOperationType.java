@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution;
+
+import org.gradle.internal.execution.steps.StepProfiler;
+import org.gradle.internal.operations.BuildOperationType;
+
+import java.util.List;
+
+/**
+ * Publishes the statistics recorded by the {@link StepProfiler} at the end of the build.
+ */
+public class ProfileExecutionStepsBuildOperationType implements BuildOperationType<ProfileExecutionStepsBuildOperationType.Details, ProfileExecutionStepsBuildOperationType.Result> {
+
+    public interface Details {
+
+        String getBuildPath();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The cost of each step, per type of unit of work.
+         */
+        List<StepCost> getStatistics();
+
+    }
+
+    /**
+     * The aggregated cost of a step for one type of unit of work.
+     */
+    public interface StepCost {
+
+        String getWorkType();
+
+        String getStepName();
+
+        long getExecutionCount();
+
+        long getWallTimeNanos();
+
+        /**
+         * CPU time of the executing threads, or 0 when the JVM does not support measuring it.
+         */
+        long getCpuTimeNanos();
+
+        /**
+         * Bytes allocated by the executing threads, or 0 when the JVM does not support measuring it.
+         */
+        long getAllocatedBytes();
+
+    }
+
+    private ProfileExecutionStepsBuildOperationType() {
+    }
+}
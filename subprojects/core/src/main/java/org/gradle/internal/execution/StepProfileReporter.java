@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution;
+
+import org.gradle.BuildResult;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.InternalBuildAdapter;
+import org.gradle.internal.execution.steps.StepProfiler;
+import org.gradle.internal.logging.ConsoleRenderer;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the statistics recorded by the {@link StepProfiler} when the build finishes, as a build operation and as a JSON report.
+ */
+public class StepProfileReporter extends InternalBuildAdapter {
+    private static final Logger LOGGER = Logging.getLogger(StepProfileReporter.class);
+    private static final String FILE_DATE_FORMAT = "yyyy-MM-dd-HH-mm-ss";
+
+    private final StepProfiler stepProfiler;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private String buildPath = ":";
+    private File buildDir;
+
+    public StepProfileReporter(StepProfiler stepProfiler, BuildOperationExecutor buildOperationExecutor) {
+        this.stepProfiler = stepProfiler;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public void projectsEvaluated(Gradle gradle) {
+        buildPath = ((GradleInternal) gradle).getIdentityPath().getPath();
+        buildDir = gradle.getRootProject().getBuildDir();
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        List<StepProfiler.StepStatistics> statistics = stepProfiler.getStatistics();
+        stepProfiler.reset();
+        if (statistics.isEmpty()) {
+            return;
+        }
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                List<ProfileExecutionStepsBuildOperationType.StepCost> costs = statistics.stream()
+                    .map(StepProfileReporter::toStepCost)
+                    .collect(Collectors.toList());
+                context.setResult((ProfileExecutionStepsBuildOperationType.Result) () -> costs);
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Profile execution steps")
+                    .details((ProfileExecutionStepsBuildOperationType.Details) () -> buildPath);
+            }
+        });
+        if (buildDir != null) {
+            File reportFile = new File(buildDir, "reports/execution-profile/step-profile-" + new SimpleDateFormat(FILE_DATE_FORMAT).format(new Date()) + ".json");
+            writeReport(statistics, reportFile);
+            LOGGER.lifecycle("See the execution step profile at: {}", new ConsoleRenderer().asClickableFileUrl(reportFile));
+        }
+    }
+
+    private static ProfileExecutionStepsBuildOperationType.StepCost toStepCost(StepProfiler.StepStatistics statistics) {
+        return new ProfileExecutionStepsBuildOperationType.StepCost() {
+            @Override
+            public String getWorkType() {
+                return statistics.getWorkType();
+            }
+
+            @Override
+            public String getStepName() {
+                return statistics.getStepName();
+            }
+
+            @Override
+            public long getExecutionCount() {
+                return statistics.getExecutionCount();
+            }
+
+            @Override
+            public long getWallTimeNanos() {
+                return statistics.getWallTimeNanos();
+            }
+
+            @Override
+            public long getCpuTimeNanos() {
+                return statistics.getCpuTimeNanos();
+            }
+
+            @Override
+            public long getAllocatedBytes() {
+                return statistics.getAllocatedBytes();
+            }
+        };
+    }
+
+    private static void writeReport(List<StepProfiler.StepStatistics> statistics, File reportFile) {
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8))) {
+                writer.println("[");
+                for (int i = 0; i < statistics.size(); i++) {
+                    StepProfiler.StepStatistics stepStatistics = statistics.get(i);
+                    writer.print("  {");
+                    writer.print("\"workType\": \"" + stepStatistics.getWorkType() + "\", ");
+                    writer.print("\"step\": \"" + stepStatistics.getStepName() + "\", ");
+                    writer.print("\"executions\": " + stepStatistics.getExecutionCount() + ", ");
+                    writer.print("\"wallTimeNanos\": " + stepStatistics.getWallTimeNanos() + ", ");
+                    writer.print("\"cpuTimeNanos\": " + stepStatistics.getCpuTimeNanos() + ", ");
+                    writer.print("\"allocatedBytes\": " + stepStatistics.getAllocatedBytes());
+                    writer.println(i < statistics.size() - 1 ? "}," : "}");
+                }
+                writer.println("]");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write execution step profile to " + reportFile, e);
+        }
+    }
+}
@@ -20,6 +20,8 @@
 import org.gradle.internal.snapshot.CompleteFileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 
+import java.util.function.Supplier;
+
 public interface FileCollectionFingerprinter {
     /**
      * The type used to refer to this fingerprinter in the {@link FileCollectionFingerprinterRegistry}.
@@ -31,6 +33,11 @@ public interface FileCollectionFingerprinter {
      */
     CurrentFileCollectionFingerprint fingerprint(FileCollection files);
 
+    /**
+     * Resolves the given collection on the calling thread, and returns a supplier for its fingerprint which can be called from any thread.
+     */
+    Supplier<CurrentFileCollectionFingerprint> prepareFingerprint(FileCollection files);
+
     /**
      * Creates a fingerprint of the contents of the given roots.
      */
@@ -20,6 +20,7 @@
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service for snapshotting {@link FileCollection}s.
@@ -29,4 +30,10 @@ public interface FileCollectionSnapshotter {
      * Returns snapshots of the roots of a file collection.
      */
     List<FileSystemSnapshot> snapshot(FileCollection fileCollection);
+
+    /**
+     * Resolves the structure of a file collection on the calling thread, and returns a supplier for the snapshots of its roots.
+     * The supplier only accesses the file system, so it can be called from any thread.
+     */
+    Supplier<List<FileSystemSnapshot>> prepareSnapshot(FileCollection fileCollection);
 }
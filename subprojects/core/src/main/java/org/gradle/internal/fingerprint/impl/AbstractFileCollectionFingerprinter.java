@@ -27,6 +27,7 @@
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Responsible for calculating a {@link FileCollectionFingerprint} for a particular {@link FileCollection}.
@@ -48,6 +49,12 @@ public CurrentFileCollectionFingerprint fingerprint(FileCollection files) {
         return DefaultCurrentFileCollectionFingerprint.from(roots, fingerprintingStrategy);
     }
 
+    @Override
+    public Supplier<CurrentFileCollectionFingerprint> prepareFingerprint(FileCollection files) {
+        Supplier<List<FileSystemSnapshot>> roots = fileCollectionSnapshotter.prepareSnapshot(files);
+        return () -> DefaultCurrentFileCollectionFingerprint.from(roots.get(), fingerprintingStrategy);
+    }
+
     @Override
     public CurrentFileCollectionFingerprint fingerprint(Iterable<? extends FileSystemSnapshot> roots) {
         return DefaultCurrentFileCollectionFingerprint.from(roots, fingerprintingStrategy);
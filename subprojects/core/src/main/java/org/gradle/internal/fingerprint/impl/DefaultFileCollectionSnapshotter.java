@@ -16,6 +16,7 @@
 
 package org.gradle.internal.fingerprint.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.file.FileCollectionInternal;
 import org.gradle.api.internal.file.FileCollectionStructureVisitor;
@@ -32,6 +33,8 @@
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshotter {
     private final FileSystemAccess fileSystemAccess;
@@ -46,30 +49,49 @@ public DefaultFileCollectionSnapshotter(FileSystemAccess fileSystemAccess, Gener
 
     @Override
     public List<FileSystemSnapshot> snapshot(FileCollection fileCollection) {
+        return prepareSnapshot(fileCollection).get();
+    }
+
+    @Override
+    public Supplier<List<FileSystemSnapshot>> prepareSnapshot(FileCollection fileCollection) {
         SnapshottingVisitor visitor = new SnapshottingVisitor();
         ((FileCollectionInternal) fileCollection).visitStructure(visitor);
-        return visitor.getRoots();
+        List<Consumer<List<FileSystemSnapshot>>> rootSnapshotters = visitor.getRootSnapshotters();
+        return () -> {
+            List<FileSystemSnapshot> roots = new ArrayList<>();
+            for (Consumer<List<FileSystemSnapshot>> rootSnapshotter : rootSnapshotters) {
+                rootSnapshotter.accept(roots);
+            }
+            return roots;
+        };
     }
 
-
+    /**
+     * Collects how to snapshot each root of a file collection.
+     * Anything that may run build logic, like iterating the contents of a collection or walking a generic file tree, happens during the visit.
+     */
     private class SnapshottingVisitor implements FileCollectionStructureVisitor {
-        private final List<FileSystemSnapshot> roots = new ArrayList<>();
+        private final List<Consumer<List<FileSystemSnapshot>>> rootSnapshotters = new ArrayList<>();
 
         @Override
         public void visitCollection(FileCollectionInternal.Source source, Iterable<File> contents) {
-            for (File file : contents) {
-                fileSystemAccess.read(file.getAbsolutePath(), roots::add);
-            }
+            List<File> files = ImmutableList.copyOf(contents);
+            rootSnapshotters.add(roots -> {
+                for (File file : files) {
+                    fileSystemAccess.read(file.getAbsolutePath(), roots::add);
+                }
+            });
         }
 
         @Override
         public void visitGenericFileTree(FileTreeInternal fileTree, FileSystemMirroringFileTree sourceTree) {
-            roots.add(genericFileTreeSnapshotter.snapshotFileTree(fileTree));
+            FileSystemSnapshot snapshot = genericFileTreeSnapshotter.snapshotFileTree(fileTree);
+            rootSnapshotters.add(roots -> roots.add(snapshot));
         }
 
         @Override
         public void visitFileTree(File root, PatternSet patterns, FileTreeInternal fileTree) {
-            fileSystemAccess.read(
+            rootSnapshotters.add(roots -> fileSystemAccess.read(
                 root.getAbsolutePath(),
                 new PatternSetSnapshottingFilter(patterns, stat),
                 snapshot -> {
@@ -77,16 +99,16 @@ public void visitFileTree(File root, PatternSet patterns, FileTreeInternal fileT
                         roots.add(snapshot);
                     }
                 }
-            );
+            ));
         }
 
         @Override
         public void visitFileTreeBackedByFile(File file, FileTreeInternal fileTree, FileSystemMirroringFileTree sourceTree) {
-            fileSystemAccess.read(file.getAbsolutePath(), roots::add);
+            rootSnapshotters.add(roots -> fileSystemAccess.read(file.getAbsolutePath(), roots::add));
         }
 
-        public List<FileSystemSnapshot> getRoots() {
-            return roots;
+        public List<Consumer<List<FileSystemSnapshot>>> getRootSnapshotters() {
+            return rootSnapshotters;
         }
     }
 }
@@ -161,6 +161,8 @@
 import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.execution.StepProfileReporter;
+import org.gradle.internal.execution.steps.StepProfiler;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.RelativeFilePathResolver;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
@@ -262,6 +264,18 @@ protected TaskStatistics createTaskStatistics() {
         return new TaskStatistics();
     }
 
+    protected StepProfiler createStepProfiler() {
+        return new StepProfiler(Boolean.getBoolean(StepProfiler.PROFILING_PROPERTY));
+    }
+
+    protected BuildScopeListenerManagerAction createStepProfileReportingAction(StepProfiler stepProfiler, BuildOperationExecutor buildOperationExecutor) {
+        return listenerManager -> {
+            if (stepProfiler.isEnabled()) {
+                listenerManager.addListener(new StepProfileReporter(stepProfiler, buildOperationExecutor));
+            }
+        };
+    }
+
     protected DefaultProjectRegistry<ProjectInternal> createProjectRegistry() {
         return new DefaultProjectRegistry<ProjectInternal>();
     }
@@ -30,6 +30,7 @@
 import org.gradle.execution.plan.PlanExecutor;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.VirtualThreads;
 import org.gradle.internal.enterprise.core.GradleEnterprisePluginManager;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.ExecutionEngine;
@@ -42,6 +43,8 @@
 import org.gradle.internal.execution.history.impl.DefaultExecutionHistoryStore;
 import org.gradle.internal.execution.history.impl.DefaultOutputFilesRepository;
 import org.gradle.internal.execution.impl.DefaultExecutionEngine;
+import org.gradle.internal.execution.impl.InputFingerprintUtil;
+import org.gradle.internal.execution.impl.ParallelFingerprintExecutor;
 import org.gradle.internal.execution.steps.AssignWorkspaceStep;
 import org.gradle.internal.execution.steps.BroadcastChangingOutputsStep;
 import org.gradle.internal.execution.steps.BuildCacheStep;
@@ -60,6 +63,7 @@
 import org.gradle.internal.execution.steps.SkipEmptyWorkStep;
 import org.gradle.internal.execution.steps.SkipUpToDateStep;
 import org.gradle.internal.execution.steps.SnapshotOutputsStep;
+import org.gradle.internal.execution.steps.StepProfiler;
 import org.gradle.internal.execution.steps.StoreExecutionStateStep;
 import org.gradle.internal.execution.steps.TimeoutStep;
 import org.gradle.internal.execution.steps.ValidateStep;
@@ -76,12 +80,16 @@
 import org.gradle.internal.snapshot.ValueSnapshotter;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class ExecutionGradleServices {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionGradleServices.class);
+
     ExecutionHistoryCacheAccess createCacheAccess(Gradle gradle, CacheRepository cacheRepository) {
         return new DefaultExecutionHistoryCacheAccess(gradle, cacheRepository);
     }
@@ -119,13 +127,19 @@ PlanExecutor createPlanExecutor(
         if (parallelThreads < 1) {
             throw new IllegalStateException(String.format("Cannot create executor for requested number of worker threads: %s.", parallelThreads));
         }
+        boolean useVirtualThreads = Boolean.getBoolean(DefaultPlanExecutor.VIRTUAL_THREADS_PROPERTY);
+        if (useVirtualThreads && !VirtualThreads.isSupported()) {
+            LOGGER.info("Virtual threads are not supported by this JVM, using platform threads for execution workers.");
+            useVirtualThreads = false;
+        }
 
         return new DefaultPlanExecutor(
             parallelismConfiguration,
             executorFactory,
             workerLeaseService,
             cancellationToken,
-            coordinationService
+            coordinationService,
+            useVirtualThreads
         );
     }
 
@@ -147,36 +161,40 @@ public ExecutionEngine createExecutionEngine(
         OutputFilesRepository outputFilesRepository,
         OutputSnapshotter outputSnapshotter,
         OverlappingOutputDetector overlappingOutputDetector,
+        StepProfiler stepProfiler,
         TimeoutHandler timeoutHandler,
         ValidateStep.ValidationWarningReporter validationWarningReporter,
         ValueSnapshotter valueSnapshotter
     ) {
+        InputFingerprintUtil.FingerprintExecutor fingerprintExecutor = Boolean.getBoolean(ParallelFingerprintExecutor.PARALLEL_FINGERPRINTING_PROPERTY)
+            ? new ParallelFingerprintExecutor(buildOperationExecutor)
+            : InputFingerprintUtil.SEQUENTIAL;
         // @formatter:off
         return new DefaultExecutionEngine(
-            new IdentifyStep<>(valueSnapshotter,
-            new IdentityCacheStep<>(
-            new AssignWorkspaceStep<>(
-            new LoadExecutionStateStep<>(
-            new MarkSnapshottingInputsStartedStep<>(
-            new SkipEmptyWorkStep<>(
-            new ValidateStep<>(validationWarningReporter,
-            new CaptureStateBeforeExecutionStep(buildOperationExecutor, classLoaderHierarchyHasher, outputSnapshotter, overlappingOutputDetector, valueSnapshotter,
-            new ResolveCachingStateStep(buildCacheController, gradleEnterprisePluginManager.isPresent(),
-            new MarkSnapshottingInputsFinishedStep<>(
-            new ResolveChangesStep<>(changeDetector,
-            new SkipUpToDateStep<>(
-            new RecordOutputsStep<>(outputFilesRepository,
-            new StoreExecutionStateStep<>(
-            new BuildCacheStep(buildCacheController, buildCacheCommandFactory, deleter, outputChangeListener,
-            new BroadcastChangingOutputsStep<>(outputChangeListener,
-            new SnapshotOutputsStep<>(buildOperationExecutor, buildInvocationScopeId.getId(), outputSnapshotter,
-            new CreateOutputsStep<>(
-            new TimeoutStep<>(timeoutHandler,
-            new CancelExecutionStep<>(cancellationToken,
-            new ResolveInputChangesStep<>(
-            new RemovePreviousOutputsStep<>(deleter, outputChangeListener,
-            new ExecuteStep<>(buildOperationExecutor
-        ))))))))))))))))))))))));
+            stepProfiler.profile(new IdentifyStep<>(valueSnapshotter,
+            stepProfiler.profile(new IdentityCacheStep<>(
+            stepProfiler.profile(new AssignWorkspaceStep<>(
+            stepProfiler.profile(new LoadExecutionStateStep<>(
+            stepProfiler.profile(new MarkSnapshottingInputsStartedStep<>(
+            stepProfiler.profile(new SkipEmptyWorkStep<>(
+            stepProfiler.profile(new ValidateStep<>(validationWarningReporter,
+            stepProfiler.profile(new CaptureStateBeforeExecutionStep(buildOperationExecutor, classLoaderHierarchyHasher, outputSnapshotter, overlappingOutputDetector, valueSnapshotter, fingerprintExecutor,
+            stepProfiler.profile(new ResolveCachingStateStep(buildCacheController, gradleEnterprisePluginManager.isPresent(),
+            stepProfiler.profile(new MarkSnapshottingInputsFinishedStep<>(
+            stepProfiler.profile(new ResolveChangesStep<>(changeDetector,
+            stepProfiler.profile(new SkipUpToDateStep<>(
+            stepProfiler.profile(new RecordOutputsStep<>(outputFilesRepository,
+            stepProfiler.profile(new StoreExecutionStateStep<>(
+            stepProfiler.profile(new BuildCacheStep(buildCacheController, buildCacheCommandFactory, deleter, outputChangeListener,
+            stepProfiler.profile(new BroadcastChangingOutputsStep<>(outputChangeListener,
+            stepProfiler.profile(new SnapshotOutputsStep<>(buildOperationExecutor, buildInvocationScopeId.getId(), outputSnapshotter,
+            stepProfiler.profile(new CreateOutputsStep<>(
+            stepProfiler.profile(new TimeoutStep<>(timeoutHandler,
+            stepProfiler.profile(new CancelExecutionStep<>(cancellationToken,
+            stepProfiler.profile(new ResolveInputChangesStep<>(
+            stepProfiler.profile(new RemovePreviousOutputsStep<>(deleter, outputChangeListener,
+            stepProfiler.profile(new ExecuteStep<>(buildOperationExecutor
+        )))))))))))))))))))))))))))))))))))))))))))))));
         // @formatter:on
     }
 
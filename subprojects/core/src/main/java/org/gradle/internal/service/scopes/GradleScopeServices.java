@@ -48,6 +48,7 @@
 import org.gradle.configuration.internal.UserCodeApplicationContext;
 import org.gradle.execution.BuildConfigurationAction;
 import org.gradle.execution.BuildConfigurationActionExecuter;
+import org.gradle.execution.BuildExecutionAction;
 import org.gradle.execution.BuildOperationFiringBuildWorkerExecutor;
 import org.gradle.execution.BuildWorkExecutor;
 import org.gradle.execution.DefaultBuildConfigurationActionExecuter;
@@ -64,6 +65,7 @@
 import org.gradle.execution.commandline.CommandLineTaskConfigurer;
 import org.gradle.execution.commandline.CommandLineTaskParser;
 import org.gradle.execution.plan.DependencyResolver;
+import org.gradle.execution.plan.ExecutionPlanOrderCache;
 import org.gradle.execution.plan.LocalTaskNodeExecutor;
 import org.gradle.execution.plan.NodeExecutor;
 import org.gradle.execution.plan.PlanExecutor;
@@ -98,12 +100,11 @@
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.vfs.FileSystemAccess;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import static java.util.Arrays.asList;
-
 /**
  * Contains the services for a given {@link GradleInternal} instance.
  */
@@ -133,13 +134,15 @@ CommandLineTaskParser createCommandLineTaskParser(OptionReader optionReader, Tas
         return new CommandLineTaskParser(new CommandLineTaskConfigurer(optionReader), taskSelector);
     }
 
-    BuildWorkExecutor createBuildExecuter(StyledTextOutputFactory textOutputFactory, IncludedBuildControllers includedBuildControllers, BuildOperationExecutor buildOperationExecutor) {
+    BuildWorkExecutor createBuildExecuter(StyledTextOutputFactory textOutputFactory, IncludedBuildControllers includedBuildControllers, BuildOperationExecutor buildOperationExecutor, List<BuildExecutionAction> preparationActions) {
+        List<BuildExecutionAction> executionActions = new ArrayList<>();
+        executionActions.add(new DryRunBuildExecutionAction(textOutputFactory));
+        executionActions.addAll(preparationActions);
+        executionActions.add(new SelectedTaskExecutionAction());
         return new BuildOperationFiringBuildWorkerExecutor(
             new DeprecateUndefinedBuildWorkExecutor(
                 new IncludedBuildLifecycleBuildWorkExecutor(
-                    new DefaultBuildWorkExecutor(
-                        asList(new DryRunBuildExecutionAction(textOutputFactory),
-                            new SelectedTaskExecutionAction())),
+                    new DefaultBuildWorkExecutor(executionActions),
                     includedBuildControllers)),
             buildOperationExecutor);
     }
@@ -228,6 +231,7 @@ TaskExecutionGraphInternal createTaskExecutionGraph(
         ListenerBroadcast<TaskExecutionGraphListener> graphListeners,
         ListenerManager listenerManager,
         ProjectStateRegistry projectStateRegistry,
+        ExecutionPlanOrderCache executionPlanOrderCache,
         ServiceRegistry gradleScopedServices
     ) {
         return new DefaultTaskExecutionGraph(
@@ -243,6 +247,7 @@ TaskExecutionGraphInternal createTaskExecutionGraph(
             taskListeners,
             listenerManager.getBroadcaster(BuildScopeListenerRegistrationListener.class),
             projectStateRegistry,
+            executionPlanOrderCache,
             gradleScopedServices
         );
     }
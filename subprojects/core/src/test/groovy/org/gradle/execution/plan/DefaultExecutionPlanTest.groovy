@@ -35,13 +35,18 @@ import static org.gradle.util.WrapUtil.toList
 
 class DefaultExecutionPlanTest extends AbstractExecutionPlanSpec {
     DefaultExecutionPlan executionPlan
+    def orderCache = Spy(ExecutionPlanOrderCache)
     def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
 
     def setup() {
+        executionPlan = newExecutionPlan()
+        _ * workerLease.tryLock() >> true
+    }
+
+    private DefaultExecutionPlan newExecutionPlan() {
         def taskNodeFactory = new TaskNodeFactory(thisBuild, Stub(IncludedBuildTaskGraph))
         def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
-        executionPlan = new DefaultExecutionPlan(thisBuild, taskNodeFactory, dependencyResolver)
-        _ * workerLease.tryLock() >> true
+        return new DefaultExecutionPlan(thisBuild, taskNodeFactory, dependencyResolver, orderCache)
     }
 
     def "schedules tasks in dependency order"() {
@@ -597,6 +602,55 @@ class DefaultExecutionPlanTest extends AbstractExecutionPlanSpec {
 """)
     }
 
+    def "reuses ordering of previous plan when task graph is the same"() {
+        Task a = task("a")
+        Task b = task("b")
+        Task c = task("c")
+        Task d = task("d")
+        Task e = task("e", dependsOn: [a, d])
+        Task f = task("f", dependsOn: [e])
+        Task g = task("g", dependsOn: [c, f])
+        Task h = task("h", dependsOn: [b, g])
+        relationships(d, shouldRunAfter: [g])
+
+        when:
+        addToGraphAndPopulate([e, h])
+
+        then:
+        executedTasks == [a, d, e, b, c, f, g, h]
+        1 * orderCache.put(_, _)
+
+        when:
+        executionPlan = newExecutionPlan()
+        addToGraphAndPopulate([e, h])
+
+        then:
+        executedTasks == [a, d, e, b, c, f, g, h]
+        1 * orderCache.get(_, _) >> { callRealMethod().tap { assert it != null } }
+        0 * orderCache.put(_, _)
+    }
+
+    def "recalculates ordering when task graph is different from previous plan"() {
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        Task c = task("c", mustRunAfter: [b])
+
+        when:
+        addToGraphAndPopulate([b])
+
+        then:
+        executes(a, b)
+
+        when:
+        executionPlan = newExecutionPlan()
+        addToGraphAndPopulate([c, b])
+
+        then:
+        executes(a, b, c)
+        1 * orderCache.get(_, _) >> { callRealMethod().tap { assert it == null } }
+        1 * orderCache.put(_, _)
+    }
+
     def "stops returning tasks on task execution failure"() {
         def failures = []
         RuntimeException exception = new RuntimeException("failure")
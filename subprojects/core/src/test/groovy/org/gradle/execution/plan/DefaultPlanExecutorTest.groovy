@@ -40,7 +40,7 @@ class DefaultPlanExecutorTest extends Specification {
             transformer[0].transform(Stub(ResourceLockState))
         }
     }
-    def executor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, Stub(WorkerLeaseService), cancellationHandler, coordinationService)
+    def executor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, Stub(WorkerLeaseService), cancellationHandler, coordinationService, false)
 
     def "executes tasks until no further tasks remain"() {
         def gradle = Mock(Gradle)
@@ -99,4 +99,19 @@ class DefaultPlanExecutorTest extends Specification {
         1 * executionPlan.collectFailures([])
         0 * executionPlan._
     }
+
+    def "uses virtual threads for additional workers when requested"() {
+        def virtualExecutor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 2), executorFactory, Stub(WorkerLeaseService), cancellationHandler, coordinationService, true)
+        def managedExecutor = Mock(ManagedExecutor)
+
+        when:
+        virtualExecutor.process(executionPlan, [], worker)
+
+        then:
+        1 * executorFactory.createVirtual(_) >> managedExecutor
+        0 * executorFactory.create(_)
+        3 * managedExecutor.execute(_)
+        1 * executionPlan.hasNodesRemaining() >> false
+        1 * executionPlan.allNodesComplete() >> true
+    }
 }
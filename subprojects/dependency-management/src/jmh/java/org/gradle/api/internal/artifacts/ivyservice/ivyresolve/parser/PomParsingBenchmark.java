@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares reading a POM into a W3C DOM, as {@link PomReader} used to do, with reading it using {@link PomStaxParser}.
+ *
+ * <p>The corpus mirrors the shapes of POMs commonly found in Maven Central: a library with a large build section,
+ * a parent POM with profiles, and a platform BOM with hundreds of managed dependencies and version properties.
+ * Run with {@code -prof gc} to compare allocation rates.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@State(Scope.Benchmark)
+public class PomParsingBenchmark {
+    private static final String SYSTEM_ID = "file:/benchmark/pom.xml";
+
+    @Param({"library", "parent", "bom"})
+    String pom;
+
+    private byte[] content;
+    private DocumentBuilderFactory documentBuilderFactory;
+    private byte[] m2Entities;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        content = createPom(pom).getBytes(StandardCharsets.UTF_8);
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setValidating(false);
+        m2Entities = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+    }
+
+    @Benchmark
+    public Document dom() throws Exception {
+        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        documentBuilder.setEntityResolver((publicId, systemId) -> new InputSource(new ByteArrayInputStream(m2Entities)));
+        return documentBuilder.parse(new PomStaxParser.AddDTDFilterInputStream(new ByteArrayInputStream(content)), SYSTEM_ID);
+    }
+
+    @Benchmark
+    public PomElement stax() throws Exception {
+        return PomStaxParser.parse(new ByteArrayInputStream(content), SYSTEM_ID);
+    }
+
+    private static String createPom(String kind) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 https://maven.apache.org/xsd/maven-4.0.0.xsd\">\n");
+        builder.append("  <!-- do_not_remove: published-with-gradle-metadata -->\n");
+        builder.append("  <modelVersion>4.0.0</modelVersion>\n");
+        builder.append("  <groupId>org.example</groupId>\n");
+        builder.append("  <artifactId>example-").append(kind).append("</artifactId>\n");
+        builder.append("  <version>2.3.4</version>\n");
+        builder.append("  <packaging>").append(kind.equals("library") ? "jar" : "pom").append("</packaging>\n");
+        builder.append("  <name>Example ").append(kind).append("</name>\n");
+        builder.append("  <description>An example project for parsing benchmarks &amp; nothing else</description>\n");
+        builder.append("  <url>https://example.org</url>\n");
+        builder.append("  <licenses><license><name>Apache License, Version 2.0</name><url>https://www.apache.org/licenses/LICENSE-2.0</url></license></licenses>\n");
+        builder.append("  <developers>\n");
+        for (int i = 0; i < 10; i++) {
+            builder.append("    <developer><id>dev").append(i).append("</id><name>Developer ").append(i).append("</name><email>dev").append(i).append("@example.org</email><roles><role>committer</role></roles></developer>\n");
+        }
+        builder.append("  </developers>\n");
+        builder.append("  <scm><connection>scm:git:git://example.org/example.git</connection><url>https://example.org/example</url></scm>\n");
+        switch (kind) {
+            case "library":
+                appendLibrary(builder);
+                break;
+            case "parent":
+                appendParent(builder);
+                break;
+            case "bom":
+                appendBom(builder);
+                break;
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+        builder.append("</project>\n");
+        return builder.toString();
+    }
+
+    private static void appendLibrary(StringBuilder builder) {
+        builder.append("  <parent><groupId>org.example</groupId><artifactId>example-parent</artifactId><version>2.3.4</version></parent>\n");
+        builder.append("  <dependencies>\n");
+        for (int i = 0; i < 30; i++) {
+            builder.append("    <dependency>\n");
+            builder.append("      <groupId>org.example.deps</groupId>\n");
+            builder.append("      <artifactId>dep-").append(i).append("</artifactId>\n");
+            builder.append("      <version>${dep.version}</version>\n");
+            builder.append("      <scope>").append(i % 3 == 0 ? "test" : "compile").append("</scope>\n");
+            if (i % 5 == 0) {
+                builder.append("      <optional>true</optional>\n");
+                builder.append("      <exclusions><exclusion><groupId>commons-logging</groupId><artifactId>commons-logging</artifactId></exclusion></exclusions>\n");
+            }
+            builder.append("    </dependency>\n");
+        }
+        builder.append("  </dependencies>\n");
+        appendBuild(builder, 25);
+    }
+
+    private static void appendParent(StringBuilder builder) {
+        appendProperties(builder, 40);
+        builder.append("  <profiles>\n");
+        for (int i = 0; i < 8; i++) {
+            builder.append("    <profile>\n");
+            builder.append("      <id>profile-").append(i).append("</id>\n");
+            builder.append("      <activation><property><name>").append(i % 2 == 0 ? "!" : "").append("skip").append(i).append("</name></property></activation>\n");
+            builder.append("      <properties><profile.property>").append(i).append("</profile.property></properties>\n");
+            builder.append("      <build><plugins><plugin><groupId>org.apache.maven.plugins</groupId><artifactId>maven-enforcer-plugin</artifactId></plugin></plugins></build>\n");
+            builder.append("    </profile>\n");
+        }
+        builder.append("  </profiles>\n");
+        appendBuild(builder, 40);
+    }
+
+    private static void appendBom(StringBuilder builder) {
+        appendProperties(builder, 250);
+        builder.append("  <dependencyManagement>\n");
+        builder.append("    <dependencies>\n");
+        for (int i = 0; i < 600; i++) {
+            builder.append("      <dependency>\n");
+            builder.append("        <groupId>org.example.group").append(i % 250).append("</groupId>\n");
+            builder.append("        <artifactId>module-").append(i).append("</artifactId>\n");
+            builder.append("        <version>${group").append(i % 250).append(".version}</version>\n");
+            if (i % 20 == 0) {
+                builder.append("        <type>pom</type>\n");
+                builder.append("        <scope>import</scope>\n");
+            }
+            builder.append("      </dependency>\n");
+        }
+        builder.append("    </dependencies>\n");
+        builder.append("  </dependencyManagement>\n");
+    }
+
+    private static void appendProperties(StringBuilder builder, int count) {
+        builder.append("  <properties>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("    <group").append(i).append(".version>").append(i).append(".0.").append(i % 7).append("</group").append(i).append(".version>\n");
+        }
+        builder.append("  </properties>\n");
+    }
+
+    private static void appendBuild(StringBuilder builder, int plugins) {
+        builder.append("  <build>\n");
+        builder.append("    <pluginManagement>\n");
+        builder.append("      <plugins>\n");
+        for (int i = 0; i < plugins; i++) {
+            builder.append("        <plugin>\n");
+            builder.append("          <groupId>org.apache.maven.plugins</groupId>\n");
+            builder.append("          <artifactId>maven-plugin-").append(i).append("</artifactId>\n");
+            builder.append("          <version>3.").append(i).append(".0</version>\n");
+            builder.append("          <configuration><source>1.8</source><target>1.8</target><compilerArgs><arg>-Xlint:all</arg><arg>-parameters</arg></compilerArgs></configuration>\n");
+            builder.append("          <executions><execution><id>default</id><phase>verify</phase><goals><goal>check</goal></goals></execution></executions>\n");
+            builder.append("        </plugin>\n");
+        }
+        builder.append("      </plugins>\n");
+        builder.append("    </pluginManagement>\n");
+        builder.append("  </build>\n");
+        builder.append("  <reporting><plugins><plugin><groupId>org.apache.maven.plugins</groupId><artifactId>maven-javadoc-plugin</artifactId></plugin></plugins></reporting>\n");
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.CompositeExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeAllOf;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.model.DefaultIvyArtifactName;
+import org.gradle.internal.component.model.ExcludeMetadata;
+import org.gradle.internal.component.model.IvyArtifactName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Evaluates the exclude specs of a large, exclusion-heavy dependency graph the way graph resolution does:
+ * every node carries the merged excludes of the paths leading to it, and each of its outgoing edges is
+ * checked against them.
+ *
+ * <p>{@code compiled} queries the specs directly. {@code treeWalk} answers the same queries by walking the
+ * components of every union and intersection, which is how composite specs used to be evaluated.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@State(Scope.Benchmark)
+public class ExcludeSpecEvaluationBenchmark {
+    private static final String[] CONFIGURATIONS = new String[0];
+    private static final IvyArtifactName[] ARTIFACTS = {
+        new DefaultIvyArtifactName("core", "jar", "jar"),
+        new DefaultIvyArtifactName("core", "jar", "jar", "sources"),
+        new DefaultIvyArtifactName("native", "so", "so")
+    };
+
+    @Param({"200", "2000"})
+    int nodes;
+
+    private ExcludeSpec[] nodeExcludes;
+    private ModuleIdentifier[][] outgoingEdges;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(4242L);
+        ModuleExclusions moduleExclusions = new ModuleExclusions();
+        nodeExcludes = new ExcludeSpec[nodes];
+        outgoingEdges = new ModuleIdentifier[nodes][];
+        for (int i = 0; i < nodes; i++) {
+            ExcludeSpec declared = moduleExclusions.excludeAny(declaredExcludes(random));
+            ExcludeSpec excludes;
+            if (i == 0) {
+                excludes = declared;
+            } else if (i < 4 || random.nextInt(3) > 0) {
+                excludes = moduleExclusions.excludeAny(nodeExcludes[random.nextInt(i)], declared);
+            } else {
+                // a node reached through two paths only excludes what both paths exclude
+                ExcludeSpec first = moduleExclusions.excludeAny(nodeExcludes[random.nextInt(i)], declared);
+                ExcludeSpec second = moduleExclusions.excludeAny(nodeExcludes[random.nextInt(i)], declared);
+                excludes = moduleExclusions.excludeAll(first, second);
+            }
+            nodeExcludes[i] = excludes;
+            ModuleIdentifier[] edges = new ModuleIdentifier[5 + random.nextInt(20)];
+            for (int j = 0; j < edges.length; j++) {
+                edges[j] = moduleId(random);
+            }
+            outgoingEdges[i] = edges;
+        }
+    }
+
+    @Benchmark
+    public int compiled() {
+        int excluded = 0;
+        for (int i = 0; i < nodeExcludes.length; i++) {
+            ExcludeSpec spec = nodeExcludes[i];
+            for (ModuleIdentifier module : outgoingEdges[i]) {
+                if (spec.excludes(module)) {
+                    excluded++;
+                } else if (spec.mayExcludeArtifacts() && spec.excludesArtifact(module, ARTIFACTS[excluded % ARTIFACTS.length])) {
+                    excluded++;
+                }
+            }
+        }
+        return excluded;
+    }
+
+    @Benchmark
+    public int treeWalk() {
+        int excluded = 0;
+        for (int i = 0; i < nodeExcludes.length; i++) {
+            ExcludeSpec spec = nodeExcludes[i];
+            for (ModuleIdentifier module : outgoingEdges[i]) {
+                if (walkExcludes(spec, module)) {
+                    excluded++;
+                } else if (spec.mayExcludeArtifacts() && walkExcludesArtifact(spec, module, ARTIFACTS[excluded % ARTIFACTS.length])) {
+                    excluded++;
+                }
+            }
+        }
+        return excluded;
+    }
+
+    private static boolean walkExcludes(ExcludeSpec spec, ModuleIdentifier module) {
+        if (spec instanceof CompositeExclude) {
+            CompositeExclude composite = (CompositeExclude) spec;
+            return composite instanceof ExcludeAllOf
+                ? composite.components().allMatch(e -> walkExcludes(e, module))
+                : composite.components().anyMatch(e -> walkExcludes(e, module));
+        }
+        return spec.excludes(module);
+    }
+
+    private static boolean walkExcludesArtifact(ExcludeSpec spec, ModuleIdentifier module, IvyArtifactName artifact) {
+        if (spec instanceof CompositeExclude) {
+            CompositeExclude composite = (CompositeExclude) spec;
+            return composite instanceof ExcludeAllOf
+                ? composite.components().allMatch(e -> walkExcludesArtifact(e, module, artifact))
+                : composite.components().anyMatch(e -> walkExcludesArtifact(e, module, artifact));
+        }
+        return spec.excludesArtifact(module, artifact);
+    }
+
+    private static List<ExcludeMetadata> declaredExcludes(Random random) {
+        int count = random.nextInt(8);
+        List<ExcludeMetadata> excludes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(20);
+            if (kind < 12) {
+                excludes.add(new DefaultExclude(moduleId(random)));
+            } else if (kind < 15) {
+                excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId(group(random), "*"), CONFIGURATIONS, PatternMatchers.EXACT));
+            } else if (kind < 17) {
+                excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId("*", module(random)), CONFIGURATIONS, PatternMatchers.EXACT));
+            } else if (kind < 19) {
+                excludes.add(new DefaultExclude(DefaultModuleIdentifier.newId("org\\.group" + random.nextInt(10) + ".*", ".*"), CONFIGURATIONS, "regexp"));
+            } else {
+                excludes.add(new DefaultExclude(moduleId(random), ARTIFACTS[random.nextInt(ARTIFACTS.length)], CONFIGURATIONS, PatternMatchers.EXACT));
+            }
+        }
+        return excludes;
+    }
+
+    private static ModuleIdentifier moduleId(Random random) {
+        return DefaultModuleIdentifier.newId(group(random), module(random));
+    }
+
+    private static String group(Random random) {
+        return "org.group" + random.nextInt(100);
+    }
+
+    private static String module(Random random) {
+        return "module" + random.nextInt(50);
+    }
+}
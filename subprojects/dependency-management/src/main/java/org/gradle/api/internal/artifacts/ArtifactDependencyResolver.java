@@ -17,6 +17,7 @@
 
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphStatistics;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
@@ -26,12 +27,15 @@
 import java.util.List;
 
 public interface ArtifactDependencyResolver {
-    void resolve(ResolveContext resolveContext,
-                 List<? extends ResolutionAwareRepository> repositories,
-                 GlobalDependencyResolutionRules metadataHandler,
-                 Spec<? super DependencyMetadata> edgeFilter,
-                 DependencyGraphVisitor graphVisitor,
-                 DependencyArtifactsVisitor artifactsVisitor,
-                 AttributesSchemaInternal consumerSchema,
-                 ArtifactTypeRegistry artifactTypeRegistry);
+    /**
+     * Resolves the dependency graph of the given context, passing its nodes and artifacts to the given visitors. Returns how much work traversing the graph took.
+     */
+    DependencyGraphStatistics resolve(ResolveContext resolveContext,
+                                      List<? extends ResolutionAwareRepository> repositories,
+                                      GlobalDependencyResolutionRules metadataHandler,
+                                      Spec<? super DependencyMetadata> edgeFilter,
+                                      DependencyGraphVisitor graphVisitor,
+                                      DependencyArtifactsVisitor artifactsVisitor,
+                                      AttributesSchemaInternal consumerSchema,
+                                      ArtifactTypeRegistry artifactTypeRegistry);
 }
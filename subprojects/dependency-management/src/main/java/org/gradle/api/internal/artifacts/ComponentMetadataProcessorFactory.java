@@ -34,4 +34,11 @@ public interface ComponentMetadataProcessorFactory {
      * @return a {@code ComponentMetadataProcessor}
      */
     ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResolutionContext resolutionContext);
+
+    /**
+     * Returns true when the processors created by this factory are known to leave metadata unchanged, because there are no rules to apply.
+     */
+    default boolean isNoOp() {
+        return false;
+    }
 }
@@ -15,52 +15,150 @@
  */
 package org.gradle.api.internal.artifacts;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 
+/**
+ * Interns module, module version and module component identifiers for the lifetime of the daemon.
+ *
+ * <p>Identifiers are only weakly retained, so the identifiers of modules that are no longer referenced by any build can be collected.</p>
+ */
 public class DefaultImmutableModuleIdentifierFactory implements ImmutableModuleIdentifierFactory {
-    private final Map<String, Map<String, ModuleIdentifier>> groupIdToModules = Maps.newConcurrentMap();
-    private final Map<ModuleIdentifier, Map<String, ModuleVersionIdentifier>> idToVersions = Maps.newConcurrentMap();
+    private final Interner<ModuleIdentifier> modules = Interners.newWeakInterner();
+    private final ConcurrentMap<ModuleIdentifier, ConcurrentMap<String, ModuleVersionIdentifier>> idToVersions = new MapMaker().weakKeys().makeMap();
+    private final ConcurrentMap<ModuleIdentifier, ConcurrentMap<String, ModuleComponentIdentifier>> idToComponents = new MapMaker().weakKeys().makeMap();
+    private final InternerStatistics moduleStatistics = new InternerStatistics();
+    private final InternerStatistics moduleVersionStatistics = new InternerStatistics();
+    private final InternerStatistics moduleComponentStatistics = new InternerStatistics();
 
     @Override
     public ModuleIdentifier module(String group, String name) {
-        Map<String, ModuleIdentifier> byName = groupIdToModules.get(group);
-        if (byName == null) {
-            byName = groupIdToModules.computeIfAbsent(group, k -> Maps.newConcurrentMap());
-        }
-        ModuleIdentifier moduleIdentifier = byName.get(name);
-        if (moduleIdentifier == null) {
-            moduleIdentifier = DefaultModuleIdentifier.newId(group, name);
-            byName.put(name, moduleIdentifier);
+        ModuleIdentifier candidate = DefaultModuleIdentifier.newId(group, name);
+        ModuleIdentifier moduleIdentifier = modules.intern(candidate);
+        if (moduleIdentifier == candidate) {
+            moduleStatistics.miss();
+        } else {
+            moduleStatistics.hit();
         }
         return moduleIdentifier;
     }
 
     @Override
     public ModuleVersionIdentifier moduleWithVersion(String group, String name, String version) {
-        ModuleIdentifier mi = module(group, name);
-        return moduleWithVersion(mi, version);
+        return versionsOf(idToVersions, module(group, name), version, moduleVersionStatistics, DefaultModuleVersionIdentifier::newId);
     }
 
     @Override
     public ModuleVersionIdentifier moduleWithVersion(ModuleIdentifier mi, String version) {
-        Map<String, ModuleVersionIdentifier> byVersion = idToVersions.get(mi);
+        return versionsOf(idToVersions, module(mi.getGroup(), mi.getName()), version, moduleVersionStatistics, DefaultModuleVersionIdentifier::newId);
+    }
+
+    @Override
+    public ModuleVersionIdentifier moduleWithVersion(Module module) {
+        return moduleWithVersion(module.getGroup(), module.getName(), module.getVersion());
+    }
+
+    @Override
+    public ModuleComponentIdentifier moduleComponentIdentifier(ModuleIdentifier mi, String version) {
+        return versionsOf(idToComponents, module(mi.getGroup(), mi.getName()), version, moduleComponentStatistics, DefaultModuleComponentIdentifier::newId);
+    }
+
+    /**
+     * Returns the interning statistics since the daemon started.
+     */
+    public Statistics getStatistics() {
+        return new Statistics(moduleStatistics, moduleVersionStatistics, moduleComponentStatistics);
+    }
+
+    private static <T> T versionsOf(ConcurrentMap<ModuleIdentifier, ConcurrentMap<String, T>> idToVersions, ModuleIdentifier mi, String version, InternerStatistics statistics, BiFunction<ModuleIdentifier, String, T> factory) {
+        ConcurrentMap<String, T> byVersion = idToVersions.get(mi);
         if (byVersion == null) {
-            byVersion = idToVersions.computeIfAbsent(mi, k -> Maps.newConcurrentMap());
+            byVersion = idToVersions.computeIfAbsent(mi, k -> new MapMaker().weakValues().makeMap());
         }
-        ModuleVersionIdentifier identifier = byVersion.get(version);
+        T identifier = byVersion.get(version);
         if (identifier == null) {
-            identifier =  DefaultModuleVersionIdentifier.newId(mi, version);
-            byVersion.put(version, identifier);
+            T candidate = factory.apply(mi, version);
+            identifier = byVersion.putIfAbsent(version, candidate);
+            if (identifier == null) {
+                statistics.miss();
+                return candidate;
+            }
         }
+        statistics.hit();
         return identifier;
     }
 
-    @Override
-    public ModuleVersionIdentifier moduleWithVersion(Module module) {
-        return moduleWithVersion(module.getGroup(), module.getName(), module.getVersion());
+    private static class InternerStatistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void hit() {
+            hits.increment();
+        }
+
+        void miss() {
+            misses.increment();
+        }
+    }
+
+    /**
+     * The number of requests for each kind of identifier that were served by an already interned identifier, and that created a new one.
+     */
+    public static class Statistics {
+        private final long moduleHits;
+        private final long moduleMisses;
+        private final long moduleVersionHits;
+        private final long moduleVersionMisses;
+        private final long moduleComponentHits;
+        private final long moduleComponentMisses;
+
+        private Statistics(InternerStatistics modules, InternerStatistics moduleVersions, InternerStatistics moduleComponents) {
+            this.moduleHits = modules.hits.sum();
+            this.moduleMisses = modules.misses.sum();
+            this.moduleVersionHits = moduleVersions.hits.sum();
+            this.moduleVersionMisses = moduleVersions.misses.sum();
+            this.moduleComponentHits = moduleComponents.hits.sum();
+            this.moduleComponentMisses = moduleComponents.misses.sum();
+        }
+
+        public long getModuleHits() {
+            return moduleHits;
+        }
+
+        public long getModuleMisses() {
+            return moduleMisses;
+        }
+
+        public long getModuleVersionHits() {
+            return moduleVersionHits;
+        }
+
+        public long getModuleVersionMisses() {
+            return moduleVersionMisses;
+        }
+
+        public long getModuleComponentHits() {
+            return moduleComponentHits;
+        }
+
+        public long getModuleComponentMisses() {
+            return moduleComponentMisses;
+        }
+
+        @Override
+        public String toString() {
+            return "modules: " + moduleHits + " hits, " + moduleMisses + " misses; "
+                + "module versions: " + moduleVersionHits + " hits, " + moduleVersionMisses + " misses; "
+                + "module components: " + moduleComponentHits + " hits, " + moduleComponentMisses + " misses";
+        }
     }
 }
@@ -20,6 +20,7 @@
 import org.gradle.api.artifacts.ResolvedConfiguration;
 import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphStatistics;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.GraphValidationException;
 
@@ -31,6 +32,7 @@ public class DefaultResolverResults implements ResolverResults {
     private ResolvedLocalComponentsResult resolvedLocalComponentsResult;
     private Object artifactResolveState;
     private VisitedArtifactSet visitedArtifacts;
+    private DependencyGraphStatistics graphStatistics = DependencyGraphStatistics.NONE;
 
     @Override
     public boolean hasError() {
@@ -105,6 +107,16 @@ public void graphResolved(ResolutionResult resolutionResult, ResolvedLocalCompon
         this.fatalFailure = null;
     }
 
+    @Override
+    public void graphTraversed(DependencyGraphStatistics graphStatistics) {
+        this.graphStatistics = graphStatistics;
+    }
+
+    @Override
+    public DependencyGraphStatistics getGraphStatistics() {
+        return graphStatistics;
+    }
+
     @Override
     public void failed(ResolveException failure) {
         if (isNonFatalError(failure)) {
@@ -49,6 +49,7 @@
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.VerifiedArtifactsCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.AbstractModuleMetadataCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.FileStoreAndIndexProvider;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.InMemoryModuleMetadataCache;
@@ -89,10 +90,12 @@
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectPublicationRegistry;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.ComponentMetadataPrefetchExecutor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.CachingComponentSelectionDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DesugaredAttributeContainerSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.mvnsettings.DefaultLocalMavenRepositoryLocator;
 import org.gradle.api.internal.artifacts.mvnsettings.DefaultMavenFileLocations;
 import org.gradle.api.internal.artifacts.mvnsettings.DefaultMavenSettingsProvider;
@@ -137,6 +140,7 @@
 import org.gradle.cache.internal.GeneratedGradleJarCache;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.ProducerGuard;
+import org.gradle.concurrent.ParallelismConfiguration;
 import org.gradle.configuration.internal.UserCodeApplicationContext;
 import org.gradle.initialization.DependenciesAccessors;
 import org.gradle.initialization.InternalBuildFinishedListener;
@@ -150,6 +154,7 @@
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
 import org.gradle.internal.component.external.model.PreferJavaRuntimeVariant;
 import org.gradle.internal.component.model.PersistentModuleSource;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.file.RelativeFilePathResolver;
@@ -170,6 +175,7 @@
 import org.gradle.internal.resource.TextUriResourceLoader;
 import org.gradle.internal.resource.cached.ByUrlCachedExternalResourceIndex;
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.gradle.internal.resource.cached.DefaultExternalResourceFileStore;
 import org.gradle.internal.resource.cached.ExternalResourceFileStore;
 import org.gradle.internal.resource.cached.TwoStageByUrlCachedExternalResourceIndex;
@@ -180,11 +186,13 @@
 import org.gradle.internal.resource.local.LocallyAvailableResourceFinder;
 import org.gradle.internal.resource.local.ivy.LocallyAvailableResourceFinderFactory;
 import org.gradle.internal.resource.transfer.CachingTextUriResourceLoader;
+import org.gradle.internal.resource.transfer.DownloadPermits;
 import org.gradle.internal.resource.transport.http.HttpConnectorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.snapshot.ValueSnapshotter;
 import org.gradle.internal.typeconversion.NotationParser;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.gradle.util.internal.SimpleMapInterner;
 
@@ -205,6 +213,7 @@ void configure(ServiceRegistration registration) {
         registration.add(ProjectArtifactResolver.class);
         registration.add(ProjectArtifactSetResolver.class);
         registration.add(ProjectDependencyResolver.class);
+        registration.add(CachedExternalResourceStatistics.class);
     }
 
     DependencyResolutionManagementInternal createSharedDependencyResolutionServices(Instantiator instantiator,
@@ -489,7 +498,9 @@ RepositoryTransportFactory createRepositoryTransportFactory(ProgressLoggerFactor
                                                                 FileResourceRepository fileResourceRepository,
                                                                 ChecksumService checksumService,
                                                                 StartParameterResolutionOverride startParameterResolutionOverride,
-                                                                ListenerManager listenerManager) {
+                                                                ListenerManager listenerManager,
+                                                                CachedExternalResourceStatistics cachedExternalResourceStatistics,
+                                                                WorkerLeaseService workerLeaseService) {
         return artifactCachesProvider.withWritableCache((md, manager) -> new RepositoryTransportFactory(
             resourceConnectorFactories,
             progressLoggerFactory,
@@ -502,7 +513,10 @@ RepositoryTransportFactory createRepositoryTransportFactory(ProgressLoggerFactor
             producerGuard,
             fileResourceRepository,
             checksumService,
-            listenerManager.getBroadcaster(FileResourceListener.class)));
+            listenerManager.getBroadcaster(FileResourceListener.class),
+            cachedExternalResourceStatistics,
+            DownloadPermits.fromSystemProperties(),
+            workerLeaseService));
     }
 
     RepositoryDisabler createRepositoryDisabler() {
@@ -522,8 +536,9 @@ DependencyVerificationOverride createDependencyVerificationOverride(StartParamet
                                                                         DocumentationRegistry documentationRegistry,
                                                                         ListenerManager listenerManager,
                                                                         BuildCommencedTimeProvider timeProvider,
-                                                                        ServiceRegistry serviceRegistry) {
-        DependencyVerificationOverride override = startParameterResolutionOverride.dependencyVerificationOverride(buildOperationExecutor, checksumService, signatureVerificationServiceFactory, documentationRegistry, timeProvider, () -> serviceRegistry.get(GradleProperties.class));
+                                                                        ServiceRegistry serviceRegistry,
+                                                                        VerifiedArtifactsCache verifiedArtifactsCache) {
+        DependencyVerificationOverride override = startParameterResolutionOverride.dependencyVerificationOverride(buildOperationExecutor, checksumService, signatureVerificationServiceFactory, documentationRegistry, timeProvider, () -> serviceRegistry.get(GradleProperties.class), verifiedArtifactsCache);
         registerBuildFinishedHooks(listenerManager, override);
         return override;
     }
@@ -570,7 +585,9 @@ ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory re
                                                                 InstantiatorFactory instantiatorFactory,
                                                                 ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
                                                                 FeaturePreviews featurePreviews,
-                                                                CalculatedValueContainerFactory calculatedValueContainerFactory) {
+                                                                CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                                                ComponentMetadataPrefetchExecutor componentMetadataPrefetchExecutor,
+                                                                CachedExternalResourceStatistics cachedExternalResourceStatistics) {
         return new DefaultArtifactDependencyResolver(
             buildOperationExecutor,
             resolverFactories,
@@ -587,7 +604,13 @@ ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory re
             instantiatorFactory,
             componentSelectionDescriptorFactory,
             featurePreviews,
-            calculatedValueContainerFactory);
+            calculatedValueContainerFactory,
+            componentMetadataPrefetchExecutor,
+            cachedExternalResourceStatistics);
+    }
+
+    ComponentMetadataPrefetchExecutor createComponentMetadataPrefetchExecutor(ExecutorFactory executorFactory, ParallelismConfiguration parallelismConfiguration) {
+        return new ComponentMetadataPrefetchExecutor(executorFactory, parallelismConfiguration.getMaxWorkerCount());
     }
 
     ProjectPublicationRegistry createProjectPublicationRegistry() {
@@ -686,6 +709,14 @@ SignatureVerificationServiceFactory createSignatureVerificationServiceFactory(Ca
         return new DefaultSignatureVerificationServiceFactory(httpConnectorFactory, cacheRepository, decoratorFactory, buildOperationExecutor, fileHasher, scopeCacheMapping, projectCacheDir, timeProvider, startParameter.isRefreshKeys());
     }
 
+    VerifiedArtifactsCache createVerifiedArtifactsCache(CacheScopeMapping cacheScopeMapping, ProjectCacheDir projectCacheDir, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, StartParameter startParameter) {
+        return new VerifiedArtifactsCache(cacheScopeMapping, projectCacheDir, cacheRepository, inMemoryCacheDecoratorFactory, startParameter.isRefreshKeys());
+    }
+
+    ResolvedGraphCache createResolvedGraphCache(CacheScopeMapping cacheScopeMapping, ProjectCacheDir projectCacheDir, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        return new ResolvedGraphCache(cacheScopeMapping, projectCacheDir, cacheRepository, inMemoryCacheDecoratorFactory);
+    }
+
     private void registerBuildFinishedHooks(ListenerManager listenerManager, DependencyVerificationOverride dependencyVerificationOverride) {
         listenerManager.addListener(new InternalBuildFinishedListener() {
             @Override
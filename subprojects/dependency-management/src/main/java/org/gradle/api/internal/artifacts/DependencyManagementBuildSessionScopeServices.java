@@ -20,10 +20,32 @@
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.initialization.SessionLifecycleListener;
 import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.file.FileAccessTimeJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DependencyManagementBuildSessionScopeServices {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DependencyManagementBuildSessionScopeServices.class);
+
+    void configure(ListenerManager listenerManager, ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
+        if (!(moduleIdentifierFactory instanceof DefaultImmutableModuleIdentifierFactory)) {
+            return;
+        }
+        DefaultImmutableModuleIdentifierFactory internedIdentifiers = (DefaultImmutableModuleIdentifierFactory) moduleIdentifierFactory;
+        listenerManager.addListener(new SessionLifecycleListener() {
+            @Override
+            public void afterStart() {
+            }
+
+            @Override
+            public void beforeComplete() {
+                LOGGER.debug("Module identifiers interned since the daemon started: {}", internedIdentifiers.getStatistics());
+            }
+        });
+    }
 
     DependenciesAccessorsWorkspace createDependenciesAccessorsWorkspace(ProjectCacheDir projectCacheDir, CacheScopeMapping cacheScopeMapping, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, StringInterner stringInterner) {
         return new DependenciesAccessorsWorkspace(projectCacheDir, cacheScopeMapping, cacheRepository, fileAccessTimeJournal, inMemoryCacheDecoratorFactory, stringInterner);
@@ -36,6 +36,7 @@
 import org.gradle.internal.execution.history.impl.DefaultExecutionHistoryStore;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.vfs.FileSystemAccess;
 
 public class DependencyManagementGradleUserHomeScopeServices {
 
@@ -90,12 +91,15 @@ ImmutableTransformationWorkspaceProvider createTransformerWorkspaceProvider(
         ArtifactCachesProvider artifactCaches,
         CacheRepository cacheRepository,
         FileAccessTimeJournal fileAccessTimeJournal,
-        ExecutionHistoryStore executionHistoryStore, ListenerManager listenerManager) {
+        ExecutionHistoryStore executionHistoryStore,
+        FileSystemAccess fileSystemAccess,
+        ListenerManager listenerManager) {
         ImmutableTransformationWorkspaceProvider workspaceProvider = new ImmutableTransformationWorkspaceProvider(
             artifactCaches.getWritableCacheMetadata().getTransformsStoreDirectory(),
             cacheRepository,
             fileAccessTimeJournal,
-            executionHistoryStore
+            executionHistoryStore,
+            fileSystemAccess
         );
         listenerManager.addListener(new RootBuildLifecycleListener() {
             @Override
@@ -104,7 +108,7 @@ public void afterStart(GradleInternal gradle) {
 
             @Override
             public void beforeComplete(GradleInternal gradle) {
-                workspaceProvider.getIdentityCache().invalidateAll();
+                workspaceProvider.buildFinished();
             }
         });
         return workspaceProvider;
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts;
 
+import org.gradle.api.internal.artifacts.configurations.ConfigurationPreResolutionAction;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSetToFileCollectionFactory;
 import org.gradle.api.internal.artifacts.transform.ArtifactTransformListener;
 import org.gradle.api.internal.artifacts.transform.DefaultTransformationNodeRegistry;
@@ -72,5 +73,9 @@ TransformationNodeRegistry createTransformationNodeRegistry(BuildOperationExecut
         TransformationNodeDependencyResolver createTransformationNodeDependencyResolver() {
             return new TransformationNodeDependencyResolver();
         }
+
+        ConfigurationPreResolutionAction createConfigurationPreResolutionAction(BuildOperationExecutor buildOperationExecutor) {
+            return new ConfigurationPreResolutionAction(buildOperationExecutor);
+        }
     }
 }
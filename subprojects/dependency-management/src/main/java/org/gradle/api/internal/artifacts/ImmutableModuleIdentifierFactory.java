@@ -17,6 +17,7 @@
 
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.internal.service.scopes.Scope.Global;
 import org.gradle.internal.service.scopes.ServiceScope;
 
@@ -26,4 +27,5 @@ public interface ImmutableModuleIdentifierFactory {
     ModuleVersionIdentifier moduleWithVersion(String group, String name, String version);
     ModuleVersionIdentifier moduleWithVersion(Module module);
     ModuleVersionIdentifier moduleWithVersion(ModuleIdentifier targetModuleId, String version);
+    ModuleComponentIdentifier moduleComponentIdentifier(ModuleIdentifier module, String version);
 }
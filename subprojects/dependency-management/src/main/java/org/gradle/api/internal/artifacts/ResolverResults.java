@@ -19,6 +19,7 @@
 import org.gradle.api.artifacts.ResolvedConfiguration;
 import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphStatistics;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult;
 
 import javax.annotation.Nullable;
@@ -51,6 +52,16 @@ public interface ResolverResults {
      */
     void graphResolved(ResolutionResult resolutionResult, ResolvedLocalComponentsResult resolvedLocalComponentsResult, VisitedArtifactSet visitedArtifacts);
 
+    /**
+     * Records how much work traversing the dependency graph took.
+     */
+    void graphTraversed(DependencyGraphStatistics graphStatistics);
+
+    /**
+     * Returns how much work traversing the dependency graph took, or no work at all when the graph was not traversed, for example because it was reused.
+     */
+    DependencyGraphStatistics getGraphStatistics();
+
     void failed(ResolveException failure);
 
     /**
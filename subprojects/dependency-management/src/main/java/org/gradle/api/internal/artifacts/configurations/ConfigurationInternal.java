@@ -58,6 +58,11 @@ enum InternalState {
 
     void markAsObserved(InternalState requestedState);
 
+    /**
+     * Returns how far this configuration has been resolved so far.
+     */
+    InternalState getResolvedState();
+
     void addMutationValidator(MutationValidator validator);
 
     void removeMutationValidator(MutationValidator validator);
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.configurations;
+
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.execution.BuildExecutionAction;
+import org.gradle.execution.BuildExecutionContext;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves the dependency graphs of the configurations that the scheduled tasks consume before any task executes,
+ * so that the configurations of independent projects are resolved concurrently rather than one after another
+ * as each consuming task reaches them.
+ *
+ * <p>Only configurations that were already consulted while building the task graph are resolved. Each project is
+ * handled in its own build operation while holding that project's lock, so configurations of the same project are
+ * still resolved serially. A configuration that depends on another project acquires that project's lock as usual,
+ * which means the work for a project waits for its upstream projects rather than racing them.</p>
+ *
+ * <p>Failures are not reported here: the configuration is left unresolved and the failure surfaces again from the
+ * task that uses it.</p>
+ */
+public class ConfigurationPreResolutionAction implements BuildExecutionAction {
+    /**
+     * System property that enables resolving configurations up front, before task execution starts.
+     */
+    public static final String PRE_RESOLVE_CONFIGURATIONS_PROPERTY = "org.gradle.internal.resolution.pre-resolve-configurations";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationPreResolutionAction.class);
+
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public ConfigurationPreResolutionAction(BuildOperationExecutor buildOperationExecutor) {
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public void execute(BuildExecutionContext context, Collection<? super Throwable> taskFailures) {
+        GradleInternal gradle = context.getGradle();
+        if (Boolean.getBoolean(PRE_RESOLVE_CONFIGURATIONS_PROPERTY) && !gradle.getStartParameter().isConfigurationCache()) {
+            Set<ProjectInternal> projects = new LinkedHashSet<>();
+            for (Task task : gradle.getTaskGraph().getAllTasks()) {
+                projects.add((ProjectInternal) task.getProject());
+            }
+            if (projects.size() > 1) {
+                buildOperationExecutor.runAll(queue -> {
+                    for (ProjectInternal project : projects) {
+                        queue.add(new ResolveProjectConfigurations(project));
+                    }
+                });
+            }
+        }
+        context.proceed();
+    }
+
+    private static boolean shouldResolve(ConfigurationInternal configuration) {
+        if (!configuration.isCanBeResolved()) {
+            return false;
+        }
+        ConfigurationInternal.InternalState state = configuration.getResolvedState();
+        return state == ConfigurationInternal.InternalState.BUILD_DEPENDENCIES_RESOLVED || state == ConfigurationInternal.InternalState.GRAPH_RESOLVED;
+    }
+
+    private static class ResolveProjectConfigurations implements RunnableBuildOperation {
+        private final ProjectInternal project;
+
+        ResolveProjectConfigurations(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            project.getMutationState().applyToMutableState(p -> {
+                List<ConfigurationInternal> configurations = new ArrayList<>();
+                for (Configuration configuration : p.getConfigurations()) {
+                    ConfigurationInternal configurationInternal = (ConfigurationInternal) configuration;
+                    if (shouldResolve(configurationInternal)) {
+                        configurations.add(configurationInternal);
+                    }
+                }
+                for (ConfigurationInternal configuration : configurations) {
+                    try {
+                        configuration.getResolvedConfiguration();
+                    } catch (Exception e) {
+                        LOGGER.debug("Could not resolve {} ahead of task execution.", configuration.getDisplayName(), e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Resolve configurations of " + project.getDisplayName());
+        }
+    }
+}
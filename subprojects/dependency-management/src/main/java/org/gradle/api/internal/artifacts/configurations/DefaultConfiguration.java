@@ -115,6 +115,7 @@
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.gradle.internal.typeconversion.NotationParser;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
@@ -155,6 +156,7 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
     private final DefaultDomainObjectSet<DependencyConstraint> ownDependencyConstraints;
     private final DomainObjectContext owner;
     private final CalculatedValueContainerFactory calculatedValueContainerFactory;
+    private final CachedExternalResourceStatistics cachedExternalResourceStatistics;
     private final ProjectStateRegistry projectStateRegistry;
     private CompositeDomainObjectSet<Dependency> inheritedDependencies;
     private CompositeDomainObjectSet<DependencyConstraint> inheritedDependencyConstraints;
@@ -248,12 +250,14 @@ public DefaultConfiguration(DomainObjectContext domainObjectContext,
                                 DomainObjectContext owner,
                                 ProjectStateRegistry projectStateRegistry,
                                 DomainObjectCollectionFactory domainObjectCollectionFactory,
-                                CalculatedValueContainerFactory calculatedValueContainerFactory
+                                CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                CachedExternalResourceStatistics cachedExternalResourceStatistics
     ) {
         this.userCodeApplicationContext = userCodeApplicationContext;
         this.projectStateRegistry = projectStateRegistry;
         this.domainObjectCollectionFactory = domainObjectCollectionFactory;
         this.calculatedValueContainerFactory = calculatedValueContainerFactory;
+        this.cachedExternalResourceStatistics = cachedExternalResourceStatistics;
         this.identityPath = domainObjectContext.identityPath(name);
         this.name = name;
         this.configurationsProvider = configurationsProvider;
@@ -321,7 +325,7 @@ public State getState() {
         }
     }
 
-    @VisibleForTesting
+    @Override
     public InternalState getResolvedState() {
         return currentResolveState.get().state;
     }
@@ -623,7 +627,7 @@ public ResolveState call(BuildOperationContext context) {
                 performPreResolveActions(incoming);
                 maybeConfigureConsistentResolution();
                 DefaultResolverResults results = new DefaultResolverResults();
-                resolver.resolveGraph(DefaultConfiguration.this, results);
+                CachedExternalResourceStatistics.Snapshot cachedResources = cachedExternalResourceStatistics.collect(() -> resolver.resolveGraph(DefaultConfiguration.this, results));
                 dependenciesModified = false;
 
                 ResolveState newState = new GraphResolved(results);
@@ -643,11 +647,11 @@ public ResolveState call(BuildOperationContext context) {
                     // Use the current state, which may have changed if the listener queried the result
                     newState = currentResolveState.get();
                 }
-                captureBuildOperationResult(context, results);
+                captureBuildOperationResult(context, results, cachedResources);
                 return newState;
             }
 
-            private void captureBuildOperationResult(BuildOperationContext context, ResolverResults results) {
+            private void captureBuildOperationResult(BuildOperationContext context, ResolverResults results, CachedExternalResourceStatistics.Snapshot cachedResources) {
                 Throwable failure = results.getFailure();
                 if (failure != null) {
                     context.failed(failure);
@@ -657,7 +661,7 @@ private void captureBuildOperationResult(BuildOperationContext context, Resolver
                 // 1. the `failed` method will have been called with the user facing error
                 // 2. such an error may still lead to a valid dependency graph
                 ResolutionResult resolutionResult = results.getResolutionResult();
-                context.setResult(ResolveConfigurationResolutionBuildOperationResult.create(resolutionResult, attributesFactory));
+                context.setResult(ResolveConfigurationResolutionBuildOperationResult.create(resolutionResult, attributesFactory, cachedResources, results.getGraphStatistics()));
             }
 
             @Override
@@ -1092,7 +1096,7 @@ private DefaultConfiguration newConfiguration() {
         DefaultConfiguration copiedConfiguration = instantiator.newInstance(DefaultConfiguration.class, domainObjectContext, newName, configurationsProvider, resolver, listenerManager,
             metaDataProvider, childResolutionStrategy, projectAccessListener, fileCollectionFactory, buildOperationExecutor, instantiator, artifactNotationParser, capabilityNotationParser,
             attributesFactory, rootComponentMetadataBuilder, documentationRegistry, userCodeApplicationContext, owner, projectStateRegistry, domainObjectCollectionFactory,
-            calculatedValueContainerFactory);
+            calculatedValueContainerFactory, cachedExternalResourceStatistics);
         configurationsProvider.setTheOnlyConfiguration(copiedConfiguration);
         return copiedConfiguration;
     }
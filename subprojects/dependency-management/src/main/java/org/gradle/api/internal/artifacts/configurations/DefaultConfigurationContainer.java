@@ -54,6 +54,7 @@
 import org.gradle.internal.model.CalculatedValueContainerFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.gradle.internal.typeconversion.NotationParser;
 import org.gradle.vcs.internal.VcsMappingsStore;
 
@@ -80,6 +81,7 @@ public class DefaultConfigurationContainer extends AbstractValidatingNamedDomain
     private final ImmutableAttributesFactory attributesFactory;
     private final ProjectStateRegistry projectStateRegistry;
     private final DocumentationRegistry documentationRegistry;
+    private final CachedExternalResourceStatistics cachedExternalResourceStatistics;
 
     private final AtomicInteger detachedConfigurationDefaultNameCounter = new AtomicInteger(1);
     private final Factory<ResolutionStrategyInternal> resolutionStrategyFactory;
@@ -110,7 +112,8 @@ public DefaultConfigurationContainer(ConfigurationResolver resolver,
                                          UserCodeApplicationContext userCodeApplicationContext,
                                          DomainObjectCollectionFactory domainObjectCollectionFactory,
                                          NotationParser<Object, ComponentSelector> moduleSelectorNotationParser,
-                                         ObjectFactory objectFactory) {
+                                         ObjectFactory objectFactory,
+                                         CachedExternalResourceStatistics cachedExternalResourceStatistics) {
         super(Configuration.class, instantiator, new Configuration.Namer(), callbackDecorator);
         this.resolver = resolver;
         this.instantiator = instantiator;
@@ -128,6 +131,7 @@ public DefaultConfigurationContainer(ConfigurationResolver resolver,
         this.attributesFactory = attributesFactory;
         this.projectStateRegistry = projectStateRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.cachedExternalResourceStatistics = cachedExternalResourceStatistics;
         NotationParser<Object, Capability> dependencyCapabilityNotationParser = new CapabilityNotationParserFactory(false).create();
         resolutionStrategyFactory = () -> {
             CapabilitiesResolutionInternal capabilitiesResolutionInternal = instantiator.newInstance(DefaultCapabilitiesResolution.class, new CapabilityNotationParserFactory(false).create(), new ComponentIdentifierParserFactory().create());
@@ -140,7 +144,7 @@ public DefaultConfigurationContainer(ConfigurationResolver resolver,
     protected Configuration doCreate(String name) {
         DefaultConfiguration configuration = instantiator.newInstance(DefaultConfiguration.class, context, name, this, resolver, listenerManager, dependencyMetaDataProvider,
             resolutionStrategyFactory, projectAccessListener, fileCollectionFactory, buildOperationExecutor, instantiator, artifactNotationParser, capabilityNotationParser, attributesFactory,
-            rootComponentMetadataBuilder, documentationRegistry, userCodeApplicationContext, context, projectStateRegistry, domainObjectCollectionFactory, calculatedValueContainerFactory);
+            rootComponentMetadataBuilder, documentationRegistry, userCodeApplicationContext, context, projectStateRegistry, domainObjectCollectionFactory, calculatedValueContainerFactory, cachedExternalResourceStatistics);
         configuration.addMutationValidator(rootComponentMetadataBuilder.getValidator());
         return configuration;
     }
@@ -172,7 +176,7 @@ public ConfigurationInternal detachedConfiguration(Dependency... dependencies) {
         DefaultConfiguration detachedConfiguration = instantiator.newInstance(DefaultConfiguration.class, context, name, detachedConfigurationsProvider, resolver, listenerManager,
             dependencyMetaDataProvider, resolutionStrategyFactory, projectAccessListener, fileCollectionFactory, buildOperationExecutor, instantiator, artifactNotationParser,
             capabilityNotationParser, attributesFactory, rootComponentMetadataBuilder.withConfigurationsProvider(detachedConfigurationsProvider), documentationRegistry, userCodeApplicationContext,
-            context, projectStateRegistry, domainObjectCollectionFactory, calculatedValueContainerFactory);
+            context, projectStateRegistry, domainObjectCollectionFactory, calculatedValueContainerFactory, cachedExternalResourceStatistics);
         DomainObjectSet<Dependency> detachedDependencies = detachedConfiguration.getDependencies();
         for (Dependency dependency : dependencies) {
             detachedDependencies.add(dependency.copy());
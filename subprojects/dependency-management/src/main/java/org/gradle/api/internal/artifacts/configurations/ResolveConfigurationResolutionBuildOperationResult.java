@@ -25,12 +25,14 @@
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphStatistics;
 import org.gradle.api.internal.artifacts.result.ResolvedComponentResultInternal;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributeValue;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.internal.operations.trace.CustomOperationTraceSerialization;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
@@ -41,17 +43,23 @@
 class ResolveConfigurationResolutionBuildOperationResult implements ResolveConfigurationDependenciesBuildOperationType.Result, CustomOperationTraceSerialization {
     private final ResolutionResult resolutionResult;
     private final AttributeContainer requestedAttributes;
+    private final CachedExternalResourceStatistics.Snapshot cachedResourceStatistics;
+    private final DependencyGraphStatistics graphStatistics;
 
-    static ResolveConfigurationResolutionBuildOperationResult create(ResolutionResult resolutionResult, ImmutableAttributesFactory attributesFactory) {
+    static ResolveConfigurationResolutionBuildOperationResult create(ResolutionResult resolutionResult, ImmutableAttributesFactory attributesFactory, CachedExternalResourceStatistics.Snapshot cachedResourceStatistics, DependencyGraphStatistics graphStatistics) {
         return new ResolveConfigurationResolutionBuildOperationResult(
                 resolutionResult,
-                new LazyDesugaringAttributeContainer(resolutionResult.getRequestedAttributes(), attributesFactory)
+                new LazyDesugaringAttributeContainer(resolutionResult.getRequestedAttributes(), attributesFactory),
+                cachedResourceStatistics,
+                graphStatistics
         );
     }
 
-    private ResolveConfigurationResolutionBuildOperationResult(ResolutionResult resolutionResult, AttributeContainer requestedAttributes) {
+    private ResolveConfigurationResolutionBuildOperationResult(ResolutionResult resolutionResult, AttributeContainer requestedAttributes, CachedExternalResourceStatistics.Snapshot cachedResourceStatistics, DependencyGraphStatistics graphStatistics) {
         this.resolutionResult = resolutionResult;
         this.requestedAttributes = requestedAttributes;
+        this.cachedResourceStatistics = cachedResourceStatistics;
+        this.graphStatistics = graphStatistics;
     }
 
     @Override
@@ -79,6 +87,21 @@ public Object getCustomOperationTraceSerializableModel() {
             requestedAttributesBuilder.add(ImmutableMap.of("name", att.getName(), "value", requestedAttributes.getAttribute(att).toString()));
         }
         model.put("requestedAttributes", requestedAttributesBuilder.build());
+        model.put("cachedResources", ImmutableMap.of(
+            "hits", getCachedResourceHitCount(),
+            "revalidated", getCachedResourceRevalidatedCount(),
+            "refreshed", getCachedResourceRefreshedCount()
+        ));
+        model.put("downloads", ImmutableMap.of(
+            "bytes", cachedResourceStatistics.getBytesDownloaded(),
+            "timeMillis", cachedResourceStatistics.getDownloadTimeMillis(),
+            "bytesPerSecond", cachedResourceStatistics.getDownloadThroughput()
+        ));
+        model.put("graphTraversal", ImmutableMap.of(
+            "nodesVisited", getNodesVisitedCount(),
+            "nodesRevisited", getNodesRevisitedCount(),
+            "nodesReattached", graphStatistics.getNodesReattached()
+        ));
         return model;
     }
 
@@ -87,6 +110,31 @@ public AttributeContainer getRequestedAttributes() {
         return requestedAttributes;
     }
 
+    @Override
+    public long getCachedResourceHitCount() {
+        return cachedResourceStatistics.getHits();
+    }
+
+    @Override
+    public long getCachedResourceRevalidatedCount() {
+        return cachedResourceStatistics.getRevalidations();
+    }
+
+    @Override
+    public long getCachedResourceRefreshedCount() {
+        return cachedResourceStatistics.getRefreshes();
+    }
+
+    @Override
+    public long getNodesVisitedCount() {
+        return graphStatistics.getNodesVisited();
+    }
+
+    @Override
+    public long getNodesRevisitedCount() {
+        return graphStatistics.getNodesRevisited();
+    }
+
     // This does almost the same thing as passing through DesugaredAttributeContainerSerializer / DesugaringAttributeContainerSerializer.
     // Those make some assumptions about allowed attribute value types that we can't - we serialize everything else to a string instead.
     private static final class LazyDesugaringAttributeContainer implements ImmutableAttributes {
@@ -254,7 +254,7 @@ public ComponentMetadataProcessorFactory createFactory(DependencyResolutionManag
         // we need to defer the creation of the actual factory until configuration is completed
         // Typically the state of whether to prefer project rules or not is not known when this
         // method is called.
-        Lazy<ComponentMetadataHandlerInternal> actualHandler = Lazy.unsafe().of(() -> {
+        Lazy<DefaultComponentMetadataHandler> actualHandler = Lazy.unsafe().of(() -> {
             // determine whether to use the project local handler or the settings handler
             boolean useRules = dependencyResolutionManagement.getConfiguredRulesMode().useProjectRules();
             if (metadataRuleContainer.isEmpty() || !useRules) {
@@ -269,7 +269,17 @@ public ComponentMetadataProcessorFactory createFactory(DependencyResolutionManag
             }
             return this;
         });
-        return resolutionContext -> actualHandler.get().createComponentMetadataProcessor(resolutionContext);
+        return new ComponentMetadataProcessorFactory() {
+            @Override
+            public ComponentMetadataProcessor createComponentMetadataProcessor(MetadataResolutionContext resolutionContext) {
+                return actualHandler.get().createComponentMetadataProcessor(resolutionContext);
+            }
+
+            @Override
+            public boolean isNoOp() {
+                return actualHandler.get().metadataRuleContainer.isEmpty();
+            }
+        };
     }
 
     static class ComponentMetadataDetailsMatchingSpec implements Spec<ComponentMetadataDetails> {
@@ -0,0 +1,545 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.artifacts.component.BuildIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ConfigurationResolver;
+import org.gradle.api.internal.artifacts.DefaultResolverResults;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.PreResolvedResolvableArtifact;
+import org.gradle.api.internal.artifacts.ResolverResults;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.SelectedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResultGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectionDescriptorFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultGraphSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
+import org.gradle.api.internal.artifacts.metadata.ComponentArtifactIdentifierSerializer;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.attributes.AttributeContainerInternal;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.api.internal.file.FileCollectionStructureVisitor;
+import org.gradle.api.internal.tasks.TaskDependencyContainer;
+import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.Describables;
+import org.gradle.internal.DisplayName;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactIdentifier;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.lazy.Lazy;
+import org.gradle.internal.model.CalculatedValueContainerFactory;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reuses the result of resolving a configuration in a previous build, when nothing that the resolution depends on has changed since.
+ *
+ * <p>The resolution graph and the files of the configuration itself are retained in a {@link ResolvedGraphCache}, keyed by a fingerprint of the inputs
+ * of the resolution calculated by {@link ConfigurationResolutionFingerprinter}. A result is only recorded when the graph does not depend on dynamic or
+ * changing versions, conflict resolution or module replacements. The cached result only answers queries for the resolution result and the files of the configuration.
+ * Any other query, such as the legacy {@link ResolvedConfiguration} or an artifact view with other attributes, triggers a full resolution of the configuration.</p>
+ */
+public class CachingConfigurationResolver implements ConfigurationResolver {
+    /**
+     * When set, the results of resolving configurations are retained across builds.
+     */
+    public static final String PERSISTENT_GRAPH_CACHE_PROPERTY = "org.gradle.internal.resolution.persistent-graph-cache";
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingConfigurationResolver.class);
+
+    private final ConfigurationResolver delegate;
+    private final ResolvedGraphCache cache;
+    private final GlobalDependencyResolutionRules metadataHandler;
+    private final ConfigurationResolutionFingerprinter fingerprinter;
+    private final ResolutionResultGraphSerializer graphSerializer;
+    private final AttributeContainerSerializer attributeContainerSerializer;
+    private final ComponentArtifactIdentifierSerializer artifactIdSerializer = new ComponentArtifactIdentifierSerializer();
+    private final ModuleVersionIdentifierSerializer ownerSerializer;
+    private final CalculatedValueContainerFactory calculatedValueContainerFactory;
+    private final DependencyVerificationOverride dependencyVerificationOverride;
+    private final BuildIdentifier currentBuild;
+
+    public CachingConfigurationResolver(ConfigurationResolver delegate,
+                                        ResolvedGraphCache cache,
+                                        GlobalDependencyResolutionRules metadataHandler,
+                                        AttributesSchemaInternal attributesSchema,
+                                        VersionSelectorScheme versionSelectorScheme,
+                                        ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
+                                        ImmutableModuleIdentifierFactory moduleIdentifierFactory,
+                                        AttributeContainerSerializer attributeContainerSerializer,
+                                        ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
+                                        CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                        DependencyVerificationOverride dependencyVerificationOverride,
+                                        BuildIdentifier currentBuild) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.metadataHandler = metadataHandler;
+        this.fingerprinter = new ConfigurationResolutionFingerprinter(metadataHandler, attributesSchema, versionSelectorScheme, classLoaderHierarchyHasher);
+        this.graphSerializer = new ResolutionResultGraphSerializer(moduleIdentifierFactory, attributeContainerSerializer, componentSelectionDescriptorFactory);
+        this.attributeContainerSerializer = attributeContainerSerializer;
+        this.ownerSerializer = new ModuleVersionIdentifierSerializer(moduleIdentifierFactory);
+        this.calculatedValueContainerFactory = calculatedValueContainerFactory;
+        this.dependencyVerificationOverride = dependencyVerificationOverride;
+        this.currentBuild = currentBuild;
+    }
+
+    @Override
+    public List<ResolutionAwareRepository> getRepositories() {
+        return delegate.getRepositories();
+    }
+
+    @Override
+    public void resolveBuildDependencies(ConfigurationInternal configuration, ResolverResults result) {
+        delegate.resolveBuildDependencies(configuration, result);
+    }
+
+    @Override
+    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+        HashCode fingerprint = dependencyVerificationOverride == DependencyVerificationOverride.NO_VERIFICATION
+            ? fingerprinter.fingerprint(configuration, getRepositories())
+            : null;
+        if (fingerprint == null) {
+            delegate.resolveGraph(configuration, results);
+            return;
+        }
+        String key = configuration.getIdentityPath().toString();
+        CachedResolution cached = load(configuration, key, fingerprint);
+        if (cached != null) {
+            LOGGER.debug("Reusing the resolution result of {} from a previous build.", configuration.getDisplayName());
+            Lazy<ResolverResults> fullResolution = Lazy.locking().of(() -> resolveFully(configuration));
+            CachedVisitedArtifactSet artifacts = new CachedVisitedArtifactSet(configuration.getAttributes().asImmutable(), cached.artifacts, fullResolution);
+            results.graphResolved(cached.graph, new ResolvedLocalComponentsResultGraphVisitor(currentBuild), artifacts);
+            results.retainState(new CachedState(artifacts, new FullyResolvedConfiguration(fullResolution)));
+            return;
+        }
+        delegate.resolveGraph(configuration, results);
+        if (!results.hasError()) {
+            results.retainState(new RecordingState(key, fingerprint, results.getArtifactResolveState()));
+        }
+    }
+
+    @Override
+    public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+        Object state = results.hasError() ? null : results.getArtifactResolveState();
+        if (state instanceof CachedState) {
+            CachedState cachedState = (CachedState) state;
+            results.artifactsResolved(cachedState.resolvedConfiguration, cachedState.artifacts);
+        } else if (state instanceof RecordingState) {
+            RecordingState recordingState = (RecordingState) state;
+            results.retainState(recordingState.delegateState);
+            delegate.resolveArtifacts(configuration, results);
+            if (!results.hasError()) {
+                RecordingVisitedArtifactSet artifacts = new RecordingVisitedArtifactSet(results.getVisitedArtifacts(), configuration, results.getResolutionResult(), recordingState);
+                results.artifactsResolved(results.getResolvedConfiguration(), artifacts);
+            }
+        } else {
+            delegate.resolveArtifacts(configuration, results);
+        }
+    }
+
+    private ResolverResults resolveFully(ConfigurationInternal configuration) {
+        DefaultResolverResults results = new DefaultResolverResults();
+        delegate.resolveGraph(configuration, results);
+        delegate.resolveArtifacts(configuration, results);
+        return results;
+    }
+
+    @Nullable
+    private CachedResolution load(ConfigurationInternal configuration, String key, HashCode fingerprint) {
+        byte[] data = cache.get(key, fingerprint);
+        if (data == null) {
+            return null;
+        }
+        try (KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(data))) {
+            ResolutionResult graph = graphSerializer.read(decoder);
+            int artifactCount = decoder.readSmallInt();
+            List<CachedArtifact> artifacts = new ArrayList<>(artifactCount);
+            for (int i = 0; i < artifactCount; i++) {
+                DisplayName variantName = Describables.of(decoder.readString());
+                ImmutableAttributes variantAttributes = attributeContainerSerializer.read(decoder);
+                DefaultModuleComponentArtifactIdentifier id = artifactIdSerializer.read(decoder);
+                ModuleVersionIdentifier owner = ownerSerializer.read(decoder);
+                File file = new File(decoder.readString());
+                if (!file.isFile()) {
+                    // Removed from the artifact cache since
+                    return null;
+                }
+                artifacts.add(new CachedArtifact(variantName, variantAttributes, id, owner, file));
+            }
+            if (!canReuse(graph)) {
+                return null;
+            }
+            return new CachedResolution(graph, artifacts);
+        } catch (Exception e) {
+            LOGGER.debug("Could not load the cached resolution result of {}.", configuration.getDisplayName(), e);
+            return null;
+        }
+    }
+
+    private void store(ConfigurationInternal configuration, RecordingState state, ResolutionResult graph, List<CachedArtifact> artifacts) {
+        if (!canReuse(graph)) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream)) {
+                graphSerializer.write(encoder, graph);
+                encoder.writeSmallInt(artifacts.size());
+                for (CachedArtifact artifact : artifacts) {
+                    encoder.writeString(artifact.variantName.getDisplayName());
+                    attributeContainerSerializer.write(encoder, artifact.variantAttributes);
+                    artifactIdSerializer.write(encoder, artifact.id);
+                    ownerSerializer.write(encoder, artifact.owner);
+                    encoder.writeString(artifact.file.getAbsolutePath());
+                }
+            }
+            cache.put(state.key, state.fingerprint, outputStream.toByteArray());
+        } catch (Exception e) {
+            LOGGER.debug("Could not cache the resolution result of {}.", configuration.getDisplayName(), e);
+        }
+    }
+
+    /**
+     * Can the given graph be reused, given the same declared inputs? This is not the case when the graph contains selections that can change over time,
+     * or that depend on state that is not fingerprinted.
+     */
+    private boolean canReuse(ResolutionResult graph) {
+        ResolvedComponentResult root = graph.getRoot();
+        ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+        for (ResolvedComponentResult component : graph.getAllComponents()) {
+            ComponentIdentifier id = component.getId();
+            if (component != root) {
+                if (!(id instanceof ModuleComponentIdentifier) || ((ModuleComponentIdentifier) id).getVersion().endsWith("-SNAPSHOT")) {
+                    return false;
+                }
+            }
+            if (component.getSelectionReason().isConflictResolution() || moduleReplacements.participatesInReplacements(component.getModuleVersion().getModule())) {
+                return false;
+            }
+            for (DependencyResult dependency : component.getDependencies()) {
+                if (!(dependency instanceof ResolvedDependencyResult)) {
+                    return false;
+                }
+                ComponentSelector requested = dependency.getRequested();
+                if (requested instanceof ModuleComponentSelector && !fingerprinter.isFixed(((ModuleComponentSelector) requested).getVersionConstraint())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Is the given selection the one used for the files of the configuration itself?
+     */
+    private static boolean isConfigurationFiles(Spec<? super Dependency> dependencySpec, AttributeContainerInternal requestedAttributes, Spec<? super ComponentIdentifier> componentSpec, boolean allowNoMatchingVariant, ImmutableAttributes configurationAttributes) {
+        return dependencySpec == Specs.SATISFIES_ALL
+            && componentSpec == Specs.SATISFIES_ALL
+            && !allowNoMatchingVariant
+            && requestedAttributes.asImmutable().equals(configurationAttributes);
+    }
+
+    private static class CachedResolution {
+        private final ResolutionResult graph;
+        private final List<CachedArtifact> artifacts;
+
+        CachedResolution(ResolutionResult graph, List<CachedArtifact> artifacts) {
+            this.graph = graph;
+            this.artifacts = artifacts;
+        }
+    }
+
+    private static class CachedArtifact {
+        private final DisplayName variantName;
+        private final AttributeContainer variantAttributes;
+        private final DefaultModuleComponentArtifactIdentifier id;
+        private final ModuleVersionIdentifier owner;
+        private final File file;
+
+        CachedArtifact(DisplayName variantName, AttributeContainer variantAttributes, DefaultModuleComponentArtifactIdentifier id, ModuleVersionIdentifier owner, File file) {
+            this.variantName = variantName;
+            this.variantAttributes = variantAttributes;
+            this.id = id;
+            this.owner = owner;
+            this.file = file;
+        }
+    }
+
+    private static class CachedState {
+        private final CachedVisitedArtifactSet artifacts;
+        private final ResolvedConfiguration resolvedConfiguration;
+
+        CachedState(CachedVisitedArtifactSet artifacts, ResolvedConfiguration resolvedConfiguration) {
+            this.artifacts = artifacts;
+            this.resolvedConfiguration = resolvedConfiguration;
+        }
+    }
+
+    private static class RecordingState {
+        private final String key;
+        private final HashCode fingerprint;
+        private final Object delegateState;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        RecordingState(String key, HashCode fingerprint, Object delegateState) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.delegateState = delegateState;
+        }
+    }
+
+    /**
+     * Serves the files of the configuration from the cached artifacts, and any other selection from a full resolution.
+     */
+    private class CachedVisitedArtifactSet implements VisitedArtifactSet, SelectedArtifactSet {
+        private final ImmutableAttributes configurationAttributes;
+        private final List<CachedArtifact> artifacts;
+        private final Lazy<ResolverResults> fullResolution;
+
+        CachedVisitedArtifactSet(ImmutableAttributes configurationAttributes, List<CachedArtifact> artifacts, Lazy<ResolverResults> fullResolution) {
+            this.configurationAttributes = configurationAttributes;
+            this.artifacts = artifacts;
+            this.fullResolution = fullResolution;
+        }
+
+        @Override
+        public SelectedArtifactSet select(Spec<? super Dependency> dependencySpec, AttributeContainerInternal requestedAttributes, Spec<? super ComponentIdentifier> componentSpec, boolean allowNoMatchingVariant) {
+            if (isConfigurationFiles(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant, configurationAttributes)) {
+                return this;
+            }
+            return new SelectedArtifactSet() {
+                @Override
+                public void visitDependencies(TaskDependencyResolveContext context) {
+                    fullResolution.get().getVisitedArtifacts().select(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant).visitDependencies(context);
+                }
+
+                @Override
+                public void visitArtifacts(ArtifactVisitor visitor, boolean continueOnSelectionFailure) {
+                    fullResolution.get().getVisitedArtifacts().select(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant).visitArtifacts(visitor, continueOnSelectionFailure);
+                }
+            };
+        }
+
+        @Override
+        public void visitDependencies(TaskDependencyResolveContext context) {
+            // Only external artifacts are cached, which are not built by any task
+        }
+
+        @Override
+        public void visitArtifacts(ArtifactVisitor visitor, boolean continueOnSelectionFailure) {
+            for (CachedArtifact artifact : artifacts) {
+                ResolvableArtifact resolvableArtifact = new PreResolvedResolvableArtifact(artifact.owner, artifact.id.getName(), artifact.id, calculatedValueContainerFactory.create(Describables.of(artifact.id), artifact.file), TaskDependencyContainer.EMPTY, calculatedValueContainerFactory);
+                visitor.visitArtifact(artifact.variantName, artifact.variantAttributes, resolvableArtifact);
+                visitor.endVisitCollection(FileCollectionInternal.OTHER);
+            }
+        }
+    }
+
+    /**
+     * Records the files of the configuration the first time they are visited, once the whole graph and its files have been resolved successfully.
+     */
+    private class RecordingVisitedArtifactSet implements VisitedArtifactSet {
+        private final VisitedArtifactSet delegate;
+        private final ConfigurationInternal configuration;
+        private final ImmutableAttributes configurationAttributes;
+        private final ResolutionResult graph;
+        private final RecordingState state;
+
+        RecordingVisitedArtifactSet(VisitedArtifactSet delegate, ConfigurationInternal configuration, ResolutionResult graph, RecordingState state) {
+            this.delegate = delegate;
+            this.configuration = configuration;
+            this.configurationAttributes = configuration.getAttributes().asImmutable();
+            this.graph = graph;
+            this.state = state;
+        }
+
+        @Override
+        public SelectedArtifactSet select(Spec<? super Dependency> dependencySpec, AttributeContainerInternal requestedAttributes, Spec<? super ComponentIdentifier> componentSpec, boolean allowNoMatchingVariant) {
+            SelectedArtifactSet selected = delegate.select(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant);
+            if (!isConfigurationFiles(dependencySpec, requestedAttributes, componentSpec, allowNoMatchingVariant, configurationAttributes)) {
+                return selected;
+            }
+            return new SelectedArtifactSet() {
+                @Override
+                public void visitDependencies(TaskDependencyResolveContext context) {
+                    selected.visitDependencies(context);
+                }
+
+                @Override
+                public void visitArtifacts(ArtifactVisitor visitor, boolean continueOnSelectionFailure) {
+                    if (state.recorded.get() || !visitor.requireArtifactFiles()) {
+                        selected.visitArtifacts(visitor, continueOnSelectionFailure);
+                        return;
+                    }
+                    RecordingArtifactVisitor recordingVisitor = new RecordingArtifactVisitor(visitor);
+                    selected.visitArtifacts(recordingVisitor, continueOnSelectionFailure);
+                    if (recordingVisitor.artifacts != null && state.recorded.compareAndSet(false, true)) {
+                        store(configuration, state, graph, recordingVisitor.artifacts);
+                    }
+                }
+            };
+        }
+    }
+
+    private static class RecordingArtifactVisitor implements ArtifactVisitor {
+        private final ArtifactVisitor delegate;
+        // Null when the visited artifacts cannot be cached
+        private List<CachedArtifact> artifacts = new ArrayList<>();
+
+        RecordingArtifactVisitor(ArtifactVisitor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FileCollectionStructureVisitor.VisitType prepareForVisit(FileCollectionInternal.Source source) {
+            FileCollectionStructureVisitor.VisitType visitType = delegate.prepareForVisit(source);
+            if (visitType != FileCollectionStructureVisitor.VisitType.Visit) {
+                artifacts = null;
+            }
+            return visitType;
+        }
+
+        @Override
+        public void visitArtifact(DisplayName variantName, AttributeContainer variantAttributes, ResolvableArtifact artifact) {
+            if (artifacts != null) {
+                if (artifact.getId() instanceof DefaultModuleComponentArtifactIdentifier) {
+                    ResolvedArtifact publicView = artifact.toPublicView();
+                    artifacts.add(new CachedArtifact(variantName, variantAttributes, (DefaultModuleComponentArtifactIdentifier) artifact.getId(), publicView.getModuleVersion().getId(), artifact.getFile()));
+                } else {
+                    artifacts = null;
+                }
+            }
+            delegate.visitArtifact(variantName, variantAttributes, artifact);
+        }
+
+        @Override
+        public boolean requireArtifactFiles() {
+            return delegate.requireArtifactFiles();
+        }
+
+        @Override
+        public void visitFailure(Throwable failure) {
+            artifacts = null;
+            delegate.visitFailure(failure);
+        }
+
+        @Override
+        public void visitSpec(FileCollectionInternal spec) {
+            artifacts = null;
+            delegate.visitSpec(spec);
+        }
+
+        @Override
+        public void endVisitCollection(FileCollectionInternal.Source source) {
+            delegate.endVisitCollection(source);
+        }
+    }
+
+    /**
+     * The legacy view of a configuration whose graph was served from the cache, which is backed by a full resolution of the configuration.
+     */
+    private static class FullyResolvedConfiguration implements ResolvedConfiguration {
+        private final Lazy<ResolverResults> fullResolution;
+
+        FullyResolvedConfiguration(Lazy<ResolverResults> fullResolution) {
+            this.fullResolution = fullResolution;
+        }
+
+        private ResolvedConfiguration getDelegate() {
+            return fullResolution.get().getResolvedConfiguration();
+        }
+
+        @Override
+        public boolean hasError() {
+            // Only resolutions without failures are cached, so avoid resolving the configuration again to find out
+            return false;
+        }
+
+        @Override
+        public LenientConfiguration getLenientConfiguration() {
+            return getDelegate().getLenientConfiguration();
+        }
+
+        @Override
+        public void rethrowFailure() throws ResolveException {
+        }
+
+        @Override
+        public Set<File> getFiles() throws ResolveException {
+            return getDelegate().getFiles();
+        }
+
+        @Override
+        public Set<File> getFiles(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return getDelegate().getFiles(dependencySpec);
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies() throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies();
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies(dependencySpec);
+        }
+
+        @Override
+        public Set<ResolvedArtifact> getResolvedArtifacts() throws ResolveException {
+            return getDelegate().getResolvedArtifacts();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import com.google.common.collect.Ordering;
+import org.gradle.api.Action;
+import org.gradle.api.Named;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.DependencySubstitution;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.capabilities.Capability;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.Module;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dependencies.DependencyConstraintInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.repositories.AbstractArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.artifacts.repositories.descriptor.RepositoryDescriptor;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.CompatibilityRule;
+import org.gradle.api.internal.attributes.DefaultCompatibilityRuleChain;
+import org.gradle.api.internal.attributes.DefaultDisambiguationRuleChain;
+import org.gradle.api.internal.attributes.DefaultOrderedCompatibilityRule;
+import org.gradle.api.internal.attributes.DefaultOrderedDisambiguationRule;
+import org.gradle.api.internal.attributes.DisambiguationRule;
+import org.gradle.internal.Actions;
+import org.gradle.internal.action.ConfigurableRule;
+import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates a fingerprint of everything that the resolution of a configuration depends on, for configurations whose resolution result can be reused across builds.
+ *
+ * <p>Only configurations that declare external module dependencies on fixed versions, resolved without any rules that cannot be fingerprinted, are supported.
+ * Attribute matching rules are fingerprinted by the name and class loader of their class and by their parameters.
+ * Given the same fingerprint, the resolution of such a configuration only depends on the module metadata, which is immutable for fixed, non changing versions.</p>
+ */
+class ConfigurationResolutionFingerprinter {
+    private static final Comparator<Attribute<?>> ATTRIBUTE_ORDER = Comparator.comparing(Attribute::getName);
+
+    private final GlobalDependencyResolutionRules metadataHandler;
+    private final AttributesSchemaInternal attributesSchema;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+
+    ConfigurationResolutionFingerprinter(GlobalDependencyResolutionRules metadataHandler, AttributesSchemaInternal attributesSchema, VersionSelectorScheme versionSelectorScheme, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.metadataHandler = metadataHandler;
+        this.attributesSchema = attributesSchema;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+    }
+
+    /**
+     * Returns the fingerprint of the inputs to the resolution of the given configuration, or null when the result of resolving the configuration cannot be reused.
+     */
+    @Nullable
+    HashCode fingerprint(ConfigurationInternal configuration, List<? extends ResolutionAwareRepository> repositories) {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(configuration.getIdentityPath().getPath());
+        hashModule(configuration.getModule(), hasher);
+        hashAttributes(configuration.getAttributes(), hasher);
+        hashCapabilities(configuration.getOutgoing().getCapabilities(), hasher);
+        hashSchema(hasher);
+        hashResolutionStrategy(configuration.getResolutionStrategy(), hasher);
+        if (configuration.getConsistentResolutionSource() != null) {
+            hasher.markAsInvalid("consistent resolution");
+        }
+        if (!metadataHandler.getComponentMetadataProcessorFactory().isNoOp()) {
+            hasher.markAsInvalid("component metadata rules");
+        }
+        hashRepositories(repositories, hasher);
+        hashExcludeRules(configuration.getAllExcludeRules(), hasher);
+        hasher.putInt(configuration.getAllDependencies().size());
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (!hasher.isValid()) {
+                return null;
+            }
+            hashDependency(dependency, hasher);
+        }
+        hasher.putInt(configuration.getAllDependencyConstraints().size());
+        for (DependencyConstraint constraint : configuration.getAllDependencyConstraints()) {
+            hashConstraint(constraint, hasher);
+        }
+        return hasher.isValid() ? hasher.hash() : null;
+    }
+
+    private static void hashModule(Module module, Hasher hasher) {
+        hasher.putString(module.getGroup());
+        hasher.putString(module.getName());
+        hasher.putString(module.getVersion());
+        hasher.putString(module.getStatus());
+    }
+
+    private void hashSchema(Hasher hasher) {
+        List<Attribute<?>> attributes = new ArrayList<>(attributesSchema.getAttributes());
+        attributes.sort(ATTRIBUTE_ORDER);
+        hasher.putInt(attributes.size());
+        for (Attribute<?> attribute : attributes) {
+            hasher.putString(attribute.getName());
+            hasher.putString(attribute.getType().getName());
+            hashMatchingRules(attributesSchema.compatibilityRules(attribute), hasher);
+            hashMatchingRules(attributesSchema.disambiguationRules(attribute), hasher);
+        }
+    }
+
+    private void hashMatchingRules(Object ruleChain, Hasher hasher) {
+        List<? extends Action<?>> rules;
+        if (ruleChain instanceof DefaultCompatibilityRuleChain) {
+            rules = ((DefaultCompatibilityRuleChain<?>) ruleChain).getRules();
+        } else if (ruleChain instanceof DefaultDisambiguationRuleChain) {
+            rules = ((DefaultDisambiguationRuleChain<?>) ruleChain).getRules();
+        } else if (ruleChain instanceof CompatibilityRule && !((CompatibilityRule<?>) ruleChain).doesSomething()
+            || ruleChain instanceof DisambiguationRule && !((DisambiguationRule<?>) ruleChain).doesSomething()) {
+            rules = Collections.emptyList();
+        } else {
+            hasher.markAsInvalid("attribute matching rules");
+            return;
+        }
+        hasher.putInt(rules.size());
+        for (Action<?> rule : rules) {
+            hashMatchingRule(rule, hasher);
+        }
+    }
+
+    private void hashMatchingRule(Action<?> rule, Hasher hasher) {
+        if (rule instanceof InstantiatingAction) {
+            for (ConfigurableRule<?> configurableRule : ((InstantiatingAction<?>) rule).getRules().getConfigurableRules()) {
+                Class<?> ruleClass = configurableRule.getRuleClass();
+                HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(ruleClass.getClassLoader());
+                if (classLoaderHash == null) {
+                    hasher.markAsInvalid("attribute matching rule loaded by an unknown class loader");
+                    return;
+                }
+                hasher.putString(ruleClass.getName());
+                hasher.putHash(classLoaderHash);
+                hasher.put(configurableRule.getRuleParams());
+            }
+        } else if (rule instanceof DefaultOrderedCompatibilityRule) {
+            DefaultOrderedCompatibilityRule<?> orderedRule = (DefaultOrderedCompatibilityRule<?>) rule;
+            hashComparator(orderedRule.getComparator(), hasher);
+            hasher.putBoolean(orderedRule.isReverse());
+        } else if (rule instanceof DefaultOrderedDisambiguationRule) {
+            DefaultOrderedDisambiguationRule<?> orderedRule = (DefaultOrderedDisambiguationRule<?>) rule;
+            hashComparator(orderedRule.getComparator(), hasher);
+            hasher.putBoolean(orderedRule.isPickFirst());
+        } else {
+            hasher.markAsInvalid("attribute matching rules");
+        }
+    }
+
+    /**
+     * Only the natural order can be fingerprinted, any other comparator may depend on state that cannot be hashed.
+     */
+    private static void hashComparator(Comparator<?> comparator, Hasher hasher) {
+        if (comparator == Ordering.natural() || comparator == Comparator.naturalOrder()) {
+            hasher.putString("natural");
+        } else {
+            hasher.markAsInvalid("attribute ordering rules");
+        }
+    }
+
+    private static void hashResolutionStrategy(ResolutionStrategyInternal resolutionStrategy, Hasher hasher) {
+        if (resolutionStrategy.getDependencySubstitutionRule() != Actions.<DependencySubstitution>doNothing()) {
+            hasher.markAsInvalid("dependency substitution rules or forced modules");
+        }
+        if (!resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            hasher.markAsInvalid("component selection rules");
+        }
+        if (resolutionStrategy.isDependencyLockingEnabled()) {
+            hasher.markAsInvalid("dependency locking");
+        }
+        if (resolutionStrategy.getCapabilitiesResolutionRules().hasRules()) {
+            hasher.markAsInvalid("capabilities resolution rules");
+        }
+        hasher.putString(resolutionStrategy.getConflictResolution().name());
+        hasher.putString(resolutionStrategy.getSortOrder().name());
+        hasher.putBoolean(resolutionStrategy.isFailingOnDynamicVersions());
+        hasher.putBoolean(resolutionStrategy.isFailingOnChangingVersions());
+    }
+
+    private static void hashRepositories(List<? extends ResolutionAwareRepository> repositories, Hasher hasher) {
+        hasher.putInt(repositories.size());
+        for (ResolutionAwareRepository repository : repositories) {
+            if (!(repository instanceof AbstractArtifactRepository) || ((AbstractArtifactRepository) repository).getContentFilter() != Actions.doNothing()) {
+                hasher.markAsInvalid("repository content filtering");
+                return;
+            }
+            RepositoryDescriptor descriptor = repository.getDescriptor();
+            hasher.putString(descriptor.getType().name());
+            hasher.putString(descriptor.name);
+            for (Map.Entry<String, ?> property : descriptor.getProperties().entrySet()) {
+                hasher.putString(property.getKey());
+                hasher.putString(String.valueOf(property.getValue()));
+            }
+        }
+    }
+
+    private void hashDependency(Dependency dependency, Hasher hasher) {
+        if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+            hasher.markAsInvalid("dependency that is not an external module dependency");
+            return;
+        }
+        ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+        if (moduleDependency.isChanging()) {
+            hasher.markAsInvalid("changing dependency");
+            return;
+        }
+        hashModuleId(moduleDependency.getGroup(), moduleDependency.getName(), hasher);
+        hashVersionConstraint(moduleDependency.getVersionConstraint(), hasher);
+        hasher.putBoolean(moduleDependency.isTransitive());
+        hasher.putBoolean(moduleDependency.isForce());
+        hasher.putBoolean(moduleDependency.isEndorsingStrictVersions());
+        hashNullableString(moduleDependency.getTargetConfiguration(), hasher);
+        hashNullableString(moduleDependency.getReason(), hasher);
+        hasher.putInt(moduleDependency.getArtifacts().size());
+        for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+            hasher.putString(artifact.getName());
+            hasher.putString(artifact.getType());
+            hashNullableString(artifact.getExtension(), hasher);
+            hashNullableString(artifact.getClassifier(), hasher);
+            hashNullableString(artifact.getUrl(), hasher);
+        }
+        hashExcludeRules(moduleDependency.getExcludeRules(), hasher);
+        hashAttributes(moduleDependency.getAttributes(), hasher);
+        hashCapabilities(moduleDependency.getRequestedCapabilities(), hasher);
+    }
+
+    private void hashConstraint(DependencyConstraint constraint, Hasher hasher) {
+        hashModuleId(constraint.getGroup(), constraint.getName(), hasher);
+        hashVersionConstraint(constraint.getVersionConstraint(), hasher);
+        hasher.putBoolean(constraint instanceof DependencyConstraintInternal && ((DependencyConstraintInternal) constraint).isForce());
+        hashNullableString(constraint.getReason(), hasher);
+        hashAttributes(constraint.getAttributes(), hasher);
+    }
+
+    private static void hashModuleId(@Nullable String group, String name, Hasher hasher) {
+        hashNullableString(group, hasher);
+        hasher.putString(name);
+    }
+
+    private void hashVersionConstraint(VersionConstraint versionConstraint, Hasher hasher) {
+        hashVersion(versionConstraint.getRequiredVersion(), hasher);
+        hashVersion(versionConstraint.getPreferredVersion(), hasher);
+        hashVersion(versionConstraint.getStrictVersion(), hasher);
+        hasher.putInt(versionConstraint.getRejectedVersions().size());
+        for (String rejectedVersion : versionConstraint.getRejectedVersions()) {
+            hasher.putString(rejectedVersion);
+        }
+        hashNullableString(versionConstraint.getBranch(), hasher);
+    }
+
+    private void hashVersion(String version, Hasher hasher) {
+        if (!isFixed(version)) {
+            hasher.markAsInvalid("dynamic version");
+        }
+        hasher.putString(version);
+    }
+
+    /**
+     * Returns true when the given constraint does not use any dynamic version, so that the version it selects does not change over time.
+     */
+    boolean isFixed(VersionConstraint versionConstraint) {
+        return isFixed(versionConstraint.getRequiredVersion()) && isFixed(versionConstraint.getPreferredVersion()) && isFixed(versionConstraint.getStrictVersion());
+    }
+
+    private boolean isFixed(String version) {
+        return version.isEmpty() || !versionSelectorScheme.parseSelector(version).isDynamic();
+    }
+
+    private static void hashExcludeRules(Collection<ExcludeRule> excludeRules, Hasher hasher) {
+        hasher.putInt(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            hashNullableString(excludeRule.getGroup(), hasher);
+            hashNullableString(excludeRule.getModule(), hasher);
+        }
+    }
+
+    private static void hashAttributes(AttributeContainer attributes, Hasher hasher) {
+        List<Attribute<?>> keys = new ArrayList<>(attributes.keySet());
+        keys.sort(ATTRIBUTE_ORDER);
+        hasher.putInt(keys.size());
+        for (Attribute<?> key : keys) {
+            hasher.putString(key.getName());
+            hasher.putString(key.getType().getName());
+            Object value = attributes.getAttribute(key);
+            hasher.putString(value instanceof Named ? ((Named) value).getName() : String.valueOf(value));
+        }
+    }
+
+    private static void hashCapabilities(Collection<? extends Capability> capabilities, Hasher hasher) {
+        hasher.putInt(capabilities.size());
+        for (Capability capability : capabilities) {
+            hasher.putString(capability.getGroup());
+            hasher.putString(capability.getName());
+            hashNullableString(capability.getVersion(), hasher);
+        }
+    }
+
+    private static void hashNullableString(@Nullable String value, Hasher hasher) {
+        if (value == null) {
+            hasher.putNull();
+        } else {
+            hasher.putString(value);
+        }
+    }
+}
@@ -25,6 +25,7 @@
 import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.ChecksumAndSignatureVerificationOverride;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.VerifiedArtifactsCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.writer.WriteDependencyVerificationFile;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.ExternalResourceCachePolicy;
 import org.gradle.api.internal.artifacts.repositories.resolver.MetadataFetchingCost;
@@ -96,7 +97,8 @@ public DependencyVerificationOverride dependencyVerificationOverride(BuildOperat
                                                                          SignatureVerificationServiceFactory signatureVerificationServiceFactory,
                                                                          DocumentationRegistry documentationRegistry,
                                                                          BuildCommencedTimeProvider timeProvider,
-                                                                         Factory<GradleProperties> gradlePropertiesFactory) {
+                                                                         Factory<GradleProperties> gradlePropertiesFactory,
+                                                                         VerifiedArtifactsCache verifiedArtifactsCache) {
         List<String> checksums = startParameter.getWriteDependencyVerifications();
         if (!checksums.isEmpty()) {
             IncubationLogger.incubatingFeatureUsed("Dependency verification");
@@ -114,7 +116,7 @@ public DependencyVerificationOverride dependencyVerificationOverride(BuildOperat
                 try {
                     File sessionReportDir = computeReportDirectory(timeProvider);
                     return DisablingVerificationOverride.of(
-                        new ChecksumAndSignatureVerificationOverride(buildOperationExecutor, startParameter.getGradleUserHomeDir(), verificationsFile, keyringsFile, checksumService, signatureVerificationServiceFactory, startParameter.getDependencyVerificationMode(), documentationRegistry, sessionReportDir, gradlePropertiesFactory)
+                        new ChecksumAndSignatureVerificationOverride(buildOperationExecutor, startParameter.getGradleUserHomeDir(), verificationsFile, keyringsFile, checksumService, signatureVerificationServiceFactory, startParameter.getDependencyVerificationMode(), documentationRegistry, sessionReportDir, gradlePropertiesFactory, verifiedArtifactsCache)
                     );
                 } catch (Exception e) {
                     return new FailureVerificationOverride(e);
@@ -22,7 +22,7 @@
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
-import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionConstraint;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomReader.PomDependencyData;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDependencyMgt;
@@ -31,7 +31,6 @@
 import org.gradle.internal.component.external.descriptor.Configuration;
 import org.gradle.internal.component.external.descriptor.DefaultExclude;
 import org.gradle.internal.component.external.descriptor.MavenScope;
-import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
 import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor;
 import org.gradle.internal.component.external.model.maven.MavenDependencyType;
@@ -74,13 +73,15 @@ public class GradlePomModuleDescriptorBuilder {
 
     private final List<MavenDependencyDescriptor> dependencies = Lists.newArrayList();
     private final PomReader pomReader;
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
     private String status;
     private ModuleComponentIdentifier componentIdentifier;
 
-    public GradlePomModuleDescriptorBuilder(PomReader pomReader, VersionSelectorScheme gradleVersionSelectorScheme, VersionSelectorScheme mavenVersionSelectorScheme) {
+    public GradlePomModuleDescriptorBuilder(PomReader pomReader, VersionSelectorScheme gradleVersionSelectorScheme, VersionSelectorScheme mavenVersionSelectorScheme, ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
         this.defaultVersionSelectorScheme = gradleVersionSelectorScheme;
         this.mavenVersionSelectorScheme = mavenVersionSelectorScheme;
         this.pomReader = pomReader;
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
     }
 
     public List<MavenDependencyDescriptor> getDependencies() {
@@ -98,7 +99,7 @@ public ModuleComponentIdentifier getComponentIdentifier() {
     public void setModuleRevId(String group, String module, String version) {
         String effectiveVersion = MavenVersionUtils.toEffectiveVersion(version);
         status = MavenVersionUtils.inferStatusFromEffectiveVersion(version);
-        componentIdentifier = DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId(group, module), effectiveVersion);
+        componentIdentifier = moduleIdentifierFactory.moduleComponentIdentifier(moduleIdentifierFactory.module(group, module), effectiveVersion);
     }
 
     public void addDependency(PomDependencyData dep) {
@@ -126,7 +127,7 @@ private void doAddDependency(PomDependencyMgt dep, MavenDependencyType dependenc
 
         String version = determineVersion(dep);
         String mappedVersion = convertVersionFromMavenSyntax(version);
-        ModuleComponentSelector selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(dep.getGroupId(), dep.getArtifactId()), new DefaultImmutableVersionConstraint(mappedVersion));
+        ModuleComponentSelector selector = DefaultModuleComponentSelector.newSelector(moduleIdentifierFactory.module(dep.getGroupId(), dep.getArtifactId()), new DefaultImmutableVersionConstraint(mappedVersion));
 
         // Some POMs depend on themselves, don't add this dependency: Ivy doesn't allow this!
         // Example: http://repo2.maven.org/maven2/net/jini/jsk-platform/2.1/jsk-platform-2.1.pom
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a POM, as read by {@link PomStaxParser#parse}. Only retains the element name, its child elements and its text.
+ *
+ * <p>Whitespace between child elements is discarded, as no part of a POM model uses the text of an element that has child elements.</p>
+ */
+public final class PomElement {
+    private final String name;
+    private List<PomElement> children = Collections.emptyList();
+    private List<String> comments = Collections.emptyList();
+    private String text;
+    private boolean whitespaceText;
+
+    PomElement(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<PomElement> getChildren() {
+        return children;
+    }
+
+    /**
+     * The comments that are direct children of this element. Only recorded for the root element.
+     */
+    public List<String> getComments() {
+        return comments;
+    }
+
+    /**
+     * The concatenation of the text and CDATA sections that are direct children of this element.
+     */
+    public String getText() {
+        return text == null ? "" : text;
+    }
+
+    void addChild(PomElement child) {
+        if (children.isEmpty()) {
+            children = new ArrayList<>();
+        }
+        if (whitespaceText) {
+            text = null;
+            whitespaceText = false;
+        }
+        children.add(child);
+    }
+
+    void addComment(String comment) {
+        if (comments.isEmpty()) {
+            comments = new ArrayList<>(1);
+        }
+        comments.add(comment);
+    }
+
+    void appendText(String chunk, boolean whitespace) {
+        if (text == null) {
+            text = chunk;
+            whitespaceText = whitespace;
+        } else {
+            text = text.concat(chunk);
+            whitespaceText &= whitespace;
+        }
+    }
+
+    boolean hasChildren() {
+        return !children.isEmpty();
+    }
+}
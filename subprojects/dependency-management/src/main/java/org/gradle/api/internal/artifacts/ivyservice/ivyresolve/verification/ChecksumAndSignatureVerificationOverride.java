@@ -43,12 +43,16 @@
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.ChecksumService;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.logging.ConsoleRenderer;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -73,6 +77,8 @@ public class ChecksumAndSignatureVerificationOverride implements DependencyVerif
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicBoolean hasFatalFailure = new AtomicBoolean();
     private final DependencyVerificationReportWriter reportWriter;
+    private final VerifiedArtifactsCache verifiedArtifactsCache;
+    private final HashCode verificationMetadataFingerprint;
 
     public ChecksumAndSignatureVerificationOverride(BuildOperationExecutor buildOperationExecutor,
                                                     File gradleUserHome,
@@ -83,10 +89,13 @@ public ChecksumAndSignatureVerificationOverride(BuildOperationExecutor buildOper
                                                     DependencyVerificationMode verificationMode,
                                                     DocumentationRegistry documentationRegistry,
                                                     File reportsDirectory,
-                                                    Factory<GradleProperties> gradlePropertiesFactory) {
+                                                    Factory<GradleProperties> gradlePropertiesFactory,
+                                                    VerifiedArtifactsCache verifiedArtifactsCache) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.checksumService = checksumService;
         this.verificationMode = verificationMode;
+        this.verifiedArtifactsCache = verifiedArtifactsCache;
+        this.verificationMetadataFingerprint = fingerprintVerificationMetadata(checksumService, verificationsFile, keyRingsFile);
         try {
             this.verifier = DependencyVerificationsXmlReader.readFromXml(
                 new FileInputStream(verificationsFile)
@@ -100,6 +109,17 @@ public ChecksumAndSignatureVerificationOverride(BuildOperationExecutor buildOper
         this.signatureVerificationService = signatureVerificationServiceFactory.create(keyRingsFile, keyServers());
     }
 
+    private static HashCode fingerprintVerificationMetadata(ChecksumService checksumService, File verificationsFile, File keyRingsFile) {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putHash(checksumService.sha256(verificationsFile));
+        if (keyRingsFile.exists()) {
+            hasher.putHash(checksumService.sha256(keyRingsFile));
+        } else {
+            hasher.putNull();
+        }
+        return hasher.hash();
+    }
+
     private List<URI> keyServers() {
         return DefaultKeyServers.getOrDefaults(verifier.getConfiguration().getKeyServers());
     }
@@ -133,7 +153,14 @@ private void verifyConcurrently() {
                     queue.add(new RunnableBuildOperation() {
                         @Override
                         public void run(BuildOperationContext context) {
+                            String cacheKey = ve.cacheKey();
+                            HashCode fingerprint = ve.fingerprint(checksumService, verificationMetadataFingerprint);
+                            if (fingerprint != null && verifiedArtifactsCache.isVerified(cacheKey, fingerprint)) {
+                                return;
+                            }
+                            AtomicBoolean failed = new AtomicBoolean();
                             verifier.verify(checksumService, signatureVerificationService, ve.kind, ve.artifact, ve.mainFile, ve.signatureFile.create(), f -> {
+                                failed.set(true);
                                 synchronized (failures) {
                                     failures.put(ve.artifact, new RepositoryAwareVerificationFailure(f, ve.repositoryName));
                                 }
@@ -141,6 +168,9 @@ public void run(BuildOperationContext context) {
                                     hasFatalFailure.set(true);
                                 }
                             });
+                            if (fingerprint != null && !failed.get()) {
+                                verifiedArtifactsCache.verified(cacheKey, fingerprint);
+                            }
                         }
 
                         @Override
@@ -283,5 +313,25 @@ private VerificationEvent(ArtifactKind kind, ModuleComponentArtifactIdentifier a
             this.signatureFile = signatureFile;
             this.repositoryName = repositoryName;
         }
+
+        private String cacheKey() {
+            return kind + ":" + artifact.getComponentIdentifier().getDisplayName() + ":" + artifact.getFileName();
+        }
+
+        /**
+         * Fingerprints the content of the artifact file together with the verification metadata, or returns null if the file is missing.
+         *
+         * The content hash comes from the checksum service, which only reuses a previous hash when the file timestamp can be trusted to detect changes.
+         */
+        @Nullable
+        private HashCode fingerprint(ChecksumService checksumService, HashCode verificationMetadataFingerprint) {
+            if (!mainFile.isFile()) {
+                return null;
+            }
+            Hasher hasher = Hashing.newHasher();
+            hasher.putHash(verificationMetadataFingerprint);
+            hasher.putHash(checksumService.sha256(mainFile));
+            return hasher.hash();
+        }
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.internal.VersionStrategy;
+import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.io.File;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Remembers, across builds, the artifacts which passed dependency verification without any failure.
+ *
+ * <p>Each entry records the fingerprint of the artifact file content and of the verification metadata it was verified against,
+ * so that an artifact is only considered verified again if neither changed. Failures are never recorded, they are
+ * always computed again so that they can be reported. When keys are refreshed, recorded entries are ignored but still updated.</p>
+ */
+public class VerifiedArtifactsCache implements Stoppable {
+    private final CacheScopeMapping cacheScopeMapping;
+    private final ProjectCacheDir projectCacheDir;
+    private final CacheRepository repository;
+    private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    private final boolean refreshKeys;
+    private PersistentCache store;
+    private PersistentIndexedCache<String, HashCode> cache;
+
+    public VerifiedArtifactsCache(CacheScopeMapping cacheScopeMapping, ProjectCacheDir projectCacheDir, CacheRepository repository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, boolean refreshKeys) {
+        this.cacheScopeMapping = cacheScopeMapping;
+        this.projectCacheDir = projectCacheDir;
+        this.repository = repository;
+        this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+        this.refreshKeys = refreshKeys;
+    }
+
+    /**
+     * Returns true if the artifact was previously verified with the given fingerprint.
+     */
+    public boolean isVerified(String artifactKey, HashCode fingerprint) {
+        if (refreshKeys) {
+            return false;
+        }
+        return fingerprint.equals(getCache().get(artifactKey));
+    }
+
+    public void verified(String artifactKey, HashCode fingerprint) {
+        getCache().put(artifactKey, fingerprint);
+    }
+
+    private synchronized PersistentIndexedCache<String, HashCode> getCache() {
+        if (cache == null) {
+            File cacheDir = cacheScopeMapping.getBaseDirectory(projectCacheDir.getDir(), "dependency-verification", VersionStrategy.CachePerVersion);
+            store = repository.cache(cacheDir)
+                .withDisplayName("Verified artifacts cache")
+                .withLockOptions(mode(FileLockManager.LockMode.OnDemand))
+                .open();
+            cache = store.createCache(
+                PersistentIndexedCacheParameters.of("verified-artifacts", BaseSerializerFactory.STRING_SERIALIZER, new HashCodeSerializer())
+                    .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(2000, true)));
+        }
+        return cache;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (store != null) {
+            store.close();
+            store = null;
+            cache = null;
+        }
+    }
+}
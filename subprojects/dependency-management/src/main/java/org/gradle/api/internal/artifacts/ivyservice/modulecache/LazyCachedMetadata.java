@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.api.artifacts.ResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.model.ModuleSources;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metadata read from the persistent cache, which is decoded when first used rather than while the cache lock is held.
+ *
+ * <p>The encoded descriptor is released once it has been decoded, so the metadata is never decoded more than once.</p>
+ */
+class LazyCachedMetadata implements ModuleMetadataCache.CachedMetadata {
+    private final long ageMillis;
+    private final ModuleMetadataCacheEntry entry;
+    private ModuleMetadataStore.EncodedModuleDescriptor descriptor;
+
+    private volatile ModuleComponentResolveMetadata metadata;
+    private volatile ResolvedModuleVersion moduleVersion;
+    private volatile Map<Integer, ModuleComponentResolveMetadata> processedMetadataByRules;
+
+    LazyCachedMetadata(ModuleMetadataCacheEntry entry, ModuleMetadataStore.EncodedModuleDescriptor descriptor, BuildCommencedTimeProvider timeProvider) {
+        this(timeProvider.getCurrentTime() - entry.createTimestamp, entry, descriptor, null);
+    }
+
+    private LazyCachedMetadata(long ageMillis, ModuleMetadataCacheEntry entry, @Nullable ModuleMetadataStore.EncodedModuleDescriptor descriptor, @Nullable ModuleComponentResolveMetadata metadata) {
+        this.ageMillis = ageMillis;
+        this.entry = entry;
+        this.descriptor = descriptor;
+        this.metadata = metadata;
+        if (metadata != null) {
+            this.moduleVersion = new DefaultResolvedModuleVersion(metadata.getModuleVersionId());
+        }
+    }
+
+    @Override
+    public boolean isMissing() {
+        return false;
+    }
+
+    @Override
+    public ModuleSources getModuleSources() {
+        return getMetadata().getSources();
+    }
+
+    @Override
+    public ResolvedModuleVersion getModuleVersion() {
+        ResolvedModuleVersion moduleVersion = this.moduleVersion;
+        if (moduleVersion == null) {
+            getMetadata();
+            moduleVersion = this.moduleVersion;
+        }
+        return moduleVersion;
+    }
+
+    @Override
+    public ModuleComponentResolveMetadata getMetadata() {
+        ModuleComponentResolveMetadata metadata = this.metadata;
+        if (metadata == null) {
+            synchronized (this) {
+                metadata = this.metadata;
+                if (metadata == null) {
+                    metadata = entry.configure(descriptor.decode());
+                    descriptor = null;
+                    moduleVersion = new DefaultResolvedModuleVersion(metadata.getModuleVersionId());
+                    this.metadata = metadata;
+                }
+            }
+        }
+        return metadata;
+    }
+
+    @Override
+    public Duration getAge() {
+        return Duration.ofMillis(ageMillis);
+    }
+
+    @Nullable
+    @Override
+    public ModuleComponentResolveMetadata getProcessedMetadata(int key) {
+        if (processedMetadataByRules != null) {
+            return processedMetadataByRules.get(key);
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void putProcessedMetadata(int hash, ModuleComponentResolveMetadata processed) {
+        if (processedMetadataByRules == null) {
+            processedMetadataByRules = Collections.singletonMap(hash, processed);
+        } else {
+            if (processedMetadataByRules.size() == 1) {
+                processedMetadataByRules = new ConcurrentHashMap<>(processedMetadataByRules);
+            }
+            processedMetadataByRules.put(hash, processed);
+        }
+    }
+
+    @Override
+    public synchronized ModuleMetadataCache.CachedMetadata dehydrate() {
+        if (metadata == null) {
+            return new LazyCachedMetadata(ageMillis, entry, descriptor, null);
+        }
+        return new LazyCachedMetadata(ageMillis, entry, null, metadata.asMutable().asImmutable());
+    }
+}
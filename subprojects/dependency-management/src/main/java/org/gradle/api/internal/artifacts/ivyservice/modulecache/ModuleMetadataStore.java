@@ -28,8 +28,10 @@
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
-import java.io.FileInputStream;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.FileOutputStream;
+import java.nio.file.Files;
 
 public class ModuleMetadataStore {
 
@@ -50,13 +52,20 @@ public ModuleMetadataStore(PathKeyFileStore metaDataStore,
     }
 
     public MutableModuleComponentResolveMetadata getModuleDescriptor(ModuleComponentAtRepositoryKey component) {
+        EncodedModuleDescriptor encoded = getEncodedModuleDescriptor(component);
+        return encoded == null ? null : encoded.decode();
+    }
+
+    /**
+     * Reads the stored descriptor for the given component without decoding it, or returns null when there is no stored descriptor.
+     */
+    @Nullable
+    public EncodedModuleDescriptor getEncodedModuleDescriptor(ModuleComponentAtRepositoryKey component) {
         String[] filePath = getFilePath(component);
         LocallyAvailableResource resource = metaDataStore.get(filePath);
         if (resource != null) {
             try {
-                try (StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new FileInputStream(resource.getFile())), stringInterner)) {
-                    return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory, Maps.newHashMap());
-                }
+                return new EncodedModuleDescriptor(resource.getDisplayName(), Files.readAllBytes(resource.getFile().toPath()));
             } catch (Exception e) {
                 throw new RuntimeException("Could not load module metadata from " + resource.getDisplayName(), e);
             }
@@ -88,4 +97,28 @@ private String[] getFilePath(ModuleComponentAtRepositoryKey componentId) {
         };
     }
 
+    /**
+     * The content of a stored module descriptor, read under the cache lock so that it can be decoded later without holding the lock.
+     *
+     * <p>This only defers the decoding. It does not reduce the retained heap, as the decoded metadata is kept once it is used.</p>
+     */
+    public class EncodedModuleDescriptor {
+        private final String displayName;
+        private final byte[] content;
+
+        private EncodedModuleDescriptor(String displayName, byte[] content) {
+            this.displayName = displayName;
+            this.content = content;
+        }
+
+        public MutableModuleComponentResolveMetadata decode() {
+            try {
+                try (StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new ByteArrayInputStream(content)), stringInterner)) {
+                    return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory, Maps.newHashMap());
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Could not load module metadata from " + displayName, e);
+            }
+        }
+    }
 }
@@ -27,7 +27,6 @@
 import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
-import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
 import org.gradle.internal.hash.ChecksumService;
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
 import org.gradle.internal.serialize.AbstractSerializer;
@@ -78,13 +77,14 @@ protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
             if (entry.isMissing()) {
                 return new DefaultCachedMetadata(entry, null, timeProvider);
             }
-            MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
-            if (metadata == null) {
+            // Only read the descriptor while holding the lock, it is decoded when first used
+            ModuleMetadataStore.EncodedModuleDescriptor descriptor = moduleMetadataStore.getEncodedModuleDescriptor(key);
+            if (descriptor == null) {
                 // Descriptor file has been deleted - ignore the entry
                 cache.remove(key);
                 return null;
             }
-            return new DefaultCachedMetadata(entry, entry.configure(metadata), timeProvider);
+            return new LazyCachedMetadata(entry, descriptor, timeProvider);
         });
     }
 
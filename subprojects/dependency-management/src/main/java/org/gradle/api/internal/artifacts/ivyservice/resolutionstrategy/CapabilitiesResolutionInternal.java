@@ -20,4 +20,6 @@
 
 public interface CapabilitiesResolutionInternal extends CapabilitiesResolution {
     void apply(CapabilitiesConflictHandler.ResolutionDetails details);
+
+    boolean hasRules();
 }
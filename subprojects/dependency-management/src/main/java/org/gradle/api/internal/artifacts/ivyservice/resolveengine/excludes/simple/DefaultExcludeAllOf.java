@@ -28,6 +28,7 @@ public static ExcludeAllOf of(ImmutableSet<ExcludeSpec> components) {
 
     private DefaultExcludeAllOf(ImmutableSet<ExcludeSpec> components) {
         super(components);
+        this.orderedComponents = ExcludeIndex.orderedByCost(components);
     }
 
     @Override
@@ -36,6 +37,7 @@ int mask() {
     }
 
     private Boolean mayExcludeArtifacts;
+    private final ExcludeSpec[] orderedComponents;
 
     @Override
     protected String getDisplayName() {
@@ -44,12 +46,26 @@ protected String getDisplayName() {
 
     @Override
     public boolean excludes(ModuleIdentifier module) {
-        return components().allMatch(e -> e.excludes(module));
+        for (ExcludeSpec component : orderedComponents) {
+            if (!component.excludes(module)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public boolean excludesArtifact(ModuleIdentifier module, IvyArtifactName artifactName) {
-        return components().allMatch(e -> e.excludesArtifact(module, artifactName));
+        if (!mayExcludeArtifacts()) {
+            // at least one of the components never excludes an artifact
+            return false;
+        }
+        for (ExcludeSpec component : orderedComponents) {
+            if (!component.excludesArtifact(module, artifactName)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -60,5 +76,4 @@ public boolean mayExcludeArtifacts() {
         mayExcludeArtifacts = components().allMatch(ExcludeSpec::mayExcludeArtifacts);
         return mayExcludeArtifacts;
     }
-
 }
@@ -35,7 +35,8 @@ int mask() {
         return 1731217984;
     }
 
-    private Boolean mayExcludeArtifacts;
+    // Built on first query: many unions are only intermediate results of merging and never queried
+    private ExcludeIndex index;
 
     @Override
     protected String getDisplayName() {
@@ -44,20 +45,25 @@ protected String getDisplayName() {
 
     @Override
     public boolean excludes(ModuleIdentifier module) {
-        return components().anyMatch(e -> e.excludes(module));
+        return index().excludes(module);
     }
 
     @Override
     public boolean excludesArtifact(ModuleIdentifier module, IvyArtifactName artifactName) {
-        return components().anyMatch(e -> e.excludesArtifact(module, artifactName));
+        return index().excludesArtifact(module, artifactName);
     }
 
     @Override
     public boolean mayExcludeArtifacts() {
-        if (mayExcludeArtifacts != null) {
-            return mayExcludeArtifacts;
+        return index().mayExcludeArtifacts();
+    }
+
+    private ExcludeIndex index() {
+        ExcludeIndex index = this.index;
+        if (index == null) {
+            index = ExcludeIndex.anyOf(getComponents());
+            this.index = index;
         }
-        mayExcludeArtifacts = components().anyMatch(ExcludeSpec::mayExcludeArtifacts);
-        return mayExcludeArtifacts;
+        return index;
     }
 }
@@ -16,6 +16,8 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories.ExcludeFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeEverything;
@@ -32,6 +34,12 @@
 import java.util.Set;
 
 public class DefaultExcludeFactory implements ExcludeFactory {
+    /**
+     * Unions and intersections are canonicalized across all factories, so that the
+     * lookup structures they build when first queried are shared by equal specs.
+     */
+    private static final Interner<ExcludeSpec> COMPOSITES = Interners.newWeakInterner();
+
     @Override
     public ExcludeNothing nothing() {
         return DefaultExcludeNothing.get();
@@ -59,22 +67,22 @@ public ModuleIdExclude moduleId(ModuleIdentifier id) {
 
     @Override
     public ExcludeSpec anyOf(ExcludeSpec one, ExcludeSpec two) {
-        return DefaultExcludeAnyOf.of(ImmutableSet.of(one, two));
+        return COMPOSITES.intern(DefaultExcludeAnyOf.of(ImmutableSet.of(one, two)));
     }
 
     @Override
     public ExcludeSpec allOf(ExcludeSpec one, ExcludeSpec two) {
-        return DefaultExcludeAllOf.of(ImmutableSet.of(one, two));
+        return COMPOSITES.intern(DefaultExcludeAllOf.of(ImmutableSet.of(one, two)));
     }
 
     @Override
     public ExcludeSpec anyOf(Set<ExcludeSpec> specs) {
-        return DefaultExcludeAnyOf.of(ImmutableSet.copyOf(specs));
+        return COMPOSITES.intern(DefaultExcludeAnyOf.of(ImmutableSet.copyOf(specs)));
     }
 
     @Override
     public ExcludeSpec allOf(Set<ExcludeSpec> specs) {
-        return DefaultExcludeAllOf.of(ImmutableSet.copyOf(specs));
+        return COMPOSITES.intern(DefaultExcludeAllOf.of(ImmutableSet.copyOf(specs)));
     }
 
     @Override
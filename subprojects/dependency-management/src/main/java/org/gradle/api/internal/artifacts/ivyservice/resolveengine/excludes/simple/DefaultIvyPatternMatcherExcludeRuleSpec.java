@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple;
 
 import com.google.common.base.Objects;
+import org.apache.ivy.plugins.matcher.Matcher;
 import org.apache.ivy.plugins.matcher.PatternMatcher;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.PatternMatchers;
@@ -24,12 +25,16 @@
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.IvyPatternMatcherExcludeRuleSpec;
 import org.gradle.internal.component.model.IvyArtifactName;
 
+import javax.annotation.Nullable;
+
 final class DefaultIvyPatternMatcherExcludeRuleSpec implements IvyPatternMatcherExcludeRuleSpec {
     private final ModuleIdentifier moduleId;
     private final IvyArtifactName ivyArtifactName;
     private final PatternMatcher matcher;
     private final boolean isArtifactExclude;
     private final int hashCode;
+    // Compiled on first use: creating a matcher for an expression compiles it (eg as a regular expression)
+    private CompiledExpressions compiled;
 
     public static ExcludeSpec of(ModuleIdentifier moduleId, IvyArtifactName artifact, String matcher) {
         return new DefaultIvyPatternMatcherExcludeRuleSpec(moduleId, artifact, matcher);
@@ -53,7 +58,8 @@ public boolean excludes(ModuleIdentifier module) {
         if (isArtifactExclude) {
             return false;
         }
-        return matches(moduleId.getGroup(), module.getGroup()) && matches(moduleId.getName(), module.getName());
+        CompiledExpressions expressions = compiled();
+        return expressions.group.matches(module.getGroup()) && expressions.module.matches(module.getName());
     }
 
     @Override
@@ -61,11 +67,12 @@ public boolean excludesArtifact(ModuleIdentifier module, IvyArtifactName artifac
         if (!isArtifactExclude) {
             return false;
         }
-        return matches(moduleId.getGroup(), module.getGroup())
-            && matches(moduleId.getName(), module.getName())
-            && matches(ivyArtifactName.getName(), artifact.getName())
-            && matches(ivyArtifactName.getExtension(), artifact.getExtension())
-            && matches(ivyArtifactName.getType(), artifact.getType());
+        CompiledExpressions expressions = compiled();
+        return expressions.group.matches(module.getGroup())
+            && expressions.module.matches(module.getName())
+            && expressions.artifactName.matches(artifact.getName())
+            && matches(expressions.artifactExtension, ivyArtifactName.getExtension(), artifact.getExtension())
+            && expressions.artifactType.matches(artifact.getType());
     }
 
     @Override
@@ -73,8 +80,33 @@ public boolean mayExcludeArtifacts() {
         return isArtifactExclude;
     }
 
-    private boolean matches(String expression, String input) {
-        return matcher.getMatcher(expression).matches(input);
+    /**
+     * Returns the module this rule is restricted to, when it only ever matches a single module.
+     */
+    @Nullable
+    ModuleIdentifier getExactModuleId() {
+        if (PatternMatchers.isExactMatcher(matcher.getName())
+            && !PatternMatchers.ANY_EXPRESSION.equals(moduleId.getGroup())
+            && !PatternMatchers.ANY_EXPRESSION.equals(moduleId.getName())) {
+            return moduleId;
+        }
+        return null;
+    }
+
+    private CompiledExpressions compiled() {
+        CompiledExpressions expressions = compiled;
+        if (expressions == null) {
+            expressions = new CompiledExpressions(matcher, moduleId, ivyArtifactName);
+            compiled = expressions;
+        }
+        return expressions;
+    }
+
+    private boolean matches(@Nullable Matcher compiled, @Nullable String expression, String input) {
+        if (compiled == null) {
+            return matcher.getMatcher(expression).matches(input);
+        }
+        return compiled.matches(input);
     }
 
     @Override
@@ -103,4 +135,27 @@ public IvyArtifactName getArtifact() {
         return ivyArtifactName;
     }
 
+    private static class CompiledExpressions {
+        private final Matcher group;
+        private final Matcher module;
+        private final Matcher artifactName;
+        @Nullable
+        private final Matcher artifactExtension;
+        private final Matcher artifactType;
+
+        private CompiledExpressions(PatternMatcher matcher, ModuleIdentifier moduleId, @Nullable IvyArtifactName artifact) {
+            this.group = matcher.getMatcher(moduleId.getGroup());
+            this.module = matcher.getMatcher(moduleId.getName());
+            if (artifact != null) {
+                this.artifactName = matcher.getMatcher(artifact.getName());
+                // the extension is optional, in which case matching fails the same way it always did
+                this.artifactExtension = artifact.getExtension() == null ? null : matcher.getMatcher(artifact.getExtension());
+                this.artifactType = matcher.getMatcher(artifact.getType());
+            } else {
+                this.artifactName = null;
+                this.artifactExtension = null;
+                this.artifactType = null;
+            }
+        }
+    }
 }
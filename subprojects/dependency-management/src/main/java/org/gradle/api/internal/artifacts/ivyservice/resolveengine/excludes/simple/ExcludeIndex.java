@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeEverything;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeNothing;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.GroupExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.GroupSetExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ModuleExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ModuleIdExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ModuleIdSetExclude;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ModuleSetExclude;
+import org.gradle.internal.component.model.IvyArtifactName;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * A precompiled form of a union of exclude specs, so that answering a query doesn't
+ * require walking every component of the union.
+ *
+ * Group, module and module id excludes are folded into hash sets. Artifact excludes
+ * which only apply to a single module are bucketed by that module, the remaining specs
+ * are checked one after the other.
+ */
+final class ExcludeIndex {
+    private static final ExcludeSpec[] NO_SPECS = new ExcludeSpec[0];
+
+    private final boolean excludesEverything;
+    private final Set<String> groups;
+    private final Set<String> modules;
+    private final Set<ModuleIdentifier> moduleIds;
+    private final ExcludeSpec[] moduleExcludes;
+    private final ImmutableListMultimap<ModuleIdentifier, ExcludeSpec> artifactExcludesByModule;
+    private final ExcludeSpec[] artifactExcludes;
+
+    static ExcludeIndex anyOf(Set<ExcludeSpec> components) {
+        boolean excludesEverything = false;
+        ImmutableSet.Builder<String> groups = ImmutableSet.builder();
+        ImmutableSet.Builder<String> modules = ImmutableSet.builder();
+        ImmutableSet.Builder<ModuleIdentifier> moduleIds = ImmutableSet.builder();
+        ImmutableList.Builder<ExcludeSpec> moduleExcludes = ImmutableList.builder();
+        ImmutableListMultimap.Builder<ModuleIdentifier, ExcludeSpec> artifactExcludesByModule = ImmutableListMultimap.builder();
+        ImmutableList.Builder<ExcludeSpec> artifactExcludes = ImmutableList.builder();
+        for (ExcludeSpec component : components) {
+            if (component instanceof ExcludeEverything) {
+                excludesEverything = true;
+            } else if (component instanceof ExcludeNothing) {
+                continue;
+            } else if (component instanceof GroupExclude) {
+                groups.add(((GroupExclude) component).getGroup());
+            } else if (component instanceof GroupSetExclude) {
+                groups.addAll(((GroupSetExclude) component).getGroups());
+            } else if (component instanceof ModuleExclude) {
+                modules.add(((ModuleExclude) component).getModule());
+            } else if (component instanceof ModuleSetExclude) {
+                modules.addAll(((ModuleSetExclude) component).getModules());
+            } else if (component instanceof ModuleIdExclude) {
+                moduleIds.add(((ModuleIdExclude) component).getModuleId());
+            } else if (component instanceof ModuleIdSetExclude) {
+                moduleIds.addAll(((ModuleIdSetExclude) component).getModuleIds());
+            } else if (component instanceof DefaultIvyPatternMatcherExcludeRuleSpec && component.mayExcludeArtifacts()) {
+                // an artifact exclude rule never excludes a whole module
+                ModuleIdentifier exactModuleId = ((DefaultIvyPatternMatcherExcludeRuleSpec) component).getExactModuleId();
+                if (exactModuleId != null) {
+                    artifactExcludesByModule.put(exactModuleId, component);
+                } else {
+                    artifactExcludes.add(component);
+                }
+            } else {
+                moduleExcludes.add(component);
+                if (component.mayExcludeArtifacts()) {
+                    artifactExcludes.add(component);
+                }
+            }
+        }
+        return new ExcludeIndex(excludesEverything, groups.build(), modules.build(), moduleIds.build(), moduleExcludes.build(), artifactExcludesByModule.build(), artifactExcludes.build());
+    }
+
+    private ExcludeIndex(boolean excludesEverything,
+                         Set<String> groups,
+                         Set<String> modules,
+                         Set<ModuleIdentifier> moduleIds,
+                         ImmutableList<ExcludeSpec> moduleExcludes,
+                         ImmutableListMultimap<ModuleIdentifier, ExcludeSpec> artifactExcludesByModule,
+                         ImmutableList<ExcludeSpec> artifactExcludes) {
+        this.excludesEverything = excludesEverything;
+        this.groups = groups;
+        this.modules = modules;
+        this.moduleIds = moduleIds;
+        this.moduleExcludes = moduleExcludes.toArray(NO_SPECS);
+        this.artifactExcludesByModule = artifactExcludesByModule;
+        this.artifactExcludes = artifactExcludes.toArray(NO_SPECS);
+    }
+
+    boolean excludes(ModuleIdentifier module) {
+        if (excludesEverything) {
+            return true;
+        }
+        if (!groups.isEmpty() && groups.contains(module.getGroup())) {
+            return true;
+        }
+        if (!modules.isEmpty() && modules.contains(module.getName())) {
+            return true;
+        }
+        if (!moduleIds.isEmpty() && moduleIds.contains(module)) {
+            return true;
+        }
+        for (ExcludeSpec spec : moduleExcludes) {
+            if (spec.excludes(module)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean excludesArtifact(ModuleIdentifier module, IvyArtifactName artifactName) {
+        if (!artifactExcludesByModule.isEmpty()) {
+            for (ExcludeSpec spec : artifactExcludesByModule.get(module)) {
+                if (spec.excludesArtifact(module, artifactName)) {
+                    return true;
+                }
+            }
+        }
+        for (ExcludeSpec spec : artifactExcludes) {
+            if (spec.excludesArtifact(module, artifactName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean mayExcludeArtifacts() {
+        return !artifactExcludesByModule.isEmpty() || artifactExcludes.length > 0;
+    }
+
+    /**
+     * Orders the components of an intersection so that the cheapest checks come first, which
+     * is where an intersection is most likely to be decided.
+     */
+    static ExcludeSpec[] orderedByCost(Set<ExcludeSpec> components) {
+        ExcludeSpec[] ordered = components.toArray(NO_SPECS);
+        Arrays.sort(ordered, Comparator.comparingInt(ExcludeIndex::cost));
+        return ordered;
+    }
+
+    private static int cost(ExcludeSpec spec) {
+        if (spec instanceof ExcludeNothing || spec instanceof ExcludeEverything) {
+            return 0;
+        }
+        if (spec instanceof GroupExclude || spec instanceof ModuleExclude || spec instanceof ModuleIdExclude) {
+            return 1;
+        }
+        if (spec instanceof GroupSetExclude || spec instanceof ModuleSetExclude || spec instanceof ModuleIdSetExclude) {
+            return 2;
+        }
+        if (spec instanceof DefaultIvyPatternMatcherExcludeRuleSpec) {
+            return 4;
+        }
+        return 3;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The build scoped pool used to prefetch component metadata, shared by all the resolutions of the build.
+ *
+ * <p>The pool is bounded by the max worker count, and its threads are only started once a resolution prefetches metadata.</p>
+ */
+public class ComponentMetadataPrefetchExecutor implements Stoppable {
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private ManagedExecutor executor;
+
+    public ComponentMetadataPrefetchExecutor(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    public boolean isEnabled() {
+        return maxThreads > 0 && Boolean.getBoolean(DependencyGraphBuilder.METADATA_PREFETCH_PROPERTY);
+    }
+
+    synchronized Executor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Prefetch component metadata", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+}
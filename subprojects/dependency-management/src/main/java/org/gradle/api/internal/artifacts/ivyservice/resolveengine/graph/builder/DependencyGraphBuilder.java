@@ -52,6 +52,7 @@
 import org.gradle.internal.component.IncompatibleVariantsSelectionException;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DefaultCompatibilityCheckResult;
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.id.IdGenerator;
@@ -62,6 +63,7 @@
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
 import org.gradle.internal.resolve.resolver.ResolveContextToComponentResolver;
 import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,9 +77,19 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class DependencyGraphBuilder {
+    /**
+     * When set, the metadata of external components is fetched on a separate pool as soon as they are selected, instead of when the graph traversal reaches them.
+     */
+    public static final String METADATA_PREFETCH_PROPERTY = "org.gradle.internal.resolution.metadata-prefetch";
+    /**
+     * When set, a node which lost all its incoming edges, typically because the version depending on it was replaced, keeps its outgoing edges until the queue is empty.
+     * When the replacing version depends on the node as well, the part of the graph reachable from the node does not need to be traversed again.
+     */
+    public static final String INCREMENTAL_CONFLICT_RESOLUTION_PROPERTY = "org.gradle.internal.resolution.incremental-conflict-resolution";
     private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGraphBuilder.class);
     private final ModuleConflictHandler moduleConflictHandler;
     private final Spec<? super DependencyMetadata> edgeFilter;
@@ -94,6 +106,8 @@ public class DependencyGraphBuilder {
     private final VersionSelectorScheme versionSelectorScheme;
     private final Comparator<Version> versionComparator;
     private final VersionParser versionParser;
+    private final ComponentMetadataPrefetchExecutor prefetchExecutor;
+    private final CachedExternalResourceStatistics cachedResourceStatistics;
 
     final static Spec<EdgeState> ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
     final static Spec<EdgeState> NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> !dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
@@ -112,7 +126,9 @@ public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolve
                                   ImmutableAttributesFactory attributesFactory,
                                   VersionSelectorScheme versionSelectorScheme,
                                   Comparator<Version> versionComparator,
-                                  VersionParser versionParser) {
+                                  VersionParser versionParser,
+                                  ComponentMetadataPrefetchExecutor prefetchExecutor,
+                                  CachedExternalResourceStatistics cachedResourceStatistics) {
         this.idResolver = componentIdResolver;
         this.metaDataResolver = componentMetaDataResolver;
         this.moduleResolver = resolveContextToComponentResolver;
@@ -128,9 +144,14 @@ public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolve
         this.versionSelectorScheme = versionSelectorScheme;
         this.versionComparator = versionComparator;
         this.versionParser = versionParser;
+        this.prefetchExecutor = prefetchExecutor;
+        this.cachedResourceStatistics = cachedResourceStatistics;
     }
 
-    public void resolve(final ResolveContext resolveContext, final DependencyGraphVisitor modelVisitor) {
+    /**
+     * Resolves the dependency graph of the given context, returning how much work traversing it took.
+     */
+    public DependencyGraphStatistics resolve(final ResolveContext resolveContext, final DependencyGraphVisitor modelVisitor) {
 
         IdGenerator<Long> idGenerator = new LongIdGenerator();
         DefaultBuildableComponentResolveResult rootModule = new DefaultBuildableComponentResolveResult();
@@ -139,15 +160,32 @@ public void resolve(final ResolveContext resolveContext, final DependencyGraphVi
         int graphSize = estimateSize(resolveContext);
         ResolutionStrategyInternal resolutionStrategy = resolveContext.getResolutionStrategy();
 
-        final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize, resolveContext.getResolutionStrategy().getConflictResolution());
+        PrefetchingComponentMetaDataResolver prefetcher = null;
+        ComponentMetaDataResolver metaDataResolver = this.metaDataResolver;
+        if (prefetchExecutor.isEnabled()) {
+            // Count the cached resources used by a prefetch against this resolution
+            Executor executor = prefetchExecutor.getExecutor();
+            prefetcher = new PrefetchingComponentMetaDataResolver(metaDataResolver, task -> executor.execute(cachedResourceStatistics.propagate(task)), buildOperationExecutor);
+            metaDataResolver = prefetcher;
+        }
+
+        final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize, resolveContext.getResolutionStrategy().getConflictResolution(), Boolean.getBoolean(INCREMENTAL_CONFLICT_RESOLUTION_PROPERTY));
 
         Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache = Maps.newHashMapWithExpectedSize(graphSize / 2);
-        traverseGraph(resolveState, componentIdentifierCache);
+        DependencyGraphStatistics statistics;
+        try {
+            statistics = traverseGraph(resolveState, componentIdentifierCache, prefetcher);
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.stop();
+            }
+        }
 
         validateGraph(resolveState, resolutionStrategy.isFailingOnDynamicVersions(), resolutionStrategy.isFailingOnChangingVersions());
 
         assembleResult(resolveState, modelVisitor);
 
+        return statistics;
     }
 
     /**
@@ -166,14 +204,20 @@ private static int estimateSize(ResolveContext resolveContext) {
     /**
      * Traverses the dependency graph, resolving conflicts and building the paths from the root configuration.
      */
-    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+    private DependencyGraphStatistics traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, @Nullable PrefetchingComponentMetaDataResolver prefetcher) {
         resolveState.onMoreSelected(resolveState.getRoot());
         final List<EdgeState> dependencies = Lists.newArrayList();
+        long visited = 0;
+        long revisited = 0;
 
-        while (resolveState.peek() != null || moduleConflictHandler.hasConflicts() || capabilitiesConflictHandler.hasConflicts()) {
+        while (resolveState.peek() != null || resolveState.hasDeferredPruning() || moduleConflictHandler.hasConflicts() || capabilitiesConflictHandler.hasConflicts()) {
             if (resolveState.peek() != null) {
                 final NodeState node = resolveState.pop();
                 LOGGER.debug("Visiting configuration {}.", node);
+                visited++;
+                if (node.markVisited()) {
+                    revisited++;
+                }
 
                 // Register capabilities for this node
                 registerCapabilities(resolveState, node);
@@ -181,9 +225,12 @@ private void traverseGraph(final ResolveState resolveState, final Map<ModuleVers
                 // Initialize and collect any new outgoing edges of this node
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
-                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState, componentIdentifierCache);
+                boolean edgeWasProcessed = resolveEdges(node, dependencies, ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, false, resolveState, componentIdentifierCache, prefetcher);
                 node.collectEndorsedStrictVersions(dependencies);
-                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState, componentIdentifierCache);
+                resolveEdges(node, dependencies, NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC, edgeWasProcessed, resolveState, componentIdentifierCache, prefetcher);
+            } else if (resolveState.hasDeferredPruning()) {
+                // Nodes which were not reattached since they lost their incoming edges can now be pruned
+                resolveState.pruneDeferredNodes();
             } else {
                 // We have some batched up conflicts. Resolve the first, and continue traversing the graph
                 if (moduleConflictHandler.hasConflicts()) {
@@ -194,6 +241,8 @@ private void traverseGraph(final ResolveState resolveState, final Map<ModuleVers
             }
 
         }
+        LOGGER.debug("Visited {} nodes, {} of which had been visited before.", visited, revisited);
+        return new DependencyGraphStatistics(visited, revisited, resolveState.getReattachedNodes());
     }
 
     private void registerCapabilities(final ResolveState resolveState, final NodeState node) {
@@ -240,11 +289,12 @@ private boolean resolveEdges(final NodeState node,
                                  final Spec<EdgeState> dependencyFilter,
                                  final boolean recomputeSelectors,
                                  final ResolveState resolveState,
-                                 final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+                                 final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache,
+                                 @Nullable final PrefetchingComponentMetaDataResolver prefetcher) {
         if (dependencies.isEmpty()) {
             return false;
         }
-        if (performSelectionSerially(dependencies, dependencyFilter, resolveState, recomputeSelectors)) {
+        if (performSelectionSerially(dependencies, dependencyFilter, resolveState, recomputeSelectors, prefetcher)) {
             maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies, dependencyFilter);
             attachToTargetRevisionsSerially(dependencies, dependencyFilter);
             return true;
@@ -254,7 +304,7 @@ private boolean resolveEdges(final NodeState node,
 
     }
 
-    private boolean performSelectionSerially(List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, ResolveState resolveState, boolean recomputeSelectors) {
+    private boolean performSelectionSerially(List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, ResolveState resolveState, boolean recomputeSelectors, @Nullable PrefetchingComponentMetaDataResolver prefetcher) {
         boolean processed = false;
         for (EdgeState dependency : dependencies) {
             if (!dependencyFilter.isSatisfiedBy(dependency)) {
@@ -268,7 +318,7 @@ private boolean performSelectionSerially(List<EdgeState> dependencies, Spec<Edge
 
             if (selector.canResolve() && module.getSelectors().size() > 0) {
                 // Have an unprocessed/new selector for this module. Need to re-select the target version (if there are any selectors that can be used).
-                performSelection(resolveState, module);
+                performSelection(resolveState, module, prefetcher);
             }
 
             module.addUnattachedDependency(dependency);
@@ -283,7 +333,7 @@ private boolean performSelectionSerially(List<EdgeState> dependencies, Spec<Edge
      * and added to the graph.
      * On resolve failure, the failure is recorded and no `ComponentState` is selected.
      */
-    private void performSelection(ResolveState resolveState, ModuleResolveState module) {
+    private void performSelection(ResolveState resolveState, ModuleResolveState module, @Nullable PrefetchingComponentMetaDataResolver prefetcher) {
         ComponentState currentSelection = module.getSelected();
 
         try {
@@ -298,6 +348,24 @@ private void performSelection(ResolveState resolveState, ModuleResolveState modu
             // This is the first time we've seen the module, so register with conflict resolver.
             checkForModuleConflicts(resolveState, module);
         }
+
+        if (prefetcher != null) {
+            maybePrefetchMetadata(module, prefetcher);
+        }
+    }
+
+    /**
+     * Starts fetching the metadata of the newly selected component, so that it is likely available by the time the traversal reaches the component.
+     * The override metadata depends on the selectors of the module, so it is determined here, on the traversal thread.
+     */
+    private static void maybePrefetchMetadata(ModuleResolveState module, PrefetchingComponentMetaDataResolver prefetcher) {
+        ComponentState selected = module.getSelected();
+        if (selected == null || selected.alreadyResolved() || module.isVirtualPlatform()) {
+            return;
+        }
+        if (selected.getComponentOverrideMetadata() == DefaultComponentOverrideMetadata.EMPTY) {
+            prefetcher.prefetch(selected.getComponentId());
+        }
     }
 
     private void checkForModuleConflicts(ResolveState resolveState, ModuleResolveState module) {
@@ -340,7 +408,7 @@ private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionId
             LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}", toDownloadInParallel.size(), node);
             buildOperationExecutor.runAll(buildOperationQueue -> {
                 for (final ComponentState componentState : toDownloadInParallel) {
-                    buildOperationQueue.add(new DownloadMetadataOperation(componentState));
+                    buildOperationQueue.add(new DownloadMetadataOperation(componentState, cachedResourceStatistics));
                 }
             });
         }
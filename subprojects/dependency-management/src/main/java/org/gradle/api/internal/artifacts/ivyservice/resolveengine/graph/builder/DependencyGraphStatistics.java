@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+/**
+ * How much work the traversal of a dependency graph performed, in particular how often nodes were visited again after a version conflict.
+ */
+public class DependencyGraphStatistics {
+    public static final DependencyGraphStatistics NONE = new DependencyGraphStatistics(0, 0, 0);
+
+    private final long nodesVisited;
+    private final long nodesRevisited;
+    private final long nodesReattached;
+
+    DependencyGraphStatistics(long nodesVisited, long nodesRevisited, long nodesReattached) {
+        this.nodesVisited = nodesVisited;
+        this.nodesRevisited = nodesRevisited;
+        this.nodesReattached = nodesReattached;
+    }
+
+    /**
+     * The number of times a node was taken from the queue and visited.
+     */
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * How many of the visits were for a node that had been visited before.
+     */
+    public long getNodesRevisited() {
+        return nodesRevisited;
+    }
+
+    /**
+     * The number of nodes which lost all their incoming edges but were attached again before being pruned.
+     */
+    public long getNodesReattached() {
+        return nodesReattached;
+    }
+}
@@ -18,17 +18,21 @@
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 
 class DownloadMetadataOperation implements RunnableBuildOperation {
     private final ComponentState state;
+    private final Runnable download;
 
-    DownloadMetadataOperation(ComponentState state) {
+    DownloadMetadataOperation(ComponentState state, CachedExternalResourceStatistics statistics) {
         this.state = state;
+        // Runs on a worker thread, count the cached resources it uses against the resolution that queued it
+        this.download = statistics.propagate(state::getMetadata);
     }
 
     @Override
     public void run(BuildOperationContext context) {
-        state.getMetadata();
+        download.run();
     }
 
     @Override
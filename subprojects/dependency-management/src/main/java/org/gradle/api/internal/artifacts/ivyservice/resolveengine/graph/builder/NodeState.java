@@ -95,6 +95,8 @@ public class NodeState implements DependencyGraphNode {
     // In opposite to outgoing edges, virtual edges are for now pretty rare, so they are created lazily
     private List<EdgeState> virtualEdges;
     private boolean queued;
+    private boolean visited;
+    private boolean pruningDeferred;
     private boolean evicted;
     private int transitiveEdgeCount;
     private Set<ModuleIdentifier> upcomingNoLongerPendingConstraints;
@@ -153,6 +155,19 @@ NodeState dequeue() {
         return this;
     }
 
+    /**
+     * Records that this node is being visited, returning true if it was visited before.
+     */
+    boolean markVisited() {
+        boolean revisit = visited;
+        visited = true;
+        return revisit;
+    }
+
+    boolean isPruningDeferred() {
+        return pruningDeferred;
+    }
+
     @Override
     public ComponentState getComponent() {
         return component;
@@ -245,9 +260,21 @@ public void visitOutgoingDependencies(Collection<EdgeState> discoveredEdges) {
 
         // Check if there are any transitive incoming edges at all. Don't traverse if not.
         if (transitiveEdgeCount == 0 && !isRoot() && !metaData.isExternalVariant()) {
+            if (!pruningDeferred && previousTraversalExclusions != null && resolveState.isDeferPruning()) {
+                // The version which had an edge to this node may be replaced by one with an edge to it as well: keep the outgoing edges for now
+                LOGGER.debug("{} has no transitive incoming edges. deferring removal of outgoing edges.", this);
+                pruningDeferred = true;
+                resolveState.deferPruning(this);
+                return;
+            }
+            pruningDeferred = false;
             handleNonTransitiveNode(discoveredEdges);
             return;
         }
+        if (pruningDeferred) {
+            pruningDeferred = false;
+            resolveState.nodeReattached();
+        }
 
         // Determine the net exclusion for this node, by inspecting all transitive incoming edges
         ExcludeSpec resolutionFilter = computeModuleResolutionFilter(incomingEdges);
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link ComponentMetaDataResolver} which can start resolving the metadata of a component as soon as the component is selected,
+ * while the graph builder carries on traversing the rest of the graph.
+ *
+ * <p>Only components resolved without any override metadata are prefetched. When a prefetch has not started by the time the metadata
+ * is requested, the metadata is resolved by the requesting thread instead, so waiting for the pool is never required.</p>
+ */
+class PrefetchingComponentMetaDataResolver implements ComponentMetaDataResolver {
+    private final ComponentMetaDataResolver delegate;
+    private final Executor executor;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final Map<ComponentIdentifier, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+    PrefetchingComponentMetaDataResolver(ComponentMetaDataResolver delegate, Executor executor, BuildOperationExecutor buildOperationExecutor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    /**
+     * Schedules the resolution of the metadata of the given component, unless it is cheap to resolve or has already been scheduled.
+     */
+    void prefetch(ComponentIdentifier identifier) {
+        if (prefetches.containsKey(identifier) || delegate.isFetchingMetadataCheap(identifier)) {
+            return;
+        }
+        Prefetch prefetch = new Prefetch(identifier, buildOperationExecutor.getCurrentOperation());
+        if (prefetches.putIfAbsent(identifier, prefetch) == null) {
+            executor.execute(prefetch);
+        }
+    }
+
+    @Override
+    public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        Prefetch prefetch = componentOverrideMetadata == DefaultComponentOverrideMetadata.EMPTY ? prefetches.remove(identifier) : null;
+        if (prefetch == null || !prefetch.awaitResult()) {
+            delegate.resolve(identifier, componentOverrideMetadata, result);
+            return;
+        }
+        prefetch.applyTo(result);
+    }
+
+    @Override
+    public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+        return delegate.isFetchingMetadataCheap(identifier);
+    }
+
+    /**
+     * Discards the prefetches which have not started yet and waits for the running ones to complete.
+     */
+    void stop() {
+        for (Prefetch prefetch : prefetches.values()) {
+            if (!prefetch.claim()) {
+                prefetch.awaitCompletion();
+            }
+        }
+        prefetches.clear();
+    }
+
+    private class Prefetch implements Runnable {
+        private final ComponentIdentifier identifier;
+        private final BuildOperationRef parent;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+        private Throwable unexpectedFailure;
+
+        Prefetch(ComponentIdentifier identifier, BuildOperationRef parent) {
+            this.identifier = identifier;
+            this.parent = parent;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+            try {
+                buildOperationExecutor.run(new RunnableBuildOperation() {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        delegate.resolve(identifier, DefaultComponentOverrideMetadata.EMPTY, result);
+                    }
+
+                    @Override
+                    public BuildOperationDescriptor.Builder description() {
+                        return BuildOperationDescriptor.displayName("Prefetch metadata of " + identifier.getDisplayName()).parent(parent);
+                    }
+                });
+            } catch (Throwable t) {
+                unexpectedFailure = t;
+            } finally {
+                completed.countDown();
+            }
+        }
+
+        /**
+         * Waits for the prefetch to complete. Returns false when the prefetch had not started, in which case the caller should resolve the metadata itself.
+         */
+        boolean awaitResult() {
+            if (claim()) {
+                return false;
+            }
+            awaitCompletion();
+            return true;
+        }
+
+        void awaitCompletion() {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void applyTo(BuildableComponentResolveResult target) {
+            if (unexpectedFailure != null) {
+                throw UncheckedException.throwAsUncheckedException(unexpectedFailure);
+            }
+            result.applyTo(target);
+            if (!result.hasResult()) {
+                return;
+            }
+            if (result.getFailure() != null) {
+                target.failed(result.getFailure());
+            } else {
+                target.resolved(result.getMetadata());
+            }
+        }
+    }
+}
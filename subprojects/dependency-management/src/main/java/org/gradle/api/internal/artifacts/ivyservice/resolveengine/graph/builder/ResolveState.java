@@ -51,10 +51,12 @@
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -86,6 +88,9 @@ class ResolveState implements ComponentStateFactory<ComponentState> {
     private final ResolveOptimizations resolveOptimizations;
     private final Map<VersionConstraint, ResolvedVersionConstraint> resolvedVersionConstraints = Maps.newHashMap();
     private final AttributeDesugaring attributeDesugaring;
+    private final boolean deferPruning;
+    private final List<NodeState> deferredPruning = new ArrayList<>();
+    private int reattachedNodes;
 
     public ResolveState(IdGenerator<Long> idGenerator,
                         ComponentResolveResult rootResult,
@@ -103,7 +108,8 @@ public ResolveState(IdGenerator<Long> idGenerator,
                         VersionParser versionParser,
                         ModuleConflictResolver<ComponentState> conflictResolver,
                         int graphSize,
-                        ConflictResolution conflictResolution) {
+                        ConflictResolution conflictResolution,
+                        boolean deferPruning) {
         this.idGenerator = idGenerator;
         this.idResolver = idResolver;
         this.metaDataResolver = metaDataResolver;
@@ -123,6 +129,7 @@ public ResolveState(IdGenerator<Long> idGenerator,
         this.conflictResolution = conflictResolution;
         this.resolveOptimizations = new ResolveOptimizations();
         this.attributeDesugaring = new AttributeDesugaring(attributesFactory);
+        this.deferPruning = deferPruning;
         // Create root module
         getModule(rootResult.getModuleVersionId().getModule(), true);
         ComponentState rootVersion = getRevision(rootResult.getId(), rootResult.getModuleVersionId(), rootResult.getMetadata());
@@ -219,6 +226,42 @@ public void onFewerSelected(NodeState node) {
         }
     }
 
+    /**
+     * When true, a node which lost all its incoming edges keeps its outgoing edges until the queue is empty,
+     * so that it does not need to be traversed again if a replacing version attaches an edge to it in the meantime.
+     */
+    boolean isDeferPruning() {
+        return deferPruning;
+    }
+
+    void deferPruning(NodeState node) {
+        deferredPruning.add(node);
+    }
+
+    boolean hasDeferredPruning() {
+        return !deferredPruning.isEmpty();
+    }
+
+    /**
+     * Queues the nodes whose pruning was deferred and which were not reattached since, so that they are now pruned.
+     */
+    void pruneDeferredNodes() {
+        for (NodeState node : deferredPruning) {
+            if (node.isPruningDeferred()) {
+                onFewerSelected(node);
+            }
+        }
+        deferredPruning.clear();
+    }
+
+    void nodeReattached() {
+        reattachedNodes++;
+    }
+
+    int getReattachedNodes() {
+        return reattachedNodes;
+    }
+
     public AttributesSchemaInternal getAttributesSchema() {
         return attributesSchema;
     }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.result.ResolvedVariantResult;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphDependency;
+import org.gradle.api.internal.artifacts.result.ResolvedComponentResultInternal;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes a complete {@link ResolutionResult}, so that it can be retained across builds.
+ *
+ * <p>Unlike {@link StreamingResolutionResultBuilder}, which records the graph while it is being resolved, this serializer works from a resolved graph.
+ * Only graphs without unresolved dependencies are supported.</p>
+ */
+public class ResolutionResultGraphSerializer {
+    private final AttributeContainerSerializer attributeContainerSerializer;
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory;
+
+    public ResolutionResultGraphSerializer(ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer, ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory) {
+        this.attributeContainerSerializer = attributeContainerSerializer;
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.componentSelectionDescriptorFactory = componentSelectionDescriptorFactory;
+    }
+
+    public void write(Encoder encoder, ResolutionResult result) throws Exception {
+        ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
+        ResolvedVariantResultSerializer variantSerializer = new ResolvedVariantResultSerializer(componentIdentifierSerializer, attributeContainerSerializer);
+        ComponentResultSerializer componentSerializer = new ComponentResultSerializer(moduleIdentifierFactory, variantSerializer, componentSelectionDescriptorFactory, componentIdentifierSerializer);
+        ComponentSelectorSerializer selectorSerializer = new ComponentSelectorSerializer(attributeContainerSerializer);
+
+        Map<ResolvedComponentResult, Long> ids = collectComponents(result.getRoot());
+        attributeContainerSerializer.write(encoder, result.getRequestedAttributes());
+        encoder.writeSmallInt(ids.size());
+        for (Map.Entry<ResolvedComponentResult, Long> entry : ids.entrySet()) {
+            ResolvedComponentResult component = entry.getKey();
+            componentSerializer.write(encoder, new DetachedComponentResult(entry.getValue(), component.getModuleVersion(), component.getSelectionReason(), component.getId(), component.getVariants(), ((ResolvedComponentResultInternal) component).getRepositoryName()));
+        }
+        for (ResolvedComponentResult component : ids.keySet()) {
+            Map<DependencyResult, ResolvedVariantResult> fromVariants = new IdentityHashMap<>();
+            for (ResolvedVariantResult variant : component.getVariants()) {
+                for (DependencyResult dependency : component.getDependenciesForVariant(variant)) {
+                    fromVariants.put(dependency, variant);
+                }
+            }
+            encoder.writeSmallInt(component.getDependencies().size());
+            for (DependencyResult dependency : component.getDependencies()) {
+                ResolvedDependencyResult resolvedDependency = (ResolvedDependencyResult) dependency;
+                selectorSerializer.write(encoder, dependency.getRequested());
+                encoder.writeBoolean(dependency.isConstraint());
+                variantSerializer.write(encoder, fromVariants.get(dependency));
+                encoder.writeSmallLong(ids.get(resolvedDependency.getSelected()));
+                variantSerializer.write(encoder, resolvedDependency.getResolvedVariant());
+            }
+        }
+    }
+
+    public ResolutionResult read(Decoder decoder) throws Exception {
+        ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
+        ResolvedVariantResultSerializer variantSerializer = new ResolvedVariantResultSerializer(componentIdentifierSerializer, attributeContainerSerializer);
+        ComponentResultSerializer componentSerializer = new ComponentResultSerializer(moduleIdentifierFactory, variantSerializer, componentSelectionDescriptorFactory, componentIdentifierSerializer);
+        ComponentSelectorSerializer selectorSerializer = new ComponentSelectorSerializer(attributeContainerSerializer);
+
+        DefaultResolutionResultBuilder builder = new DefaultResolutionResultBuilder();
+        builder.setRequestedAttributes(attributeContainerSerializer.read(decoder));
+        int componentCount = decoder.readSmallInt();
+        for (int i = 0; i < componentCount; i++) {
+            builder.visitComponent(componentSerializer.read(decoder));
+        }
+        for (long id = 0; id < componentCount; id++) {
+            int dependencyCount = decoder.readSmallInt();
+            List<ResolvedGraphDependency> dependencies = new ArrayList<>(dependencyCount);
+            for (int i = 0; i < dependencyCount; i++) {
+                ComponentSelector requested = selectorSerializer.read(decoder);
+                boolean constraint = decoder.readBoolean();
+                ResolvedVariantResult fromVariant = variantSerializer.read(decoder);
+                long selected = decoder.readSmallLong();
+                ResolvedVariantResult selectedVariant = variantSerializer.read(decoder);
+                dependencies.add(new DetachedResolvedGraphDependency(requested, selected, null, null, constraint, fromVariant, selectedVariant));
+            }
+            builder.visitOutgoingEdges(id, dependencies);
+        }
+        return builder.complete(0L);
+    }
+
+    /**
+     * Assigns an id to each component reachable from the root, in breadth first order. The root gets id 0.
+     */
+    private static Map<ResolvedComponentResult, Long> collectComponents(ResolvedComponentResult root) {
+        Map<ResolvedComponentResult, Long> ids = new LinkedHashMap<>();
+        Deque<ResolvedComponentResult> queue = new ArrayDeque<>();
+        ids.put(root, 0L);
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            ResolvedComponentResult component = queue.removeFirst();
+            for (DependencyResult dependency : component.getDependencies()) {
+                if (!(dependency instanceof ResolvedDependencyResult)) {
+                    throw new IllegalArgumentException("Cannot serialize a resolution result with unresolved dependency " + dependency);
+                }
+                ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                if (!ids.containsKey(selected)) {
+                    ids.put(selected, (long) ids.size());
+                    queue.add(selected);
+                }
+            }
+        }
+        return ids;
+    }
+}
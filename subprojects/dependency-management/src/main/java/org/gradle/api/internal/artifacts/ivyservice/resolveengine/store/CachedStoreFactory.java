@@ -35,14 +35,27 @@
     private static final Logger LOG = Logging.getLogger(CachedStoreFactory.class);
     private static final int CACHE_SIZE = Integer.getInteger("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheSize", 100);
     private static final int CACHE_EXPIRY = Integer.getInteger("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheExpiryMs", 10000);
+    private static final boolean CACHE_SOFT_VALUES = Boolean.getBoolean("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheSoftValues");
 
     private final Cache<Object, T> cache;
     private final Stats stats;
     private final String displayName;
 
     public CachedStoreFactory(String displayName) {
+        this(displayName, CACHE_SIZE, CACHE_EXPIRY, CACHE_SOFT_VALUES);
+    }
+
+    /**
+     * @param cacheExpiryMs - how long a result is kept after it was last accessed, where 0 disables caching
+     * @param softValues - when true, results are only softly referenced, so they may be dropped earlier when memory is short
+     */
+    CachedStoreFactory(String displayName, int cacheSize, int cacheExpiryMs, boolean softValues) {
         this.displayName = displayName;
-        cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).expireAfterAccess(CACHE_EXPIRY, TimeUnit.MILLISECONDS).build();
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(cacheSize).expireAfterAccess(cacheExpiryMs, TimeUnit.MILLISECONDS);
+        if (softValues) {
+            builder.softValues();
+        }
+        cache = builder.build();
         stats = new Stats();
     }
 
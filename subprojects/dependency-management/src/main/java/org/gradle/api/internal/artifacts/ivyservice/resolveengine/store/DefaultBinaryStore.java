@@ -22,30 +22,49 @@
 import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 class DefaultBinaryStore implements BinaryStore, Closeable {
     private File file;
+    private final AtomicLong memoryBudget;
+    private OffHeapBuffer buffer;
     private StringDeduplicatingKryoBackedEncoder encoder;
     private long offset = -1;
 
     public DefaultBinaryStore(File file) {
+        this(file, null);
+    }
+
+    /**
+     * @param memoryBudget - when not null, the content is kept off-heap while this shared budget, in bytes, allows, and is spilled to the file otherwise.
+     */
+    public DefaultBinaryStore(File file, @Nullable AtomicLong memoryBudget) {
         this.file = file;
+        this.memoryBudget = memoryBudget;
     }
 
     @Override
     public void write(WriteAction write) {
         if (encoder == null) {
-            try {
-                encoder = new StringDeduplicatingKryoBackedEncoder(new FileOutputStream(file));
-            } catch (FileNotFoundException e) {
-                throw throwAsUncheckedException(e);
+            if (memoryBudget != null) {
+                buffer = new OffHeapBuffer(file, memoryBudget);
+                encoder = new StringDeduplicatingKryoBackedEncoder(buffer);
+            } else {
+                try {
+                    encoder = new StringDeduplicatingKryoBackedEncoder(new FileOutputStream(file));
+                } catch (FileNotFoundException e) {
+                    throw throwAsUncheckedException(e);
+                }
             }
         }
         if (offset == -1) {
@@ -77,7 +96,10 @@ public BinaryData done() {
                 encoder.done();
                 encoder.flush();
             }
-            return new SimpleBinaryData(file, offset);
+            if (buffer != null) {
+                return new SimpleBinaryData(new OffHeapSource(buffer, file), offset);
+            }
+            return new SimpleBinaryData(new FileSource(file), offset);
         } finally {
             offset = -1;
         }
@@ -94,6 +116,7 @@ public void close() {
                 file.delete();
             }
             encoder = null;
+            buffer = null;
             file = null;
         }
     }
@@ -103,18 +126,72 @@ File getFile() {
     }
 
     long getSize() {
+        if (buffer != null) {
+            return buffer.size();
+        }
         return file.length();
     }
 
+    boolean isInMemory() {
+        return buffer != null && !buffer.isSpilled();
+    }
+
+    /**
+     * Where the data of a binary store is read from.
+     */
+    private interface Source {
+        InputStream openAt(long offset) throws IOException;
+    }
+
+    private static class FileSource implements Source {
+        private final File file;
+
+        FileSource(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream openAt(long offset) throws IOException {
+            RandomAccessFile randomAccess = new RandomAccessFile(file, "r");
+            randomAccess.seek(offset);
+            return new RandomAccessFileInputStream(randomAccess);
+        }
+
+        @Override
+        public String toString() {
+            return file + " exists? " + file.exists();
+        }
+    }
+
+    private static class OffHeapSource implements Source {
+        private final OffHeapBuffer buffer;
+        private final File file;
+
+        OffHeapSource(OffHeapBuffer buffer, File file) {
+            this.buffer = buffer;
+            this.file = file;
+        }
+
+        @Override
+        public InputStream openAt(long offset) throws IOException {
+            return buffer.openAt(offset);
+        }
+
+        @Override
+        public String toString() {
+            return "memory, spilled to " + file;
+        }
+    }
+
     private static class SimpleBinaryData implements BinaryStore.BinaryData {
         private final long offset;
-        private final File inputFile;
+        private final Source source;
 
         private Decoder decoder;
         private CompositeStoppable resources;
 
-        public SimpleBinaryData(File inputFile, long offset) {
-            this.inputFile = inputFile;
+        public SimpleBinaryData(Source source, long offset) {
+            this.source = source;
             this.offset = offset;
         }
 
@@ -122,10 +199,9 @@ public SimpleBinaryData(File inputFile, long offset) {
         public <T> T read(BinaryStore.ReadAction<T> readAction) {
             try {
                 if (decoder == null) {
-                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
-                    randomAccess.seek(offset);
-                    decoder = new StringDeduplicatingKryoBackedDecoder(new RandomAccessFileInputStream(randomAccess));
-                    resources = new CompositeStoppable().add(randomAccess, decoder);
+                    InputStream input = source.openAt(offset);
+                    decoder = new StringDeduplicatingKryoBackedDecoder(input);
+                    resources = new CompositeStoppable().add(input, decoder);
                 }
                 return readAction.read(decoder);
             } catch (Exception e) {
@@ -148,7 +224,7 @@ public void close() {
         }
 
         public String toString() {
-            return "Binary store in " + inputFile + " offset " + offset + " exists? " + inputFile.exists();
+            return "Binary store in " + source + " offset " + offset;
         }
     }
 }
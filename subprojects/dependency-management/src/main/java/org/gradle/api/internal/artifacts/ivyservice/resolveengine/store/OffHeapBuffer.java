@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.internal.io.RandomAccessFileInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The content of a binary store, kept in direct buffers for as long as the budget shared by all stores allows.
+ *
+ * <p>When no more memory can be reserved, the content written so far is spilled to the backing file, and all further writes go to the file.
+ * Content can be read from any offset while it is written, from memory or from the file.</p>
+ */
+class OffHeapBuffer extends OutputStream {
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final File file;
+    private final AtomicLong budget;
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long reserved;
+    private long size;
+    private OutputStream spilled;
+
+    OffHeapBuffer(File file, AtomicLong budget) {
+        this.file = file;
+        this.budget = budget;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (spilled == null && ensureCapacity()) {
+            current.put((byte) b);
+        } else {
+            spilled.write(b);
+        }
+        size++;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int off, int len) throws IOException {
+        size += len;
+        while (len > 0) {
+            if (spilled != null || !ensureCapacity()) {
+                spilled.write(bytes, off, len);
+                return;
+            }
+            int count = Math.min(len, current.remaining());
+            current.put(bytes, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Makes room in memory for at least one byte, returning false when the content has been spilled to the file instead.
+     */
+    private boolean ensureCapacity() throws IOException {
+        if (current != null && current.hasRemaining()) {
+            return true;
+        }
+        if (!reserve()) {
+            spill();
+            return false;
+        }
+        current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        chunks.add(current);
+        return true;
+    }
+
+    private boolean reserve() {
+        long available = budget.get();
+        while (available >= CHUNK_SIZE) {
+            if (budget.compareAndSet(available, available - CHUNK_SIZE)) {
+                reserved += CHUNK_SIZE;
+                return true;
+            }
+            available = budget.get();
+        }
+        return false;
+    }
+
+    private void spill() throws IOException {
+        spilled = new BufferedOutputStream(new FileOutputStream(file));
+        byte[] transfer = new byte[8192];
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer content = (ByteBuffer) chunk.duplicate().flip();
+            while (content.hasRemaining()) {
+                int count = Math.min(transfer.length, content.remaining());
+                content.get(transfer, 0, count);
+                spilled.write(transfer, 0, count);
+            }
+        }
+        // Readers may still hold the chunks, so only drop the references to them
+        chunks = new ArrayList<>();
+        current = null;
+        release();
+    }
+
+    private void release() {
+        budget.addAndGet(reserved);
+        reserved = 0;
+    }
+
+    synchronized boolean isSpilled() {
+        return spilled != null;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Opens the content written so far, starting at the given offset.
+     */
+    synchronized InputStream openAt(long offset) throws IOException {
+        if (spilled != null) {
+            spilled.flush();
+            RandomAccessFile randomAccess = new RandomAccessFile(file, "r");
+            randomAccess.seek(offset);
+            return new RandomAccessFileInputStream(randomAccess);
+        }
+        List<ByteBuffer> content = new ArrayList<>(chunks.size());
+        for (ByteBuffer chunk : chunks) {
+            content.add((ByteBuffer) chunk.duplicate().flip());
+        }
+        return new ChunksInputStream(content, offset);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (spilled != null) {
+            spilled.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (spilled != null) {
+                spilled.close();
+            }
+        } finally {
+            chunks = new ArrayList<>();
+            current = null;
+            release();
+        }
+    }
+
+    private static class ChunksInputStream extends InputStream {
+        private final List<ByteBuffer> chunks;
+        private int index;
+
+        ChunksInputStream(List<ByteBuffer> chunks, long offset) {
+            this.chunks = chunks;
+            this.index = (int) (offset / CHUNK_SIZE);
+            if (index < chunks.size()) {
+                chunks.get(index).position((int) (offset % CHUNK_SIZE));
+            }
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer chunk = nextChunk();
+            return chunk == null ? -1 : chunk.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer chunk = nextChunk();
+            if (chunk == null) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.remaining());
+            chunk.get(bytes, off, count);
+            return count;
+        }
+
+        private ByteBuffer nextChunk() {
+            while (index < chunks.size()) {
+                ByteBuffer chunk = chunks.get(index);
+                if (chunk.hasRemaining()) {
+                    return chunk;
+                }
+                index++;
+            }
+            return null;
+        }
+    }
+}
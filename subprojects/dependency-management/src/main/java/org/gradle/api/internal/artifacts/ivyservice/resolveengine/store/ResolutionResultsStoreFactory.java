@@ -31,13 +31,20 @@
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ResolutionResultsStoreFactory implements Closeable {
+    /**
+     * The number of bytes of resolution results which may be kept off-heap across all binary stores, before they are spilled to temporary files.
+     * Defaults to 0, in which case results are always written to temporary files.
+     */
+    public static final String MAX_OFF_HEAP_SIZE_PROPERTY = "org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.maxOffHeapSize";
     private final static Logger LOG = Logging.getLogger(ResolutionResultsStoreFactory.class);
     private static final int DEFAULT_MAX_SIZE = 2000000000; //2 gigs
 
     private final TemporaryFileProvider temp;
     private final int maxSize;
+    private final AtomicLong offHeapBudget;
 
     private CachedStoreFactory<TransientConfigurationResults> oldModelCache;
     private CachedStoreFactory<ResolvedComponentResult> newModelCache;
@@ -45,16 +52,22 @@ public class ResolutionResultsStoreFactory implements Closeable {
     private final AtomicInteger storeSetBaseId = new AtomicInteger(0);
 
     public ResolutionResultsStoreFactory(TemporaryFileProvider temp) {
-        this(temp, DEFAULT_MAX_SIZE);
+        this(temp, DEFAULT_MAX_SIZE, Long.getLong(MAX_OFF_HEAP_SIZE_PROPERTY, 0));
+    }
+
+    ResolutionResultsStoreFactory(TemporaryFileProvider temp, int maxSize) {
+        this(temp, maxSize, 0);
     }
 
     /**
      * @param temp - Provider of temporary files.
      * @param maxSize - indicates the approx. maximum size of the binary store that will trigger rolling of the file
+     * @param maxOffHeapSize - the number of bytes which may be kept off-heap across all binary stores, or 0 to always use files
      */
-    ResolutionResultsStoreFactory(TemporaryFileProvider temp, int maxSize) {
+    ResolutionResultsStoreFactory(TemporaryFileProvider temp, int maxSize, long maxOffHeapSize) {
         this.temp = temp;
         this.maxSize = maxSize;
+        this.offHeapBudget = maxOffHeapSize > 0 ? new AtomicLong(maxOffHeapSize) : null;
     }
 
     private final Map<String, DefaultBinaryStore> stores = new HashMap<>();
@@ -65,7 +78,7 @@ private synchronized DefaultBinaryStore createBinaryStore(String storeKey) {
         if (store == null || isFull(store)) {
             File storeFile = temp.createTemporaryFile("gradle", ".bin");
             storeFile.deleteOnExit();
-            store = new DefaultBinaryStore(storeFile);
+            store = new DefaultBinaryStore(storeFile, offHeapBudget);
             stores.put(storeKey, store);
             cleanUpLater.add(store);
         }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.internal.VersionStrategy;
+import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import javax.annotation.Nullable;
+import java.io.File;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Retains the serialized results of resolving configurations across builds, in the project cache directory.
+ *
+ * <p>There is a single entry per configuration, which is only returned when it was recorded for the same fingerprint of the configuration's inputs.
+ * The cache is opened on first use.</p>
+ */
+public class ResolvedGraphCache implements Stoppable {
+    private final CacheScopeMapping cacheScopeMapping;
+    private final ProjectCacheDir projectCacheDir;
+    private final CacheRepository repository;
+    private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
+    private PersistentCache store;
+    private PersistentIndexedCache<String, Entry> cache;
+
+    public ResolvedGraphCache(CacheScopeMapping cacheScopeMapping, ProjectCacheDir projectCacheDir, CacheRepository repository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.cacheScopeMapping = cacheScopeMapping;
+        this.projectCacheDir = projectCacheDir;
+        this.repository = repository;
+        this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
+    }
+
+    /**
+     * Returns the data recorded for the given configuration, when it was recorded for the given fingerprint.
+     */
+    @Nullable
+    public byte[] get(String configurationIdentity, HashCode fingerprint) {
+        Entry entry = getCache().get(configurationIdentity);
+        if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+            return null;
+        }
+        return entry.data;
+    }
+
+    public void put(String configurationIdentity, HashCode fingerprint, byte[] data) {
+        getCache().put(configurationIdentity, new Entry(fingerprint, data));
+    }
+
+    private synchronized PersistentIndexedCache<String, Entry> getCache() {
+        if (cache == null) {
+            File cacheDir = cacheScopeMapping.getBaseDirectory(projectCacheDir.getDir(), "resolved-graphs", VersionStrategy.CachePerVersion);
+            store = repository.cache(cacheDir)
+                .withDisplayName("Resolved dependency graphs cache")
+                .withLockOptions(mode(FileLockManager.LockMode.OnDemand))
+                .open();
+            cache = store.createCache(
+                PersistentIndexedCacheParameters.of("resolved-graphs", BaseSerializerFactory.STRING_SERIALIZER, new EntrySerializer())
+                    .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(200, true)));
+        }
+        return cache;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (store != null) {
+            store.close();
+            store = null;
+            cache = null;
+        }
+    }
+
+    private static class Entry {
+        private final HashCode fingerprint;
+        private final byte[] data;
+
+        private Entry(HashCode fingerprint, byte[] data) {
+            this.fingerprint = fingerprint;
+            this.data = data;
+        }
+    }
+
+    private static class EntrySerializer extends AbstractSerializer<Entry> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+
+        @Override
+        public Entry read(Decoder decoder) throws Exception {
+            HashCode fingerprint = hashCodeSerializer.read(decoder);
+            byte[] data = decoder.readBinary();
+            return new Entry(fingerprint, data);
+        }
+
+        @Override
+        public void write(Encoder encoder, Entry value) throws Exception {
+            hashCodeSerializer.write(encoder, value.fingerprint);
+            encoder.writeBinary(value.data);
+        }
+    }
+}
@@ -32,14 +32,17 @@
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.connector.ResourceConnectorSpecification;
 import org.gradle.internal.resource.local.FileResourceListener;
 import org.gradle.internal.resource.local.FileResourceRepository;
+import org.gradle.internal.resource.transfer.DownloadPermits;
 import org.gradle.internal.resource.transfer.ExternalResourceConnector;
 import org.gradle.internal.resource.transport.ResourceConnectorRepositoryTransport;
 import org.gradle.internal.resource.transport.file.FileTransport;
 import org.gradle.internal.verifier.HttpRedirectVerifier;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.BuildCommencedTimeProvider;
 
 import java.util.Collection;
@@ -61,6 +64,9 @@ public class RepositoryTransportFactory {
     private final FileResourceRepository fileRepository;
     private final ChecksumService checksumService;
     private final FileResourceListener listener;
+    private final CachedExternalResourceStatistics cachedExternalResourceStatistics;
+    private final DownloadPermits downloadPermits;
+    private final WorkerLeaseService workerLeaseService;
 
     public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceConnectorFactory,
                                       ProgressLoggerFactory progressLoggerFactory,
@@ -73,7 +79,10 @@ public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceC
                                       ProducerGuard<ExternalResourceName> producerGuard,
                                       FileResourceRepository fileRepository,
                                       ChecksumService checksumService,
-                                      FileResourceListener listener) {
+                                      FileResourceListener listener,
+                                      CachedExternalResourceStatistics cachedExternalResourceStatistics,
+                                      DownloadPermits downloadPermits,
+                                      WorkerLeaseService workerLeaseService) {
         this.progressLoggerFactory = progressLoggerFactory;
         this.temporaryFileProvider = temporaryFileProvider;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
@@ -85,6 +94,10 @@ public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceC
         this.fileRepository = fileRepository;
         this.checksumService = checksumService;
         this.listener = listener;
+        this.cachedExternalResourceStatistics = cachedExternalResourceStatistics;
+        // Shared by all transports, as a new transport is created each time a repository is resolved
+        this.downloadPermits = downloadPermits;
+        this.workerLeaseService = workerLeaseService;
 
         registeredProtocols.addAll(resourceConnectorFactory);
     }
@@ -98,7 +111,7 @@ public Set<String> getRegisteredProtocols() {
     }
 
     public RepositoryTransport createFileTransport(String name) {
-        return new FileTransport(name, fileRepository, cachedExternalResourceIndex, temporaryFileProvider, timeProvider, artifactCacheLockingManager, producerGuard, checksumService, listener);
+        return new FileTransport(name, fileRepository, cachedExternalResourceIndex, temporaryFileProvider, timeProvider, artifactCacheLockingManager, producerGuard, checksumService, listener, cachedExternalResourceStatistics, workerLeaseService);
     }
 
     public RepositoryTransport createTransport(String scheme, String name, Collection<Authentication> authentications, HttpRedirectVerifier redirectVerifier) {
@@ -128,7 +141,7 @@ public RepositoryTransport createTransport(Set<String> schemes, String name, Col
         ExternalResourceCachePolicy cachePolicy = new DefaultExternalResourceCachePolicy();
         cachePolicy = startParameterResolutionOverride.overrideExternalResourceCachePolicy(cachePolicy);
 
-        return new ResourceConnectorRepositoryTransport(name, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, artifactCacheLockingManager, resourceConnector, buildOperationExecutor, cachePolicy, producerGuard, fileRepository, checksumService);
+        return new ResourceConnectorRepositoryTransport(name, progressLoggerFactory, temporaryFileProvider, cachedExternalResourceIndex, timeProvider, artifactCacheLockingManager, resourceConnector, buildOperationExecutor, cachePolicy, producerGuard, fileRepository, checksumService, cachedExternalResourceStatistics, downloadPermits, workerLeaseService);
     }
 
     private void validateSchemes(Set<String> schemes) {
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts.transform;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
@@ -125,6 +126,7 @@ public CacheableInvocation<ImmutableList<File>> createInvocation(Transformer tra
         CurrentFileCollectionFingerprint dependenciesFingerprint = dependencies.fingerprint(dependencyFingerprinter);
 
         UnitOfWork.Identity identity = getTransformationIdentity(producerProject, inputArtifactSnapshot, normalizedInputPath, transformer, dependenciesFingerprint);
+        reuseResultFromPreviousBuild(workspaceProvider, identity);
 
         TransformerExecution execution = new TransformerExecution(
             transformer,
@@ -161,6 +163,17 @@ private Try<ImmutableList<File>> mapResult(Try<ImmutableList<File>> cachedOutput
         });
     }
 
+    private void reuseResultFromPreviousBuild(TransformationWorkspaceProvider workspaceProvider, UnitOfWork.Identity identity) {
+        Cache<UnitOfWork.Identity, Try<ImmutableList<File>>> identityCache = workspaceProvider.getIdentityCache();
+        if (identityCache.getIfPresent(identity) != null) {
+            return;
+        }
+        ImmutableList<File> previousResult = workspaceProvider.getResultFromPreviousBuild(identity);
+        if (previousResult != null) {
+            identityCache.asMap().putIfAbsent(identity, Try.successful(previousResult));
+        }
+    }
+
     private static UnitOfWork.Identity getTransformationIdentity(@Nullable ProjectInternal project, CompleteFileSystemLocationSnapshot inputArtifactSnapshot, String inputArtifactPath, Transformer transformer, CurrentFileCollectionFingerprint dependenciesFingerprint) {
         return project == null
             ? getImmutableTransformationIdentity(inputArtifactPath, inputArtifactSnapshot, transformer, dependenciesFingerprint)
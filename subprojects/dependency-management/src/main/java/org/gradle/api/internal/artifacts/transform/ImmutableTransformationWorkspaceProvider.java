@@ -31,26 +31,50 @@
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.file.impl.SingleDepthFileAccessTracker;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.CompleteFileSystemLocationSnapshot;
+import org.gradle.internal.vfs.FileSystemAccess;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
 import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 @NotThreadSafe
 public class ImmutableTransformationWorkspaceProvider implements TransformationWorkspaceProvider, Closeable {
+    /**
+     * The number of successful transformation results the daemon remembers across builds, so that warm builds can use them without going through the workspace.
+     * Defaults to 0, in which case results are only remembered until the end of the build.
+     */
+    public static final String RESULTS_FROM_PREVIOUS_BUILDS_CACHE_SIZE_PROPERTY = "org.gradle.internal.transform.previous-builds-cache-size";
     private static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 1;
 
     private final Cache<UnitOfWork.Identity, Try<ImmutableList<File>>> identityCache = com.google.common.cache.CacheBuilder.newBuilder().build();
+    private final Cache<UnitOfWork.Identity, PreviousBuildResult> resultsFromPreviousBuilds;
+    private final int resultsFromPreviousBuildsCacheSize;
+    private final Set<UnitOfWork.Identity> reusedFromPreviousBuilds = ConcurrentHashMap.newKeySet();
     private final SingleDepthFileAccessTracker fileAccessTracker;
     private final File baseDirectory;
     private final ExecutionHistoryStore executionHistoryStore;
+    private final FileSystemAccess fileSystemAccess;
     private final PersistentCache cache;
 
-    public ImmutableTransformationWorkspaceProvider(File baseDirectory, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal, ExecutionHistoryStore executionHistoryStore) {
+    public ImmutableTransformationWorkspaceProvider(File baseDirectory, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal, ExecutionHistoryStore executionHistoryStore, FileSystemAccess fileSystemAccess) {
+        this(baseDirectory, cacheRepository, fileAccessTimeJournal, executionHistoryStore, fileSystemAccess, Integer.getInteger(RESULTS_FROM_PREVIOUS_BUILDS_CACHE_SIZE_PROPERTY, 0));
+    }
+
+    ImmutableTransformationWorkspaceProvider(File baseDirectory, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal, ExecutionHistoryStore executionHistoryStore, FileSystemAccess fileSystemAccess, int resultsFromPreviousBuildsCacheSize) {
         this.baseDirectory = baseDirectory;
+        this.resultsFromPreviousBuilds = com.google.common.cache.CacheBuilder.newBuilder().maximumSize(resultsFromPreviousBuildsCacheSize).build();
+        this.resultsFromPreviousBuildsCacheSize = resultsFromPreviousBuildsCacheSize;
+        this.fileSystemAccess = fileSystemAccess;
         this.cache = cacheRepository
             .cache(baseDirectory)
             .withCleanup(createCleanupAction(baseDirectory, fileAccessTimeJournal))
@@ -78,6 +102,41 @@ public Cache<UnitOfWork.Identity, Try<ImmutableList<File>>> getIdentityCache() {
         return identityCache;
     }
 
+    @Nullable
+    @Override
+    public ImmutableList<File> getResultFromPreviousBuild(UnitOfWork.Identity identity) {
+        PreviousBuildResult result = resultsFromPreviousBuilds.getIfPresent(identity);
+        if (result == null) {
+            return null;
+        }
+        if (!result.outputsHash.equals(hashOutputs(result.files))) {
+            // Changed or removed since, by cache cleanup or by hand
+            resultsFromPreviousBuilds.invalidate(identity);
+            return null;
+        }
+        reusedFromPreviousBuilds.add(identity);
+        return result.files;
+    }
+
+    /**
+     * Remembers the successful results of this build for later builds, together with the hash of their outputs, and forgets about all results for the current build.
+     */
+    public void buildFinished() {
+        if (resultsFromPreviousBuildsCacheSize > 0) {
+            identityCache.asMap().forEach((identity, result) -> result.ifSuccessful(files -> resultsFromPreviousBuilds.put(identity, new PreviousBuildResult(files, hashOutputs(files)))));
+        }
+        identityCache.invalidateAll();
+        if (!reusedFromPreviousBuilds.isEmpty()) {
+            // The workspaces of reused results were not visited, so keep them from being cleaned up
+            cache.withFileLock(() -> {
+                for (UnitOfWork.Identity identity : reusedFromPreviousBuilds) {
+                    fileAccessTracker.markAccessed(new File(baseDirectory, identity.getUniqueId()));
+                }
+            });
+            reusedFromPreviousBuilds.clear();
+        }
+    }
+
     @Override
     public <T> T withWorkspace(UnitOfWork.Identity identity, TransformationWorkspaceAction<T> workspaceAction) {
         return cache.withFileLock(() -> {
@@ -88,8 +147,26 @@ public <T> T withWorkspace(UnitOfWork.Identity identity, TransformationWorkspace
         });
     }
 
+    private HashCode hashOutputs(ImmutableList<File> files) {
+        Hasher hasher = Hashing.newHasher();
+        for (File file : files) {
+            hasher.putHash(fileSystemAccess.read(file.getAbsolutePath(), CompleteFileSystemLocationSnapshot::getHash));
+        }
+        return hasher.hash();
+    }
+
     @Override
     public void close() {
         cache.close();
     }
+
+    private static class PreviousBuildResult {
+        private final ImmutableList<File> files;
+        private final HashCode outputsHash;
+
+        PreviousBuildResult(ImmutableList<File> files, HashCode outputsHash) {
+            this.files = files;
+            this.outputsHash = outputsHash;
+        }
+    }
 }
@@ -118,9 +118,20 @@ public void execute(NodeExecutionContext context) {
     }
 
     public void executeIfNotAlready() {
+        finalizeParametersAndDependenciesIfNotAlready();
+        getTransformedArtifacts().finalizeIfNotAlready();
+    }
+
+    /**
+     * Isolates the parameters and finalizes the upstream dependencies of this node, so that it can then be executed without access to project state.
+     */
+    public void finalizeParametersAndDependenciesIfNotAlready() {
         transformationStep.isolateParametersIfNotAlready();
         upstreamDependencies.finalizeIfNotAlready();
-        getTransformedArtifacts().finalizeIfNotAlready();
+    }
+
+    public boolean isExecuted() {
+        return getTransformedArtifacts().isFinalized();
     }
 
     protected abstract CalculatedValueContainer<TransformationSubject, ?> getTransformedArtifacts();
@@ -259,6 +270,18 @@ public TransformationNode getPreviousTransformationNode() {
             return previousTransformationNode;
         }
 
+        @Override
+        public void executeIfNotAlready() {
+            previousTransformationNode.executeIfNotAlready();
+            super.executeIfNotAlready();
+        }
+
+        @Override
+        public void finalizeParametersAndDependenciesIfNotAlready() {
+            previousTransformationNode.finalizeParametersAndDependenciesIfNotAlready();
+            super.finalizeParametersAndDependenciesIfNotAlready();
+        }
+
         @Override
         protected CalculatedValueContainer<TransformationSubject, TransformPreviousArtifacts> getTransformedArtifacts() {
             return result;
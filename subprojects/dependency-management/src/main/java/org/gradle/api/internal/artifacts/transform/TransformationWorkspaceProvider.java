@@ -22,6 +22,7 @@
 import org.gradle.internal.execution.UnitOfWork;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public interface TransformationWorkspaceProvider {
@@ -37,6 +38,14 @@ public interface TransformationWorkspaceProvider {
 
     Cache<UnitOfWork.Identity, Try<ImmutableList<File>>> getIdentityCache();
 
+    /**
+     * Returns the files produced by a successful transformation with the given identity in a previous build, when still known and its outputs are unchanged since.
+     */
+    @Nullable
+    default ImmutableList<File> getResultFromPreviousBuild(UnitOfWork.Identity identity) {
+        return null;
+    }
+
     @FunctionalInterface
     interface TransformationWorkspaceAction<T> {
         T useWorkspace(String transformationIdentity, File workspaceDir);
@@ -29,6 +29,8 @@
 import org.gradle.internal.Describables;
 import org.gradle.internal.DisplayName;
 import org.gradle.internal.Try;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 
@@ -39,6 +41,12 @@
  * An artifact set containing transformed project artifacts.
  */
 public class TransformedProjectArtifactSet implements ResolvedArtifactSet, FileCollectionInternal.Source, ResolvedArtifactSet.Artifacts {
+    /**
+     * When enabled, the transformation nodes that have not been executed as part of the work graph are executed concurrently when the artifacts are finalized,
+     * each artifact going through its whole transformation chain as one unit of work, rather than one after the other when the artifacts are visited.
+     */
+    public static final String PIPELINED_TRANSFORMS_PROPERTY = "org.gradle.internal.transform.pipelined";
+
     private final ComponentIdentifier componentIdentifier;
     private final ImmutableAttributes targetAttributes;
     private final Collection<TransformationNode> transformedArtifacts;
@@ -87,7 +95,16 @@ public void visit(Visitor visitor) {
 
     @Override
     public void startFinalization(BuildOperationQueue<RunnableBuildOperation> actions, boolean requireFiles) {
-        // TODO - should add any nodes that have not been executed
+        if (!Boolean.getBoolean(PIPELINED_TRANSFORMS_PROPERTY)) {
+            return;
+        }
+        for (TransformationNode node : transformedArtifacts) {
+            if (!node.isExecuted()) {
+                // Finalize anything that requires project state here, so the transforms themselves can run on any worker
+                node.finalizeParametersAndDependenciesIfNotAlready();
+                actions.add(new ExecuteTransformationNode(node));
+            }
+        }
     }
 
     @Override
@@ -128,4 +145,22 @@ public void visitLocalArtifacts(LocalArtifactVisitor visitor) {
     public void visitExternalArtifacts(Action<ResolvableArtifact> visitor) {
         throw new UnsupportedOperationException("Should not be called.");
     }
+
+    private static class ExecuteTransformationNode implements RunnableBuildOperation {
+        private final TransformationNode node;
+
+        ExecuteTransformationNode(TransformationNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Execute transform");
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            node.executeIfNotAlready();
+        }
+    }
 }
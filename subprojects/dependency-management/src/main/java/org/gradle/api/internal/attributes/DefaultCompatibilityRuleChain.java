@@ -80,6 +80,10 @@ public boolean doesSomething() {
         return !rules.isEmpty();
     }
 
+    public List<Action<? super CompatibilityCheckDetails<T>>> getRules() {
+        return rules;
+    }
+
     private static class ExceptionHandler<T> implements InstantiatingAction.ExceptionHandler<CompatibilityCheckDetails<T>> {
 
         private final Class<? extends AttributeCompatibilityRule<T>> rule;
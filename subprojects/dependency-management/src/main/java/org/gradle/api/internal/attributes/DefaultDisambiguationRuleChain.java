@@ -84,6 +84,10 @@ public boolean doesSomething() {
         return !rules.isEmpty();
     }
 
+    public List<Action<? super MultipleCandidatesDetails<T>>> getRules() {
+        return rules;
+    }
+
     private static class ExceptionHandler<T> implements InstantiatingAction.ExceptionHandler<MultipleCandidatesDetails<T>> {
 
         private final Class<? extends AttributeDisambiguationRule<T>> rule;
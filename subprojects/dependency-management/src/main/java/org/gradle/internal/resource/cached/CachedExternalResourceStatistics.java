@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.cached;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how cached external resources, such as module metadata files, are reused by each dependency resolution, and how fast changed resources are downloaded.
+ *
+ * <p>Work is counted against the resolution that is {@link #collect(Runnable) collecting} on the current thread. Work that a resolution hands over to
+ * another thread is counted against it when the work is wrapped with {@link #propagate(Runnable)}. Work done outside of a resolution is not counted.</p>
+ */
+public class CachedExternalResourceStatistics {
+    private final ThreadLocal<Counters> current = new ThreadLocal<>();
+
+    /**
+     * Runs the given action and returns the counts for the work it did.
+     */
+    public Snapshot collect(Runnable action) {
+        Counters counters = new Counters();
+        runWith(counters, action);
+        return counters.snapshot();
+    }
+
+    /**
+     * Returns a task which counts its work against the resolution collecting on the current thread, when it runs on another thread.
+     */
+    public Runnable propagate(Runnable task) {
+        Counters counters = current.get();
+        if (counters == null) {
+            return task;
+        }
+        return () -> runWith(counters, task);
+    }
+
+    private void runWith(Counters counters, Runnable action) {
+        Counters previous = current.get();
+        current.set(counters);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * A cached resource was used without contacting the repository.
+     */
+    public void hit() {
+        Counters counters = current.get();
+        if (counters != null) {
+            counters.hits.increment();
+        }
+    }
+
+    /**
+     * A cached resource had expired, and the repository confirmed it is unchanged.
+     */
+    public void revalidated() {
+        Counters counters = current.get();
+        if (counters != null) {
+            counters.revalidations.increment();
+        }
+    }
+
+    /**
+     * A cached resource had expired and was downloaded again, as it changed or could not be revalidated.
+     */
+    public void refreshed() {
+        Counters counters = current.get();
+        if (counters != null) {
+            counters.refreshes.increment();
+        }
+    }
+
+    /**
+     * The content of a resource was transferred from the repository into the cache.
+     */
+    public void downloaded(long bytes, long nanos) {
+        Counters counters = current.get();
+        if (counters != null) {
+            counters.bytesDownloaded.add(bytes);
+            counters.downloadNanos.add(nanos);
+        }
+    }
+
+    private static class Counters {
+        // Work can be counted by several threads at the same time, when the resolution downloads in parallel
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder revalidations = new LongAdder();
+        private final LongAdder refreshes = new LongAdder();
+        private final LongAdder bytesDownloaded = new LongAdder();
+        private final LongAdder downloadNanos = new LongAdder();
+
+        Snapshot snapshot() {
+            return new Snapshot(hits.sum(), revalidations.sum(), refreshes.sum(), bytesDownloaded.sum(), downloadNanos.sum());
+        }
+    }
+
+    public static class Snapshot {
+        private final long hits;
+        private final long revalidations;
+        private final long refreshes;
+        private final long bytesDownloaded;
+        private final long downloadNanos;
+
+        private Snapshot(long hits, long revalidations, long refreshes, long bytesDownloaded, long downloadNanos) {
+            this.hits = hits;
+            this.revalidations = revalidations;
+            this.refreshes = refreshes;
+            this.bytesDownloaded = bytesDownloaded;
+            this.downloadNanos = downloadNanos;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getRevalidations() {
+            return revalidations;
+        }
+
+        public long getRefreshes() {
+            return refreshes;
+        }
+
+        public long getBytesDownloaded() {
+            return bytesDownloaded;
+        }
+
+        /**
+         * The time spent transferring content, summed over all transfers. Concurrent transfers each contribute their own time.
+         */
+        public long getDownloadTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(downloadNanos);
+        }
+
+        /**
+         * The average throughput of a single transfer, in bytes per second.
+         */
+        public long getDownloadThroughput() {
+            return downloadNanos == 0 ? 0 : bytesDownloaded * TimeUnit.SECONDS.toNanos(1) / downloadNanos;
+        }
+    }
+}
@@ -33,12 +33,14 @@
 import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.cached.CachedExternalResource;
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics;
 import org.gradle.internal.resource.local.FileResourceRepository;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.gradle.util.GFileUtils;
 import org.slf4j.Logger;
@@ -50,6 +52,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExternalResourceAccessor {
 
@@ -64,8 +67,10 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private final ProducerGuard<ExternalResourceName> producerGuard;
     private final FileResourceRepository fileResourceRepository;
     private final ChecksumService checksumService;
+    private final CachedExternalResourceStatistics statistics;
+    private final WorkerLeaseService workerLeaseService;
 
-    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, ChecksumService checksumService) {
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, ChecksumService checksumService, CachedExternalResourceStatistics statistics, WorkerLeaseService workerLeaseService) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
@@ -75,6 +80,8 @@ public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository dele
         this.producerGuard = producerGuard;
         this.fileResourceRepository = fileResourceRepository;
         this.checksumService = checksumService;
+        this.statistics = statistics;
+        this.workerLeaseService = workerLeaseService;
     }
 
     @Nullable
@@ -91,12 +98,18 @@ public LocallyAvailableExternalResource getResource(final ExternalResourceName l
 
             // We might be able to use a cached/locally available version
             if (cached != null && !externalResourceCachePolicy.mustRefreshExternalResource(getAgeMillis(timeProvider, cached))) {
+                statistics.hit();
                 return fileResourceRepository.resource(cached.getCachedFile(), location.getUri(), cached.getExternalResourceMetaData());
             }
 
             // We have a cached version, but it might be out of date, so we tell the upstreams to revalidate too
             final boolean revalidate = true;
 
+            // Let the repository tell whether the cached version is still current, and only send the content if it isn't
+            if (cached != null && canRevalidateConditionally(cached.getExternalResourceMetaData()) && delegate.supportsConditionalRequests()) {
+                return revalidateConditionally(location, fileStore, cached);
+            }
+
             // Get the metadata first to see if it's there
             final ExternalResourceMetaData remoteMetaData = delegate.resource(location, revalidate).getMetaData();
             if (remoteMetaData == null) {
@@ -111,11 +124,9 @@ public LocallyAvailableExternalResource getResource(final ExternalResourceName l
                 );
 
                 if (isUnchanged) {
-                    LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
-                    // Update the cache entry in the index: this resets the age of the cached entry to zero
-                    cachedExternalResourceIndex.store(location.toString(), cached.getCachedFile(), cached.getExternalResourceMetaData());
-                    return fileResourceRepository.resource(cached.getCachedFile(), location.getUri(), cached.getExternalResourceMetaData());
+                    return useRevalidated(location, cached);
                 }
+                statistics.refreshed();
             }
 
             // Either no cached, or it's changed. See if we can find something local with the same checksum
@@ -151,6 +162,42 @@ public LocallyAvailableExternalResource getResource(final ExternalResourceName l
         });
     }
 
+    private static boolean canRevalidateConditionally(@Nullable ExternalResourceMetaData cachedMetaData) {
+        return cachedMetaData != null && (cachedMetaData.getEtag() != null || cachedMetaData.getLastModified() != null);
+    }
+
+    @Nullable
+    private LocallyAvailableExternalResource revalidateConditionally(ExternalResourceName location, ResourceFileStore fileStore, CachedExternalResource cached) {
+        DownloadAction downloadAction = new DownloadAction(location);
+        ExternalResourceReadResult<Object> result;
+        try {
+            result = workerLeaseService.blocking(() -> delegate.withProgressLogging().resource(location, true).withContentIfModified(cached.getExternalResourceMetaData(), downloadAction));
+        } catch (Exception e) {
+            throw ResourceExceptions.getFailed(location.getUri(), e);
+        }
+        if (result == null) {
+            return null;
+        }
+        if (result.isUnmodified()) {
+            return useRevalidated(location, cached);
+        }
+
+        statistics.refreshed();
+        try {
+            return moveIntoCache(location, downloadAction.destination, fileStore, downloadAction.metaData);
+        } finally {
+            downloadAction.destination.delete();
+        }
+    }
+
+    private LocallyAvailableExternalResource useRevalidated(ExternalResourceName location, CachedExternalResource cached) {
+        LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
+        statistics.revalidated();
+        // Update the cache entry in the index: this resets the age of the cached entry to zero
+        cachedExternalResourceIndex.store(location.toString(), cached.getCachedFile(), cached.getExternalResourceMetaData());
+        return fileResourceRepository.resource(cached.getCachedFile(), location.getUri(), cached.getExternalResourceMetaData());
+    }
+
     @Nullable
     private HashCode getResourceSha1(ExternalResourceName location, boolean revalidate) {
         try {
@@ -196,7 +243,8 @@ private LocallyAvailableExternalResource copyToCache(final ExternalResourceName
         // Download to temporary location
         DownloadAction downloadAction = new DownloadAction(source);
         try {
-            resource.withContentIfPresent(downloadAction);
+            // Downloading is mostly network wait, let other work use the worker lease meanwhile
+            workerLeaseService.blocking(() -> resource.withContentIfPresent(downloadAction));
         } catch (Exception e) {
             throw ResourceExceptions.getFailed(source.getUri(), e);
         }
@@ -242,8 +290,15 @@ public Object execute(InputStream inputStream, ExternalResourceMetaData metaData
             if (destination.getParentFile() != null) {
                 GFileUtils.mkdirs(destination.getParentFile());
             }
+            long start = System.nanoTime();
+            long bytes;
             try (FileOutputStream outputStream = new FileOutputStream(destination)) {
-                IOUtils.copyLarge(inputStream, outputStream);
+                bytes = IOUtils.copyLarge(inputStream, outputStream);
+            }
+            long nanos = System.nanoTime() - start;
+            statistics.downloaded(bytes, nanos);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Downloaded {} bytes of {} in {} ms.", bytes, source, TimeUnit.NANOSECONDS.toMillis(nanos));
             }
             return null;
         }
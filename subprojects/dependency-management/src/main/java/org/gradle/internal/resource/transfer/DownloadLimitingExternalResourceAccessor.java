@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.api.resources.ResourceException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of resources of a single host whose content is transferred at the same time, using the {@link DownloadPermits} of the build.
+ * A transfer holds its permit from opening the resource until the response is closed, queued transfers are started in order.
+ */
+public class DownloadLimitingExternalResourceAccessor implements ExternalResourceAccessor {
+    private final ExternalResourceAccessor delegate;
+    private final DownloadPermits permits;
+
+    private DownloadLimitingExternalResourceAccessor(ExternalResourceAccessor delegate, DownloadPermits permits) {
+        this.delegate = delegate;
+        this.permits = permits;
+    }
+
+    /**
+     * Decorates the given accessor to take its permits from the given ones, unless they do not apply a limit.
+     */
+    public static ExternalResourceAccessor limit(ExternalResourceAccessor delegate, DownloadPermits permits) {
+        if (!permits.isLimited()) {
+            return delegate;
+        }
+        return new DownloadLimitingExternalResourceAccessor(delegate, permits);
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResource(URI location, boolean revalidate) throws ResourceException {
+        Semaphore hostPermits = acquire(location);
+        return releaseOnClose(hostPermits, () -> delegate.openResource(location, revalidate));
+    }
+
+    @Override
+    public boolean supportsConditionalRequests() {
+        return delegate.supportsConditionalRequests();
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException {
+        Semaphore hostPermits = acquire(location);
+        return releaseOnClose(hostPermits, () -> delegate.openResourceIfModified(location, cached));
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) throws ResourceException {
+        return delegate.getMetaData(location, revalidate);
+    }
+
+    private Semaphore acquire(URI location) {
+        Semaphore hostPermits = permits.forLocation(location);
+        try {
+            hostPermits.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return hostPermits;
+    }
+
+    @Nullable
+    private static ExternalResourceReadResponse releaseOnClose(Semaphore permits, OpenAction action) {
+        ExternalResourceReadResponse response;
+        try {
+            response = action.open();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        if (response == null) {
+            permits.release();
+            return null;
+        }
+        return new PermitHoldingResponse(response, permits);
+    }
+
+    private interface OpenAction {
+        @Nullable
+        ExternalResourceReadResponse open();
+    }
+
+    private static class PermitHoldingResponse implements ExternalResourceReadResponse {
+        private final ExternalResourceReadResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitHoldingResponse(ExternalResourceReadResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return delegate.openStream();
+        }
+
+        @Override
+        public ExternalResourceMetaData getMetaData() {
+            return delegate.getMetaData();
+        }
+
+        @Override
+        public boolean isUnmodified() {
+            return delegate.isUnmodified();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
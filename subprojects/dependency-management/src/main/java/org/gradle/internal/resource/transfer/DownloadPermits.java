@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The permits for concurrent transfers, shared by all transports created for a build. Transfers from the same host share their permits,
+ * so the limit holds across repositories, resolutions and threads.
+ */
+public class DownloadPermits {
+    /**
+     * The maximum number of concurrent transfers per host. No limit is applied unless a positive value is set.
+     */
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = "org.gradle.internal.repository.max.concurrent.downloads";
+
+    private final int maxConcurrentDownloads;
+    private final ConcurrentMap<String, Semaphore> permitsByHost = new ConcurrentHashMap<>();
+
+    public DownloadPermits(int maxConcurrentDownloads) {
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+    }
+
+    /**
+     * Creates the permits with the limit configured for this build, if any.
+     */
+    public static DownloadPermits fromSystemProperties() {
+        return new DownloadPermits(Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PROPERTY, 0));
+    }
+
+    public boolean isLimited() {
+        return maxConcurrentDownloads > 0;
+    }
+
+    /**
+     * Returns the permits for the host of the given location.
+     */
+    Semaphore forLocation(URI location) {
+        return permitsByHost.computeIfAbsent(hostOf(location), host -> new Semaphore(maxConcurrentDownloads, true));
+    }
+
+    private static String hostOf(URI location) {
+        String authority = location.getRawAuthority();
+        String scheme = location.getScheme();
+        return (scheme == null ? "" : scheme.toLowerCase(Locale.ROOT)) + "://" + (authority == null ? "" : authority.toLowerCase(Locale.ROOT));
+    }
+}
@@ -43,6 +43,21 @@ public ExternalResourceReadResponse openResource(URI location, boolean revalidat
         }
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return delegate.supportsConditionalRequests();
+    }
+
+    @Override
+    @Nullable
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        ExternalResourceReadResponse resource = delegate.openResourceIfModified(location, cached);
+        if (resource != null && !resource.isUnmodified()) {
+            return new ProgressLoggingExternalResource(location, resource);
+        }
+        return resource;
+    }
+
     @Override
     @Nullable
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
@@ -60,6 +60,11 @@ public ExternalResourceRepository withProgressLogging() {
         return new DefaultExternalResourceRepository(name, loggingAccessor, loggingUploader, lister, loggingAccessor, loggingUploader, buildOperationExecutor);
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return accessor.supportsConditionalRequests();
+    }
+
     @Override
     public ExternalResource resource(ExternalResourceName resource, boolean revalidate) {
         return new BuildOperationFiringExternalResourceDecorator(resource, buildOperationExecutor, new AccessorBackedExternalResource(resource, accessor, uploader, lister, revalidate));
@@ -56,4 +56,31 @@ class DefaultImmutableModuleIdentifierFactoryTest extends Specification {
         then:
         m2.module.is(m1)
     }
+
+    def "caches module component ids"() {
+        when:
+        def c1 = factory.moduleComponentIdentifier(DefaultModuleIdentifier.newId('foo', 'bar'), '1.0')
+        def c2 = factory.moduleComponentIdentifier(factory.module('foo', 'bar'), '1.0')
+
+        then:
+        c1.is(c2)
+        c1.displayName == 'foo:bar:1.0'
+        c1.moduleIdentifier.is(factory.module('foo', 'bar'))
+    }
+
+    def "records interning statistics"() {
+        when:
+        factory.moduleComponentIdentifier(factory.module('foo', 'bar'), '1.0')
+        factory.moduleComponentIdentifier(factory.module('foo', 'bar'), '1.0')
+        factory.moduleWithVersion('foo', 'bar', '2.0')
+
+        then:
+        def statistics = factory.statistics
+        statistics.moduleComponentMisses == 1
+        statistics.moduleComponentHits == 1
+        statistics.moduleVersionMisses == 1
+        statistics.moduleVersionHits == 0
+        statistics.moduleMisses == 1
+        statistics.moduleHits == 4
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.configurations
+
+import org.gradle.api.Task
+import org.gradle.api.artifacts.ConfigurationContainer
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.StartParameterInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectState
+import org.gradle.execution.BuildExecutionContext
+import org.gradle.execution.taskgraph.TaskExecutionGraphInternal
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+import spock.util.environment.RestoreSystemProperties
+
+import static org.gradle.api.internal.artifacts.configurations.ConfigurationInternal.InternalState.ARTIFACTS_RESOLVED
+import static org.gradle.api.internal.artifacts.configurations.ConfigurationInternal.InternalState.BUILD_DEPENDENCIES_RESOLVED
+import static org.gradle.api.internal.artifacts.configurations.ConfigurationInternal.InternalState.UNRESOLVED
+
+class ConfigurationPreResolutionActionTest extends Specification {
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def action = new ConfigurationPreResolutionAction(buildOperationExecutor)
+    def startParameter = Stub(StartParameterInternal)
+    def taskGraph = Stub(TaskExecutionGraphInternal)
+    def gradle = Stub(GradleInternal) {
+        getStartParameter() >> startParameter
+        getTaskGraph() >> taskGraph
+    }
+    def context = Mock(BuildExecutionContext) {
+        getGradle() >> gradle
+    }
+
+    def "does nothing unless enabled"() {
+        def configuration = configuration(BUILD_DEPENDENCIES_RESOLVED)
+        taskGraph.allTasks >> [task(project("a", configuration)), task(project("b"))]
+
+        when:
+        action.execute(context, [])
+
+        then:
+        0 * configuration.getResolvedConfiguration()
+        1 * context.proceed()
+        buildOperationExecutor.operations.empty
+    }
+
+    @RestoreSystemProperties
+    def "resolves configurations consulted for task dependencies of each scheduled project"() {
+        System.setProperty(ConfigurationPreResolutionAction.PRE_RESOLVE_CONFIGURATIONS_PROPERTY, "true")
+        def consulted = configuration(BUILD_DEPENDENCIES_RESOLVED)
+        def untouched = configuration(UNRESOLVED)
+        def resolved = configuration(ARTIFACTS_RESOLVED)
+        def notResolvable = configuration(BUILD_DEPENDENCIES_RESOLVED, false)
+        def other = configuration(BUILD_DEPENDENCIES_RESOLVED)
+        def a = project("a", consulted, untouched, resolved, notResolvable)
+        def b = project("b", other)
+        taskGraph.allTasks >> [task(a), task(a), task(b)]
+
+        when:
+        action.execute(context, [])
+
+        then:
+        1 * consulted.getResolvedConfiguration()
+        1 * other.getResolvedConfiguration()
+        0 * untouched.getResolvedConfiguration()
+        0 * resolved.getResolvedConfiguration()
+        0 * notResolvable.getResolvedConfiguration()
+
+        then:
+        1 * context.proceed()
+        buildOperationExecutor.operations*.displayName == ["Resolve configurations of project a", "Resolve configurations of project b"]
+    }
+
+    @RestoreSystemProperties
+    def "failures are left to the consuming tasks"() {
+        System.setProperty(ConfigurationPreResolutionAction.PRE_RESOLVE_CONFIGURATIONS_PROPERTY, "true")
+        def broken = configuration(BUILD_DEPENDENCIES_RESOLVED)
+        def failures = []
+        taskGraph.allTasks >> [task(project("a", broken)), task(project("b"))]
+
+        when:
+        action.execute(context, failures)
+
+        then:
+        1 * broken.getResolvedConfiguration() >> { throw new RuntimeException("broken") }
+        1 * context.proceed()
+        failures.empty
+    }
+
+    @RestoreSystemProperties
+    def "does nothing when the configuration cache is enabled"() {
+        System.setProperty(ConfigurationPreResolutionAction.PRE_RESOLVE_CONFIGURATIONS_PROPERTY, "true")
+        startParameter.configurationCache >> true
+        def configuration = configuration(BUILD_DEPENDENCIES_RESOLVED)
+        taskGraph.allTasks >> [task(project("a", configuration)), task(project("b"))]
+
+        when:
+        action.execute(context, [])
+
+        then:
+        0 * configuration.getResolvedConfiguration()
+        1 * context.proceed()
+    }
+
+    private ConfigurationInternal configuration(ConfigurationInternal.InternalState state, boolean canBeResolved = true) {
+        def configuration = Mock(ConfigurationInternal)
+        _ * configuration.resolvedState >> state
+        _ * configuration.canBeResolved >> canBeResolved
+        return configuration
+    }
+
+    private ProjectInternal project(String name, ConfigurationInternal... configurations) {
+        def project = Stub(ProjectInternal)
+        def container = Stub(ConfigurationContainer) {
+            iterator() >> { (configurations as List).iterator() }
+        }
+        def state = Stub(ProjectState) {
+            applyToMutableState(_) >> { args -> args[0].accept(project) }
+        }
+        project.displayName >> "project $name"
+        project.configurations >> container
+        project.mutationState >> state
+        return project
+    }
+
+    private Task task(ProjectInternal project) {
+        return Stub(Task) {
+            getProject() >> project
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import com.google.common.collect.Ordering
+import org.gradle.api.artifacts.ConfigurationPublications
+import org.gradle.api.artifacts.DependencyConstraintSet
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ResolutionStrategy
+import org.gradle.api.attributes.Attribute
+import org.gradle.api.attributes.AttributeCompatibilityRule
+import org.gradle.api.attributes.AttributeDisambiguationRule
+import org.gradle.api.attributes.CompatibilityCheckDetails
+import org.gradle.api.attributes.MultipleCandidatesDetails
+import org.gradle.api.internal.FeaturePreviews
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.ConfigurationResolver
+import org.gradle.api.internal.artifacts.DefaultBuildIdentifier
+import org.gradle.api.internal.artifacts.DefaultExcludeRule
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.DefaultResolverResults
+import org.gradle.api.internal.artifacts.DependencyManagementTestUtil
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.DependencyVerificationOverride
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.CapabilitiesResolutionInternal
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DefaultResolutionResultBuilder
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DesugaredAttributeContainerSerializer
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultGraphSerializer
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache
+import org.gradle.api.internal.attributes.AttributesSchemaInternal
+import org.gradle.api.internal.attributes.DefaultAttributesSchema
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.Actions
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.model.ComponentAttributeMatcher
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.util.AttributeTestUtil
+import org.gradle.util.Path
+import org.gradle.util.SnapshotTestUtil
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CachingConfigurationResolverTest extends Specification {
+    private static final Attribute<String> FLAVOR = Attribute.of("flavor", String)
+
+    def delegate = Mock(ConfigurationResolver)
+    def entries = [:]
+    def requestedFingerprints = []
+    def cache = Stub(ResolvedGraphCache) {
+        get(_, _) >> { String key, HashCode fingerprint ->
+            requestedFingerprints << fingerprint
+            def entry = entries[key]
+            entry != null && entry.fingerprint == fingerprint ? entry.data : null
+        }
+    }
+    def classLoaderHash = HashCode.fromInt(1)
+    def classLoaderHierarchyHasher = Stub(ClassLoaderHierarchyHasher) {
+        getClassLoaderHash(_) >> { classLoaderHash }
+    }
+    def moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory()
+    def attributeContainerSerializer = new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator())
+    def graphSerializer = new ResolutionResultGraphSerializer(moduleIdentifierFactory, attributeContainerSerializer, DependencyManagementTestUtil.componentSelectionDescriptorFactory())
+
+    def "resolves and records the fingerprint of a configuration which was not resolved before"() {
+        def configuration = configuration()
+        def results = new DefaultResolverResults()
+
+        when:
+        resolver().resolveGraph(configuration, results)
+
+        then:
+        1 * delegate.resolveGraph(configuration, results)
+        requestedFingerprints.size() == 1
+    }
+
+    def "reuses the resolution result recorded for the same inputs"() {
+        given:
+        entries[":compile"] = [fingerprint: fingerprintOf(configuration()), data: rootOnlyGraph()]
+        def results = new DefaultResolverResults()
+
+        when:
+        resolver().resolveGraph(configuration(), results)
+
+        then:
+        0 * delegate.resolveGraph(_, _)
+        results.resolutionResult.root.moduleVersion.name == "test"
+    }
+
+    def "resolves again when the recorded result was for other inputs"() {
+        given:
+        entries[":compile"] = [fingerprint: fingerprintOf(configuration()), data: rootOnlyGraph()]
+        def configuration = configuration(dependencies: [dependency("foo", "2.0")])
+        def results = new DefaultResolverResults()
+
+        when:
+        resolver().resolveGraph(configuration, results)
+
+        then:
+        1 * delegate.resolveGraph(configuration, results)
+    }
+
+    def "fingerprint is stable for the same inputs"() {
+        expect:
+        fingerprintOf(configuration()) == fingerprintOf(configuration())
+        fingerprintOf(configuration(), schemaWithCompatibilityRule("a")) == fingerprintOf(configuration(), schemaWithCompatibilityRule("a"))
+    }
+
+    @Unroll
+    def "fingerprint changes when #input changes"() {
+        expect:
+        fingerprintOf(configuration()) != fingerprintOf(configuration(changes))
+
+        where:
+        input                      | changes
+        "dependency version"       | [dependencies: [dependency("foo", "2.0")]]
+        "dependencies"             | [dependencies: [dependency("foo", "1.0"), dependency("bar", "1.0")]]
+        "configuration attributes" | [attributes: AttributeTestUtil.attributes(flavor: "free")]
+        "exclude rules"            | [excludes: [new DefaultExcludeRule("org", "baz")] as Set]
+        "conflict resolution"      | [conflictResolution: ConflictResolution.strict]
+        "module version"           | [moduleVersion: "2"]
+    }
+
+    def "fingerprint changes when attribute matching rules change"() {
+        def configuration = configuration()
+
+        when:
+        def fingerprints = [
+            fingerprintOf(configuration, schema { }),
+            fingerprintOf(configuration, schema { it.attribute(FLAVOR) }),
+            fingerprintOf(configuration, schemaWithCompatibilityRule("a")),
+            fingerprintOf(configuration, schemaWithCompatibilityRule("b")),
+            fingerprintOf(configuration, schema { it.attribute(FLAVOR).disambiguationRules.add(TestDisambiguationRule) }),
+            fingerprintOf(configuration, schema { it.attribute(FLAVOR).compatibilityRules.ordered(Ordering.natural()) }),
+            fingerprintOf(configuration, schema { it.attribute(FLAVOR).compatibilityRules.reverseOrdered(Ordering.natural()) })
+        ]
+
+        then:
+        fingerprints.toSet().size() == fingerprints.size()
+    }
+
+    def "fingerprint changes when the class loader of a matching rule changes"() {
+        def configuration = configuration()
+
+        when:
+        def before = fingerprintOf(configuration, schemaWithCompatibilityRule("a"))
+        classLoaderHash = HashCode.fromInt(2)
+        def after = fingerprintOf(configuration, schemaWithCompatibilityRule("a"))
+
+        then:
+        before != after
+    }
+
+    @Unroll
+    def "does not reuse the resolution result of a configuration with #rules"() {
+        def configuration = configuration(changes)
+        def results = new DefaultResolverResults()
+
+        when:
+        resolver(attributesSchema).resolveGraph(configuration, results)
+
+        then:
+        1 * delegate.resolveGraph(configuration, results)
+        requestedFingerprints.empty
+
+        where:
+        rules                                      | changes                                    | attributesSchema
+        "capabilities resolution rules"            | [capabilitiesRules: true]                  | schema { }
+        "attribute ordered by a custom comparator" | [:]                                        | schema { it.attribute(FLAVOR).compatibilityRules.ordered({ a, b -> a.length() <=> b.length() } as Comparator) }
+        "dependency on a dynamic version"          | [dependencies: [dependency("foo", "1.+")]] | schema { }
+    }
+
+    def "does not reuse the resolution result when a matching rule was loaded by an unknown class loader"() {
+        def configuration = configuration()
+        def results = new DefaultResolverResults()
+        classLoaderHash = null
+
+        when:
+        resolver(schemaWithCompatibilityRule("a")).resolveGraph(configuration, results)
+
+        then:
+        1 * delegate.resolveGraph(configuration, results)
+        requestedFingerprints.empty
+    }
+
+    private CachingConfigurationResolver resolver(AttributesSchemaInternal attributesSchema = schema { }) {
+        return new CachingConfigurationResolver(
+            delegate,
+            cache,
+            GlobalDependencyResolutionRules.NO_OP,
+            attributesSchema,
+            new DefaultVersionSelectorScheme(new DefaultVersionComparator(new FeaturePreviews()), new VersionParser()),
+            classLoaderHierarchyHasher,
+            moduleIdentifierFactory,
+            attributeContainerSerializer,
+            DependencyManagementTestUtil.componentSelectionDescriptorFactory(),
+            TestUtil.calculatedValueContainerFactory(),
+            DependencyVerificationOverride.NO_VERIFICATION,
+            DefaultBuildIdentifier.ROOT
+        )
+    }
+
+    private HashCode fingerprintOf(ConfigurationInternal configuration, AttributesSchemaInternal attributesSchema = schema { }) {
+        int previousRequests = requestedFingerprints.size()
+        resolver(attributesSchema).resolveGraph(configuration, new DefaultResolverResults())
+        assert requestedFingerprints.size() == previousRequests + 1
+        return requestedFingerprints.last()
+    }
+
+    private static DefaultAttributesSchema schema(Closure<?> configuration) {
+        def schema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+        configuration.call(schema)
+        return schema
+    }
+
+    private static DefaultAttributesSchema schemaWithCompatibilityRule(String parameter) {
+        return schema { it.attribute(FLAVOR).compatibilityRules.add(TestCompatibilityRule) { it.params(parameter) } }
+    }
+
+    private ConfigurationInternal configuration(Map<String, ?> inputs = [:]) {
+        def module = Stub(Module) {
+            getGroup() >> "org"
+            getName() >> "test"
+            getVersion() >> inputs.get("moduleVersion", "1")
+            getStatus() >> "integration"
+        }
+        def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+            getDependencySubstitutionRule() >> Actions.doNothing()
+            getComponentSelection() >> Stub(ComponentSelectionRulesInternal) {
+                getRules() >> []
+            }
+            getCapabilitiesResolutionRules() >> Stub(CapabilitiesResolutionInternal) {
+                hasRules() >> inputs.get("capabilitiesRules", false)
+            }
+            getConflictResolution() >> inputs.get("conflictResolution", ConflictResolution.latest)
+            getSortOrder() >> ResolutionStrategy.SortOrder.DEFAULT
+        }
+        def dependencies = inputs.get("dependencies", [dependency("foo", "1.0")])
+        return Stub(ConfigurationInternal) {
+            getIdentityPath() >> Path.path(":compile")
+            getDisplayName() >> "configuration ':compile'"
+            getModule() >> module
+            getAttributes() >> inputs.get("attributes", ImmutableAttributes.EMPTY)
+            getOutgoing() >> Stub(ConfigurationPublications) {
+                getCapabilities() >> []
+            }
+            getResolutionStrategy() >> resolutionStrategy
+            getConsistentResolutionSource() >> null
+            getAllExcludeRules() >> inputs.get("excludes", [] as Set)
+            getAllDependencies() >> Stub(DependencySet) {
+                size() >> dependencies.size()
+                iterator() >> { dependencies.iterator() }
+            }
+            getAllDependencyConstraints() >> Stub(DependencyConstraintSet) {
+                size() >> 0
+                iterator() >> { [].iterator() }
+            }
+        }
+    }
+
+    private static DefaultExternalModuleDependency dependency(String name, String version) {
+        return new DefaultExternalModuleDependency("org", name, version)
+    }
+
+    private byte[] rootOnlyGraph() {
+        def id = DefaultModuleVersionIdentifier.newId(DefaultModuleIdentifier.newId("org", "test"), "1")
+        def graph = DefaultResolutionResultBuilder.empty(id, DefaultModuleComponentIdentifier.newId(id), ImmutableAttributes.EMPTY)
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        graphSerializer.write(encoder, graph)
+        encoder.writeSmallInt(0)
+        encoder.flush()
+        return outputStream.toByteArray()
+    }
+
+    static class TestCompatibilityRule implements AttributeCompatibilityRule<String> {
+        private final String parameter
+
+        TestCompatibilityRule(String parameter) {
+            this.parameter = parameter
+        }
+
+        @Override
+        void execute(CompatibilityCheckDetails<String> details) {
+        }
+    }
+
+    static class TestDisambiguationRule implements AttributeDisambiguationRule<String> {
+        @Override
+        void execute(MultipleCandidatesDetails<String> details) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import spock.lang.Specification
+
+import javax.xml.stream.XMLStreamException
+
+class PomStaxParserTest extends Specification {
+
+    def "reads elements, text and root comments"() {
+        when:
+        def project = parse """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+    <!-- a comment -->
+    <groupId> group </groupId>
+    <properties>
+        <some.prop>a &amp; <![CDATA[<b>]]></some.prop>
+        <empty/>
+    </properties>
+</project>
+"""
+
+        then:
+        project.name == 'project'
+        project.comments == [' a comment ']
+        project.text == ''
+        project.children*.name == ['groupId', 'properties']
+        PomStaxParser.getFirstChildText(project, 'groupId') == ' group '
+        def properties = PomStaxParser.getFirstChildElement(project, 'properties')
+        properties.children*.name == ['some.prop', 'empty']
+        properties.children*.text == ['a & <b>', '']
+    }
+
+    def "resolves entities declared by Maven"() {
+        when:
+        def project = parse "<project><groupId>caf&eacute; &copy;</groupId></project>"
+
+        then:
+        PomStaxParser.getFirstChildText(project, 'groupId') == 'café ©'
+    }
+
+    def "skips sections of the POM that are not used"() {
+        when:
+        def project = parse """
+<project>
+    <groupId>group</groupId>
+    <build><plugins><plugin><groupId>org.apache.maven.plugins</groupId></plugin></plugins></build>
+    <developers><developer><id>dev</id></developer></developers>
+    <profiles>
+        <profile>
+            <id>profile</id>
+            <build><plugins/></build>
+            <properties><prop>value</prop></properties>
+        </profile>
+    </profiles>
+</project>
+"""
+
+        then:
+        project.children*.name == ['groupId', 'profiles']
+        def profile = PomStaxParser.getFirstChildElement(PomStaxParser.getFirstChildElement(project, 'profiles'), 'profile')
+        profile.children*.name == ['id', 'properties']
+    }
+
+    def "fails on malformed XML"() {
+        when:
+        parse "<project><modelVersion</project>"
+
+        then:
+        def e = thrown(XMLStreamException)
+        e.message.contains('"modelVersion"')
+    }
+
+    private static PomElement parse(String pom) {
+        return PomStaxParser.parse(new ByteArrayInputStream(pom.getBytes("UTF-8")), "file:/pom.xml")
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification
+
+import org.gradle.api.InvalidUserDataException
+import org.gradle.api.artifacts.verification.DependencyVerificationMode
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationService
+import org.gradle.api.internal.artifacts.verification.signatures.SignatureVerificationServiceFactory
+import org.gradle.api.internal.properties.GradleProperties
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.hash.ChecksumService
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.ivyservice.ivyresolve.verification.ArtifactVerificationOperation.ArtifactKind.REGULAR
+
+class ChecksumAndSignatureVerificationOverrideTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def checksumService = Stub(ChecksumService) {
+        sha256(_) >> { File file -> Hashing.sha256().hashBytes(file.bytes) }
+    }
+    def signatureVerificationServiceFactory = Stub(SignatureVerificationServiceFactory) {
+        create(_, _) >> Stub(SignatureVerificationService)
+    }
+    def verifiedArtifactsCache = Mock(VerifiedArtifactsCache)
+    def artifact = new DefaultModuleComponentArtifactIdentifier(DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", "foo"), "1.0"), "foo", "jar", "jar")
+    def artifactKey = "REGULAR:org:foo:1.0:foo-1.0.jar"
+    TestFile artifactFile = temporaryFolder.file("foo-1.0.jar")
+    TestFile verificationsFile = temporaryFolder.file("verification-metadata.xml")
+    TestFile keyRingsFile = temporaryFolder.file("verification-keyring.keys")
+    List<HashCode> fingerprints = []
+
+    def setup() {
+        artifactFile.text = "content"
+        verificationsFile.text = verificationMetadata(Hashing.sha256().hashBytes(artifactFile.bytes))
+        keyRingsFile.text = "keys"
+    }
+
+    def "records an artifact which passes verification"() {
+        def override = createOverride()
+
+        when:
+        verify(override)
+
+        then:
+        1 * verifiedArtifactsCache.isVerified(artifactKey, _) >> false
+        1 * verifiedArtifactsCache.verified(artifactKey, _)
+        0 * verifiedArtifactsCache._
+    }
+
+    def "skips verification of an artifact which was previously verified"() {
+        given:
+        // Verifying the artifact against this metadata would fail
+        verificationsFile.text = verificationMetadata(Hashing.sha256().hashString("other"))
+        def override = createOverride()
+
+        when:
+        verify(override)
+
+        then:
+        1 * verifiedArtifactsCache.isVerified(artifactKey, _) >> true
+        0 * verifiedArtifactsCache._
+        noExceptionThrown()
+    }
+
+    def "does not record an artifact which fails verification"() {
+        given:
+        verificationsFile.text = verificationMetadata(Hashing.sha256().hashString("other"))
+        def override = createOverride()
+
+        when:
+        verify(override)
+
+        then:
+        1 * verifiedArtifactsCache.isVerified(artifactKey, _) >> false
+        0 * verifiedArtifactsCache._
+        thrown(InvalidUserDataException)
+    }
+
+    def "fingerprint is stable when nothing changed"() {
+        when:
+        verify(createOverride())
+        verify(createOverride())
+
+        then:
+        2 * verifiedArtifactsCache.isVerified(artifactKey, _) >> { String key, HashCode fingerprint -> recordFingerprint(fingerprint) }
+        fingerprints[0] == fingerprints[1]
+    }
+
+    def "verifies an artifact again when the key ring changes"() {
+        when:
+        verify(createOverride())
+        keyRingsFile.text = "other keys"
+        verify(createOverride())
+
+        then:
+        2 * verifiedArtifactsCache.isVerified(artifactKey, _) >> { String key, HashCode fingerprint -> recordFingerprint(fingerprint) }
+        fingerprints[0] != fingerprints[1]
+    }
+
+    def "verifies an artifact again when the key ring is removed"() {
+        when:
+        verify(createOverride())
+        keyRingsFile.delete()
+        verify(createOverride())
+
+        then:
+        2 * verifiedArtifactsCache.isVerified(artifactKey, _) >> { String key, HashCode fingerprint -> recordFingerprint(fingerprint) }
+        fingerprints[0] != fingerprints[1]
+    }
+
+    def "verifies an artifact again when the verification metadata changes"() {
+        when:
+        verify(createOverride())
+        verificationsFile.text = verificationsFile.text.replace("<components>", "<!-- changed --><components>")
+        verify(createOverride())
+
+        then:
+        2 * verifiedArtifactsCache.isVerified(artifactKey, _) >> { String key, HashCode fingerprint -> recordFingerprint(fingerprint) }
+        fingerprints[0] != fingerprints[1]
+    }
+
+    def "verifies an artifact again when the artifact content changes"() {
+        when:
+        verify(createOverride())
+        artifactFile.text = "changed"
+        verify(createOverride())
+
+        then:
+        2 * verifiedArtifactsCache.isVerified(artifactKey, _) >> { String key, HashCode fingerprint -> recordFingerprint(fingerprint) }
+        fingerprints[0] != fingerprints[1]
+    }
+
+    private ChecksumAndSignatureVerificationOverride createOverride() {
+        new ChecksumAndSignatureVerificationOverride(
+            new TestBuildOperationExecutor(),
+            temporaryFolder.file("user-home"),
+            verificationsFile,
+            keyRingsFile,
+            checksumService,
+            signatureVerificationServiceFactory,
+            DependencyVerificationMode.STRICT,
+            Stub(DocumentationRegistry),
+            temporaryFolder.file("reports"),
+            { Stub(GradleProperties) },
+            verifiedArtifactsCache
+        )
+    }
+
+    private void verify(ChecksumAndSignatureVerificationOverride override) {
+        override.onArtifact(REGULAR, artifact, artifactFile, { null }, "repo", "repo-id")
+        override.artifactsAccessed("test")
+    }
+
+    private boolean recordFingerprint(HashCode fingerprint) {
+        fingerprints << fingerprint
+        return true
+    }
+
+    private static String verificationMetadata(HashCode sha256) {
+        """<?xml version="1.0" encoding="UTF-8"?>
+<verification-metadata>
+   <configuration>
+      <verify-metadata>true</verify-metadata>
+      <verify-signatures>false</verify-signatures>
+   </configuration>
+   <components>
+      <component group="org" name="foo" version="1.0">
+         <artifact name="foo-1.0.jar">
+            <sha256 value="${sha256}"/>
+         </artifact>
+      </component>
+   </components>
+</verification-metadata>
+"""
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata
+import org.gradle.util.BuildCommencedTimeProvider
+import spock.lang.Specification
+
+class LazyCachedMetadataTest extends Specification {
+    def timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 150
+    }
+    def entry = new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, true, 100)
+    def descriptor = Mock(ModuleMetadataStore.EncodedModuleDescriptor)
+    def metadata = Stub(ModuleComponentResolveMetadata) {
+        getModuleVersionId() >> DefaultModuleVersionIdentifier.newId("org", "foo", "1.0")
+    }
+    def mutable = Mock(MutableModuleComponentResolveMetadata)
+
+    def "decodes the descriptor once when first used"() {
+        def cached = new LazyCachedMetadata(entry, descriptor, timeProvider)
+
+        when:
+        def age = cached.age
+
+        then:
+        age.toMillis() == 50
+        0 * descriptor._
+
+        when:
+        def result = cached.metadata
+        def version = cached.moduleVersion
+
+        then:
+        result == metadata
+        version.id.toString() == "org:foo:1.0"
+        1 * descriptor.decode() >> mutable
+        1 * mutable.setChanging(true)
+        1 * mutable.asImmutable() >> metadata
+        0 * descriptor._
+    }
+
+    def "does not decode the descriptor again once processed"() {
+        def processed = Stub(ModuleComponentResolveMetadata)
+        def cached = new LazyCachedMetadata(entry, descriptor, timeProvider)
+
+        when:
+        cached.metadata
+        cached.putProcessedMetadata(12, processed)
+
+        then:
+        1 * descriptor.decode() >> mutable
+        1 * mutable.asImmutable() >> metadata
+
+        when:
+        def result = cached.metadata
+        def sources = cached.moduleSources
+
+        then:
+        result == metadata
+        sources == metadata.sources
+        cached.getProcessedMetadata(12) == processed
+        cached.moduleVersion.id.toString() == "org:foo:1.0"
+        0 * descriptor._
+    }
+
+    def "dehydrated copy does not retain processed metadata"() {
+        def cached = new LazyCachedMetadata(entry, descriptor, timeProvider)
+        cached.putProcessedMetadata(12, Stub(ModuleComponentResolveMetadata))
+
+        when:
+        def copy = cached.dehydrate()
+
+        then:
+        copy.getProcessedMetadata(12) == null
+        copy.age == cached.age
+        0 * descriptor._
+    }
+
+    def "dehydrated copy of decoded metadata does not decode the descriptor again"() {
+        def copiedMutable = Mock(MutableModuleComponentResolveMetadata)
+        def copied = Stub(ModuleComponentResolveMetadata) {
+            getModuleVersionId() >> DefaultModuleVersionIdentifier.newId("org", "foo", "1.0")
+        }
+        def decoded = Mock(ModuleComponentResolveMetadata) {
+            getModuleVersionId() >> DefaultModuleVersionIdentifier.newId("org", "foo", "1.0")
+        }
+        def cached = new LazyCachedMetadata(entry, descriptor, timeProvider)
+
+        when:
+        cached.metadata
+
+        then:
+        1 * descriptor.decode() >> mutable
+        1 * mutable.asImmutable() >> decoded
+
+        when:
+        def copy = cached.dehydrate()
+
+        then:
+        1 * decoded.asMutable() >> copiedMutable
+        1 * copiedMutable.asImmutable() >> copied
+
+        and:
+        copy.metadata == copied
+        copy.moduleVersion.id.toString() == "org:foo:1.0"
+        0 * descriptor._
+    }
+}
@@ -44,7 +44,9 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.Dependen
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.ComponentMetadataPrefetchExecutor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphBuilder
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder.DependencyGraphStatistics
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultCapabilitiesConflictHandler
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler
 import org.gradle.api.internal.artifacts.publish.DefaultPublishArtifact
@@ -73,8 +75,11 @@ import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver
 import org.gradle.internal.resolve.resolver.ResolveContextToComponentResolver
 import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult
 import org.gradle.internal.resolve.result.BuildableComponentResolveResult
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics
 import org.gradle.util.AttributeTestUtil
+import org.gradle.util.SetSystemProperties
 import org.gradle.util.TestUtil
+import org.junit.Rule
 import spock.lang.Specification
 
 import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
@@ -121,6 +126,11 @@ class DependencyGraphBuilderTest extends Specification {
     def versionComparator = new DefaultVersionComparator(new FeaturePreviews())
     def versionSelectorScheme = new DefaultVersionSelectorScheme(versionComparator, new VersionParser())
 
+    DependencyGraphStatistics statistics
+
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
     DependencyGraphBuilder builder
 
     def setup() {
@@ -129,12 +139,12 @@ class DependencyGraphBuilderTest extends Specification {
         _ * configuration.allDependencies >> Stub(DependencySet)
         _ * moduleResolver.resolve(_, _) >> { it[1].resolved(root) }
 
-        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, versionComparator.asVersionComparator(), new VersionParser())
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, versionComparator.asVersionComparator(), new VersionParser(), Stub(ComponentMetadataPrefetchExecutor), new CachedExternalResourceStatistics())
     }
 
     private TestGraphVisitor resolve(DependencyGraphBuilder builder = this.builder) {
         def graphVisitor = new TestGraphVisitor()
-        builder.resolve(configuration, graphVisitor)
+        statistics = builder.resolve(configuration, graphVisitor)
         return graphVisitor
     }
 
@@ -243,6 +253,78 @@ class DependencyGraphBuilderTest extends Specification {
         result.components == ids(root, selected, b, c, d)
     }
 
+    def "does not traverse again a node attached by both the evicted and the selected version with incremental conflict resolution"() {
+        given:
+        System.setProperty(DependencyGraphBuilder.INCREMENTAL_CONFLICT_RESOLUTION_PROPERTY, "true")
+        def selected = revision('a', '1.2')
+        def evicted = revision('a', '1.1')
+        def b = revision('b')
+        def c = revision('c')
+        def d = revision('d')
+        def e = revision('e')
+        traverses root, evicted
+        traverses root, b
+        traverses b, d
+        traverses d, selected
+        traverses c, e
+        def evictedToC = dependsOn(evicted, c.moduleVersionId)
+        def selectedToC = dependsOn(selected, c.moduleVersionId)
+        (1.._) * idResolver.resolve({ it == evictedToC || it == selectedToC }, _, _, _) >> { DependencyMetadata dep, VersionSelector acceptor, VersionSelector rejector, BuildableComponentIdResolveResult result ->
+            result.resolved(c.id, c.moduleVersionId)
+        }
+        1 * metaDataResolver.resolve(c.id, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            result.resolved(c)
+        }
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        1 * conflictResolver.select(!null) >> { args ->
+            def details = args[0]
+            Collection<ComponentResolutionState> candidates = details.candidates
+            details.select(candidates.find { it.version == '1.2' })
+        }
+        0 * conflictResolver._
+
+        and:
+        result.components == ids(root, selected, b, c, d, e)
+        statistics.nodesReattached == 1
+    }
+
+    def "records the nodes visited while traversing the graph"() {
+        given:
+        def selected = revision('a', '1.2')
+        def evicted = revision('a', '1.1')
+        def b = revision('b')
+        def c = revision('c')
+        def d = revision('d')
+        def e = revision('e')
+        traverses root, evicted
+        traverses evicted, c
+        traverses root, b
+        traverses b, d
+        traverses d, selected
+        traverses selected, e
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        1 * conflictResolver.select(!null) >> { args ->
+            def details = args[0]
+            Collection<ComponentResolutionState> candidates = details.candidates
+            details.select(candidates.find { it.version == '1.2' })
+        }
+
+        and:
+        statistics.nodesVisited >= 6
+        statistics.nodesRevisited < statistics.nodesVisited
+        statistics.nodesReattached == 0
+    }
+
     def "does not include evicted module or dependencies when evicted module already traversed before conflict detected"() {
         given:
         def selected = revision('a', '1.2')
@@ -580,7 +662,7 @@ class DependencyGraphBuilderTest extends Specification {
     def "does not include filtered dependencies"() {
         given:
         def spec = { DependencyMetadata dep -> dep.selector.module != 'c' }
-        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, spec, attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, Stub(Comparator), new VersionParser())
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, spec, attributesSchema, moduleExclusions, buildOperationProcessor, dependencySubstitutionApplicator, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, Stub(Comparator), new VersionParser(), Stub(ComponentMetadataPrefetchExecutor), new CachedExternalResourceStatistics())
 
         def a = revision('a')
         def b = revision('b')
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple
+
+import org.gradle.api.artifacts.ModuleIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.CompositeExclude
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeAllOf
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.IvyArtifactName
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleIdentifier.newId
+
+class ExcludeIndexTest extends Specification {
+    private static final String[] GROUPS = ["org.foo", "org.bar", "com.acme"]
+    private static final String[] MODULES = ["mercury", "venus", "earth", "mars"]
+    private static final IvyArtifactName[] ARTIFACTS = [artifact("foo"), artifact("bar"), new DefaultIvyArtifactName("foo", "jar", "jar", "classy")]
+
+    private final DefaultExcludeFactory factory = new DefaultExcludeFactory()
+    private final Random random = new Random(2020L)
+
+    def "union answers module queries from its indexes"() {
+        def spec = factory.anyOf([
+            factory.group("org.foo"),
+            factory.moduleSet(["venus", "mars"] as Set),
+            factory.moduleId(newId("com.acme", "earth")),
+            factory.ivyPatternExclude(newId("org.bar", "merc.*"), null, "regexp")
+        ] as Set)
+
+        expect:
+        spec.excludes(newId("org.foo", "earth"))
+        spec.excludes(newId("org.bar", "venus"))
+        spec.excludes(newId("com.acme", "earth"))
+        spec.excludes(newId("org.bar", "mercury"))
+        !spec.excludes(newId("org.bar", "earth"))
+        !spec.excludes(newId("com.acme", "mercury"))
+        !spec.mayExcludeArtifacts()
+    }
+
+    def "union buckets artifact excludes by module"() {
+        def spec = factory.anyOf([
+            factory.group("org.foo"),
+            factory.ivyPatternExclude(newId("org.bar", "venus"), artifact("foo"), "exact"),
+            factory.ivyPatternExclude(newId("*", "mars"), artifact("bar"), "exact")
+        ] as Set)
+
+        expect:
+        spec.mayExcludeArtifacts()
+        spec.excludesArtifact(newId("org.bar", "venus"), artifact("foo"))
+        !spec.excludesArtifact(newId("org.bar", "venus"), artifact("bar"))
+        !spec.excludesArtifact(newId("org.bar", "earth"), artifact("foo"))
+        spec.excludesArtifact(newId("com.acme", "mars"), artifact("bar"))
+        !spec.excludes(newId("org.bar", "venus"))
+    }
+
+    def "equal unions share the same instance"() {
+        def one = factory.anyOf(factory.group("org.foo"), factory.module("venus"))
+        def two = new DefaultExcludeFactory().anyOf([factory.module("venus"), factory.group("org.foo")] as Set)
+
+        expect:
+        one.is(two)
+    }
+
+    def "compiled specs answer like a plain walk of the spec tree"() {
+        expect:
+        1000.times {
+            ExcludeSpec spec = next(0)
+            for (String group : GROUPS) {
+                for (String module : MODULES) {
+                    ModuleIdentifier id = newId(group, module)
+                    assert spec.excludes(id) == walkExcludes(spec, id)
+                    for (IvyArtifactName artifact : ARTIFACTS) {
+                        assert spec.excludesArtifact(id, artifact) == walkExcludesArtifact(spec, id, artifact)
+                    }
+                }
+            }
+        }
+        true
+    }
+
+    private static boolean walkExcludes(ExcludeSpec spec, ModuleIdentifier id) {
+        if (spec instanceof CompositeExclude) {
+            def components = ((CompositeExclude) spec).components
+            return spec instanceof ExcludeAllOf ? components.every { walkExcludes(it, id) } : components.any { walkExcludes(it, id) }
+        }
+        spec.excludes(id)
+    }
+
+    private static boolean walkExcludesArtifact(ExcludeSpec spec, ModuleIdentifier id, IvyArtifactName artifact) {
+        if (spec instanceof CompositeExclude) {
+            def components = ((CompositeExclude) spec).components
+            return spec instanceof ExcludeAllOf ? components.every { walkExcludesArtifact(it, id, artifact) } : components.any { walkExcludesArtifact(it, id, artifact) }
+        }
+        spec.excludesArtifact(id, artifact)
+    }
+
+    private ExcludeSpec next(int depth) {
+        switch (random.nextInt(depth < 3 ? 10 : 8)) {
+            case 0:
+                return factory.group(pick(GROUPS))
+            case 1:
+                return factory.module(pick(MODULES))
+            case 2:
+                return factory.moduleId(newId(pick(GROUPS), pick(MODULES)))
+            case 3:
+                return factory.groupSet([pick(GROUPS), pick(GROUPS)] as Set)
+            case 4:
+                return factory.moduleIdSet([newId(pick(GROUPS), pick(MODULES)), newId(pick(GROUPS), pick(MODULES))] as Set)
+            case 5:
+                return factory.ivyPatternExclude(newId(pick(GROUPS), random.nextBoolean() ? "*" : pick(MODULES)), ARTIFACTS[random.nextInt(ARTIFACTS.length)], "exact")
+            case 6:
+                return factory.ivyPatternExclude(newId("org\\..*", pick(MODULES)), null, "regexp")
+            case 7:
+                return random.nextBoolean() ? factory.nothing() : factory.everything()
+            case 8:
+                return factory.anyOf((0..random.nextInt(4)).collect { next(depth + 1) } as Set)
+            default:
+                return factory.allOf((0..random.nextInt(3)).collect { next(depth + 1) } as Set)
+        }
+    }
+
+    private String pick(String[] values) {
+        values[random.nextInt(values.length)]
+    }
+
+    private static IvyArtifactName artifact(String name) {
+        new DefaultIvyArtifactName(name, "jar", "jar")
+    }
+}
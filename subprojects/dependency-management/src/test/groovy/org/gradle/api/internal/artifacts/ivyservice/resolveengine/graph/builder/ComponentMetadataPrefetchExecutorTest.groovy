@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder
+
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import spock.lang.Specification
+
+class ComponentMetadataPrefetchExecutorTest extends Specification {
+    def executorFactory = Mock(ExecutorFactory)
+    def managedExecutor = Mock(ManagedExecutor)
+    def prefetchExecutor = new ComponentMetadataPrefetchExecutor(executorFactory, 4)
+
+    def "creates a single bounded executor shared by all resolutions"() {
+        when:
+        def first = prefetchExecutor.getExecutor()
+        def second = prefetchExecutor.getExecutor()
+
+        then:
+        1 * executorFactory.create(_, 4) >> managedExecutor
+        first.is(managedExecutor)
+        second.is(managedExecutor)
+    }
+
+    def "stops the executor when the build finishes"() {
+        given:
+        executorFactory.create(_, 4) >> managedExecutor
+        prefetchExecutor.getExecutor()
+
+        when:
+        prefetchExecutor.stop()
+
+        then:
+        1 * managedExecutor.stop()
+    }
+
+    def "does not create an executor when nothing was prefetched"() {
+        when:
+        prefetchExecutor.stop()
+
+        then:
+        0 * executorFactory._
+    }
+}
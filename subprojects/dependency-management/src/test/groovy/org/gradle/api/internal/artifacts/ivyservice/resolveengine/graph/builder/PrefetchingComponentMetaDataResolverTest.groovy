@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.model.ComponentResolveMetadata
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class PrefetchingComponentMetaDataResolverTest extends Specification {
+    def delegate = Mock(ComponentMetaDataResolver)
+    def scheduled = []
+    def executor = Mock(Executor) {
+        execute(_) >> { Runnable runnable -> scheduled << runnable }
+    }
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def resolver = new PrefetchingComponentMetaDataResolver(delegate, executor, buildOperationExecutor)
+    def id = DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", "foo"), "1.0")
+    def metadata = Stub(ComponentResolveMetadata)
+
+    def "uses prefetched metadata"() {
+        def result = new DefaultBuildableComponentResolveResult()
+
+        when:
+        resolver.prefetch(id)
+        resolver.prefetch(id)
+
+        then:
+        1 * delegate.isFetchingMetadataCheap(id) >> false
+        scheduled.size() == 1
+
+        when:
+        scheduled[0].run()
+
+        then:
+        1 * delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, _) >> { args ->
+            args[2].attempted("http://repo/foo-1.0.pom")
+            args[2].resolved(metadata)
+        }
+        buildOperationExecutor.log.records.size() == 1
+
+        when:
+        resolver.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result)
+
+        then:
+        0 * delegate.resolve(_, _, _)
+        result.metadata == metadata
+        result.attempted == ["http://repo/foo-1.0.pom"]
+    }
+
+    def "uses prefetched failure"() {
+        def failure = new ModuleVersionResolveException(id, new RuntimeException("broken"))
+        def result = new DefaultBuildableComponentResolveResult()
+        delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, _) >> { args -> args[2].failed(failure) }
+
+        when:
+        resolver.prefetch(id)
+        scheduled[0].run()
+        resolver.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result)
+
+        then:
+        result.failure == failure
+    }
+
+    def "resolves on the requesting thread when prefetch has not started"() {
+        def result = new DefaultBuildableComponentResolveResult()
+
+        given:
+        resolver.prefetch(id)
+
+        when:
+        resolver.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result)
+
+        then:
+        1 * delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result) >> { args -> args[2].resolved(metadata) }
+        result.metadata == metadata
+
+        when:
+        scheduled[0].run()
+
+        then:
+        0 * delegate.resolve(_, _, _)
+        buildOperationExecutor.log.records.empty
+    }
+
+    def "does not use prefetched metadata when component has override metadata"() {
+        def override = DefaultComponentOverrideMetadata.forDependency(true, null, null)
+        def result = new DefaultBuildableComponentResolveResult()
+
+        given:
+        resolver.prefetch(id)
+
+        when:
+        resolver.resolve(id, override, result)
+
+        then:
+        1 * delegate.resolve(id, override, result)
+    }
+
+    def "does not prefetch metadata which is cheap to fetch"() {
+        given:
+        delegate.isFetchingMetadataCheap(id) >> true
+
+        when:
+        resolver.prefetch(id)
+
+        then:
+        scheduled.empty
+    }
+
+    def "discards pending prefetches when stopped"() {
+        when:
+        resolver.prefetch(id)
+        resolver.stop()
+        scheduled[0].run()
+
+        then:
+        0 * delegate.resolve(_, _, _)
+    }
+
+    def "stops after prefetches which have completed"() {
+        given:
+        delegate.isFetchingMetadataCheap(id) >> false
+
+        when:
+        resolver.prefetch(id)
+        scheduled[0].run()
+        resolver.stop()
+
+        then:
+        1 * delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, _)
+    }
+}
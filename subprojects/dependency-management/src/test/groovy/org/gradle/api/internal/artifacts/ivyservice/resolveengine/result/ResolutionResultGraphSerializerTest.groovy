@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.component.ComponentSelector
+import org.gradle.api.artifacts.result.ComponentSelectionReason
+import org.gradle.api.artifacts.result.ResolutionResult
+import org.gradle.api.artifacts.result.ResolvedDependencyResult
+import org.gradle.api.artifacts.result.ResolvedVariantResult
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DependencyManagementTestUtil
+import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionConstraint
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphComponent
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphDependency
+import org.gradle.api.internal.artifacts.result.DefaultResolvedVariantResult
+import org.gradle.internal.Describables
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.util.AttributeTestUtil
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultPrinter.printGraph
+
+class ResolutionResultGraphSerializerTest extends Specification {
+
+    def serializer = new ResolutionResultGraphSerializer(
+        new DefaultImmutableModuleIdentifierFactory(),
+        new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator()),
+        DependencyManagementTestUtil.componentSelectionDescriptorFactory()
+    )
+    def builder = new DefaultResolutionResultBuilder()
+
+    def "serialized graph can be read back"() {
+        given:
+        builder.setRequestedAttributes(AttributeTestUtil.attributes(usage: "java-api"))
+        node("root")
+        node("mid", ComponentSelectionReasons.of(ComponentSelectionReasons.CONFLICT_RESOLUTION))
+        node("leaf")
+        builder.visitOutgoingEdges(id("root"), [dep("mid"), dep("leaf")])
+        builder.visitOutgoingEdges(id("mid"), [dep("leaf")])
+        builder.visitOutgoingEdges(id("leaf"), [])
+
+        when:
+        def result = roundTrip(builder.complete(id("root")))
+
+        then:
+        printGraph(result.root) == """x:root:1
+  x:mid:1(C) [root]
+    x:leaf:1 [root,mid]
+  x:leaf:1 [root,mid]
+"""
+        result.requestedAttributes == AttributeTestUtil.attributes(usage: "java-api")
+        result.allComponents.size() == 3
+        with(result.allComponents.find { it.moduleVersion.name == "leaf" }) {
+            dependents.size() == 2
+            variants*.displayName == ["runtime"]
+            variants[0].attributes == AttributeTestUtil.attributes(usage: "java-runtime")
+        }
+        with(result.root.dependencies.find { it.requested.displayName == "x:leaf:1" } as ResolvedDependencyResult) {
+            resolvedVariant.displayName == "runtime"
+            selected.is(result.allComponents.find { it.moduleVersion.name == "leaf" })
+        }
+    }
+
+    def "cannot serialize graph with unresolved dependencies"() {
+        given:
+        builder.setRequestedAttributes(AttributeTestUtil.attributes([:]))
+        node("root")
+        builder.visitOutgoingEdges(id("root"), [dep("missing", new RuntimeException("broken"))])
+
+        when:
+        serializer.write(new KryoBackedEncoder(new ByteArrayOutputStream()), builder.complete(id("root")))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private ResolutionResult roundTrip(ResolutionResult result) {
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        serializer.write(encoder, result)
+        encoder.flush()
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray())))
+    }
+
+    private void node(String module, ComponentSelectionReason reason = ComponentSelectionReasons.requested()) {
+        def componentId = new DefaultModuleComponentIdentifier(DefaultModuleIdentifier.newId("x", module), "1")
+        builder.visitComponent(new TestComponent(
+            resultId: id(module),
+            moduleVersion: newId(DefaultModuleIdentifier.newId("x", module), "1"),
+            selectionReason: reason,
+            componentId: componentId,
+            resolvedVariants: [variant(componentId)]
+        ))
+    }
+
+    private ResolvedGraphDependency dep(String requested, Exception failure = null) {
+        def selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("x", requested), DefaultImmutableVersionConstraint.of("1"))
+        def componentId = new DefaultModuleComponentIdentifier(DefaultModuleIdentifier.newId("x", requested), "1")
+        failure = failure == null ? null : new ModuleVersionResolveException(newSelector(DefaultModuleIdentifier.newId("x", requested), "1"), failure)
+        new TestDependency(requested: selector, selected: id(requested), selectedVariant: failure == null ? variant(componentId) : null, failure: failure)
+    }
+
+    private static ResolvedVariantResult variant(ComponentIdentifier owner) {
+        new DefaultResolvedVariantResult(owner, Describables.of("runtime"), AttributeTestUtil.attributes(usage: "java-runtime"), [], null)
+    }
+
+    private static Long id(String module) {
+        return module.hashCode()
+    }
+
+    static class TestComponent implements ResolvedGraphComponent {
+        Long resultId
+        ModuleVersionIdentifier moduleVersion
+        ComponentSelectionReason selectionReason
+        ComponentIdentifier componentId
+        String repositoryName
+        List<ResolvedVariantResult> resolvedVariants = []
+    }
+
+    static class TestDependency implements ResolvedGraphDependency {
+        ComponentSelector requested
+        Long selected
+        ResolvedVariantResult fromVariant
+        ResolvedVariantResult selectedVariant
+        ModuleVersionResolveException failure
+        ComponentSelectionReason reason
+        boolean constraint
+    }
+}
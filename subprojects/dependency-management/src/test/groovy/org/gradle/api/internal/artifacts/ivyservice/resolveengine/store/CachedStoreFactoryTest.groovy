@@ -37,4 +37,30 @@ class CachedStoreFactoryTest extends Specification {
         store1b.load({assert false} as Factory) == results1
         store2.load({results2} as Factory) == results2
     }
+
+    def "does not cache results when expiry is 0"() {
+        def factory = new CachedStoreFactory("some cache", 100, 0, false)
+
+        def results1 = new Object()
+        def results2 = new Object()
+
+        def store = factory.createCachedStore("conf1")
+
+        expect:
+        store.load({results1} as Factory) == results1
+        store.load({results2} as Factory) == results2
+    }
+
+    def "stores softly referenced results"() {
+        def factory = new CachedStoreFactory("some cache", 100, 10000, true)
+
+        def results = new Object()
+
+        def store1 = factory.createCachedStore("conf1")
+        def store1b = factory.createCachedStore("conf1")
+
+        expect:
+        store1.load({results} as Factory) == results
+        store1b.load({assert false} as Factory) == results
+    }
 }
@@ -21,6 +21,8 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicLong
+
 class DefaultBinaryStoreTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider(getClass())
@@ -113,4 +115,69 @@ class DefaultBinaryStoreTest extends Specification {
         then:
         data.close()
     }
+
+    def "keeps binary data off-heap while the budget allows"() {
+        def budget = new AtomicLong(OffHeapBuffer.CHUNK_SIZE * 4)
+        def store = new DefaultBinaryStore(temp.file("foo.bin"), budget)
+
+        when:
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data1 = store.done()
+        store.write({ it.writeString("y") } as BinaryStore.WriteAction)
+        def data2 = store.done()
+
+        then:
+        store.inMemory
+        !temp.file("foo.bin").exists()
+        budget.get() == OffHeapBuffer.CHUNK_SIZE * 3
+
+        data1.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data1.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data1.close()
+
+        data2.read({ it.readString() } as BinaryStore.ReadAction) == "y"
+        data2.close()
+
+        when:
+        store.close()
+
+        then:
+        budget.get() == OffHeapBuffer.CHUNK_SIZE * 4
+    }
+
+    def "spills binary data to the file when the budget is exhausted"() {
+        def budget = new AtomicLong(OffHeapBuffer.CHUNK_SIZE)
+        def store = new DefaultBinaryStore(temp.file("foo.bin"), budget)
+        def large = "x" * (OffHeapBuffer.CHUNK_SIZE * 2)
+
+        when:
+        store.write({ it.writeString("before") } as BinaryStore.WriteAction)
+        def data1 = store.done()
+
+        then:
+        store.inMemory
+        data1.read({ it.readString() } as BinaryStore.ReadAction) == "before"
+        data1.close()
+
+        when:
+        store.write({ it.writeString(large) } as BinaryStore.WriteAction)
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        def data2 = store.done()
+
+        then:
+        !store.inMemory
+        temp.file("foo.bin").exists()
+        budget.get() == OffHeapBuffer.CHUNK_SIZE
+
+        data1.read({ it.readString() } as BinaryStore.ReadAction) == "before"
+        data1.close()
+
+        data2.read({ it.readString() } as BinaryStore.ReadAction) == large
+        data2.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data2.close()
+
+        cleanup:
+        store.close()
+    }
 }
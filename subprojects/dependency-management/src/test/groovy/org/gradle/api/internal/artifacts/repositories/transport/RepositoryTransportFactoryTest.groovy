@@ -18,21 +18,32 @@ package org.gradle.api.internal.artifacts.repositories.transport
 
 import com.google.common.collect.Lists
 import org.gradle.StartParameter
+import org.gradle.api.Action
 import org.gradle.api.InvalidUserDataException
 import org.gradle.api.credentials.Credentials
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.StartParameterResolutionOverride
 import org.gradle.authentication.Authentication
 import org.gradle.cache.internal.ProducerGuard
 import org.gradle.internal.authentication.AbstractAuthentication
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resource.ExternalResourceName
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics
 import org.gradle.internal.resource.connector.ResourceConnectorFactory
 import org.gradle.internal.resource.local.FileResourceListener
 import org.gradle.internal.resource.local.FileResourceRepository
+import org.gradle.internal.resource.transfer.DownloadPermits
+import org.gradle.internal.resource.transfer.ExternalResourceConnector
+import org.gradle.internal.resource.transfer.ExternalResourceReadResponse
 import org.gradle.internal.resource.transport.ResourceConnectorRepositoryTransport
 import org.gradle.internal.verifier.HttpRedirectVerifier
+import org.gradle.test.fixtures.work.TestWorkerLeaseService
 import org.gradle.util.TestUtil
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class RepositoryTransportFactoryTest extends Specification {
 
     def connectorFactory1 = Mock(ResourceConnectorFactory)
@@ -47,7 +58,7 @@ class RepositoryTransportFactoryTest extends Specification {
         connectorFactory2.getSupportedAuthentication() >> ([] as Set)
         List<ResourceConnectorFactory> resourceConnectorFactories = Lists.newArrayList(connectorFactory1, connectorFactory2)
         StartParameterResolutionOverride override = new StartParameterResolutionOverride(new StartParameter(), Mock(File))
-        repositoryTransportFactory = new RepositoryTransportFactory(resourceConnectorFactories, null, null, null, null, null, null, override, producerGuard, Mock(FileResourceRepository), TestUtil.checksumService, Stub(FileResourceListener))
+        repositoryTransportFactory = new RepositoryTransportFactory(resourceConnectorFactories, null, null, null, null, null, null, override, producerGuard, Mock(FileResourceRepository), TestUtil.checksumService, Stub(FileResourceListener), new CachedExternalResourceStatistics(), new DownloadPermits(0), new TestWorkerLeaseService())
     }
 
     RepositoryTransport createTransport(String scheme, String name, Collection<Authentication> authentications) {
@@ -161,6 +172,49 @@ class RepositoryTransportFactoryTest extends Specification {
         ex.message == "You cannot configure multiple authentication schemes of the same type.  The duplicate one is 'good'(Authentication)."
     }
 
+    def "transports created for the same repository share the download limit"() {
+        def connector = Mock(ExternalResourceConnector)
+        connectorFactory1.createResourceConnector(_) >> connector
+        connector.openResource(_, _) >> Stub(ExternalResourceReadResponse) {
+            openStream() >> new ByteArrayInputStream(new byte[0])
+        }
+        def override = new StartParameterResolutionOverride(new StartParameter(), Mock(File))
+        def factory = new RepositoryTransportFactory([connectorFactory1], null, null, null, null, null, new TestBuildOperationExecutor(), override, producerGuard, Mock(FileResourceRepository), TestUtil.checksumService, Stub(FileResourceListener), new CachedExternalResourceStatistics(), new DownloadPermits(1), new TestWorkerLeaseService())
+        def location = new ExternalResourceName(new URI("protocol1://repo.example.com/thing.jar"))
+        def first = factory.createTransport("protocol1", "repo", [], Mock(HttpRedirectVerifier))
+        def second = factory.createTransport("protocol1", "repo", [], Mock(HttpRedirectVerifier))
+        def downloading = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def secondDownloaded = new CountDownLatch(1)
+
+        when:
+        def firstDownload = Thread.start {
+            first.repository.resource(location).withContent({ InputStream input ->
+                downloading.countDown()
+                release.await()
+            } as Action<InputStream>)
+        }
+        downloading.await()
+        def secondDownload = Thread.start {
+            second.repository.resource(location).withContent({ InputStream input -> } as Action<InputStream>)
+            secondDownloaded.countDown()
+        }
+
+        then:
+        !secondDownloaded.await(100, TimeUnit.MILLISECONDS)
+
+        when:
+        release.countDown()
+
+        then:
+        secondDownloaded.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        release.countDown()
+        firstDownload?.join()
+        secondDownload?.join()
+    }
+
     private class AuthenticationWithoutCredentials extends AbstractAuthentication {
         AuthenticationWithoutCredentials(String name) {
             super(name, Authentication, GoodCredentials)
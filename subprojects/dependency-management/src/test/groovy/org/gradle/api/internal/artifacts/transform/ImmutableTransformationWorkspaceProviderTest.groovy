@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import com.google.common.collect.ImmutableList
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.Try
+import org.gradle.internal.execution.UnitOfWork
+import org.gradle.internal.execution.history.ExecutionHistoryStore
+import org.gradle.internal.file.FileAccessTimeJournal
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.snapshot.CompleteFileSystemLocationSnapshot
+import org.gradle.internal.vfs.FileSystemAccess
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.function.Function
+
+class ImmutableTransformationWorkspaceProviderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider(getClass())
+
+    def persistentCache = Mock(PersistentCache)
+    def cacheBuilder = Stub(CacheBuilder)
+    def cacheRepository = Stub(CacheRepository)
+    def fileAccessTimeJournal = Mock(FileAccessTimeJournal)
+    def identity = Stub(UnitOfWork.Identity) {
+        getUniqueId() >> "workspace"
+    }
+    def result = ImmutableList.of(new File("transformed.jar"))
+    def outputHash = HashCode.fromInt(1)
+    def outputSnapshot = Stub(CompleteFileSystemLocationSnapshot) {
+        getHash() >> { outputHash }
+    }
+    def fileSystemAccess = Stub(FileSystemAccess) {
+        read(_ as String, _ as Function) >> { String location, Function visitor -> visitor.apply(outputSnapshot) }
+    }
+
+    def setup() {
+        cacheRepository.cache(_) >> cacheBuilder
+        cacheBuilder.withCleanup(_) >> cacheBuilder
+        cacheBuilder.withCrossVersionCache(_) >> cacheBuilder
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> persistentCache
+    }
+
+    def "forgets results at the end of the build by default"() {
+        def provider = new ImmutableTransformationWorkspaceProvider(temp.testDirectory, cacheRepository, fileAccessTimeJournal, Stub(ExecutionHistoryStore), fileSystemAccess)
+
+        when:
+        provider.identityCache.put(identity, Try.successful(result))
+        provider.buildFinished()
+
+        then:
+        provider.identityCache.size() == 0
+        provider.getResultFromPreviousBuild(identity) == null
+    }
+
+    def "reuses successful results from previous builds while their outputs are unchanged"() {
+        def provider = new ImmutableTransformationWorkspaceProvider(temp.testDirectory, cacheRepository, fileAccessTimeJournal, Stub(ExecutionHistoryStore), fileSystemAccess, 10)
+        def failed = Stub(UnitOfWork.Identity)
+
+        when:
+        provider.identityCache.put(identity, Try.successful(result))
+        provider.identityCache.put(failed, Try.failure(new RuntimeException()))
+        provider.buildFinished()
+
+        then:
+        provider.identityCache.size() == 0
+        provider.getResultFromPreviousBuild(identity) == result
+        provider.getResultFromPreviousBuild(failed) == null
+
+        when:
+        provider.buildFinished()
+
+        then:
+        1 * persistentCache.withFileLock(_ as Runnable) >> { Runnable action -> action.run() }
+        1 * fileAccessTimeJournal.setLastAccessTime(temp.file("workspace"), _)
+
+        and:
+        provider.getResultFromPreviousBuild(identity) == result
+    }
+
+    def "does not reuse results from previous builds when their outputs changed"() {
+        def provider = new ImmutableTransformationWorkspaceProvider(temp.testDirectory, cacheRepository, fileAccessTimeJournal, Stub(ExecutionHistoryStore), fileSystemAccess, 10)
+
+        when:
+        provider.identityCache.put(identity, Try.successful(result))
+        provider.buildFinished()
+        outputHash = HashCode.fromInt(2)
+
+        then:
+        provider.getResultFromPreviousBuild(identity) == null
+
+        when:
+        outputHash = HashCode.fromInt(1)
+
+        then:
+        provider.getResultFromPreviousBuild(identity) == null
+    }
+}
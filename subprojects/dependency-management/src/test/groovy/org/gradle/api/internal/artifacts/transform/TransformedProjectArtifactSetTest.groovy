@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class TransformedProjectArtifactSetTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+
+    def executed = Mock(TransformationNode)
+    def notExecuted = Mock(TransformationNode)
+    def operationQueue = Mock(BuildOperationQueue)
+    def artifactSet = new TransformedProjectArtifactSet(Stub(ComponentIdentifier), Stub(ImmutableAttributes), [executed, notExecuted])
+
+    def "does not execute transformation nodes when finalization starts by default"() {
+        when:
+        artifactSet.startFinalization(operationQueue, true)
+
+        then:
+        0 * _
+    }
+
+    def "executes transformation nodes that have not been executed concurrently when pipelined"() {
+        System.setProperty(TransformedProjectArtifactSet.PIPELINED_TRANSFORMS_PROPERTY, "true")
+        RunnableBuildOperation operation = null
+
+        when:
+        artifactSet.startFinalization(operationQueue, true)
+
+        then:
+        1 * executed.isExecuted() >> true
+        1 * notExecuted.isExecuted() >> false
+        1 * notExecuted.finalizeParametersAndDependenciesIfNotAlready()
+        1 * operationQueue.add(_) >> { RunnableBuildOperation op -> operation = op }
+        0 * _
+
+        when:
+        operation.run(null)
+
+        then:
+        1 * notExecuted.executeIfNotAlready()
+        0 * _
+    }
+}
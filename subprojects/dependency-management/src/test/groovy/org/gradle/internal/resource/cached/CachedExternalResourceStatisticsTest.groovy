@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.cached
+
+import spock.lang.Specification
+
+class CachedExternalResourceStatisticsTest extends Specification {
+    def statistics = new CachedExternalResourceStatistics()
+
+    def "counts the work done by the collecting action only"() {
+        given:
+        statistics.hit()
+
+        when:
+        def first = statistics.collect {
+            statistics.hit()
+            statistics.revalidated()
+            statistics.downloaded(100, 2000)
+        }
+        def second = statistics.collect {
+            statistics.refreshed()
+        }
+
+        then:
+        first.hits == 1
+        first.revalidations == 1
+        first.refreshes == 0
+        first.bytesDownloaded == 100
+        second.hits == 0
+        second.refreshes == 1
+        second.bytesDownloaded == 0
+    }
+
+    def "nested collection is not counted against the outer collection"() {
+        def inner = null
+
+        when:
+        def outer = statistics.collect {
+            statistics.hit()
+            inner = statistics.collect {
+                statistics.hit()
+                statistics.hit()
+            }
+            statistics.hit()
+        }
+
+        then:
+        outer.hits == 2
+        inner.hits == 2
+    }
+
+    def "counts work handed over to another thread against the resolution that submitted it"() {
+        def other = null
+
+        when:
+        def counts = statistics.collect {
+            def task = statistics.propagate { statistics.hit() }
+            def thread = new Thread({
+                task.run()
+                other = statistics.collect {}
+            } as Runnable)
+            thread.start()
+            thread.join()
+        }
+
+        then:
+        counts.hits == 1
+        other.hits == 0
+    }
+
+    def "does not wrap tasks submitted outside of a collection"() {
+        def task = {} as Runnable
+
+        expect:
+        statistics.propagate(task).is(task)
+    }
+}
@@ -17,11 +17,11 @@
 package org.gradle.internal.resource.transfer
 
 import org.gradle.api.Transformer
+import org.gradle.internal.Factory
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManagerStub
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultExternalResourceCachePolicy
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.cache.internal.ProducerGuard
-import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.hash.Hashing
 import org.gradle.internal.resource.ExternalResource
 import org.gradle.internal.resource.ExternalResourceName
@@ -29,13 +29,16 @@ import org.gradle.internal.resource.ExternalResourceReadResult
 import org.gradle.internal.resource.ExternalResourceRepository
 import org.gradle.internal.resource.cached.CachedExternalResource
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex
+import org.gradle.internal.resource.cached.CachedExternalResourceStatistics
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
 import org.gradle.internal.resource.local.FileResourceRepository
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource
 import org.gradle.internal.resource.local.LocallyAvailableResource
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.work.TestWorkerLeaseService
 import org.gradle.util.BuildCommencedTimeProvider
 import org.gradle.util.TestUtil
 import org.junit.Rule
@@ -56,13 +59,14 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
     final cacheLockingManager = new ArtifactCacheLockingManagerStub()
     final fileRepository = Mock(FileResourceRepository)
     final cachePolicy = new DefaultExternalResourceCachePolicy()
+    final statistics = new CachedExternalResourceStatistics()
     final ProducerGuard<URI> producerGuard = Stub() {
         guardByKey(_, _) >> { args ->
             def (key, supplier) = args
             supplier.get()
         }
     }
-    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService)
+    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService, statistics, new TestWorkerLeaseService())
 
     def "returns null when the request resource is not cached and does not exist in the remote repository"() {
         def location = new ExternalResourceName("thing")
@@ -137,6 +141,40 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
+    def "downloads resource without holding the worker lease"() {
+        def workerLeaseService = Mock(WorkerLeaseService)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, cachePolicy, producerGuard, fileRepository, TestUtil.checksumService, statistics, workerLeaseService)
+        def location = new ExternalResourceName("thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteResource = Mock(ExternalResource)
+        def metaData = Mock(ExternalResourceMetaData)
+        def localResource = new DefaultLocallyAvailableResource(cachedFile, TestUtil.checksumService)
+        def blocking = false
+        def downloadedWhileBlocking = false
+
+        when:
+        cache.getResource(location, null, fileStore, null)
+
+        then:
+        1 * index.lookup("thing") >> null
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location) >> remoteResource
+        1 * workerLeaseService.blocking(_) >> { Factory factory ->
+            blocking = true
+            try {
+                factory.create()
+            } finally {
+                blocking = false
+            }
+        }
+        1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
+            downloadedWhileBlocking = blocking
+            a.execute(new ByteArrayInputStream(), metaData)
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        downloadedWhileBlocking
+    }
+
     def "reuses cached resource if it has not expired"() {
         def location = new ExternalResourceName("scheme:thing")
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
@@ -144,12 +182,14 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         def metaData = Mock(ExternalResourceMetaData)
         def cachedResource = Stub(CachedExternalResource)
         def resultResource = Mock(LocallyAvailableExternalResource)
+        def result = null
 
         when:
-        def result = cache.getResource(location, null, fileStore, localCandidates)
+        def counts = statistics.collect { result = cache.getResource(location, null, fileStore, localCandidates) }
 
         then:
         result == resultResource
+        counts.hits == 1
 
         and:
         1 * index.lookup("scheme:thing") >> cachedResource
@@ -207,31 +247,66 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
-    def "reuses cached resource if ETag matches"() {
+    def "reuses cached resource if remote reports it as unmodified"() {
         given:
         def etag = "686897696a7c876b7e"
         def localCandidates = Mock(LocallyAvailableResourceCandidates)
-        def candidate = tempDir.createFile("candidate-file")
-        def sha1 = HashUtil.createHash(candidate, "sha1")
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
         def cachedMetaData = Stub(ExternalResourceMetaData) {
             getEtag() >> etag
             getContentLength() >> 42
         }
-        def remoteMetaData = Stub(ExternalResourceMetaData) {
-            getEtag() >> etag
-            getSha1() >> sha1
-        }
-        def remoteResource = Stub(ExternalResource) {
-            getMetaData() >> remoteMetaData
-        }
+        def remoteResource = Mock(ExternalResource)
         def location = new ExternalResourceName("thing")
         def resultResource = Stub(LocallyAvailableExternalResource) {
             getFile() >> cachedFile
         }
+        def result = null
 
         when:
-        def result = cache.getResource(location, null, fileStore, localCandidates)
+        def counts = statistics.collect { result = cache.getResource(location, null, fileStore, localCandidates) }
+
+        then:
+        result == resultResource
+
+        and:
+        1 * index.lookup("thing") >> Stub(CachedExternalResource) {
+            getCachedAt() >> 23999L
+            getExternalResourceMetaData() >> cachedMetaData
+            getCachedFile() >> cachedFile
+        }
+        timeProvider.currentTime >> 24000L
+        1 * repository.supportsConditionalRequests() >> true
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location, true) >> remoteResource
+        1 * remoteResource.withContentIfModified(cachedMetaData, _) >> ExternalResourceReadResult.unmodified()
+        1 * index.store("thing", cachedFile, cachedMetaData)
+        1 * fileRepository.resource(cachedFile, location.uri, cachedMetaData) >> resultResource
+        0 * _._
+
+        and:
+        counts.revalidations == 1
+        counts.refreshes == 0
+    }
+
+    def "revalidates cached resource with a HEAD request when the repository does not support conditional requests"() {
+        given:
+        def etag = "686897696a7c876b7e"
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Stub(ExternalResourceMetaData) {
+            getEtag() >> etag
+        }
+        def remoteMetaData = Stub(ExternalResourceMetaData) {
+            getEtag() >> etag
+        }
+        def remoteResource = Mock(ExternalResource)
+        def location = new ExternalResourceName("thing")
+        def resultResource = Stub(LocallyAvailableExternalResource)
+        def result = null
+
+        when:
+        def counts = statistics.collect { result = cache.getResource(location, null, fileStore, localCandidates) }
 
         then:
         result == resultResource
@@ -243,10 +318,88 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
             getCachedFile() >> cachedFile
         }
         timeProvider.currentTime >> 24000L
+        1 * repository.supportsConditionalRequests() >> false
         1 * repository.resource(location, true) >> remoteResource
+        1 * remoteResource.metaData >> remoteMetaData
         1 * index.store("thing", cachedFile, cachedMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, cachedMetaData) >> resultResource
         0 * _._
+
+        and:
+        counts.revalidations == 1
+        counts.refreshes == 0
+    }
+
+    def "downloads resource and replaces cached resource if remote reports it as modified"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Stub(ExternalResourceMetaData) {
+            getEtag() >> "686897696a7c876b7e"
+        }
+        def remoteMetaData = Stub(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+        def location = new ExternalResourceName("thing")
+        def localResource = new DefaultLocallyAvailableResource(cachedFile, TestUtil.checksumService)
+        def resultResource = Stub(LocallyAvailableExternalResource)
+        def result = null
+
+        when:
+        def counts = statistics.collect { result = cache.getResource(location, null, fileStore, localCandidates) }
+
+        then:
+        result == resultResource
+
+        and:
+        1 * index.lookup("thing") >> Stub(CachedExternalResource) {
+            getCachedAt() >> 23999L
+            getExternalResourceMetaData() >> cachedMetaData
+            getCachedFile() >> cachedFile
+        }
+        timeProvider.currentTime >> 24000L
+        1 * repository.supportsConditionalRequests() >> true
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location, true) >> remoteResource
+        1 * remoteResource.withContentIfModified(cachedMetaData, _) >> { ExternalResourceMetaData cached, ExternalResource.ContentAction a ->
+            ExternalResourceReadResult.of(0, a.execute(new ByteArrayInputStream(), remoteMetaData))
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * index.store("thing", cachedFile, remoteMetaData)
+        1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
+        0 * _._
+
+        and:
+        counts.revalidations == 0
+        counts.refreshes == 1
+    }
+
+    def "returns null when cached resource no longer exists in the remote repository"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Stub(ExternalResourceMetaData) {
+            getLastModified() >> new Date(1000)
+        }
+        def remoteResource = Mock(ExternalResource)
+        def location = new ExternalResourceName("thing")
+
+        when:
+        def result = cache.getResource(location, null, fileStore, localCandidates)
+
+        then:
+        result == null
+
+        and:
+        1 * index.lookup("thing") >> Stub(CachedExternalResource) {
+            getCachedAt() >> 23999L
+            getExternalResourceMetaData() >> cachedMetaData
+        }
+        timeProvider.currentTime >> 24000L
+        1 * repository.supportsConditionalRequests() >> true
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.resource(location, true) >> remoteResource
+        1 * remoteResource.withContentIfModified(cachedMetaData, _) >> null
+        0 * _._
     }
 
     def "will download sha1 for finding candidates if not available in meta-data"() {
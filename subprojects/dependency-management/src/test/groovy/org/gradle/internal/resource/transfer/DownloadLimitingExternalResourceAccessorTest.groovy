@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer
+
+import spock.lang.Specification
+
+class DownloadLimitingExternalResourceAccessorTest extends Specification {
+    def uri = new URI("http://somewhere/thing.jar")
+    def delegate = Mock(ExternalResourceAccessor)
+
+    def "does not decorate accessor when no limit is set"() {
+        expect:
+        DownloadLimitingExternalResourceAccessor.limit(delegate, new DownloadPermits(0)).is(delegate)
+    }
+
+    def "holds permit until response is closed"() {
+        def accessor = DownloadLimitingExternalResourceAccessor.limit(delegate, new DownloadPermits(1))
+        def response = Mock(ExternalResourceReadResponse)
+        delegate.openResource(_, false) >> response
+
+        when:
+        def first = accessor.openResource(uri, false)
+        def second = startOpening(accessor)
+
+        then:
+        !second.await(100)
+
+        when:
+        first.close()
+
+        then:
+        second.await(5000)
+        second.result != null
+        1 * response.close()
+    }
+
+    def "releases permit when resource is missing or cannot be opened"() {
+        def accessor = DownloadLimitingExternalResourceAccessor.limit(delegate, new DownloadPermits(1))
+
+        when:
+        def result = accessor.openResource(uri, false)
+
+        then:
+        result == null
+        1 * delegate.openResource(uri, false) >> null
+
+        when:
+        accessor.openResource(uri, false)
+
+        then:
+        thrown(RuntimeException)
+        1 * delegate.openResource(uri, false) >> { throw new RuntimeException("broken") }
+
+        when:
+        result = accessor.openResource(uri, false)
+
+        then:
+        result != null
+        1 * delegate.openResource(uri, false) >> Mock(ExternalResourceReadResponse)
+    }
+
+    def "releases permit only once when response is closed more than once"() {
+        def accessor = DownloadLimitingExternalResourceAccessor.limit(delegate, new DownloadPermits(1))
+        delegate.openResource(_, false) >> Stub(ExternalResourceReadResponse)
+
+        when:
+        def first = accessor.openResource(uri, false)
+        first.close()
+        first.close()
+        def second = accessor.openResource(uri, false)
+        def third = startOpening(accessor)
+
+        then:
+        !third.await(100)
+
+        cleanup:
+        second?.close()
+        third?.await(5000)
+    }
+
+    def "does not limit metadata requests"() {
+        def accessor = DownloadLimitingExternalResourceAccessor.limit(delegate, new DownloadPermits(1))
+        delegate.openResource(uri, false) >> Stub(ExternalResourceReadResponse)
+
+        when:
+        accessor.openResource(uri, false)
+        accessor.getMetaData(uri, false)
+
+        then:
+        1 * delegate.getMetaData(uri, false)
+    }
+
+    def "accessors using the same permits share the limit for a host"() {
+        def permits = new DownloadPermits(1)
+        def accessor = DownloadLimitingExternalResourceAccessor.limit(delegate, permits)
+        def otherDelegate = Mock(ExternalResourceAccessor)
+        def otherAccessor = DownloadLimitingExternalResourceAccessor.limit(otherDelegate, permits)
+        delegate.openResource(_, false) >> Stub(ExternalResourceReadResponse)
+        otherDelegate.openResource(_, false) >> Stub(ExternalResourceReadResponse)
+
+        when:
+        def first = accessor.openResource(uri, false)
+        def sameHost = startOpening(otherAccessor)
+        def otherHost = startOpening(otherAccessor, new URI("http://elsewhere/thing.jar"))
+
+        then:
+        otherHost.await(5000)
+        !sameHost.await(100)
+
+        when:
+        first.close()
+
+        then:
+        sameHost.await(5000)
+    }
+
+    private static PendingOpen startOpening(ExternalResourceAccessor accessor, URI location = new URI("http://somewhere/other.jar")) {
+        def pending = new PendingOpen()
+        pending.thread = Thread.start {
+            pending.result = accessor.openResource(location, false)
+        }
+        return pending
+    }
+
+    private static class PendingOpen {
+        Thread thread
+        volatile ExternalResourceReadResponse result
+
+        boolean await(long millis) {
+            thread.join(millis)
+            return !thread.alive
+        }
+    }
+}
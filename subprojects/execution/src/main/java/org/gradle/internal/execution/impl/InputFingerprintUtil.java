@@ -16,6 +16,7 @@
 
 package org.gradle.internal.execution.impl;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.execution.UnitOfWork;
@@ -24,12 +25,23 @@
 import org.gradle.internal.snapshot.ValueSnapshotter;
 
 import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import static org.gradle.internal.execution.UnitOfWork.InputPropertyType.NON_INCREMENTAL;
 
 public class InputFingerprintUtil {
 
+    /**
+     * Fingerprints the input file properties one after the other on the current thread.
+     */
+    public static final FingerprintExecutor SEQUENTIAL = (work, fingerprinters) -> {
+        ImmutableMap.Builder<String, CurrentFileCollectionFingerprint> fingerprints = ImmutableMap.builder();
+        fingerprinters.forEach((propertyName, fingerprinter) -> fingerprints.put(propertyName, fingerprinter.get()));
+        return fingerprints.build();
+    };
+
     public static void fingerprintInputProperties(
         UnitOfWork work,
         ImmutableSortedMap<String, ValueSnapshot> previousValueSnapshots,
@@ -39,9 +51,33 @@ public static void fingerprintInputProperties(
         ImmutableSortedMap<String, CurrentFileCollectionFingerprint> knownFingerprints,
         ImmutableSortedMap.Builder<String, CurrentFileCollectionFingerprint> fingerprintsBuilder,
         InputPropertyPredicate filter
+    ) {
+        fingerprintInputProperties(
+            work,
+            previousValueSnapshots,
+            valueSnapshotter,
+            knownValueSnapshots,
+            valueSnapshotsBuilder,
+            knownFingerprints,
+            fingerprintsBuilder,
+            filter,
+            SEQUENTIAL);
+    }
+
+    public static void fingerprintInputProperties(
+        UnitOfWork work,
+        ImmutableSortedMap<String, ValueSnapshot> previousValueSnapshots,
+        ValueSnapshotter valueSnapshotter,
+        ImmutableSortedMap<String, ValueSnapshot> knownValueSnapshots,
+        ImmutableSortedMap.Builder<String, ValueSnapshot> valueSnapshotsBuilder,
+        ImmutableSortedMap<String, CurrentFileCollectionFingerprint> knownFingerprints,
+        ImmutableSortedMap.Builder<String, CurrentFileCollectionFingerprint> fingerprintsBuilder,
+        InputPropertyPredicate filter,
+        FingerprintExecutor fingerprintExecutor
     ) {
         valueSnapshotsBuilder.putAll(knownValueSnapshots);
         fingerprintsBuilder.putAll(knownFingerprints);
+        Map<String, Supplier<CurrentFileCollectionFingerprint>> fingerprinters = new LinkedHashMap<>();
         work.visitInputs(new UnitOfWork.InputVisitor() {
             @Override
             public void visitInputProperty(String propertyName, UnitOfWork.IdentityKind identity, UnitOfWork.ValueSupplier value) {
@@ -73,9 +109,36 @@ public void visitInputFileProperty(String propertyName, UnitOfWork.InputProperty
                 if (!filter.include(propertyName, type, identity)) {
                     return;
                 }
-                fingerprintsBuilder.put(propertyName, fingerprinter.get());
+                fingerprinters.put(propertyName, fingerprinter);
             }
         });
+        fingerprintsBuilder.putAll(fingerprintExecutor.fingerprint(work, fingerprinters));
+    }
+
+    /**
+     * Runs the fingerprinters of the input file properties of a unit of work.
+     */
+    public interface FingerprintExecutor {
+        /**
+         * Returns the fingerprint of each property. When fingerprinting fails, the failure of the first failing property in iteration order is thrown.
+         */
+        Map<String, CurrentFileCollectionFingerprint> fingerprint(UnitOfWork work, Map<String, Supplier<CurrentFileCollectionFingerprint>> fingerprinters);
+    }
+
+    /**
+     * A fingerprinter that can resolve its files on the thread executing the work, leaving only the hashing of the resolved files to other threads.
+     */
+    public interface ResolvingFingerprinter extends Supplier<CurrentFileCollectionFingerprint> {
+        /**
+         * Resolves the files to fingerprint on the calling thread.
+         * The returned supplier only accesses the file system, so it can be called from any thread.
+         */
+        Supplier<CurrentFileCollectionFingerprint> resolve();
+
+        @Override
+        default CurrentFileCollectionFingerprint get() {
+            return resolve().get();
+        }
     }
 
     public interface InputPropertyPredicate {
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.execution.UnitOfWork;
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Fingerprints the input file properties of a unit of work concurrently, using the shared build operation worker pool.
+ *
+ * <p>The files of each property are resolved on the requesting thread, which holds the locks the work needs to resolve them.
+ * Only hashing the resolved files of {@link InputFingerprintUtil.ResolvingFingerprinter}s is done on the worker pool,
+ * other fingerprinters run entirely on the requesting thread.</p>
+ *
+ * <p>The number of properties hashed at the same time is bounded by the available worker leases.
+ * The results and failures are reported in the order of the properties, regardless of the order in which they complete.</p>
+ */
+public class ParallelFingerprintExecutor implements InputFingerprintUtil.FingerprintExecutor {
+    public static final String PARALLEL_FINGERPRINTING_PROPERTY = "org.gradle.internal.execution.parallel-input-fingerprinting";
+
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public ParallelFingerprintExecutor(BuildOperationExecutor buildOperationExecutor) {
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public Map<String, CurrentFileCollectionFingerprint> fingerprint(UnitOfWork work, Map<String, Supplier<CurrentFileCollectionFingerprint>> fingerprinters) {
+        if (fingerprinters.size() < 2) {
+            return InputFingerprintUtil.SEQUENTIAL.fingerprint(work, fingerprinters);
+        }
+        List<FingerprintInputFileProperty> operations = new ArrayList<>(fingerprinters.size());
+        List<FingerprintInputFileProperty> pendingOperations = new ArrayList<>(fingerprinters.size());
+        fingerprinters.forEach((propertyName, fingerprinter) -> {
+            FingerprintInputFileProperty operation = new FingerprintInputFileProperty(work, propertyName);
+            operations.add(operation);
+            if (operation.resolve(fingerprinter)) {
+                pendingOperations.add(operation);
+            }
+        });
+        if (pendingOperations.size() == 1) {
+            pendingOperations.get(0).fingerprint();
+        } else if (!pendingOperations.isEmpty()) {
+            buildOperationExecutor.runAll(queue -> pendingOperations.forEach(queue::add));
+        }
+
+        ImmutableMap.Builder<String, CurrentFileCollectionFingerprint> fingerprints = ImmutableMap.builder();
+        for (FingerprintInputFileProperty operation : operations) {
+            fingerprints.put(operation.propertyName, operation.getFingerprint());
+        }
+        return fingerprints.build();
+    }
+
+    private static class FingerprintInputFileProperty implements RunnableBuildOperation {
+        private final UnitOfWork work;
+        private final String propertyName;
+        private Supplier<CurrentFileCollectionFingerprint> resolvedFingerprinter;
+        private CurrentFileCollectionFingerprint fingerprint;
+        private Throwable failure;
+
+        FingerprintInputFileProperty(UnitOfWork work, String propertyName) {
+            this.work = work;
+            this.propertyName = propertyName;
+        }
+
+        /**
+         * Resolves the files of the property on the current thread. Returns whether the resolved files still need to be hashed.
+         */
+        boolean resolve(Supplier<CurrentFileCollectionFingerprint> fingerprinter) {
+            // Failures are rethrown on the requesting thread in property order, so they are reported the same way as when fingerprinting sequentially
+            try {
+                if (fingerprinter instanceof InputFingerprintUtil.ResolvingFingerprinter) {
+                    resolvedFingerprinter = ((InputFingerprintUtil.ResolvingFingerprinter) fingerprinter).resolve();
+                    return true;
+                }
+                fingerprint = fingerprinter.get();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            return false;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            fingerprint();
+        }
+
+        void fingerprint() {
+            try {
+                fingerprint = resolvedFingerprinter.get();
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Fingerprint input property '" + propertyName + "' of " + work.getDisplayName());
+        }
+
+        CurrentFileCollectionFingerprint getFingerprint() {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+            return fingerprint;
+        }
+    }
+}
@@ -29,6 +29,7 @@
 import org.gradle.internal.execution.history.BeforeExecutionState;
 import org.gradle.internal.execution.history.ExecutionState;
 import org.gradle.internal.execution.history.impl.DefaultBeforeExecutionState;
+import org.gradle.internal.execution.impl.InputFingerprintUtil;
 import org.gradle.internal.execution.impl.OutputFilterUtil;
 import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint;
 import org.gradle.internal.fingerprint.FileCollectionFingerprint;
@@ -61,6 +62,7 @@ public class CaptureStateBeforeExecutionStep extends BuildOperationStep<AfterPre
     private final OutputSnapshotter outputSnapshotter;
     private final OverlappingOutputDetector overlappingOutputDetector;
     private final ValueSnapshotter valueSnapshotter;
+    private final InputFingerprintUtil.FingerprintExecutor fingerprintExecutor;
     private final Step<? super BeforeExecutionContext, ? extends CachingResult> delegate;
 
     public CaptureStateBeforeExecutionStep(
@@ -69,6 +71,7 @@ public CaptureStateBeforeExecutionStep(
         OutputSnapshotter outputSnapshotter,
         OverlappingOutputDetector overlappingOutputDetector,
         ValueSnapshotter valueSnapshotter,
+        InputFingerprintUtil.FingerprintExecutor fingerprintExecutor,
         Step<? super BeforeExecutionContext, ? extends CachingResult> delegate
     ) {
         super(buildOperationExecutor);
@@ -76,6 +79,7 @@ public CaptureStateBeforeExecutionStep(
         this.outputSnapshotter = outputSnapshotter;
         this.valueSnapshotter = valueSnapshotter;
         this.overlappingOutputDetector = overlappingOutputDetector;
+        this.fingerprintExecutor = fingerprintExecutor;
         this.delegate = delegate;
     }
 
@@ -183,7 +187,8 @@ private BeforeExecutionState captureExecutionState(UnitOfWork work, AfterPreviou
             inputPropertiesBuilder,
             alreadyKnownInputFileProperties,
             inputFileFingerprintsBuilder,
-            (propertyName, type, identity) -> identity == NON_IDENTITY);
+            (propertyName, type, identity) -> identity == NON_IDENTITY,
+            fingerprintExecutor);
         ImmutableSortedMap<String, ValueSnapshot> inputProperties = inputPropertiesBuilder.build();
         ImmutableSortedMap<String, CurrentFileCollectionFingerprint> inputFileFingerprints = inputFileFingerprintsBuilder.build();
 
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.steps;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import org.gradle.internal.Try;
+import org.gradle.internal.execution.Context;
+import org.gradle.internal.execution.DeferredExecutionAwareStep;
+import org.gradle.internal.execution.DeferredResultProcessor;
+import org.gradle.internal.execution.Result;
+import org.gradle.internal.execution.Step;
+import org.gradle.internal.execution.UnitOfWork;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Records the wall time, CPU time and allocated bytes spent in each step of the execution engine, per type of unit of work.
+ *
+ * <p>The time recorded for a step excludes the time spent in the profiled steps it delegates to.
+ * Profiling is opt-in, when disabled {@link #profile(Step)} returns the step as is.</p>
+ */
+public class StepProfiler {
+    public static final String PROFILING_PROPERTY = "org.gradle.internal.execution.profile-steps";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+    private static final com.sun.management.ThreadMXBean ALLOCATION_MX_BEAN = allocationMxBeanOrNull();
+
+    private final boolean enabled;
+    private final List<String> stepNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Map<String, StepAccumulator>> accumulatorsByWorkType = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public StepProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <C extends Context, R extends Result> Step<C, R> profile(Step<C, R> step) {
+        if (!enabled) {
+            return step;
+        }
+        return new ProfilingStep<>(this, register(step), step);
+    }
+
+    public <C extends Context, R extends Result> DeferredExecutionAwareStep<C, R> profile(DeferredExecutionAwareStep<C, R> step) {
+        if (!enabled) {
+            return step;
+        }
+        return new ProfilingDeferredExecutionAwareStep<>(this, register(step), step);
+    }
+
+    private String register(Step<?, ?> step) {
+        String stepName = step.getClass().getSimpleName();
+        if (!stepNames.contains(stepName)) {
+            stepNames.add(stepName);
+        }
+        return stepName;
+    }
+
+    <T> T measure(String stepName, UnitOfWork work, Supplier<T> action) {
+        Deque<Frame> stack = frames.get();
+        Frame frame = new Frame();
+        stack.push(frame);
+        long startWallTime = System.nanoTime();
+        long startCpuTime = currentThreadCpuTime();
+        long startAllocatedBytes = currentThreadAllocatedBytes();
+        try {
+            return action.get();
+        } finally {
+            long wallTime = System.nanoTime() - startWallTime;
+            long cpuTime = currentThreadCpuTime() - startCpuTime;
+            long allocatedBytes = currentThreadAllocatedBytes() - startAllocatedBytes;
+            stack.pop();
+            accumulatorFor(workTypeOf(work), stepName).add(
+                wallTime - frame.nestedWallTime,
+                cpuTime - frame.nestedCpuTime,
+                allocatedBytes - frame.nestedAllocatedBytes
+            );
+            Frame parent = stack.peek();
+            if (parent != null) {
+                parent.nestedWallTime += wallTime;
+                parent.nestedCpuTime += cpuTime;
+                parent.nestedAllocatedBytes += allocatedBytes;
+            }
+        }
+    }
+
+    private StepAccumulator accumulatorFor(String workType, String stepName) {
+        return accumulatorsByWorkType
+            .computeIfAbsent(workType, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(stepName, key -> new StepAccumulator());
+    }
+
+    private static String workTypeOf(UnitOfWork work) {
+        Class<?> type = work.getClass();
+        while (type.isAnonymousClass()) {
+            type = type.getSuperclass();
+        }
+        return type.getSimpleName();
+    }
+
+    /**
+     * Returns the statistics recorded so far, ordered by work type and then by the order of the steps in the chain.
+     */
+    public List<StepStatistics> getStatistics() {
+        List<String> workTypes = new ArrayList<>(accumulatorsByWorkType.keySet());
+        workTypes.sort(Comparator.naturalOrder());
+        ImmutableList.Builder<StepStatistics> builder = ImmutableList.builder();
+        for (String workType : workTypes) {
+            Map<String, StepAccumulator> accumulators = accumulatorsByWorkType.get(workType);
+            for (String stepName : stepNames) {
+                StepAccumulator accumulator = accumulators.get(stepName);
+                if (accumulator != null) {
+                    builder.add(accumulator.snapshot(workType, stepName));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public void reset() {
+        accumulatorsByWorkType.clear();
+    }
+
+    private static long currentThreadCpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return ALLOCATION_MX_BEAN == null ? 0 : ALLOCATION_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean allocationMxBeanOrNull() {
+        try {
+            if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (LinkageError e) {
+            // Not available on this JVM
+        }
+        return null;
+    }
+
+    private static class Frame {
+        long nestedWallTime;
+        long nestedCpuTime;
+        long nestedAllocatedBytes;
+    }
+
+    private static class StepAccumulator {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder wallTime = new LongAdder();
+        private final LongAdder cpuTime = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        void add(long wallTime, long cpuTime, long allocatedBytes) {
+            this.executions.increment();
+            this.wallTime.add(wallTime);
+            this.cpuTime.add(cpuTime);
+            this.allocatedBytes.add(allocatedBytes);
+        }
+
+        StepStatistics snapshot(String workType, String stepName) {
+            return new StepStatistics(workType, stepName, executions.sum(), wallTime.sum(), cpuTime.sum(), allocatedBytes.sum());
+        }
+    }
+
+    /**
+     * The aggregated cost of a step for one type of work.
+     */
+    public static class StepStatistics {
+        private final String workType;
+        private final String stepName;
+        private final long executionCount;
+        private final long wallTimeNanos;
+        private final long cpuTimeNanos;
+        private final long allocatedBytes;
+
+        public StepStatistics(String workType, String stepName, long executionCount, long wallTimeNanos, long cpuTimeNanos, long allocatedBytes) {
+            this.workType = workType;
+            this.stepName = stepName;
+            this.executionCount = executionCount;
+            this.wallTimeNanos = wallTimeNanos;
+            this.cpuTimeNanos = cpuTimeNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getWorkType() {
+            return workType;
+        }
+
+        public String getStepName() {
+            return stepName;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        /**
+         * CPU time of the executing thread, or 0 when the JVM does not support measuring it.
+         */
+        public long getCpuTimeNanos() {
+            return cpuTimeNanos;
+        }
+
+        /**
+         * Bytes allocated by the executing thread, or 0 when the JVM does not support measuring it.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    private static class ProfilingStep<C extends Context, R extends Result> implements Step<C, R> {
+        protected final StepProfiler profiler;
+        protected final String stepName;
+        private final Step<C, R> delegate;
+
+        ProfilingStep(StepProfiler profiler, String stepName, Step<C, R> delegate) {
+            this.profiler = profiler;
+            this.stepName = stepName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public R execute(UnitOfWork work, C context) {
+            return profiler.measure(stepName, work, () -> delegate.execute(work, context));
+        }
+    }
+
+    private static class ProfilingDeferredExecutionAwareStep<C extends Context, R extends Result> extends ProfilingStep<C, R> implements DeferredExecutionAwareStep<C, R> {
+        private final DeferredExecutionAwareStep<C, R> delegate;
+
+        ProfilingDeferredExecutionAwareStep(StepProfiler profiler, String stepName, DeferredExecutionAwareStep<C, R> delegate) {
+            super(profiler, stepName, delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T, O> T executeDeferred(UnitOfWork work, C context, Cache<UnitOfWork.Identity, Try<O>> cache, DeferredResultProcessor<O, T> processor) {
+            return profiler.measure(stepName, work, () -> delegate.executeDeferred(work, context, cache, processor));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.impl
+
+import org.gradle.internal.execution.UnitOfWork
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+
+import java.util.function.Supplier
+
+class ParallelFingerprintExecutorTest extends Specification {
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def work = Stub(UnitOfWork) {
+        getDisplayName() >> "job ':test'"
+    }
+    def executor = new ParallelFingerprintExecutor(buildOperationExecutor)
+
+    def "fingerprints single property without scheduling an operation"() {
+        def fingerprint = Mock(CurrentFileCollectionFingerprint)
+
+        when:
+        def fingerprints = executor.fingerprint(work, [input: { -> fingerprint } as Supplier])
+
+        then:
+        fingerprints == [input: fingerprint]
+        buildOperationExecutor.log.records.empty
+    }
+
+    def "hashes each resolved property in a separate operation and keeps property order"() {
+        def first = Mock(CurrentFileCollectionFingerprint)
+        def second = Mock(CurrentFileCollectionFingerprint)
+        def third = Mock(CurrentFileCollectionFingerprint)
+
+        when:
+        def fingerprints = executor.fingerprint(work, [b: resolving { -> first }, a: resolving { -> second }, c: resolving { -> third }])
+
+        then:
+        fingerprints.keySet() as List == ["b", "a", "c"]
+        fingerprints == [b: first, a: second, c: third]
+        buildOperationExecutor.log.records*.descriptor*.displayName == [
+            "Fingerprint input property 'b' of job ':test'",
+            "Fingerprint input property 'a' of job ':test'",
+            "Fingerprint input property 'c' of job ':test'"
+        ]
+    }
+
+    def "resolves all properties on the requesting thread before hashing"() {
+        def events = []
+        def requestingThread = Thread.currentThread()
+        def fingerprint = Mock(CurrentFileCollectionFingerprint)
+        def fingerprinter = { String name ->
+            { ->
+                events << "resolve $name"
+                assert Thread.currentThread() == requestingThread
+                return { ->
+                    events << "hash $name"
+                    fingerprint
+                } as Supplier
+            } as InputFingerprintUtil.ResolvingFingerprinter
+        }
+
+        when:
+        executor.fingerprint(work, [a: fingerprinter("a"), b: fingerprinter("b")])
+
+        then:
+        events.take(2) == ["resolve a", "resolve b"]
+        events.drop(2) as Set == ["hash a", "hash b"] as Set
+    }
+
+    def "runs fingerprinters which cannot be resolved separately on the requesting thread"() {
+        def requestingThread = Thread.currentThread()
+        def first = Mock(CurrentFileCollectionFingerprint)
+        def second = Mock(CurrentFileCollectionFingerprint)
+        def third = Mock(CurrentFileCollectionFingerprint)
+
+        when:
+        def fingerprints = executor.fingerprint(work, [
+            a: { -> assert Thread.currentThread() == requestingThread; first } as Supplier,
+            b: { -> assert Thread.currentThread() == requestingThread; second } as Supplier,
+            c: resolving { -> third }
+        ])
+
+        then:
+        fingerprints == [a: first, b: second, c: third]
+        buildOperationExecutor.log.records.empty
+    }
+
+    def "rethrows failure of first failing property"() {
+        def firstFailure = new RuntimeException("first")
+        def secondFailure = new RuntimeException("second")
+        def fingerprint = Mock(CurrentFileCollectionFingerprint)
+
+        when:
+        executor.fingerprint(work, [
+            a: resolving { -> fingerprint },
+            b: resolving { -> throw firstFailure },
+            c: { -> throw secondFailure } as Supplier
+        ])
+
+        then:
+        def ex = thrown RuntimeException
+        ex == firstFailure
+    }
+
+    private static InputFingerprintUtil.ResolvingFingerprinter resolving(Closure<CurrentFileCollectionFingerprint> hash) {
+        return { -> hash as Supplier } as InputFingerprintUtil.ResolvingFingerprinter
+    }
+}
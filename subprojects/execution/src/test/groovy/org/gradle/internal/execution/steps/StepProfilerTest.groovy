@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.steps
+
+import org.gradle.internal.execution.Context
+import org.gradle.internal.execution.DeferredExecutionAwareStep
+import org.gradle.internal.execution.Result
+import org.gradle.internal.execution.Step
+import org.gradle.internal.execution.UnitOfWork
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class StepProfilerTest extends Specification {
+    def work = Stub(UnitOfWork)
+    def context = Stub(Context)
+    def result = Stub(Result)
+
+    def "returns steps as is when disabled"() {
+        def profiler = new StepProfiler(false)
+        def step = Mock(Step)
+        def deferredStep = Mock(DeferredExecutionAwareStep)
+
+        expect:
+        profiler.profile(step).is(step)
+        profiler.profile(deferredStep).is(deferredStep)
+        profiler.statistics.empty
+    }
+
+    def "records self time of nested steps"() {
+        def profiler = new StepProfiler(true)
+        def inner = profiler.profile(new SleepingStep(50, null, result))
+        def outer = profiler.profile(new SleepingStep(20, inner, result))
+
+        when:
+        def actualResult = outer.execute(work, context)
+
+        then:
+        actualResult == result
+
+        when:
+        def statistics = profiler.statistics
+
+        then:
+        statistics*.stepName == ["SleepingStep"]
+        statistics[0].workType == work.getClass().simpleName
+        statistics[0].executionCount == 2
+        statistics[0].wallTimeNanos >= TimeUnit.MILLISECONDS.toNanos(70)
+    }
+
+    def "excludes time spent in delegates from the time of a step"() {
+        def profiler = new StepProfiler(true)
+        def inner = profiler.profile(new SleepingStep(50, null, result))
+        def outer = profiler.profile(new DelegatingStep(inner))
+
+        when:
+        outer.execute(work, context)
+        outer.execute(work, context)
+        def statistics = profiler.statistics
+
+        then:
+        statistics*.stepName == ["SleepingStep", "DelegatingStep"]
+        statistics*.executionCount == [2, 2]
+        statistics[0].wallTimeNanos >= TimeUnit.MILLISECONDS.toNanos(100)
+        statistics[1].wallTimeNanos < TimeUnit.MILLISECONDS.toNanos(50)
+    }
+
+    def "records statistics when a step fails"() {
+        def profiler = new StepProfiler(true)
+        def failure = new RuntimeException("failure")
+        def step = profiler.profile(Stub(Step) {
+            execute(_, _) >> { throw failure }
+        })
+
+        when:
+        step.execute(work, context)
+
+        then:
+        def ex = thrown RuntimeException
+        ex == failure
+        profiler.statistics*.executionCount == [1]
+    }
+
+    def "reset discards recorded statistics"() {
+        def profiler = new StepProfiler(true)
+        def step = profiler.profile(new SleepingStep(0, null, result))
+        step.execute(work, context)
+
+        when:
+        profiler.reset()
+
+        then:
+        profiler.statistics.empty
+    }
+
+    private static class SleepingStep implements Step<Context, Result> {
+        private final long sleepMillis
+        private final Step<Context, Result> delegate
+        private final Result result
+
+        SleepingStep(long sleepMillis, Step<Context, Result> delegate, Result result) {
+            this.sleepMillis = sleepMillis
+            this.delegate = delegate
+            this.result = result
+        }
+
+        @Override
+        Result execute(UnitOfWork work, Context context) {
+            Thread.sleep(sleepMillis)
+            return delegate == null ? result : delegate.execute(work, context)
+        }
+    }
+
+    private static class DelegatingStep implements Step<Context, Result> {
+        private final Step<Context, Result> delegate
+
+        DelegatingStep(Step<Context, Result> delegate) {
+            this.delegate = delegate
+        }
+
+        @Override
+        Result execute(UnitOfWork work, Context context) {
+            return delegate.execute(work, context)
+        }
+    }
+}
@@ -109,6 +109,10 @@ class ConcurrentTestUtil extends ExternalResource {
                 return new ManagedExecutorStub(ConcurrentTestUtil.this)
             }
 
+            ManagedExecutor createVirtual(String displayName) {
+                return new ManagedExecutorStub(ConcurrentTestUtil.this)
+            }
+
             ManagedScheduledExecutor createScheduled(String displayName, int fixedSize) {
                 throw new UnsupportedOperationException()
             }
@@ -36,6 +36,10 @@ class TestExecutorFactory implements ExecutorFactory {
         return new TestManagedExecutor(executor)
     }
 
+    ManagedExecutor createVirtual(String displayName) {
+        return new TestManagedExecutor(executor)
+    }
+
     ManagedScheduledExecutor createScheduled(String displayName, int fixedSize) {
         throw new UnsupportedOperationException()
     }
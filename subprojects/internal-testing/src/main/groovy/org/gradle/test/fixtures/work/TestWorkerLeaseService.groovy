@@ -90,6 +90,11 @@ class TestWorkerLeaseService implements WorkerLeaseService {
         action.run()
     }
 
+    @Override
+    def <T> T blocking(Factory<T> factory) {
+        return factory.create()
+    }
+
     private WorkerLeaseRegistry.WorkerLease workerLease() {
         return new WorkerLeaseRegistry.WorkerLease() {
             @Override
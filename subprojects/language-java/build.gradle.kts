@@ -3,6 +3,7 @@ import gradlebuild.integrationtests.integrationTestUsesSampleDir
 
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 dependencies {
@@ -21,6 +22,7 @@ dependencies {
     implementation(project(":workers"))
     implementation(project(":snapshots"))
     implementation(project(":execution"))
+    implementation(project(":normalization-java"))
     implementation(project(":dependency-management"))
     implementation(project(":platform-base"))
     implementation(project(":platform-jvm"))
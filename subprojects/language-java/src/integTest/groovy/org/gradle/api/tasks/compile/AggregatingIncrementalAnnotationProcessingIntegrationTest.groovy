@@ -274,6 +274,7 @@ class AggregatingIncrementalAnnotationProcessingIntegrationTest extends Abstract
             first().className == 'ServiceProcessor'
             first().type == AGGREGATING.name()
         }
+        operations.classpathSnapshotTimeInMillis(':compileJava') >= 0
     }
 
     def "updating an unrelated file doesn't delete generated resources built by an aggregating processor"() {
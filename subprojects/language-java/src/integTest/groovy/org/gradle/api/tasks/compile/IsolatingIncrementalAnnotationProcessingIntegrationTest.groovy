@@ -401,6 +401,7 @@ class IsolatingIncrementalAnnotationProcessingIntegrationTest extends AbstractIn
             first().className == 'HelperProcessor'
             first().type == ISOLATING.name()
         }
+        operations.classpathSnapshotTimeInMillis(':compileJava') >= 0
     }
 
     /**
@@ -272,6 +272,31 @@ class JavaAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
         }
     }
 
+    def "reports classpath snapshot time for incremental compilation only"() {
+        given:
+        buildFile << """
+            dependencies {
+                compileOnly project(":annotation")
+                annotationProcessor project(":processor")
+            }
+        """
+
+        when:
+        succeeds "compileJava"
+
+        then:
+        operations.classpathSnapshotTimeInMillis(':compileJava') >= 0
+
+        when:
+        buildFile << """
+            compileJava.options.incremental = false
+        """
+        succeeds "compileJava", "--rerun-tasks"
+
+        then:
+        operations.classpathSnapshotTimeInMillis(':compileJava') == null
+    }
+
     def "explicit -processor option overrides automatic detection"() {
         buildFile << """
             dependencies {
@@ -358,6 +383,7 @@ class JavaAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
                 }
             }
         }
+        operations.classpathSnapshotTimeInMillis(':compileJava') >= 0
 
         where:
         mode << CompileMode.values()
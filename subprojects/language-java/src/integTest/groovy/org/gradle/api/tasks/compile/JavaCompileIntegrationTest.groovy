@@ -18,6 +18,8 @@ package org.gradle.api.tasks.compile
 
 import org.gradle.integtests.fixtures.AbstractPluginIntegrationTest
 import org.gradle.integtests.fixtures.AvailableJavaHomes
+import org.gradle.integtests.fixtures.cache.CachingIntegrationFixture
+import org.gradle.util.GradleVersion
 import org.gradle.util.Requires
 import org.gradle.util.Resources
 import org.gradle.util.TestPrecondition
@@ -28,7 +30,7 @@ import spock.lang.Ignore
 import spock.lang.Issue
 import spock.lang.Unroll
 
-class JavaCompileIntegrationTest extends AbstractPluginIntegrationTest {
+class JavaCompileIntegrationTest extends AbstractPluginIntegrationTest implements CachingIntegrationFixture {
 
     @Rule
     Resources resources = new Resources()
@@ -634,6 +636,29 @@ class JavaCompileIntegrationTest extends AbstractPluginIntegrationTest {
         executedAndNotSkipped ':compileJava'
     }
 
+    def "compile classpath class analysis is stored in the Gradle user home"() {
+        given:
+        executer.requireOwnGradleUserHomeDir()
+        settingsFile << "include 'lib'"
+        buildFile << '''
+            allprojects {
+                apply plugin: 'java'
+            }
+            dependencies {
+                implementation project(':lib')
+            }
+        '''
+        file('lib/src/main/java/Lib.java') << 'public class Lib {}'
+        file('src/main/java/Foo.java') << 'public class Foo extends Lib {}'
+
+        when:
+        run 'compileJava'
+
+        then:
+        userHomeCacheDir.file(GradleVersion.current().version, 'javaCompile', 'classAnalysis.bin').assertIsFile()
+        file(".gradle/${GradleVersion.current().version}/javaCompile/classAnalysis.bin").assertDoesNotExist()
+    }
+
     @ToBeImplemented
     @Issue(["https://github.com/gradle/gradle/issues/2463", "https://github.com/gradle/gradle/issues/3444"])
     def "non-incremental java compilation ignores empty packages"() {
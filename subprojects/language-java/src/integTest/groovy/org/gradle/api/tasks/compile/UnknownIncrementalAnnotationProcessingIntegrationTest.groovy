@@ -57,6 +57,7 @@ class UnknownIncrementalAnnotationProcessingIntegrationTest extends AbstractIncr
             first().className == 'ThingProcessor'
             first().type == UNKNOWN.name()
         }
+        operations.classpathSnapshotTimeInMillis(':compileJava') >= 0
     }
 
     def "compilation is incremental if the non-incremental processor is not used"() {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Calculates what to recompile for a large module the way incremental Java compilation does:
+ * the analysis of the previous compilation is read back, and the dependents of a few changed classes, including a package-info, are collected transitively.
+ *
+ * <p>{@code readAnalysis} only measures loading the analysis, {@code calculateRecompilationSpec} loads it and queries it.</p>
+ */
+@Fork(2)
+@Warmup(iterations = 10, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@State(Scope.Benchmark)
+public class ClassSetAnalysisBenchmark {
+    private static final int CLASSES_PER_PACKAGE = 100;
+    private static final int DEPENDENCIES_PER_CLASS = 8;
+
+    @Param({"3000", "30000"})
+    int classCount;
+
+    private final ClassSetAnalysisData.Serializer serializer = new ClassSetAnalysisData.Serializer(new StringInterner());
+    private byte[] serializedAnalysis;
+    private List<String> changedClasses;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        List<String> classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classes.add("org.gradle.p" + (i / CLASSES_PER_PACKAGE) + ".Class" + i);
+        }
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (String className : classes) {
+            Set<String> privateDependencies = new HashSet<>();
+            Set<String> accessibleDependencies = new HashSet<>();
+            for (int i = 0; i < DEPENDENCIES_PER_CLASS; i++) {
+                String dependency = classes.get(random.nextInt(classCount));
+                if (random.nextInt(4) == 0) {
+                    accessibleDependencies.add(dependency);
+                } else {
+                    privateDependencies.add(dependency);
+                }
+            }
+            accumulator.addClass(className, false, privateDependencies, accessibleDependencies, IntSets.EMPTY_SET);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OutputStreamBackedEncoder(outputStream), accumulator.getAnalysis());
+        serializedAnalysis = outputStream.toByteArray();
+
+        changedClasses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            changedClasses.add(classes.get(random.nextInt(classCount)));
+        }
+        changedClasses.add("org.gradle.p0." + ClassSetAnalysisData.PACKAGE_INFO);
+    }
+
+    @Benchmark
+    public ClassSetAnalysisData readAnalysis() throws Exception {
+        return serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serializedAnalysis)));
+    }
+
+    @Benchmark
+    public DependentsSet calculateRecompilationSpec() throws Exception {
+        ClassSetAnalysis analysis = new ClassSetAnalysis(readAnalysis());
+        IntSet noConstants = IntSets.EMPTY_SET;
+        return analysis.getRelevantDependents(Collections.unmodifiableList(changedClasses), noConstants);
+    }
+}
@@ -18,6 +18,7 @@
 
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.compile.CompileJavaBuildOperationType.Result.AnnotationProcessorDetails;
+import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathSnapshotTiming;
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessorResult;
 import org.gradle.api.internal.tasks.compile.incremental.processing.IncrementalAnnotationProcessorType;
@@ -28,6 +29,7 @@
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -62,15 +64,16 @@ public WorkResult call(BuildOperationContext context) {
             }
 
             private Result toBuildOperationResult(WorkResult result) {
+                Long classpathSnapshotTimeInMillis = delegate instanceof ClasspathSnapshotTiming ? ((ClasspathSnapshotTiming) delegate).getClasspathSnapshotTimeInMillis() : null;
                 if (result instanceof JdkJavaCompilerResult) {
                     AnnotationProcessingResult annotationProcessingResult = ((JdkJavaCompilerResult) result).getAnnotationProcessingResult();
                     List<AnnotationProcessorDetails> details = new ArrayList<AnnotationProcessorDetails>();
                     for (AnnotationProcessorResult processorResult : annotationProcessingResult.getAnnotationProcessorResults()) {
                         details.add(toAnnotationProcessorDetails(processorResult));
                     }
-                    return new Result(details);
+                    return new Result(details, classpathSnapshotTimeInMillis);
                 }
-                return new Result(null);
+                return new Result(null, classpathSnapshotTimeInMillis);
             }
 
             private DefaultAnnotationProcessorDetails toAnnotationProcessorDetails(AnnotationProcessorResult result) {
@@ -92,9 +95,11 @@ private AnnotationProcessorDetails.Type toType(IncrementalAnnotationProcessorTyp
     private static class Result implements CompileJavaBuildOperationType.Result {
 
         private final List<AnnotationProcessorDetails> annotationProcessorDetails;
+        private final Long classpathSnapshotTimeInMillis;
 
-        Result(List<AnnotationProcessorDetails> annotationProcessorDetails) {
+        Result(List<AnnotationProcessorDetails> annotationProcessorDetails, @Nullable Long classpathSnapshotTimeInMillis) {
             this.annotationProcessorDetails = annotationProcessorDetails;
+            this.classpathSnapshotTimeInMillis = classpathSnapshotTimeInMillis;
         }
 
         @Override
@@ -102,6 +107,12 @@ public List<AnnotationProcessorDetails> getAnnotationProcessorDetails() {
             return annotationProcessorDetails;
         }
 
+        @Nullable
+        @Override
+        public Long getClasspathSnapshotTimeInMillis() {
+            return classpathSnapshotTimeInMillis;
+        }
+
     }
 
     private static class DefaultAnnotationProcessorDetails implements AnnotationProcessorDetails {
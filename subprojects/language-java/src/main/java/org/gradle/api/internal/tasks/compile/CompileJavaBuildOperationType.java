@@ -44,6 +44,15 @@ public interface Result {
         @Nullable
         List<AnnotationProcessorDetails> getAnnotationProcessorDetails();
 
+        /**
+         * Returns the time spent snapshotting the compile classpath for incremental compilation.
+         *
+         * @return the snapshotting time; {@code null} if the compilation was not incremental.
+         * @since 6.8
+         */
+        @Nullable
+        Long getClasspathSnapshotTimeInMillis();
+
         /**
          * Details about an annotation processor used during compilation.
          */
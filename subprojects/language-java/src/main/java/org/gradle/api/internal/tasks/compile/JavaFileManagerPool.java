@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the file managers of the JDK compiler between compilations, so that the jars on the classpath
+ * don't need to be opened and indexed again by every compilation. A file manager is only used by one compilation at a time.
+ *
+ * <p>An idle file manager keeps the jars it has opened open, which on Windows prevents them from being changed or deleted.
+ * So only a few idle file managers are kept, each for a short time only, and a file manager is closed as soon as one of the jars
+ * it has opened is seen to have changed. All idle file managers are closed when the pool is stopped at the end of the build session.</p>
+ */
+class JavaFileManagerPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerPool.class);
+
+    static final int MAX_IDLE_FILE_MANAGERS = 4;
+    static final long MAX_IDLE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // Locations which the compiler arguments may set, and which need to be reset before a file manager is used for another compilation
+    private static final List<JavaFileManager.Location> RESET_LOCATIONS = resetLocations();
+
+    private final Clock clock;
+    // Most recently released first
+    private final Deque<PooledFileManager> idleFileManagers = new ArrayDeque<>();
+
+    JavaFileManagerPool(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a file manager of the given compiler, reusing an idle one if none of the jars it has opened changed since.
+     * The file manager needs to be handed back via {@link #release(PooledFileManager)} after compilation.
+     */
+    PooledFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, JavaCompileSpec spec) {
+        Key key = new Key(JdkTools.sourceOf(compiler), charset);
+        synchronized (idleFileManagers) {
+            closeExpired();
+            Iterator<PooledFileManager> iterator = idleFileManagers.iterator();
+            while (iterator.hasNext()) {
+                PooledFileManager fileManager = iterator.next();
+                if (fileManager.key.equals(key)) {
+                    iterator.remove();
+                    if (fileManager.prepareFor(spec)) {
+                        return fileManager;
+                    }
+                    fileManager.close();
+                }
+            }
+        }
+        PooledFileManager fileManager = new PooledFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        fileManager.prepareFor(spec);
+        return fileManager;
+    }
+
+    void release(PooledFileManager fileManager) {
+        try {
+            fileManager.getFileManager().flush();
+        } catch (Exception e) {
+            LOGGER.debug("Could not flush Java file manager, discarding it.", e);
+            fileManager.close();
+            return;
+        }
+        fileManager.idleSince = clock.getCurrentTime();
+        synchronized (idleFileManagers) {
+            idleFileManagers.addFirst(fileManager);
+            closeExpired();
+            while (idleFileManagers.size() > MAX_IDLE_FILE_MANAGERS) {
+                idleFileManagers.removeLast().close();
+            }
+        }
+    }
+
+    /**
+     * Closes all idle file managers.
+     */
+    @Override
+    public void stop() {
+        synchronized (idleFileManagers) {
+            for (PooledFileManager fileManager : idleFileManagers) {
+                fileManager.close();
+            }
+            idleFileManagers.clear();
+        }
+    }
+
+    int getIdleCount() {
+        synchronized (idleFileManagers) {
+            return idleFileManagers.size();
+        }
+    }
+
+    private void closeExpired() {
+        long now = clock.getCurrentTime();
+        Iterator<PooledFileManager> iterator = idleFileManagers.iterator();
+        while (iterator.hasNext()) {
+            PooledFileManager fileManager = iterator.next();
+            if (now - fileManager.idleSince > MAX_IDLE_TIME_MILLIS || fileManager.hasChangedJars()) {
+                iterator.remove();
+                fileManager.close();
+            }
+        }
+    }
+
+    private static List<JavaFileManager.Location> resetLocations() {
+        List<JavaFileManager.Location> locations = new ArrayList<>();
+        // Looked up by name, since the module related locations only exist from Java 9 on
+        for (String name : new String[]{"CLASS_OUTPUT", "SOURCE_OUTPUT", "CLASS_PATH", "SOURCE_PATH", "ANNOTATION_PROCESSOR_PATH", "PLATFORM_CLASS_PATH",
+            "NATIVE_HEADER_OUTPUT", "MODULE_SOURCE_PATH", "UPGRADE_MODULE_PATH", "SYSTEM_MODULES", "MODULE_PATH", "ANNOTATION_PROCESSOR_MODULE_PATH"}) {
+            JavaFileManager.Location location = StandardLocation.locationFor(name);
+            if (location instanceof StandardLocation) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    private static class Key {
+        // Compilers are created for each compilation, so file managers are shared by all compilers of the same source
+        private final Object compilerSource;
+        private final Charset charset;
+
+        Key(Object compilerSource, @Nullable Charset charset) {
+            this.compilerSource = compilerSource;
+            this.charset = charset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return compilerSource == key.compilerSource && Objects.equal(charset, key.charset);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(System.identityHashCode(compilerSource), charset);
+        }
+    }
+
+    static class PooledFileManager {
+        private final Key key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, JarState> openedJars = new HashMap<>();
+        private boolean used;
+        private long idleSince;
+
+        private PooledFileManager(Key key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        /**
+         * Records the jars used by the spec, and resets the state left behind by a previous compilation.
+         *
+         * @return false if the file manager cannot be used any more, because one of the jars it has opened changed.
+         */
+        private boolean prepareFor(JavaCompileSpec spec) {
+            if (hasChangedJars()) {
+                return false;
+            }
+            recordJars(spec.getCompileClasspath());
+            recordJars(spec.getModulePath());
+            if (used) {
+                try {
+                    for (JavaFileManager.Location location : RESET_LOCATIONS) {
+                        if (fileManager.hasLocation(location)) {
+                            fileManager.setLocation(location, null);
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("Could not reset Java file manager, discarding it.", e);
+                    return false;
+                }
+            }
+            used = true;
+            return true;
+        }
+
+        private void recordJars(List<File> files) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    openedJars.putIfAbsent(file, JarState.of(file));
+                }
+            }
+        }
+
+        private boolean hasChangedJars() {
+            for (Map.Entry<File, JarState> entry : openedJars.entrySet()) {
+                if (!entry.getValue().equals(JarState.of(entry.getKey()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void close() {
+            CompositeStoppable.stoppable(fileManager).stop();
+        }
+    }
+
+    private static class JarState {
+        private final long length;
+        private final long lastModified;
+
+        private JarState(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        static JarState of(File file) {
+            return new JarState(file.length(), file.lastModified());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            JarState jarState = (JarState) o;
+            return length == jarState.length && lastModified == jarState.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(length, lastModified);
+        }
+    }
+}
@@ -21,6 +21,7 @@
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.Factory;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.time.Time;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,7 @@
 import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.Closeable;
 import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
@@ -39,6 +41,20 @@
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
+
+    /**
+     * When set to {@code true}, the file managers of the JDK compiler are kept between compilations in the same process,
+     * so that the jars on the classpath are not opened and indexed again by each compilation. Only used on Java 9 and later.
+     *
+     * <p>A file manager is discarded when the length or last modified time of a jar it has opened changed. The jars are not hashed,
+     * so a jar rewritten with the same length within the granularity of the file system timestamps is not detected,
+     * and the compilation may see its previous content.</p>
+     */
+    public static final String REUSE_FILE_MANAGERS_PROPERTY = "org.gradle.internal.java.compile.reuse-file-managers";
+
+    // Static, so file managers survive between the compilations executed by a compiler worker
+    private static final JavaFileManagerPool FILE_MANAGERS = new JavaFileManagerPool(Time.clock());
+
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
 
     @Inject
@@ -46,6 +62,13 @@ public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
     }
 
+    /**
+     * Closes the file managers kept between compilations in this process, so they no longer keep jars open.
+     */
+    public static void closeReusedFileManagers() {
+        FILE_MANAGERS.stop();
+    }
+
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
@@ -64,7 +87,16 @@ private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, Jdk
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
         MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
         Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, charset);
+        StandardJavaFileManager standardFileManager;
+        Closeable fileManagerCleanup;
+        if (Boolean.getBoolean(REUSE_FILE_MANAGERS_PROPERTY) && JavaVersion.current().isJava9Compatible()) {
+            JavaFileManagerPool.PooledFileManager pooledFileManager = FILE_MANAGERS.acquire(compiler, charset, spec);
+            standardFileManager = pooledFileManager.getFileManager();
+            fileManagerCleanup = () -> FILE_MANAGERS.release(pooledFileManager);
+        } else {
+            standardFileManager = compiler.getStandardFileManager(null, null, charset);
+            fileManagerCleanup = standardFileManager;
+        }
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSourceFiles());
         boolean hasEmptySourcepaths = JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options);
         JavaFileManager fileManager = GradleStandardJavaFileManager.wrap(standardFileManager, DefaultClassPath.of(spec.getAnnotationProcessorPath()), hasEmptySourcepaths);
@@ -75,7 +107,7 @@ private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, Jdk
         }
         Set<AnnotationProcessorDeclaration> annotationProcessors = spec.getEffectiveAnnotationProcessors();
         task = new AnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult());
-        task = new ResourceCleaningCompilationTask(task, fileManager);
+        task = new ResourceCleaningCompilationTask(task, fileManagerCleanup);
         return task;
     }
 
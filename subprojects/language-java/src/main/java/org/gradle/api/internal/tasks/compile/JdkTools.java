@@ -96,6 +96,17 @@ public JavaCompiler getSystemJavaCompiler() {
         return new DefaultIncrementalAwareCompiler(buildJavaCompiler());
     }
 
+    /**
+     * Returns the tools which created the given compiler, or the compiler itself if it was not created by any {@link JdkTools}.
+     * Each call to {@link #getSystemJavaCompiler()} creates a new compiler, so this identifies compilers which behave the same.
+     */
+    static Object sourceOf(JavaCompiler compiler) {
+        if (compiler instanceof DefaultIncrementalAwareCompiler) {
+            return ((DefaultIncrementalAwareCompiler) compiler).getJdkTools();
+        }
+        return compiler;
+    }
+
     private JavaCompiler buildJavaCompiler() {
         Class<?> clazz;
         try {
@@ -126,6 +137,10 @@ private DefaultIncrementalAwareCompiler(JavaCompiler delegate) {
             this.delegate = delegate;
         }
 
+        JdkTools getJdkTools() {
+            return JdkTools.this;
+        }
+
         @Override
         public CompilationTask getTask(Writer out, JavaFileManager fileManager, DiagnosticListener<? super JavaFileObject> diagnosticListener, Iterable<String> options, Iterable<String> classes, Iterable<? extends JavaFileObject> compilationUnits) {
             return delegate.getTask(out, fileManager, diagnosticListener, options, classes, compilationUnits);
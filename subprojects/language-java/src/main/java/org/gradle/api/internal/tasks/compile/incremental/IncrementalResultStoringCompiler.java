@@ -26,6 +26,7 @@
 import org.gradle.api.internal.tasks.compile.JdkJavaCompilerResult;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathSnapshotData;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathSnapshotProvider;
+import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathSnapshotTiming;
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingData;
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
 import org.gradle.api.internal.tasks.compile.incremental.processing.GeneratedResource;
@@ -36,13 +37,14 @@
 import org.gradle.cache.internal.Stash;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Stores the incremental class dependency analysis after compilation has finished.
  */
-class IncrementalResultStoringCompiler<T extends JavaCompileSpec> implements Compiler<T> {
+class IncrementalResultStoringCompiler<T extends JavaCompileSpec> implements Compiler<T>, ClasspathSnapshotTiming {
 
     private final Compiler<T> delegate;
     private final ClasspathSnapshotProvider classpathSnapshotProvider;
@@ -66,6 +68,12 @@ public WorkResult execute(T spec) {
         return result;
     }
 
+    @Nullable
+    @Override
+    public Long getClasspathSnapshotTimeInMillis() {
+        return classpathSnapshotProvider.getClasspathSnapshotTimeInMillis();
+    }
+
     private void storeResult(JavaCompileSpec spec, WorkResult result) {
         ClasspathSnapshotData classpathSnapshot = classpathSnapshotProvider.getClasspathSnapshot(Iterables.concat(spec.getCompileClasspath(), spec.getModulePath())).getData();
         AnnotationProcessingData annotationProcessingData = getAnnotationProcessingResult(spec, result);
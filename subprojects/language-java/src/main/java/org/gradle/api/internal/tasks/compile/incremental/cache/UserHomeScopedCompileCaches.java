@@ -16,8 +16,11 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.cache;
 
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathEntrySnapshotCache;
 
 public interface UserHomeScopedCompileCaches {
+    ClassAnalysisCache getClassAnalysisCache();
+
     ClasspathEntrySnapshotCache getClasspathEntrySnapshotCache();
 }
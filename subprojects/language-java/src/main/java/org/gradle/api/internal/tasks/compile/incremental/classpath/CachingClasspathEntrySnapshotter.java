@@ -20,9 +20,11 @@
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.normalization.java.ApiClassExtractor;
 import org.gradle.internal.vfs.FileSystemAccess;
 
 import java.io.File;
+import java.util.Collections;
 
 public class CachingClasspathEntrySnapshotter implements ClasspathEntrySnapshotter {
 
@@ -31,7 +33,7 @@ public class CachingClasspathEntrySnapshotter implements ClasspathEntrySnapshott
     private final ClasspathEntrySnapshotCache cache;
 
     public CachingClasspathEntrySnapshotter(FileHasher fileHasher, StreamHasher streamHasher, FileSystemAccess fileSystemAccess, ClassDependenciesAnalyzer analyzer, ClasspathEntrySnapshotCache cache, FileOperations fileOperations) {
-        this.snapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, analyzer, fileOperations);
+        this.snapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, analyzer, fileOperations, new ApiClassExtractor(Collections.emptySet()));
         this.fileSystemAccess = fileSystemAccess;
         this.cache = cache;
     }
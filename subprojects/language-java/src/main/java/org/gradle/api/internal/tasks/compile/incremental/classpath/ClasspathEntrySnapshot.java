@@ -82,13 +82,22 @@ private Set<String> modifiedSince(ClasspathEntrySnapshot other) {
             String otherClassName = otherClass.getKey();
             HashCode otherClassBytes = otherClass.getValue();
             HashCode thisClsBytes = getHashes().get(otherClassName);
-            if (thisClsBytes == null || !thisClsBytes.equals(otherClassBytes)) {
+            if (thisClsBytes == null || !thisClsBytes.equals(otherClassBytes) && !hasSameAbi(other, otherClassName)) {
                 modified.add(otherClassName);
             }
         }
         return modified;
     }
 
+    /**
+     * A class whose ABI did not change cannot affect the compilation of the classes using it,
+     * even if its implementation did. Falls back to the class hash when the ABI of the class is not known in both snapshots.
+     */
+    private boolean hasSameAbi(ClasspathEntrySnapshot other, String className) {
+        HashCode thisAbi = data.getAbiHashes().get(className);
+        return thisAbi != null && thisAbi.equals(other.getData().getAbiHashes().get(className));
+    }
+
     private Set<String> addedSince(ClasspathEntrySnapshot other) {
         Set<String> addedClasses = new HashSet<>(getClasses());
         addedClasses.removeAll(other.getClasses());
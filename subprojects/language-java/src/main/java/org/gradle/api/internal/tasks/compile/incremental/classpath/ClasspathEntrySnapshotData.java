@@ -24,21 +24,25 @@
 public class ClasspathEntrySnapshotData {
 
     private final Map<String, HashCode> hashes;
+    private final Map<String, HashCode> abiHashes;
     private final ClassSetAnalysisData classAnalysis;
     private final HashCode hash;
 
     /**
      * @param hash of this entry
      * @param hashes hashes of all classes from the entry
+     * @param abiHashes hashes of the ABI of the classes from the entry, for those classes whose ABI could be extracted
      * @param classAnalysis of classes analysis in this entry
      */
-    public ClasspathEntrySnapshotData(HashCode hash, Map<String, HashCode> hashes, ClassSetAnalysisData classAnalysis) {
+    public ClasspathEntrySnapshotData(HashCode hash, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes, ClassSetAnalysisData classAnalysis) {
         assert hash != null;
         assert hashes != null;
+        assert abiHashes != null;
         assert classAnalysis != null;
 
         this.hash = hash;
         this.hashes = hashes;
+        this.abiHashes = abiHashes;
         this.classAnalysis = classAnalysis;
     }
 
@@ -46,6 +50,10 @@ public Map<String, HashCode> getHashes() {
         return hashes;
     }
 
+    public Map<String, HashCode> getAbiHashes() {
+        return abiHashes;
+    }
+
     public ClassSetAnalysisData getClassAnalysis() {
         return classAnalysis;
     }
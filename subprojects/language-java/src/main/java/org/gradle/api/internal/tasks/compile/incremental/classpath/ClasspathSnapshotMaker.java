@@ -21,6 +21,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class ClasspathSnapshotMaker implements ClasspathSnapshotProvider {
@@ -30,6 +31,7 @@ public class ClasspathSnapshotMaker implements ClasspathSnapshotProvider {
     private final ClasspathSnapshotFactory classpathSnapshotFactory;
 
     private ClasspathSnapshot classpathSnapshot;
+    private Long classpathSnapshotTimeInMillis;
 
     public ClasspathSnapshotMaker(ClasspathSnapshotFactory classpathSnapshotFactory) {
         this.classpathSnapshotFactory = classpathSnapshotFactory;
@@ -41,6 +43,12 @@ public ClasspathSnapshot getClasspathSnapshot(Iterable<File> classpath) {
         return classpathSnapshot;
     }
 
+    @Nullable
+    @Override
+    public Long getClasspathSnapshotTimeInMillis() {
+        return classpathSnapshotTimeInMillis;
+    }
+
     private void maybeInitialize(Iterable<File> classpath) {
         if (classpathSnapshot != null) {
             return;
@@ -48,6 +56,7 @@ private void maybeInitialize(Iterable<File> classpath) {
         Timer clock = Time.startTimer();
 
         classpathSnapshot = classpathSnapshotFactory.createSnapshot(classpath);
+        classpathSnapshotTimeInMillis = clock.getElapsedMillis();
         int duplicatesCount = classpathSnapshot.getData().getDuplicateClasses().size();
         String duplicateClassesMessage = duplicatesCount == 0 ? "" : ". " + duplicatesCount + " duplicate classes found in classpath (see all with --debug)";
         LOG.info("Created classpath snapshot for incremental compilation in {}{}.", clock.getElapsed(), duplicateClassesMessage);
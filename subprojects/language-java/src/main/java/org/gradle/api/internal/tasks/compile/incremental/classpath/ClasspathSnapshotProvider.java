@@ -18,6 +18,6 @@
 
 import java.io.File;
 
-public interface ClasspathSnapshotProvider {
+public interface ClasspathSnapshotProvider extends ClasspathSnapshotTiming {
     ClasspathSnapshot getClasspathSnapshot(Iterable<File> classpath);
 }
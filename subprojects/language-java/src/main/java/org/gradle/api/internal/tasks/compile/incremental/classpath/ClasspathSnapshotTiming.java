@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.classpath;
+
+import javax.annotation.Nullable;
+
+/**
+ * Knows how long it took to snapshot the compile classpath for incremental compilation.
+ */
+public interface ClasspathSnapshotTiming {
+    /**
+     * Returns the time spent snapshotting the compile classpath; {@code null} if no snapshot was taken.
+     */
+    @Nullable
+    Long getClasspathSnapshotTimeInMillis();
+}
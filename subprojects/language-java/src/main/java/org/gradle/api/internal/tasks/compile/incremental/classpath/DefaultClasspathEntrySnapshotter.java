@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
+import com.google.common.io.ByteStreams;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.file.FileOperations;
@@ -24,10 +25,14 @@
 import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.normalization.java.ApiClassExtractor;
+import org.objectweb.asm.ClassReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -37,25 +42,37 @@
 
 public class DefaultClasspathEntrySnapshotter {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultClasspathEntrySnapshotter.class);
+    // ABI hash of classes which are not part of the ABI, like private inner classes
+    private static final HashCode NO_ABI = Hashing.signature(ApiClassExtractor.class);
 
     private final FileHasher fileHasher;
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
     private final FileOperations fileOperations;
+    private final ApiClassExtractor apiClassExtractor;
 
     public DefaultClasspathEntrySnapshotter(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations) {
+        this(fileHasher, streamHasher, analyzer, fileOperations, null);
+    }
+
+    /**
+     * @param apiClassExtractor used to record the ABI hash of each class, so implementation-only changes of a class can be told apart; {@code null} to not record ABI hashes
+     */
+    public DefaultClasspathEntrySnapshotter(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, @Nullable ApiClassExtractor apiClassExtractor) {
         this.fileHasher = fileHasher;
         this.hasher = streamHasher;
         this.analyzer = analyzer;
         this.fileOperations = fileOperations;
+        this.apiClassExtractor = apiClassExtractor;
     }
 
     public ClasspathEntrySnapshot createSnapshot(HashCode hash, File classpathEntry) {
         final Map<String, HashCode> hashes = new HashMap<>();
+        final Map<String, HashCode> abiHashes = new HashMap<>();
         final ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
 
         try {
-            visit(classpathEntry, hashes, accumulator);
+            visit(classpathEntry, hashes, abiHashes, accumulator);
         } catch (Exception e) {
             accumulator.fullRebuildNeeded(classpathEntry + " could not be analyzed for incremental compilation. See the debug log for more details");
             if (LOGGER.isDebugEnabled()) {
@@ -63,25 +80,43 @@ public ClasspathEntrySnapshot createSnapshot(HashCode hash, File classpathEntry)
             }
         }
 
-        return new ClasspathEntrySnapshot(new ClasspathEntrySnapshotData(hash, hashes, accumulator.getAnalysis()));
+        return new ClasspathEntrySnapshot(new ClasspathEntrySnapshotData(hash, hashes, abiHashes, accumulator.getAnalysis()));
     }
 
-    private void visit(File classpathEntry, Map<String, HashCode> hashes, ClassDependentsAccumulator accumulator) {
+    private void visit(File classpathEntry, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes, ClassDependentsAccumulator accumulator) {
         if (hasExtension(classpathEntry, ".jar")) {
-            fileOperations.zipTree(classpathEntry).visit(new JarEntryVisitor(accumulator, hashes));
+            fileOperations.zipTree(classpathEntry).visit(new JarEntryVisitor(accumulator, hashes, abiHashes));
         }
         if (classpathEntry.isDirectory()) {
-            fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, hashes));
+            fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, hashes, abiHashes));
+        }
+    }
+
+    @Nullable
+    private HashCode getAbiHash(FileVisitDetails fileDetails) {
+        try {
+            byte[] classBytes;
+            try (InputStream inputStream = fileDetails.open()) {
+                classBytes = ByteStreams.toByteArray(inputStream);
+            }
+            return apiClassExtractor.extractApiClassFrom(new ClassReader(classBytes))
+                .map(Hashing::hashBytes)
+                .orElse(NO_ABI);
+        } catch (Exception e) {
+            LOGGER.debug("Could not extract the ABI of {}, falling back to its full hash.", fileDetails.getName(), e);
+            return null;
         }
     }
 
     private abstract class EntryVisitor implements FileVisitor {
         private final ClassDependentsAccumulator accumulator;
         private final Map<String, HashCode> hashes;
+        private final Map<String, HashCode> abiHashes;
 
-        public EntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
+        public EntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes) {
             this.accumulator = accumulator;
             this.hashes = hashes;
+            this.abiHashes = abiHashes;
         }
 
         @Override
@@ -100,6 +135,12 @@ public void visitFile(FileVisitDetails fileDetails) {
                 ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
                 accumulator.addClass(analysis);
                 hashes.put(analysis.getClassName(), classFileHash);
+                if (apiClassExtractor != null) {
+                    HashCode abiHash = getAbiHash(fileDetails);
+                    if (abiHash != null) {
+                        abiHashes.put(analysis.getClassName(), abiHash);
+                    }
+                }
             } catch (Exception e) {
                 accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
                 if (LOGGER.isDebugEnabled()) {
@@ -113,8 +154,8 @@ public void visitFile(FileVisitDetails fileDetails) {
 
     private class JarEntryVisitor extends EntryVisitor {
 
-        public JarEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
-            super(accumulator, hashes);
+        public JarEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes) {
+            super(accumulator, hashes, abiHashes);
         }
 
         @Override
@@ -130,8 +171,8 @@ protected HashCode getHashCode(FileVisitDetails fileDetails) {
 
     private class DirectoryEntryVisitor extends EntryVisitor {
 
-        public DirectoryEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
-            super(accumulator, hashes);
+        public DirectoryEntryVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes) {
+            super(accumulator, hashes, abiHashes);
         }
 
         @Override
@@ -16,10 +16,15 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.ints.IntSets;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.internal.serialize.AbstractSerializer;
@@ -27,26 +32,109 @@
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.IntSetSerializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * The dependents of the classes in a class set.
+ *
+ * <p>Class names are kept once in a table and referred to by their index, the classes of the set coming first.
+ * The dependents of each class are kept as arrays of indexes, and are only turned into a {@link DependentsSet} when asked for.
+ * The lookup of a class by name and the lookup of the classes in a package are built on first use,
+ * so that loading the analysis of a class set that is never queried stays cheap.</p>
+ */
 public class ClassSetAnalysisData {
     public static final String PACKAGE_INFO = "package-info";
 
-    private final Set<String> classes;
-    private final Map<String, DependentsSet> dependents;
+    private static final byte NO_DEPENDENTS = 0;
+    private static final byte DEPENDENCY_TO_ALL = 1;
+    private static final byte DEPENDENT_CLASSES = 2;
+    private static final int[] NO_CLASSES = new int[0];
+
+    private final String[] classNames;
+    private final int classCount;
+    private final byte[] dependentsKinds;
+    private final int[][] privateDependents;
+    private final int[][] accessibleDependents;
+    private final Int2ObjectMap<String> dependencyToAllReasons;
     private final Map<String, IntSet> classesToConstants;
     private final String fullRebuildCause;
 
+    private final DependentsSet[] dependentsByClass;
+    private volatile Object2IntMap<String> classIds;
+    private volatile ImmutableListMultimap<String, String> classesByPackage;
+
     public ClassSetAnalysisData(Set<String> classes, Map<String, DependentsSet> dependents, Map<String, IntSet> classesToConstants, String fullRebuildCause) {
-        this.classes = classes;
-        this.dependents = dependents;
+        Object2IntMap<String> ids = new Object2IntOpenHashMap<>();
+        ids.defaultReturnValue(-1);
+        for (String className : classes) {
+            ids.putIfAbsent(className, ids.size());
+        }
+        this.classCount = ids.size();
+        for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+            ids.putIfAbsent(entry.getKey(), ids.size());
+            if (!entry.getValue().isDependencyToAll()) {
+                for (String dependent : entry.getValue().getPrivateDependentClasses()) {
+                    ids.putIfAbsent(dependent, ids.size());
+                }
+                for (String dependent : entry.getValue().getAccessibleDependentClasses()) {
+                    ids.putIfAbsent(dependent, ids.size());
+                }
+            }
+        }
+        this.classNames = new String[ids.size()];
+        for (Object2IntMap.Entry<String> entry : ids.object2IntEntrySet()) {
+            classNames[entry.getIntValue()] = entry.getKey();
+        }
+        this.dependentsKinds = new byte[classNames.length];
+        this.privateDependents = new int[classNames.length][];
+        this.accessibleDependents = new int[classNames.length][];
+        this.dependencyToAllReasons = new Int2ObjectOpenHashMap<>();
+        for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+            int id = ids.getInt(entry.getKey());
+            DependentsSet dependentsSet = entry.getValue();
+            if (dependentsSet.isDependencyToAll()) {
+                dependentsKinds[id] = DEPENDENCY_TO_ALL;
+                dependencyToAllReasons.put(id, dependentsSet.getDescription());
+            } else {
+                dependentsKinds[id] = DEPENDENT_CLASSES;
+                privateDependents[id] = toIds(dependentsSet.getPrivateDependentClasses(), ids);
+                accessibleDependents[id] = toIds(dependentsSet.getAccessibleDependentClasses(), ids);
+            }
+        }
+        this.classesToConstants = classesToConstants;
+        this.fullRebuildCause = fullRebuildCause;
+        this.dependentsByClass = new DependentsSet[classNames.length];
+        this.classIds = ids;
+    }
+
+    private ClassSetAnalysisData(String[] classNames, int classCount, byte[] dependentsKinds, int[][] privateDependents, int[][] accessibleDependents, Int2ObjectMap<String> dependencyToAllReasons, Map<String, IntSet> classesToConstants, String fullRebuildCause) {
+        this.classNames = classNames;
+        this.classCount = classCount;
+        this.dependentsKinds = dependentsKinds;
+        this.privateDependents = privateDependents;
+        this.accessibleDependents = accessibleDependents;
+        this.dependencyToAllReasons = dependencyToAllReasons;
         this.classesToConstants = classesToConstants;
         this.fullRebuildCause = fullRebuildCause;
+        this.dependentsByClass = new DependentsSet[classNames.length];
+    }
+
+    private static int[] toIds(Collection<String> classes, Object2IntMap<String> ids) {
+        if (classes.isEmpty()) {
+            return NO_CLASSES;
+        }
+        int[] result = new int[classes.size()];
+        int i = 0;
+        for (String className : classes) {
+            result[i++] = ids.getInt(className);
+        }
+        return result;
     }
 
     public DependentsSet getDependents(String className) {
@@ -57,19 +145,72 @@ public DependentsSet getDependents(String className) {
             String packageName = className.equals(PACKAGE_INFO) ? null : StringUtils.removeEnd(className, "." + PACKAGE_INFO);
             return getDependentsOfPackage(packageName);
         }
-        DependentsSet dependentsSet = dependents.get(className);
-        return dependentsSet == null ? DependentsSet.empty() : dependentsSet;
+        int id = getClassIds().getInt(className);
+        if (id < 0) {
+            return DependentsSet.empty();
+        }
+        DependentsSet dependentsSet = dependentsByClass[id];
+        if (dependentsSet == null) {
+            // DependentsSet is immutable, so computing it twice from different threads is harmless
+            dependentsSet = createDependentsSet(id);
+            dependentsByClass[id] = dependentsSet;
+        }
+        return dependentsSet;
+    }
+
+    private DependentsSet createDependentsSet(int id) {
+        switch (dependentsKinds[id]) {
+            case DEPENDENCY_TO_ALL:
+                return DependentsSet.dependencyToAll(dependencyToAllReasons.get(id));
+            case DEPENDENT_CLASSES:
+                return DependentsSet.dependentClasses(toClassNames(privateDependents[id]), toClassNames(accessibleDependents[id]));
+            default:
+                return DependentsSet.empty();
+        }
+    }
+
+    private Set<String> toClassNames(int[] ids) {
+        if (ids.length == 0) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<String> builder = ImmutableSet.builderWithExpectedSize(ids.length);
+        for (int id : ids) {
+            builder.add(classNames[id]);
+        }
+        return builder.build();
+    }
+
+    private Object2IntMap<String> getClassIds() {
+        Object2IntMap<String> ids = classIds;
+        if (ids == null) {
+            ids = new Object2IntOpenHashMap<>(classNames.length);
+            ids.defaultReturnValue(-1);
+            for (int i = 0; i < classNames.length; i++) {
+                ids.put(classNames[i], i);
+            }
+            classIds = ids;
+        }
+        return ids;
     }
 
-    private DependentsSet getDependentsOfPackage(String packageName) {
-        Set<String> typesInPackage = new HashSet<>();
-        for (String type : classes) {
-            int i = type.lastIndexOf(".");
-            if (i < 0 && packageName == null || i > 0 && type.substring(0, i).equals(packageName)) {
-                typesInPackage.add(type);
+    private DependentsSet getDependentsOfPackage(@Nullable String packageName) {
+        ImmutableListMultimap<String, String> packages = classesByPackage;
+        if (packages == null) {
+            ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
+            for (int i = 0; i < classCount; i++) {
+                String type = classNames[i];
+                int index = type.lastIndexOf('.');
+                if (index < 0) {
+                    builder.put("", type);
+                } else if (index > 0) {
+                    builder.put(type.substring(0, index), type);
+                }
             }
+            packages = builder.build();
+            classesByPackage = packages;
         }
-        return DependentsSet.dependentClasses(Collections.emptySet(), typesInPackage);
+        List<String> typesInPackage = packages.get(packageName == null ? "" : packageName);
+        return DependentsSet.dependentClasses(ImmutableSet.of(), ImmutableSet.copyOf(typesInPackage));
     }
 
     public IntSet getConstants(String className) {
@@ -90,115 +231,109 @@ public Serializer(StringInterner interner) {
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
-
             int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> classes = ImmutableSet.builder();
+            int classCount = decoder.readSmallInt();
+            String[] classNames = new String[count];
             for (int i = 0; i < count; i++) {
-                classes.add(readClassName(decoder, classNameMap));
+                classNames[i] = interner.intern(decoder.readString());
             }
 
-            count = decoder.readSmallInt();
-            ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
-            for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
-                dependentsBuilder.put(className, dependents);
+            byte[] dependentsKinds = new byte[count];
+            int[][] privateDependents = new int[count][];
+            int[][] accessibleDependents = new int[count][];
+            Int2ObjectMap<String> dependencyToAllReasons = new Int2ObjectOpenHashMap<>();
+            int dependentsCount = decoder.readSmallInt();
+            for (int i = 0; i < dependentsCount; i++) {
+                int id = decoder.readSmallInt();
+                byte kind = decoder.readByte();
+                dependentsKinds[id] = kind;
+                if (kind == DEPENDENCY_TO_ALL) {
+                    dependencyToAllReasons.put(id, decoder.readNullableString());
+                } else {
+                    privateDependents[id] = readIds(decoder);
+                    accessibleDependents[id] = readIds(decoder);
+                }
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, IntSet> classesToConstantsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
+                String className = classNames[decoder.readSmallInt()];
                 IntSet constants = IntSetSerializer.INSTANCE.read(decoder);
                 classesToConstantsBuilder.put(className, constants);
             }
 
             String fullRebuildCause = decoder.readNullableString();
 
-            return new ClassSetAnalysisData(classes.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), fullRebuildCause);
+            return new ClassSetAnalysisData(classNames, classCount, dependentsKinds, privateDependents, accessibleDependents, dependencyToAllReasons, classesToConstantsBuilder.build(), fullRebuildCause);
         }
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
-            encoder.writeSmallInt(value.classes.size());
-            for (String clazz : value.classes) {
-                writeClassName(clazz, classNameMap, encoder);
+            // Constants may refer to classes which are not part of the class set
+            Map<String, Integer> extraClassIds = new LinkedHashMap<>();
+            Object2IntMap<String> classIds = value.getClassIds();
+            for (String className : value.classesToConstants.keySet()) {
+                if (!classIds.containsKey(className)) {
+                    extraClassIds.putIfAbsent(className, value.classNames.length + extraClassIds.size());
+                }
+            }
+
+            encoder.writeSmallInt(value.classNames.length + extraClassIds.size());
+            encoder.writeSmallInt(value.classCount);
+            for (String className : value.classNames) {
+                encoder.writeString(className);
+            }
+            for (String className : extraClassIds.keySet()) {
+                encoder.writeString(className);
             }
 
-            encoder.writeSmallInt(value.dependents.size());
-            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+            int dependentsCount = 0;
+            for (byte kind : value.dependentsKinds) {
+                if (kind != NO_DEPENDENTS) {
+                    dependentsCount++;
+                }
+            }
+            encoder.writeSmallInt(dependentsCount);
+            for (int id = 0; id < value.dependentsKinds.length; id++) {
+                byte kind = value.dependentsKinds[id];
+                if (kind == NO_DEPENDENTS) {
+                    continue;
+                }
+                encoder.writeSmallInt(id);
+                encoder.writeByte(kind);
+                if (kind == DEPENDENCY_TO_ALL) {
+                    encoder.writeNullableString(value.dependencyToAllReasons.get(id));
+                } else {
+                    writeIds(encoder, value.privateDependents[id]);
+                    writeIds(encoder, value.accessibleDependents[id]);
+                }
             }
 
             encoder.writeSmallInt(value.classesToConstants.size());
             for (Map.Entry<String, IntSet> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
+                int id = classIds.getInt(entry.getKey());
+                encoder.writeSmallInt(id >= 0 ? id : extraClassIds.get(entry.getKey()));
                 IntSetSerializer.INSTANCE.write(encoder, entry.getValue());
             }
             encoder.writeNullableString(value.fullRebuildCause);
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            byte b = decoder.readByte();
-            if (b == 1) {
-                return DependentsSet.dependencyToAll(decoder.readNullableString());
-            }
-
-            ImmutableSet.Builder<String> privateBuilder = ImmutableSet.builder();
+        private static int[] readIds(Decoder decoder) throws IOException {
             int count = decoder.readSmallInt();
-            for (int i = 0; i < count; i++) {
-                privateBuilder.add(readClassName(decoder, classNameMap));
+            if (count == 0) {
+                return NO_CLASSES;
             }
-
-            ImmutableSet.Builder<String> accessibleBuilder = ImmutableSet.builder();
-            count = decoder.readSmallInt();
+            int[] ids = new int[count];
             for (int i = 0; i < count; i++) {
-                accessibleBuilder.add(readClassName(decoder, classNameMap));
+                ids[i] = decoder.readSmallInt();
             }
-
-            return DependentsSet.dependentClasses(privateBuilder.build(), accessibleBuilder.build());
+            return ids;
         }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
-            if (dependentsSet.isDependencyToAll()) {
-                encoder.writeByte((byte) 1);
-                encoder.writeNullableString(dependentsSet.getDescription());
-            } else {
-                encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getPrivateDependentClasses().size());
-                for (String className : dependentsSet.getPrivateDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
-                encoder.writeSmallInt(dependentsSet.getAccessibleDependentClasses().size());
-                for (String className : dependentsSet.getAccessibleDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
-            }
-        }
-
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = interner.intern(decoder.readString());
-                classNameMap.put(id, className);
-                return className;
-            }
-            return classNameMap.get(id);
-        }
-
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
+        private static void writeIds(Encoder encoder, int[] ids) throws IOException {
+            encoder.writeSmallInt(ids.length);
+            for (int id : ids) {
                 encoder.writeSmallInt(id);
             }
         }
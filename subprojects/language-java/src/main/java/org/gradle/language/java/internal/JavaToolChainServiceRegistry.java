@@ -20,7 +20,10 @@
 import org.gradle.api.internal.tasks.CurrentJvmJavaToolChain;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.JdkJavaCompiler;
 import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -34,11 +37,32 @@
 import org.gradle.workers.internal.WorkerDaemonFactory;
 
 public class JavaToolChainServiceRegistry extends AbstractPluginServiceRegistry {
+    @Override
+    public void registerBuildSessionServices(ServiceRegistration registration) {
+        registration.addProvider(new BuildSessionScopeCompileServices());
+    }
+
     @Override
     public void registerProjectServices(ServiceRegistration registration) {
         registration.addProvider(new ProjectScopeCompileServices());
     }
 
+    private static class BuildSessionScopeCompileServices {
+        void configure(ListenerManager listenerManager) {
+            // Reused file managers of in-process compilations keep jars open, so don't keep them beyond the session
+            listenerManager.addListener(new SessionLifecycleListener() {
+                @Override
+                public void afterStart() {
+                }
+
+                @Override
+                public void beforeComplete() {
+                    JdkJavaCompiler.closeReusedFileManagers();
+                }
+            });
+        }
+    }
+
     private static class ProjectScopeCompileServices {
         JavaCompilerFactory createJavaCompilerFactory(WorkerDaemonFactory workerDaemonFactory, JavaForkOptionsFactory forkOptionsFactory, WorkerDirectoryProvider workerDirectoryProvider, ExecHandleFactory execHandleFactory, AnnotationProcessorDetector processorDetector, ClassPathRegistry classPathRegistry, ActionExecutionSpecFactory actionExecutionSpecFactory) {
             return new DefaultJavaCompilerFactory(workerDirectoryProvider, workerDaemonFactory, forkOptionsFactory, execHandleFactory, processorDetector, classPathRegistry, actionExecutionSpecFactory);
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.time.MockClock
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import java.nio.charset.Charset
+
+class JavaFileManagerPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider(getClass())
+
+    def compiler = Mock(JavaCompiler)
+    def jar = temp.file("lib.jar").createFile()
+    def spec = new DefaultJavaCompileSpec(compileClasspath: [jar, temp.file("classes").createDir()], modulePath: [])
+
+    def clock = new MockClock()
+
+    @Subject pool = new JavaFileManagerPool(clock)
+
+    def "reuses released file manager when jars did not change"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, null, spec)
+        pool.release(first)
+        def second = pool.acquire(compiler, null, spec)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.is(first)
+        second.fileManager.is(fileManager)
+        0 * fileManager.close()
+    }
+
+    def "reuses file manager for compilers created separately by the same factory"() {
+        def compilerFactory = new JavaHomeBasedJavaCompilerFactory([])
+        def firstCompiler = compilerFactory.create()
+        def secondCompiler = compilerFactory.create()
+
+        when:
+        def first = pool.acquire(firstCompiler, null, spec)
+        pool.release(first)
+        def second = pool.acquire(secondCompiler, null, spec)
+
+        then:
+        !secondCompiler.is(firstCompiler)
+        second.is(first)
+
+        cleanup:
+        pool.stop()
+        second?.fileManager?.close()
+    }
+
+    def "does not hand out a file manager which is in use"() {
+        when:
+        def first = pool.acquire(compiler, null, spec)
+        def second = pool.acquire(compiler, null, spec)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        !second.is(first)
+    }
+
+    def "discards file manager when a jar it opened changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, spec))
+        jar << "changed"
+        def second = pool.acquire(compiler, null, spec)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        1 * fileManager.close()
+        second.fileManager.is(newFileManager)
+    }
+
+    def "does not share file managers between charsets"() {
+        when:
+        pool.release(pool.acquire(compiler, null, spec))
+        pool.acquire(compiler, Charset.forName("UTF-16"), spec)
+
+        then:
+        2 * compiler.getStandardFileManager(_, _, _) >> Mock(StandardJavaFileManager)
+    }
+
+    def "discards file manager when a jar it opened for an earlier compilation changed"() {
+        def otherJar = temp.file("other.jar").createFile()
+        def otherSpec = new DefaultJavaCompileSpec(compileClasspath: [otherJar], modulePath: [])
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, spec))
+        jar << "changed"
+        def second = pool.acquire(compiler, null, otherSpec)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        1 * fileManager.close()
+        !second.fileManager.is(fileManager)
+    }
+
+    def "closes idle file manager when a jar it opened changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, null, spec)
+        def second = pool.acquire(compiler, null, spec)
+        pool.release(first)
+        jar << "changed"
+        pool.release(second)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        1 * fileManager.close()
+        pool.idleCount == 0
+    }
+
+    def "keeps a limited number of idle file managers"() {
+        def fileManagers = (0..JavaFileManagerPool.MAX_IDLE_FILE_MANAGERS).collect { Mock(StandardJavaFileManager) }
+
+        when:
+        def acquired = fileManagers.collect { pool.acquire(compiler, null, spec) }
+        acquired.each { pool.release(it) }
+
+        then:
+        fileManagers.size() * compiler.getStandardFileManager(null, null, null) >>> fileManagers
+        1 * fileManagers.first().close()
+        0 * fileManagers.last().close()
+        pool.idleCount == JavaFileManagerPool.MAX_IDLE_FILE_MANAGERS
+    }
+
+    def "closes file managers which are idle for too long"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, spec))
+        clock.increment(JavaFileManagerPool.MAX_IDLE_TIME_MILLIS + 1)
+        def second = pool.acquire(compiler, null, spec)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        1 * fileManager.close()
+        !second.fileManager.is(fileManager)
+    }
+
+    def "closes all idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, spec))
+        pool.stop()
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+        pool.idleCount == 0
+    }
+}
@@ -25,7 +25,11 @@ class ClasspathEntrySnapshotTest extends Specification {
     def analysis = Stub(ClassSetAnalysisData)
 
     private ClasspathEntrySnapshot snapshot(Map<String, HashCode> hashes, ClassSetAnalysisData a) {
-        new ClasspathEntrySnapshot(new ClasspathEntrySnapshotData(HashCode.fromInt(0x1234), hashes, a))
+        snapshot(hashes, [:], a)
+    }
+
+    private ClasspathEntrySnapshot snapshot(Map<String, HashCode> hashes, Map<String, HashCode> abiHashes, ClassSetAnalysisData a) {
+        new ClasspathEntrySnapshot(new ClasspathEntrySnapshotData(HashCode.fromInt(0x1234), hashes, abiHashes, a))
     }
 
     private Set<String> altered(ClasspathEntrySnapshot s1, ClasspathEntrySnapshot s2) {
@@ -58,6 +62,15 @@ class ClasspathEntrySnapshotTest extends Specification {
         altered(s2, s1) == ["B", "C"] as Set
     }
 
+    def "ignores changed classes with an unchanged ABI"() {
+        ClasspathEntrySnapshot s1 = snapshot(["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb), "C": HashCode.fromInt(0xcc)], ["A": HashCode.fromInt(0xa), "B": HashCode.fromInt(0xb)], analysis)
+        ClasspathEntrySnapshot s2 = snapshot(["A": HashCode.fromInt(0xaaaa), "B": HashCode.fromInt(0xbbbb), "C": HashCode.fromInt(0xcccc)], ["A": HashCode.fromInt(0xa), "B": HashCode.fromInt(0xbbb)], analysis)
+
+        expect:
+        altered(s1, s2) == ["B", "C"] as Set
+        altered(s2, s1) == ["B", "C"] as Set
+    }
+
     def "knows added classes"() {
         ClasspathEntrySnapshot s1 = snapshot(["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb), "C": HashCode.fromInt(0xcc)], analysis)
         ClasspathEntrySnapshot s2 = snapshot(["A": HashCode.fromInt(0xaa)], analysis)
@@ -24,10 +24,14 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenc
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
 import org.gradle.internal.hash.StreamHasher
+import org.gradle.internal.normalization.java.ApiClassExtractor
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -41,6 +45,7 @@ class DefaultClasspathEntrySnapshotterTest extends Specification {
     def classDependenciesAnalyzer = Mock(ClassDependenciesAnalyzer)
     def fileOperations = Mock(FileOperations)
     @Subject snapshotter = new DefaultClasspathEntrySnapshotter(fileHasher, streamHasher, classDependenciesAnalyzer, fileOperations)
+    int entryCount
 
     def "creates snapshot for an empty entry"() {
         expect:
@@ -85,4 +90,90 @@ class DefaultClasspathEntrySnapshotterTest extends Specification {
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
         snapshot.classAnalysis
     }
+
+    def "records the same ABI hash when only a method body changes"() {
+        when:
+        def original = snapshotOf("Foo", fooClass(1, 1))
+        def changed = snapshotOf("Foo", fooClass(1, 2))
+
+        then:
+        original.hashes["Foo"] != changed.hashes["Foo"]
+        original.data.abiHashes["Foo"] == changed.data.abiHashes["Foo"]
+    }
+
+    def "records a different ABI hash when a constant changes"() {
+        when:
+        def original = snapshotOf("Foo", fooClass(1, 1))
+        def changed = snapshotOf("Foo", fooClass(2, 1))
+
+        then:
+        original.data.abiHashes["Foo"] != null
+        original.data.abiHashes["Foo"] != changed.data.abiHashes["Foo"]
+    }
+
+    def "records no ABI for private inner classes"() {
+        when:
+        def snapshot = snapshotOf('Foo$Inner', privateInnerClass())
+
+        then:
+        snapshot.data.abiHashes == ['Foo$Inner': DefaultClasspathEntrySnapshotter.NO_ABI]
+    }
+
+    def "falls back to the class hash for malformed classes"() {
+        def malformed = "not a class".bytes
+
+        when:
+        def snapshot = snapshotOf("Foo", malformed)
+
+        then:
+        snapshot.hashes == ["Foo": Hashing.hashBytes(malformed)]
+        snapshot.data.abiHashes.isEmpty()
+    }
+
+    private ClasspathEntrySnapshot snapshotOf(String className, byte[] classBytes) {
+        def classFile = temp.createFile("entry${++entryCount}/${className}.class")
+        classFile.bytes = classBytes
+        def classDetails = new DefaultFileVisitDetails(classFile, null, null)
+        def tree = Stub(ConfigurableFileTree) {
+            visit(_) >> { FileVisitor visitor -> visitor.visitFile(classDetails) }
+        }
+        def abiSnapshotter = new DefaultClasspathEntrySnapshotter(
+            Stub(FileHasher) {
+                hash(_, _, _) >> Hashing.hashBytes(classBytes)
+            },
+            streamHasher,
+            Stub(ClassDependenciesAnalyzer) {
+                getClassAnalysis(_, _) >> Stub(ClassAnalysis) {
+                    getClassName() >> className
+                }
+            },
+            Stub(FileOperations) {
+                fileTree(_) >> tree
+            },
+            new ApiClassExtractor(Collections.emptySet())
+        )
+        return abiSnapshotter.createSnapshot(HashCode.fromInt(123), classFile.parentFile)
+    }
+
+    private static byte[] fooClass(int constant, int returnedValue) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "Foo", null, "java/lang/Object", null)
+        writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "CONSTANT", "I", null, constant).visitEnd()
+        def method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "value", "()I", null, null)
+        method.visitCode()
+        method.visitLdcInsn(returnedValue)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+
+    private static byte[] privateInnerClass() {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_SUPER, 'Foo$Inner', null, "java/lang/Object", null)
+        writer.visitInnerClass('Foo$Inner', "Foo", "Inner", Opcodes.ACC_PRIVATE)
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
 }
@@ -34,28 +34,54 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
 
     def "serializes"() {
         def data = new ClassSetAnalysisData(["A", "B", "C", "D"] as Set,
-            ["A": dependentClasses(["B", "C"] as Set, [] as Set), "B": dependentClasses(["C"] as Set, [] as Set), "C": dependentClasses([] as Set, [] as Set), "D": dependencyToAll(),],
-            [C: new IntOpenHashSet([1, 2]) as IntSet, D: IntSets.EMPTY_SET]
-            ,"Because"
+            ["A": dependentClasses(["B", "C"] as Set, [] as Set), "B": dependentClasses(["C"] as Set, [] as Set), "C": dependentClasses([] as Set, [] as Set), "D": dependencyToAll(), "E": dependentClasses([] as Set, ["A"] as Set)],
+            [C: new IntOpenHashSet([1, 2]) as IntSet, D: IntSets.EMPTY_SET, F: new IntOpenHashSet([3]) as IntSet],
+            null
         )
-        def os = new ByteArrayOutputStream()
-        def e = new OutputStreamBackedEncoder(os)
 
         when:
-        serializer.write(e, data)
-        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+        ClassSetAnalysisData read = serializeAndRead(data)
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
-
-        ["A", "B", "C"].each {
-            assert read.dependents[it].privateDependentClasses == data.dependents[it].privateDependentClasses
-            assert read.dependents[it].accessibleDependentClasses == data.dependents[it].accessibleDependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+        ["A", "B", "C", "E", "F"].each {
+            assert read.getDependents(it).privateDependentClasses == data.getDependents(it).privateDependentClasses
+            assert read.getDependents(it).accessibleDependentClasses == data.getDependents(it).accessibleDependentClasses
+            assert read.getDependents(it).dependencyToAll == data.getDependents(it).dependencyToAll
         }
 
-        read.dependents["D"].dependencyToAll
-        read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
-        read.fullRebuildCause == "Because"
+        read.getDependents("D").dependencyToAll
+        read.getConstants("C") == [1, 2] as Set
+        read.getConstants("D") == [] as Set
+        read.getConstants("F") == [3] as Set
+    }
+
+    def "serializes full rebuild cause"() {
+        def data = new ClassSetAnalysisData(["A"] as Set, [:], [:], "Because")
+
+        when:
+        ClassSetAnalysisData read = serializeAndRead(data)
+
+        then:
+        read.getDependents("A").dependencyToAll
+        read.getDependents("A").description == "Because"
+    }
+
+    def "finds the classes of a package after serialization"() {
+        def data = new ClassSetAnalysisData(["a.A", "a.B", "a.b.C", "D"] as Set, ["a.b.C": dependentClasses([] as Set, ["a.A"] as Set)], [:], null)
+
+        when:
+        ClassSetAnalysisData read = serializeAndRead(data)
+
+        then:
+        read.getDependents("a.package-info").accessibleDependentClasses == ["a.A", "a.B"] as Set
+        read.getDependents("a.b.package-info").accessibleDependentClasses == ["a.b.C"] as Set
+        read.getDependents("package-info").accessibleDependentClasses == ["D"] as Set
+        read.getDependents("c.package-info").accessibleDependentClasses.empty
+    }
+
+    private ClassSetAnalysisData serializeAndRead(ClassSetAnalysisData data) {
+        def os = new ByteArrayOutputStream()
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
     }
 }
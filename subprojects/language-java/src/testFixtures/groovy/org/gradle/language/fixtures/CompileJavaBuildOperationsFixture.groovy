@@ -35,4 +35,8 @@ class CompileJavaBuildOperationsFixture {
             operations.parentsOf(it).contains(operations.only(ExecuteTaskBuildOperationType) { it.details.taskPath == taskPath })
         }
     }
+
+    Long classpathSnapshotTimeInMillis(String taskPath) {
+        getAt(taskPath).result.classpathSnapshotTimeInMillis as Long
+    }
 }
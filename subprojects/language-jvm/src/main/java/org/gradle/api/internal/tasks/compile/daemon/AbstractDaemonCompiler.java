@@ -15,7 +15,9 @@
  */
 package org.gradle.api.internal.tasks.compile.daemon;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import org.gradle.api.internal.tasks.compile.JvmLanguageCompileSpec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.BaseForkOptions;
 import org.gradle.internal.Cast;
@@ -36,8 +38,11 @@
 import org.gradle.workers.internal.ProvidesWorkResult;
 import org.gradle.workers.internal.WorkerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.File;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Set;
 
 import static org.gradle.process.internal.util.MergeOptionsUtil.mergeHeapSize;
@@ -72,12 +77,24 @@ private IsolatedClassLoaderWorkerRequirement getWorkerRequirement(IsolationMode
             case CLASSLOADER:
                 return new IsolatedClassLoaderWorkerRequirement(daemonForkOptions.getJavaForkOptions().getWorkingDir(), daemonForkOptions.getClassLoaderStructure());
             case PROCESS:
-                return new ForkedWorkerRequirement(daemonForkOptions.getJavaForkOptions().getWorkingDir(), daemonForkOptions);
+                return new ForkedWorkerRequirement(daemonForkOptions.getJavaForkOptions().getWorkingDir(), daemonForkOptions, getAffinityKey(spec));
             default:
                 throw new IllegalArgumentException("Received worker with unsupported isolation mode: " + isolationMode);
         }
     }
 
+    /**
+     * Compilations against the same classpath are best run by the daemon which last compiled against it, as its caches for that classpath are warm.
+     */
+    @Nullable
+    private static Object getAffinityKey(CompileSpec spec) {
+        if (spec instanceof JvmLanguageCompileSpec) {
+            List<File> classpath = ((JvmLanguageCompileSpec) spec).getCompileClasspath();
+            return classpath == null ? null : ImmutableList.copyOf(classpath);
+        }
+        return null;
+    }
+
     protected abstract DaemonForkOptions toDaemonForkOptions(T spec);
 
     protected abstract CompilerParameters getCompilerParameters(T spec);
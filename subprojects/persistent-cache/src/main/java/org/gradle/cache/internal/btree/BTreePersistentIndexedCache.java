@@ -54,21 +54,35 @@
     private final Serializer<V> serializer;
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
+    private final boolean readOnly;
     private final StateCheckBlockStore store;
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
-        this(cacheFile, keySerializer, valueSerializer, (short) 512, 512);
+        this(cacheFile, keySerializer, valueSerializer, false);
+    }
+
+    /**
+     * Creates a cache which, when read-only, never modifies the cache file. A corrupt read-only cache fails instead of being discarded.
+     */
+    public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer, boolean readOnly) {
+        this(cacheFile, keySerializer, valueSerializer, (short) 512, 512, readOnly);
     }
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries, false);
+    }
+
+    public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                       short maxChildIndexEntries, int maxFreeListEntries, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
         this.keyHasher = new KeyHasher<K>(keySerializer);
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
+        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile, readOnly), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
         this.store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
@@ -139,6 +153,7 @@ public V get(K key) {
     }
 
     public void put(K key, V value) {
+        assertWritable();
         try {
             long hashCode = keyHasher.getHashCode(key);
             Lookup lookup = header.getRoot().find(hashCode);
@@ -164,6 +179,7 @@ public void put(K key, V value) {
     }
 
     public void remove(K key) {
+        assertWritable();
         try {
             Lookup lookup = header.getRoot().find(key);
             if (lookup.entry == null) {
@@ -208,7 +224,16 @@ public boolean isOpen() {
         return store.isOpen();
     }
 
+    private void assertWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(String.format("Cannot modify read-only %s.", this));
+        }
+    }
+
     private void rebuild() {
+        if (readOnly) {
+            throw new CorruptedCacheException(String.format("Read-only %s is corrupt.", this));
+        }
         LOGGER.warn("{} is corrupt. Discarding.", this);
         try {
             clear();
@@ -291,6 +316,7 @@ private void verifyTree(IndexBlock current, String prefix, Collection<BlockPaylo
     }
 
     public void clear() {
+        assertWritable();
         store.clear();
         close();
         try {
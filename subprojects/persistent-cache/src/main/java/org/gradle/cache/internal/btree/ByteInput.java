@@ -24,6 +24,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 /**
  * Allows a stream of bytes to be read from a particular location of some backing byte stream.
@@ -31,20 +32,38 @@
 class ByteInput {
     private final RandomAccessFile file;
     private final ResettableBufferedInputStream bufferedInputStream;
+    private final ByteBufferInputStream mappedInputStream;
     private CountingInputStream countingInputStream;
 
     public ByteInput(RandomAccessFile file) {
         this.file = file;
         bufferedInputStream = new ResettableBufferedInputStream(new RandomAccessFileInputStream(file));
+        mappedInputStream = null;
+    }
+
+    /**
+     * Reads from the given memory mapped content of the backing file, without any system calls.
+     */
+    public ByteInput(ByteBuffer mapped) {
+        this.file = null;
+        bufferedInputStream = null;
+        mappedInputStream = new ByteBufferInputStream(mapped);
     }
 
     /**
      * Starts reading from the given offset.
      */
     public DataInputStream start(long offset) throws IOException {
-        file.seek(offset);
-        bufferedInputStream.clear();
-        countingInputStream = new CountingInputStream(bufferedInputStream);
+        InputStream inputStream;
+        if (mappedInputStream != null) {
+            mappedInputStream.seek(offset);
+            inputStream = mappedInputStream;
+        } else {
+            file.seek(offset);
+            bufferedInputStream.clear();
+            inputStream = bufferedInputStream;
+        }
+        countingInputStream = new CountingInputStream(inputStream);
         return new DataInputStream(countingInputStream);
     }
 
@@ -72,4 +91,47 @@ void clear() {
             pos = 0;
         }
     }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void seek(long offset) {
+            // Positions beyond the end are valid, and read as the end of the stream
+            buffer.position((int) Math.min(offset, buffer.limit()));
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
@@ -23,18 +23,30 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class FileBackedBlockStore implements BlockStore {
     private final File cacheFile;
+    private final boolean readOnly;
     private RandomAccessFile file;
     private ByteOutput output;
     private ByteInput input;
+    private MappedByteBuffer mapped;
     private long nextBlock;
     private Factory factory;
     private long currentFileSize;
 
     public FileBackedBlockStore(File cacheFile) {
+        this(cacheFile, false);
+    }
+
+    /**
+     * Creates a store that never modifies the given file when read-only. The content of a read-only store is memory mapped until the store is closed.
+     */
+    public FileBackedBlockStore(File cacheFile, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
     }
 
     @Override
@@ -45,6 +57,10 @@ public String toString() {
     @Override
     public void open(Runnable runnable, Factory factory) {
         this.factory = factory;
+        if (readOnly) {
+            openReadOnly();
+            return;
+        }
         try {
             cacheFile.getParentFile().mkdirs();
             file = openRandomAccessFile();
@@ -60,6 +76,25 @@ public void open(Runnable runnable, Factory factory) {
         }
     }
 
+    private void openReadOnly() {
+        try {
+            file = randomAccessFile("r");
+            currentFileSize = file.length();
+            nextBlock = currentFileSize;
+            if (currentFileSize == 0) {
+                throw new CorruptedCacheException(String.format("Empty %s cannot be initialized, as it is read-only.", this));
+            }
+            if (currentFileSize <= Integer.MAX_VALUE) {
+                mapped = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, currentFileSize);
+                input = new ByteInput(mapped);
+            } else {
+                input = new ByteInput(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private RandomAccessFile openRandomAccessFile() throws FileNotFoundException {
         try {
             return randomAccessFile("rw");
@@ -74,6 +109,13 @@ private RandomAccessFile randomAccessFile(String mode) throws FileNotFoundExcept
 
     @Override
     public void close() {
+        if (mapped != null) {
+            // Drop all references first, so nothing reads the buffer once it is unmapped
+            MappedByteBuffer buffer = mapped;
+            mapped = null;
+            input = null;
+            MappedBuffers.unmap(buffer);
+        }
         try {
             file.close();
         } catch (IOException e) {
@@ -83,6 +125,7 @@ public void close() {
 
     @Override
     public void clear() {
+        assertWritable();
         try {
             file.setLength(0);
             currentFileSize = 0;
@@ -131,6 +174,7 @@ public <T extends BlockPayload> T read(BlockPointer pos, Class<T> payloadType) {
 
     @Override
     public void write(BlockPayload block) {
+        assertWritable();
         BlockImpl blockImpl = (BlockImpl) block.getBlock();
         try {
             blockImpl.write();
@@ -141,6 +185,12 @@ public void write(BlockPayload block) {
         }
     }
 
+    private void assertWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(String.format("Cannot modify read-only %s.", this));
+        }
+    }
+
     private long alloc(long length) {
         long pos = nextBlock;
         nextBlock += length;
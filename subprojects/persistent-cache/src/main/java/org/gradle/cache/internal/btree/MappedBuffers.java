@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases memory mappings eagerly. A mapping otherwise lives until its buffer is garbage collected, and on Windows
+ * the mapped file cannot be deleted or replaced while it does.
+ *
+ * <p>A buffer must not be accessed after it was unmapped, as that crashes the JVM.</p>
+ */
+class MappedBuffers {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedBuffers.class);
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * Unmaps the given buffer. When the running JVM provides no way to do so, the mapping is left to the garbage collector.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        try {
+            if (!unmapWithUnsafe(buffer)) {
+                unmapWithCleaner(buffer);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not unmap buffer, leaving it to the garbage collector.", e);
+        }
+    }
+
+    /**
+     * Java 9 and later.
+     */
+    private static boolean unmapWithUnsafe(MappedByteBuffer buffer) throws Exception {
+        Class<?> unsafeType = Class.forName("sun.misc.Unsafe");
+        Method invokeCleaner;
+        try {
+            invokeCleaner = unsafeType.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        Field theUnsafe = unsafeType.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        return true;
+    }
+
+    /**
+     * Java 8.
+     */
+    private static void unmapWithCleaner(MappedByteBuffer buffer) throws Exception {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+            Method clean = cleaner.getClass().getMethod("clean");
+            clean.setAccessible(true);
+            clean.invoke(cleaner);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.cache.internal.btree;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.serialize.DefaultSerializer;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.test.fixtures.file.TestFile;
@@ -39,6 +40,7 @@
 import static org.junit.Assert.assertNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class BTreePersistentIndexedCacheTest {
     @Rule
@@ -388,6 +390,74 @@ public void handlesKeysWithSameHashCode() {
         cache.close();
     }
 
+    @Test
+    public void readOnlyCacheReadsEntriesWithoutModifyingFile() {
+        createCache();
+        checkAdds(3, 2, 11, 5, 7, 1, 10, 8, 9, 4, 6, 0);
+        cache.close();
+        long length = cacheFile.length();
+        long lastModified = cacheFile.lastModified();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, (short) 4, 100, true);
+        for (int i = 0; i < 12; i++) {
+            assertThat(readOnlyCache.get(String.format("key_%d", i)), equalTo(i));
+        }
+        assertNull(readOnlyCache.get("unknown"));
+        readOnlyCache.verify();
+        readOnlyCache.close();
+
+        assertThat(cacheFile.length(), equalTo(length));
+        assertThat(cacheFile.lastModified(), equalTo(lastModified));
+    }
+
+    @Test
+    public void readOnlyCacheCannotBeModified() {
+        createCache();
+        checkAdds(1, 2, 3);
+        cache.close();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, (short) 4, 100, true);
+        try {
+            readOnlyCache.put("key_4", 4);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertNull(readOnlyCache.get("key_4"));
+        readOnlyCache.close();
+    }
+
+    @Test
+    public void readOnlyCacheReleasesFileOnClose() {
+        createCache();
+        checkAdds(1, 2, 3);
+        cache.close();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, (short) 4, 100, true);
+        assertThat(readOnlyCache.get("key_1"), equalTo(1));
+        readOnlyCache.close();
+
+        assertTrue(cacheFile.delete());
+        createCache();
+        checkAdds(4, 5);
+        cache.close();
+    }
+
+    @Test
+    public void readOnlyCacheFailsInsteadOfDiscardingBadlyFormedFile() {
+        cacheFile.createNewFile();
+        cacheFile.write("some junk");
+
+        try {
+            new BTreePersistentIndexedCache<String, Integer>(cacheFile, stringSerializer, integerSerializer, true);
+            fail();
+        } catch (UncheckedIOException e) {
+            assertThat(e.getCause(), instanceOf(CorruptedCacheException.class));
+        }
+
+        assertThat(cacheFile.getText(), equalTo("some junk"));
+    }
+
     private void checkAdds(Integer... values) {
         checkAdds(Arrays.asList(values));
     }
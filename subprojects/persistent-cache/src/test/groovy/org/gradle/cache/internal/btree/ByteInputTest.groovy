@@ -20,6 +20,8 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.nio.channels.FileChannel
+
 class ByteInputTest extends Specification {
     @Rule
     TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
@@ -65,4 +67,36 @@ class ByteInputTest extends Specification {
         then:
         EOFException e = thrown()
     }
+
+    def "can read from multiple locations in memory mapped file"() {
+        given:
+        file.seek(0)
+        file.writeInt(123)
+        file.writeInt(321)
+        file.writeInt(456)
+        def mapped = new ByteInput(file.channel.map(FileChannel.MapMode.READ_ONLY, 0, file.length()))
+
+        expect:
+        def stream = mapped.start(4)
+        stream.readInt() == 321
+        stream.readInt() == 456
+        mapped.getBytesRead() == 8
+        mapped.done()
+
+        def stream2 = mapped.start(0)
+        stream2.readInt() == 123
+        mapped.done()
+    }
+
+    def "cannot read beyond end of memory mapped file"() {
+        given:
+        file.writeInt(123)
+        def mapped = new ByteInput(file.channel.map(FileChannel.MapMode.READ_ONLY, 0, file.length()))
+
+        when:
+        mapped.start(123).readInt()
+
+        then:
+        EOFException e = thrown()
+    }
 }
@@ -18,7 +18,9 @@
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.StatusLine;
+import org.apache.http.client.entity.DecompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.utils.HttpClientUtils;
 
@@ -78,6 +80,22 @@ boolean wasSuccessful() {
         return statusCode >= 200 && statusCode < 400;
     }
 
+    boolean wasNotModified() {
+        return getStatusLine().getStatusCode() == 304;
+    }
+
+    /**
+     * Returns true when the server sent the content with a content coding, such as gzip. The content read from such a response is not the sequence of bytes the server sent.
+     */
+    boolean hasContentEncoding() {
+        // The client removes the Content-Encoding header when it decodes the content itself
+        return httpResponse.getEntity() instanceof DecompressingEntity || getHeader(HttpHeaders.CONTENT_ENCODING) != null;
+    }
+
+    boolean wasPartialContent() {
+        return getStatusLine().getStatusCode() == 206;
+    }
+
     boolean wasMissing() {
         int statusCode = getStatusLine().getStatusCode();
         return statusCode == 404;
@@ -48,6 +48,25 @@ public HttpResponseResource openResource(final URI uri, boolean revalidate) {
         return null;
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public HttpResponseResource openResourceIfModified(URI uri, ExternalResourceMetaData cached) {
+        String location = uri.toString();
+        LOGGER.debug("Revalidating external resource: {}", location);
+
+        HttpClientResponse response = http.performConditionalGet(location, cached.getEtag(), cached.getLastModified());
+        if (response != null) {
+            return wrapResponse(uri, response);
+        }
+
+        return null;
+    }
+
     /**
      * Same as #getResource except that it always gives access to the response body,
      * irrespective of the returned HTTP status code. Never returns {@code null}.
@@ -78,7 +97,7 @@ public ExternalResourceMetaData getMetaData(URI uri, boolean revalidate) {
     }
 
     private HttpResponseResource wrapResponse(URI uri, HttpClientResponse response) {
-        return new HttpResponseResource("GET", uri, response);
+        return new HttpResponseResource("GET", uri, response, http);
     }
 
 }
@@ -24,6 +24,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -35,12 +36,22 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
     private final URI source;
     private final HttpClientResponse response;
     private final ExternalResourceMetaData metaData;
+    private final HttpClientHelper resumeWith;
+    private InputStream content;
     private boolean wasOpened;
 
     public HttpResponseResource(String method, URI source, HttpClientResponse response) {
+        this(method, source, response, null);
+    }
+
+    /**
+     * Creates a resource whose content resumes interrupted transfers using the given client, when the response allows it.
+     */
+    HttpResponseResource(String method, URI source, HttpClientResponse response, @Nullable HttpClientHelper resumeWith) {
         this.method = method;
         this.source = source;
         this.response = response;
+        this.resumeWith = resumeWith;
 
         String etag = getEtag(response);
         this.metaData = new DefaultExternalResourceMetaData(source, getLastModified(), getContentLength(), getContentType(), etag, getSha1(response, etag));
@@ -60,6 +71,11 @@ public ExternalResourceMetaData getMetaData() {
         return metaData;
     }
 
+    @Override
+    public boolean isUnmodified() {
+        return response.wasNotModified();
+    }
+
     public int getStatusCode() {
         return response.getStatusLine().getStatusCode();
     }
@@ -108,11 +124,18 @@ public InputStream openStream() throws IOException {
         }
         LOGGER.debug("Attempting to download resource {}.", source);
         this.wasOpened = true;
+        if (resumeWith != null) {
+            content = ResumableHttpContentStream.of(resumeWith, source, response);
+            return content;
+        }
         return response.getContent();
     }
 
     @Override
     public void close() {
+        if (content instanceof ResumableHttpContentStream) {
+            ((ResumableHttpContentStream) content).releaseResumedResponse();
+        }
         response.close();
     }
 
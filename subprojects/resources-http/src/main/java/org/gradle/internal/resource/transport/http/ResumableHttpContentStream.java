@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.HttpHeaders;
+import org.gradle.internal.IoActions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * The content of a GET response, which continues an interrupted transfer with a ranged request for the remaining bytes instead of failing.
+ *
+ * A transfer is only resumed when the server identifies the content with a validator, so the remaining bytes are guaranteed to belong to the same content.
+ * Content sent with a content coding, such as gzip, is not resumed: a range applies to the encoded bytes, whereas only the decoded bytes are counted.
+ */
+class ResumableHttpContentStream extends InputStream {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumableHttpContentStream.class);
+    static final int MAX_RESUME_ATTEMPTS = 3;
+
+    private final HttpClientHelper http;
+    private final URI source;
+    private final String validator;
+    private InputStream content;
+    private HttpClientResponse resumedResponse;
+    private long position;
+    private int attempts;
+
+    private ResumableHttpContentStream(HttpClientHelper http, URI source, String validator, InputStream content) {
+        this.http = http;
+        this.source = source;
+        this.validator = validator;
+        this.content = content;
+    }
+
+    /**
+     * Returns the content of the given response, which is resumable when the response allows it.
+     */
+    static InputStream of(HttpClientHelper http, URI source, HttpClientResponse response) throws IOException {
+        InputStream content = response.getContent();
+        String validator = rangeValidatorFor(response);
+        if (validator == null || !"bytes".equals(response.getHeader(HttpHeaders.ACCEPT_RANGES)) || response.hasContentEncoding()) {
+            return content;
+        }
+        return new ResumableHttpContentStream(http, source, validator, content);
+    }
+
+    @Nullable
+    private static String rangeValidatorFor(HttpClientResponse response) {
+        if (response.getStatusLine().getStatusCode() != 200) {
+            return null;
+        }
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null) {
+            // Weak entity tags do not identify the exact bytes, and cannot be used for a ranged request
+            return etag.startsWith("W/") ? null : etag;
+        }
+        return response.getHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            try {
+                int b = content.read();
+                if (b >= 0) {
+                    position++;
+                }
+                return b;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int count = content.read(buffer, offset, length);
+                if (count > 0) {
+                    position += count;
+                }
+                return count;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    private void resume(IOException failure) throws IOException {
+        if (attempts >= MAX_RESUME_ATTEMPTS) {
+            throw failure;
+        }
+        attempts++;
+        LOGGER.info("Transfer of {} was interrupted after {} bytes, resuming. ({})", source, position, failure.getMessage());
+        IoActions.closeQuietly(content);
+        releaseResumedResponse();
+
+        HttpClientResponse response;
+        try {
+            response = http.performRangedGet(source.toString(), position, validator);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+            throw failure;
+        }
+        if (response == null || !response.wasPartialContent() || !startsAt(response, position) || response.hasContentEncoding()) {
+            // The content changed, the server ignored the range or encoded the remaining bytes, so what was read so far cannot be continued
+            if (response != null) {
+                response.close();
+            }
+            throw failure;
+        }
+        resumedResponse = response;
+        content = response.getContent();
+    }
+
+    private static boolean startsAt(HttpClientResponse response, long position) {
+        String contentRange = response.getHeader(HttpHeaders.CONTENT_RANGE);
+        return contentRange != null && contentRange.startsWith("bytes " + position + "-");
+    }
+
+    /**
+     * Releases the connection of the latest ranged request. The original response is owned by the caller.
+     */
+    void releaseResumedResponse() {
+        if (resumedResponse != null) {
+            resumedResponse.close();
+            resumedResponse = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            content.close();
+        } finally {
+            releaseResumedResponse();
+        }
+    }
+}
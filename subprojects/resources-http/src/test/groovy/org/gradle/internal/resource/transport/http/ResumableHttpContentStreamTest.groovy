@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpEntity
+import org.apache.http.HttpHeaders
+import org.apache.http.ProtocolVersion
+import org.apache.http.client.entity.GzipDecompressingEntity
+import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.message.BasicHeader
+import org.apache.http.message.BasicStatusLine
+import spock.lang.Specification
+
+import java.util.zip.GZIPOutputStream
+
+class ResumableHttpContentStreamTest extends Specification {
+    def uri = new URI("http://somewhere/thing.jar")
+    def http = Mock(HttpClientHelper)
+    def validators = [(HttpHeaders.ETAG): '"abc"', (HttpHeaders.ACCEPT_RANGES): "bytes"]
+
+    def "resumes an interrupted transfer with a ranged request"() {
+        def original = response(200, validators, interruptedAfter("hel"))
+        def resumed = response(206, [(HttpHeaders.CONTENT_RANGE): "bytes 3-4/5"], new ByteArrayInputStream("lo".bytes))
+
+        when:
+        def content = ResumableHttpContentStream.of(http, uri, original)
+
+        then:
+        content.text == "hello"
+
+        and:
+        1 * http.performRangedGet(uri.toString(), 3, '"abc"') >> resumed
+        0 * http._
+    }
+
+    def "uses last modified date to resume when there is no strong etag"() {
+        def original = response(200, [(HttpHeaders.ETAG): 'W/"abc"', (HttpHeaders.LAST_MODIFIED): "Wed, 21 Oct 2015 07:28:00 GMT", (HttpHeaders.ACCEPT_RANGES): "bytes"], interruptedAfter("hel"))
+        def resumed = response(206, [(HttpHeaders.CONTENT_RANGE): "bytes 3-4/5"], new ByteArrayInputStream("lo".bytes))
+
+        when:
+        def content = ResumableHttpContentStream.of(http, uri, original)
+
+        then:
+        content.text == "hello"
+
+        and:
+        1 * http.performRangedGet(uri.toString(), 3, "Wed, 21 Oct 2015 07:28:00 GMT") >> resumed
+    }
+
+    def "fails when the server sends the complete content instead of the remaining range"() {
+        def original = response(200, validators, interruptedAfter("hel"))
+        def replaced = Mock(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), 200, "")
+        }
+
+        when:
+        ResumableHttpContentStream.of(http, uri, original).text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+
+        and:
+        1 * http.performRangedGet(uri.toString(), 3, '"abc"') >> new HttpClientResponse("GET", uri, replaced)
+        1 * replaced.close()
+    }
+
+    def "fails when the server encodes the remaining range"() {
+        def original = response(200, validators, interruptedAfter("hel"))
+        def encoded = Mock(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), 206, "")
+            getFirstHeader(HttpHeaders.CONTENT_RANGE) >> new BasicHeader(HttpHeaders.CONTENT_RANGE, "bytes 3-4/5")
+            getFirstHeader(HttpHeaders.CONTENT_ENCODING) >> new BasicHeader(HttpHeaders.CONTENT_ENCODING, "gzip")
+        }
+
+        when:
+        ResumableHttpContentStream.of(http, uri, original).text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+
+        and:
+        1 * http.performRangedGet(uri.toString(), 3, '"abc"') >> new HttpClientResponse("GET", uri, encoded)
+        1 * encoded.close()
+    }
+
+    def "gives up after a limited number of attempts"() {
+        def original = response(200, validators, interruptedAfter("h"))
+
+        when:
+        ResumableHttpContentStream.of(http, uri, original).text
+
+        then:
+        thrown(IOException)
+
+        and:
+        ResumableHttpContentStream.MAX_RESUME_ATTEMPTS * http.performRangedGet(uri.toString(), _, '"abc"') >> { String source, long offset, String ifRange ->
+            response(206, [(HttpHeaders.CONTENT_RANGE): "bytes ${offset}-4/5".toString()], interruptedAfter("e"))
+        }
+    }
+
+    def "does not resume when the response cannot be continued"() {
+        def content = new ByteArrayInputStream("hello".bytes)
+
+        expect:
+        ResumableHttpContentStream.of(http, uri, response(200, headers, content)).is(content)
+
+        where:
+        headers << [
+            [:],
+            [(HttpHeaders.ETAG): '"abc"'],
+            [(HttpHeaders.ETAG): 'W/"abc"', (HttpHeaders.ACCEPT_RANGES): "bytes"],
+            [(HttpHeaders.ETAG): '"abc"', (HttpHeaders.ACCEPT_RANGES): "none"],
+            [(HttpHeaders.ETAG): '"abc"', (HttpHeaders.ACCEPT_RANGES): "bytes", (HttpHeaders.CONTENT_ENCODING): "gzip"]
+        ]
+    }
+
+    def "does not resume content which the client decoded"() {
+        def gzipped = new ByteArrayOutputStream()
+        new GZIPOutputStream(gzipped).withStream { it.write("hello".bytes) }
+        def httpResponse = Stub(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), 200, "")
+            getFirstHeader(_) >> { String name -> validators[name] == null ? null : new BasicHeader(name, validators[name]) }
+            getEntity() >> new GzipDecompressingEntity(new ByteArrayEntity(gzipped.toByteArray()))
+        }
+
+        when:
+        def content = ResumableHttpContentStream.of(http, uri, new HttpClientResponse("GET", uri, httpResponse))
+
+        then:
+        !(content instanceof ResumableHttpContentStream)
+        content.text == "hello"
+    }
+
+    private HttpClientResponse response(int status, Map<String, String> headers, InputStream content) {
+        def httpResponse = Stub(CloseableHttpResponse) {
+            getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), status, "")
+            getFirstHeader(_) >> { String name -> headers[name] == null ? null : new BasicHeader(name, headers[name]) }
+            getEntity() >> Stub(HttpEntity) {
+                getContent() >> content
+            }
+        }
+        return new HttpClientResponse("GET", uri, httpResponse)
+    }
+
+    private static InputStream interruptedAfter(String text) {
+        def bytes = new ByteArrayInputStream(text.bytes)
+        return new InputStream() {
+            @Override
+            int read() throws IOException {
+                int b = bytes.read()
+                if (b < 0) {
+                    throw new IOException("connection reset")
+                }
+                return b
+            }
+        }
+    }
+}
@@ -110,6 +110,19 @@ public interface ExternalResource extends Resource {
     @Nullable
     <T> ExternalResourceReadResult<T> withContentIfPresent(ContentAction<? extends T> readAction) throws ResourceException;
 
+    /**
+     * Executes the given action against the binary contents and meta-data of this resource, unless the resource has not changed
+     * since a copy with the given meta-data was read. Transports that support conditional requests only transfer the content
+     * when the resource has changed.
+     *
+     * @throws ResourceException on failure to read the content.
+     * @return null if the resource does not exist, or an {@link ExternalResourceReadResult#isUnmodified() unmodified} result, without executing the action, if the resource has not changed.
+     */
+    @Nullable
+    default <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) throws ResourceException {
+        return withContentIfPresent(readAction);
+    }
+
     /**
      * Copies the given content to this resource.
      *
@@ -23,12 +23,20 @@
  */
 public class ExternalResourceReadResult<T> {
 
+    private static final ExternalResourceReadResult<Object> UNMODIFIED = new ExternalResourceReadResult<Object>(0, null, true);
+
     private final long bytesRead;
     private final T result;
+    private final boolean unmodified;
 
     private ExternalResourceReadResult(long bytesRead, T result) {
+        this(bytesRead, result, false);
+    }
+
+    private ExternalResourceReadResult(long bytesRead, T result, boolean unmodified) {
         this.bytesRead = bytesRead;
         this.result = result;
+        this.unmodified = unmodified;
     }
 
     public static ExternalResourceReadResult<Void> of(long bytesRead) {
@@ -39,6 +47,14 @@ public static <T> ExternalResourceReadResult<T> of(long bytesRead, T t) {
         return new ExternalResourceReadResult<T>(bytesRead, t);
     }
 
+    /**
+     * The result of a conditional read of a resource that has not changed, so nothing was read.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ExternalResourceReadResult<T> unmodified() {
+        return (ExternalResourceReadResult<T>) UNMODIFIED;
+    }
+
     /**
      * The number of <b>content</b> bytes read.
      * <p>
@@ -62,4 +78,11 @@ public long getBytesRead() {
     public T getResult() {
         return result;
     }
+
+    /**
+     * Whether this is the result of a conditional read of a resource that has not changed.
+     */
+    public boolean isUnmodified() {
+        return unmodified;
+    }
 }
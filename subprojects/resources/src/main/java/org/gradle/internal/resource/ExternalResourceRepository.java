@@ -25,6 +25,11 @@ public interface ExternalResourceRepository {
      */
     ExternalResourceRepository withProgressLogging();
 
+    /**
+     * Returns true when the resources of this repository can be read conditionally, so that {@link ExternalResource#withContentIfModified} only transfers the content when the resource has changed.
+     */
+    boolean supportsConditionalRequests();
+
     /**
      * Returns the resource with the given name. Note that this method does not access the resource in any way, it simply creates an object that can. To access the resource, use the methods on the returned object.
      *
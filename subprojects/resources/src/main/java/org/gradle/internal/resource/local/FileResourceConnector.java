@@ -36,6 +36,11 @@ public ExternalResourceRepository withProgressLogging() {
         return this;
     }
 
+    @Override
+    public boolean supportsConditionalRequests() {
+        return false;
+    }
+
     @Override
     public LocalBinaryResource localResource(File file) {
         return new LocalFileStandInExternalResource(file, fileSystem);
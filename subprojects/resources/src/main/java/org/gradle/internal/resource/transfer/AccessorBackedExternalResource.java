@@ -28,6 +28,7 @@
 import org.gradle.internal.resource.ReadableContent;
 import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 
 import javax.annotation.Nullable;
 import java.io.BufferedInputStream;
@@ -147,6 +148,34 @@ public <T> ExternalResourceReadResult<T> withContentIfPresent(ContentAction<? ex
         }
     }
 
+    @Nullable
+    @Override
+    public <T> ExternalResourceReadResult<T> withContentIfModified(ExternalResourceMetaData cached, ContentAction<? extends T> readAction) throws ResourceException {
+        try {
+            ExternalResourceReadResponse response = accessor.openResourceIfModified(name.getUri(), cached);
+            if (response == null) {
+                return null;
+            }
+            try {
+                // Servers that ignore conditional requests send the content anyway, skip it when the meta-data shows it is unchanged
+                if (response.isUnmodified() || ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, response::getMetaData)) {
+                    return ExternalResourceReadResult.unmodified();
+                }
+                CountingInputStream stream = new CountingInputStream(new BufferedInputStream(response.openStream()));
+                try {
+                    T value = readAction.execute(stream, response.getMetaData());
+                    return ExternalResourceReadResult.of(stream.getCount(), value);
+                } finally {
+                    stream.close();
+                }
+            } finally {
+                response.close();
+            }
+        } catch (IOException e) {
+            throw ResourceExceptions.getFailed(name.getUri(), e);
+        }
+    }
+
     @Override
     public ExternalResourceReadResult<Void> withContent(Action<? super InputStream> readAction) throws ResourceException {
         try {
@@ -40,6 +40,28 @@ public interface ExternalResourceAccessor {
     @Nullable
     ExternalResourceReadResponse openResource(URI location, boolean revalidate) throws ResourceException;
 
+    /**
+     * Returns true when {@link #openResourceIfModified(URI, ExternalResourceMetaData)} sends a conditional request, so that the content is only transferred when the resource has changed.
+     */
+    default boolean supportsConditionalRequests() {
+        return false;
+    }
+
+    /**
+     * Read the resource at the given location, unless it has not changed since a copy with the given meta-data was read.
+     *
+     * Implementations that {@link #supportsConditionalRequests() support conditional requests} only transfer the content when the resource has changed. By default, the resource is always read.
+     *
+     * @param location The address of the resource to obtain
+     * @param cached The meta-data of the copy read earlier
+     * @return The resource if it exists, otherwise null. When the resource has not changed, the response is {@link ExternalResourceReadResponse#isUnmodified() unmodified}. Caller is responsible for closing the result.
+     * @throws ResourceException If the resource may exist, but not could be obtained for some reason.
+     */
+    @Nullable
+    default ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException {
+        return openResource(location, true);
+    }
+
     /**
      * Obtains only the metadata about the resource.
      *
@@ -29,4 +29,11 @@ public interface ExternalResourceReadResponse extends Closeable {
     InputStream openStream() throws IOException;
 
     ExternalResourceMetaData getMetaData();
+
+    /**
+     * Returns true when this is the answer to a conditional read and the resource has not changed. Such a response has no content.
+     */
+    default boolean isUnmodified() {
+        return false;
+    }
 }
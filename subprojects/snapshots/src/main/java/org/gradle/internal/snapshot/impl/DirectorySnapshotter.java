@@ -25,6 +25,7 @@
 import org.gradle.internal.file.impl.DefaultFileMetadata;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.snapshot.CompleteDirectorySnapshot;
 import org.gradle.internal.snapshot.CompleteFileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.MerkleDirectorySnapshotBuilder;
 import org.gradle.internal.snapshot.MissingFileSnapshot;
@@ -70,9 +71,18 @@ public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner,
     }
 
     public CompleteFileSystemLocationSnapshot snapshot(String absolutePath, @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate, final AtomicBoolean hasBeenFiltered) {
+        return snapshot(absolutePath, predicate, hasBeenFiltered, UnchangedDirectories.NONE);
+    }
+
+    /**
+     * Snapshots the directory at the given path, reusing the snapshots of the unchanged directories below it instead of walking them again.
+     *
+     * Unchanged directories are only reused for unfiltered walks.
+     */
+    public CompleteFileSystemLocationSnapshot snapshot(String absolutePath, @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate, final AtomicBoolean hasBeenFiltered, UnchangedDirectories unchangedDirectories) {
         try {
             Path rootPath = Paths.get(absolutePath);
-            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector);
+            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, predicate == null ? unchangedDirectories : UnchangedDirectories.NONE, collector);
             Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
             return visitor.getResult();
         } catch (IOException e) {
@@ -80,6 +90,15 @@ public CompleteFileSystemLocationSnapshot snapshot(String absolutePath, @Nullabl
         }
     }
 
+    /**
+     * Provides the snapshots of directories which did not change since they have been snapshotted.
+     */
+    public interface UnchangedDirectories {
+        UnchangedDirectories NONE = absolutePath -> Optional.empty();
+
+        Optional<CompleteDirectorySnapshot> getSnapshot(String absolutePath);
+    }
+
     private static class SymbolicLinkMapping {
         private final String source;
         private final String target;
@@ -180,6 +199,7 @@ private static class PathVisitor extends DirectorySnapshotterStatistics.Collecti
         private final FileHasher hasher;
         private final Interner<String> stringInterner;
         private final DefaultExcludes defaultExcludes;
+        private final UnchangedDirectories unchangedDirectories;
         private final Deque<SymbolicLinkMapping> symbolicLinkMappings = new ArrayDeque<>();
         private final Deque<String> parentDirectories = new ArrayDeque<>();
 
@@ -189,6 +209,7 @@ public PathVisitor(
             FileHasher hasher,
             Interner<String> stringInterner,
             DefaultExcludes defaultExcludes,
+            UnchangedDirectories unchangedDirectories,
             DirectorySnapshotterStatistics.Collector statisticsCollector
         ) {
             super(statisticsCollector);
@@ -198,13 +219,18 @@ public PathVisitor(
             this.hasher = hasher;
             this.stringInterner = stringInterner;
             this.defaultExcludes = defaultExcludes;
+            this.unchangedDirectories = unchangedDirectories;
         }
 
         @Override
         protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attrs) {
             String fileName = getFilename(dir);
             String internedName = intern(fileName);
-            if (builder.isRoot() || shouldVisit(dir, internedName, true, builder.getRelativePath())) {
+            boolean isRoot = builder.isRoot();
+            if (isRoot || shouldVisit(dir, internedName, true, builder.getRelativePath())) {
+                if (!isRoot && visitUnchangedDirectory(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
                 builder.preVisitDirectory(intern(remapAbsolutePath(dir)), internedName);
                 parentDirectories.addFirst(dir.toString());
                 return FileVisitResult.CONTINUE;
@@ -213,6 +239,16 @@ protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attr
             }
         }
 
+        private boolean visitUnchangedDirectory(Path dir) {
+            // Snapshots are stored by the path they have been visited with, so we can only reuse them outside of symlinked directories
+            if (!symbolicLinkMappings.isEmpty()) {
+                return false;
+            }
+            Optional<CompleteDirectorySnapshot> unchangedDirectory = unchangedDirectories.getSnapshot(dir.toString());
+            unchangedDirectory.ifPresent(builder::visitFile);
+            return unchangedDirectory.isPresent();
+        }
+
         private String getFilename(Path dir) {
             return Optional.ofNullable(dir.getFileName())
                 .map(Object::toString)
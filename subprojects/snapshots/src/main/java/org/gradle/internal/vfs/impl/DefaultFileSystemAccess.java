@@ -25,6 +25,7 @@
 import org.gradle.internal.file.Stat;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.snapshot.CompleteDirectorySnapshot;
 import org.gradle.internal.snapshot.CompleteFileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 import org.gradle.internal.snapshot.MissingFileSnapshot;
@@ -157,7 +158,7 @@ private CompleteFileSystemLocationSnapshot snapshot(String location, Snapshottin
                 return missingFileSnapshot;
             case Directory:
                 AtomicBoolean hasBeenFiltered = new AtomicBoolean(false);
-                CompleteFileSystemLocationSnapshot directorySnapshot = directorySnapshotter.snapshot(location, filter.isEmpty() ? null : filter.getAsDirectoryWalkerPredicate(), hasBeenFiltered);
+                CompleteFileSystemLocationSnapshot directorySnapshot = directorySnapshotter.snapshot(location, filter.isEmpty() ? null : filter.getAsDirectoryWalkerPredicate(), hasBeenFiltered, this::getUnchangedDirectory);
                 if (!hasBeenFiltered.get()) {
                     virtualFileSystem.store(directorySnapshot.getAbsolutePath(), directorySnapshot);
                 }
@@ -167,6 +168,16 @@ private CompleteFileSystemLocationSnapshot snapshot(String location, Snapshottin
         }
     }
 
+    /**
+     * Directories which are still completely known to the virtual file system have not been changed since they were snapshotted,
+     * for example when only some paths of an output directory have been invalidated.
+     */
+    private Optional<CompleteDirectorySnapshot> getUnchangedDirectory(String location) {
+        return virtualFileSystem.getSnapshot(location)
+            .filter(CompleteDirectorySnapshot.class::isInstance)
+            .map(CompleteDirectorySnapshot.class::cast);
+    }
+
     private CompleteFileSystemLocationSnapshot readLocation(String location) {
         return readSnapshotFromLocation(location, () -> snapshot(location, SnapshottingFilter.EMPTY));
     }
@@ -169,6 +169,44 @@ class DirectorySnapshotterTest extends Specification {
         ] as Set
     }
 
+    def "reuses snapshots of unchanged directories"() {
+        def rootDir = tmpDir.createDir("root")
+        def changedFile = rootDir.file("changed/a.txt").createFile()
+        rootDir.file("unchanged/b.txt").createFile()
+        def unchangedDirectories = Mock(DirectorySnapshotter.UnchangedDirectories)
+        def previousSnapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, actuallyFiltered) as CompleteDirectorySnapshot
+        def unchangedSnapshot = previousSnapshot.children.find { it.name == "unchanged" } as CompleteDirectorySnapshot
+
+        when:
+        changedFile << "changed"
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, actuallyFiltered, unchangedDirectories) as CompleteDirectorySnapshot
+
+        then:
+        1 * unchangedDirectories.getSnapshot(rootDir.file("changed").absolutePath) >> Optional.empty()
+        1 * unchangedDirectories.getSnapshot(rootDir.file("unchanged").absolutePath) >> Optional.of(unchangedSnapshot)
+        0 * _
+
+        and:
+        snapshot.children*.name == ["changed", "unchanged"]
+        snapshot.children[0].hash != previousSnapshot.children[0].hash
+        snapshot.children[1].is(unchangedSnapshot)
+        snapshot.hash != previousSnapshot.hash
+    }
+
+    def "does not reuse snapshots of unchanged directories when filtering"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("unchanged/b.txt").createFile()
+        def unchangedDirectories = Mock(DirectorySnapshotter.UnchangedDirectories)
+        def patterns = new PatternSet()
+        patterns.include("**/*.txt")
+
+        when:
+        directorySnapshotter.snapshot(rootDir.absolutePath, directoryWalkerPredicate(patterns), actuallyFiltered, unchangedDirectories)
+
+        then:
+        0 * unchangedDirectories._
+    }
+
     @Requires(TestPrecondition.SYMLINKS)
     def "broken symlinks are snapshotted as missing"() {
         def rootDir = tmpDir.createDir("root")
@@ -174,6 +174,26 @@ class DefaultFileSystemAccessTest extends AbstractFileSystemAccessTest {
         assertIsFileSnapshot(snapshot, nonExistingFileInDir)
     }
 
+    def "reuses unchanged directories when reading a partially invalidated directory"() {
+        def dir = temporaryFolder.createDir("some/dir")
+        def changedFile = dir.file("changed/someFile.txt").createFile()
+        dir.file("unchanged/otherFile.txt").createFile()
+
+        when:
+        allowFileSystemAccess(true)
+        def snapshot = read(dir) as CompleteDirectorySnapshot
+        def unchangedSnapshot = snapshot.children.find { it.name == "unchanged" }
+        fileSystemAccess.write([changedFile.absolutePath]) {
+            changedFile.text = "changed"
+        }
+        def newSnapshot = read(dir) as CompleteDirectorySnapshot
+
+        then:
+        newSnapshot.children*.name == ["changed", "unchanged"]
+        newSnapshot.hash != snapshot.hash
+        newSnapshot.children.find { it.name == "unchanged" }.is(unchangedSnapshot)
+    }
+
     def "can filter parts of the filesystem"() {
         def d = temporaryFolder.createDir("d")
         d.createFile("f1")
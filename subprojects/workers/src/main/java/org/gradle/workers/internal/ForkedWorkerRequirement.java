@@ -16,17 +16,33 @@
 
 package org.gradle.workers.internal;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class ForkedWorkerRequirement extends IsolatedClassLoaderWorkerRequirement {
     private final DaemonForkOptions forkOptions;
+    private final Object affinityKey;
 
     public ForkedWorkerRequirement(File workerDirectory, DaemonForkOptions forkOptions) {
+        this(workerDirectory, forkOptions, null);
+    }
+
+    /**
+     * @param affinityKey identifies work which benefits from running in the same worker daemon as similar work did before, e.g. because of caches which are warm in that daemon.
+     * Idle daemons which last executed work with an equal key are preferred. {@code null} if there is no such preference.
+     */
+    public ForkedWorkerRequirement(File workerDirectory, DaemonForkOptions forkOptions, @Nullable Object affinityKey) {
         super(workerDirectory, forkOptions.getClassLoaderStructure());
         this.forkOptions = forkOptions;
+        this.affinityKey = affinityKey;
     }
 
     public DaemonForkOptions getForkOptions() {
         return forkOptions;
     }
+
+    @Nullable
+    public Object getAffinityKey() {
+        return affinityKey;
+    }
 }
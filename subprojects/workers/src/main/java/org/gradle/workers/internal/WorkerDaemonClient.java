@@ -22,6 +22,8 @@
 import org.gradle.process.internal.worker.MultiRequestClient;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import javax.annotation.Nullable;
+
 class WorkerDaemonClient implements Stoppable {
     public static final String DISABLE_EXPIRATION_PROPERTY_KEY = "org.gradle.workers.internal.disable-daemons-expiration";
     private final DaemonForkOptions forkOptions;
@@ -31,6 +33,7 @@ class WorkerDaemonClient implements Stoppable {
     private final ActionExecutionSpecFactory actionExecutionSpecFactory;
     private int uses;
     private boolean failed;
+    private Object affinityKey;
     private boolean cannotBeExpired = Boolean.getBoolean(DISABLE_EXPIRATION_PROPERTY_KEY);
 
     public WorkerDaemonClient(DaemonForkOptions forkOptions, MultiRequestClient<TransportableActionExecutionSpec, DefaultWorkResult> workerClient, WorkerProcess workerProcess, LogLevel logLevel, ActionExecutionSpecFactory actionExecutionSpecFactory) {
@@ -79,6 +82,20 @@ public boolean isProcess(WorkerProcess workerProcess) {
         return this.workerProcess.equals(workerProcess);
     }
 
+    /**
+     * The affinity key of the last work executed by this daemon.
+     *
+     * @see ForkedWorkerRequirement#getAffinityKey()
+     */
+    @Nullable
+    public Object getAffinityKey() {
+        return affinityKey;
+    }
+
+    public void setAffinityKey(@Nullable Object affinityKey) {
+        this.affinityKey = affinityKey;
+    }
+
     public boolean isFailed() {
         return failed;
     }
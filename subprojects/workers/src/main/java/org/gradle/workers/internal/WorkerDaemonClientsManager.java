@@ -31,14 +31,18 @@
 import org.gradle.internal.logging.events.LogLevelChangeEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.OsMemoryInfo;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static java.util.Comparator.*;
 
@@ -60,6 +64,11 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
     private volatile LogLevel currentLogLevel;
+    // Statistics for the current session, guarded by lock
+    private int daemonsStarted;
+    private long daemonStartupTimeMillis;
+    private int daemonsReused;
+    private int daemonsReusedByAffinity;
 
     public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
         this.workerDaemonStarter = workerDaemonStarter;
@@ -78,34 +87,68 @@ public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, Liste
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        return reserveIdleClientWithAffinity(forkOptions, null);
+    }
+
+    /**
+     * Reserves an idle client compatible with the given options, preferring one which last executed work with the given affinity key.
+     *
+     * @see ForkedWorkerRequirement#getAffinityKey()
+     */
+    public WorkerDaemonClient reserveIdleClientWithAffinity(DaemonForkOptions forkOptions, @Nullable Object affinityKey) {
+        return reserveIdleClientWithAffinity(forkOptions, affinityKey, idleClients);
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        return reserveIdleClientWithAffinity(forkOptions, null, clients);
+    }
+
+    WorkerDaemonClient reserveIdleClientWithAffinity(DaemonForkOptions forkOptions, @Nullable Object affinityKey, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
-                    }
+            WorkerDaemonClient client = null;
+            if (affinityKey != null) {
+                client = reserveIdleClient(forkOptions, clients, candidate -> affinityKey.equals(candidate.getAffinityKey()));
+                if (client != null) {
+                    daemonsReusedByAffinity++;
                 }
             }
-            return null;
+            if (client == null) {
+                client = reserveIdleClient(forkOptions, clients, candidate -> true);
+            }
+            if (client != null) {
+                daemonsReused++;
+            }
+            return client;
         }
     }
 
+    // Must be called while holding the lock
+    private WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients, Predicate<WorkerDaemonClient> preference) {
+        Iterator<WorkerDaemonClient> it = clients.iterator();
+        while (it.hasNext()) {
+            WorkerDaemonClient candidate = it.next();
+            if (candidate.isCompatibleWith(forkOptions) && preference.test(candidate)) {
+                it.remove();
+                if (candidate.getLogLevel() != currentLogLevel) {
+                    // TODO: Send a message to workers to change their log level rather than stopping
+                    LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
+                    candidate.stop();
+                } else {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
     public WorkerDaemonClient reserveNewClient(DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
+        Timer timer = Time.startTimer();
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(forkOptions, workerProcessCleanupAction);
         synchronized (lock) {
             allClients.add(client);
+            daemonsStarted++;
+            daemonStartupTimeMillis += timer.getElapsedMillis();
         }
         return client;
     }
@@ -180,6 +223,16 @@ private void stopWorkers(List<WorkerDaemonClient> clientsToStop) {
         }
     }
 
+    private void reportStatistics() {
+        if (daemonsStarted > 0 || daemonsReused > 0) {
+            LOGGER.info("Worker daemons: started {} in {}ms, reused {} times ({} times by affinity).", daemonsStarted, daemonStartupTimeMillis, daemonsReused, daemonsReusedByAffinity);
+        }
+        daemonsStarted = 0;
+        daemonStartupTimeMillis = 0;
+        daemonsReused = 0;
+        daemonsReusedByAffinity = 0;
+    }
+
     private class StopSessionScopedWorkers implements SessionLifecycleListener {
         @Override
         public void afterStart() { }
@@ -187,6 +240,7 @@ public void afterStart() { }
         @Override
         public void beforeComplete() {
             synchronized (lock) {
+                reportStatistics();
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, client -> client.getKeepAliveMode() == KeepAliveMode.SESSION);
                 stopWorkers(sessionScopedClients);
             }
@@ -49,11 +49,13 @@ public DefaultWorkResult execute(IsolatedParametersActionExecutionSpec<?> spec,
             }
 
             private WorkerDaemonClient reserveClient() {
-                DaemonForkOptions forkOptions = ((ForkedWorkerRequirement) workerRequirement).getForkOptions();
-                WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions);
+                ForkedWorkerRequirement forkedWorkerRequirement = (ForkedWorkerRequirement) workerRequirement;
+                DaemonForkOptions forkOptions = forkedWorkerRequirement.getForkOptions();
+                WorkerDaemonClient client = clientsManager.reserveIdleClientWithAffinity(forkOptions, forkedWorkerRequirement.getAffinityKey());
                 if (client == null) {
                     client = clientsManager.reserveNewClient(forkOptions);
                 }
+                client.setAffinityKey(forkedWorkerRequirement.getAffinityKey());
                 return client;
             }
         };
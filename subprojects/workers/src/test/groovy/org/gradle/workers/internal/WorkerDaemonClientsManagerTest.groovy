@@ -66,6 +66,18 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "prefers idle client which last executed work with the same affinity key"() {
+        def otherAffinity = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true; getAffinityKey() >> "other" }
+        def sameAffinity = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true; getAffinityKey() >> "key" }
+        def incompatible = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> false; getAffinityKey() >> "key" }
+        def input = [otherAffinity, incompatible, sameAffinity]
+
+        expect:
+        manager.reserveIdleClientWithAffinity(options, "key", input) == sameAffinity
+        manager.reserveIdleClientWithAffinity(options, "key", input) == otherAffinity
+        input == [incompatible]
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(options, _) >> newClient
@@ -185,6 +197,47 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
     }
 
+    def "records daemon startups and reuses until the end of the session"() {
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        def client1 = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getAffinityKey() >> "other"
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+        }
+        def client2 = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getAffinityKey() >> "key"
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+        }
+        starter.startDaemon(options, _) >>> [client1, client2]
+
+        when:
+        manager.reserveNewClient(options)
+        manager.reserveNewClient(options)
+        manager.release(client1)
+        manager.release(client2)
+
+        then:
+        manager.reserveIdleClientWithAffinity(options, "key") == client2
+        manager.reserveIdleClientWithAffinity(options, "key") == client1
+        manager.reserveIdleClient(options) == null
+
+        and:
+        manager.daemonsStarted == 2
+        manager.daemonsReused == 2
+        manager.daemonsReusedByAffinity == 1
+
+        when:
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        manager.daemonsStarted == 0
+        manager.daemonStartupTimeMillis == 0
+        manager.daemonsReused == 0
+        manager.daemonsReusedByAffinity == 0
+    }
+
     def "clients can be released for further use"() {
         def client = Mock(WorkerDaemonClient) {
             isCompatibleWith(_) >> true
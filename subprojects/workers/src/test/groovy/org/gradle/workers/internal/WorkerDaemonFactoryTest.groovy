@@ -53,7 +53,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * clientsManager.reserveIdleClientWithAffinity(options, null) >> null
 
         then:
         1 * clientsManager.reserveNewClient(options) >> client
@@ -71,7 +71,25 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClientWithAffinity(options, null) >> client
+
+        then:
+        1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
+        1 * client.execute(spec) >> new DefaultWorkResult(true, null)
+
+        then:
+        1 * clientsManager.release(client)
+    }
+
+    def "idle client is reserved by affinity key of requirement"() {
+        def affinityKey = ["some.jar"]
+
+        when:
+        factory.getWorker(new ForkedWorkerRequirement(workingDir, options, affinityKey)).execute(spec)
+
+        then:
+        1 * clientsManager.reserveIdleClientWithAffinity(options, affinityKey) >> client
+        1 * client.setAffinityKey(affinityKey)
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
@@ -86,7 +104,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClientWithAffinity(options, null) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -102,7 +120,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClientWithAffinity(options, null) >> client
         1 * buildOperationExecutor.call(_)
     }
 
@@ -111,7 +129,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClientWithAffinity(options, null) >> client
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 